@@ -0,0 +1,55 @@
+package com.taskmanager.config;
+
+import com.taskmanager.config.RateLimitProperties.Tier;
+import com.taskmanager.model.UserRole;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * AUTENTICACIÓN DE UNA PETICIÓN A LA API CON UN TOKEN FIRMADO (VER ApiTokenService)
+ * LLEVA LO QUE EL TOKEN DICE DEL USUARIO: ID, NOMBRE, ROL Y NIVEL DE SUSCRIPCIÓN,
+ * ASÍ LOS CONTROLADORES Y EL LIMITADOR NO TIENEN QUE BUSCARLO EN LA BD NI EN LA SESIÓN
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+public class ApiTokenAuthentication extends AbstractAuthenticationToken {
+
+    private final Long userId;
+    private final String username;
+    private final UserRole role;
+    private final Tier tier;
+
+    /**
+     * CREO LA AUTENTICACIÓN YA VERIFICADA
+     *
+     * @param userId id del usuario
+     * @param username nombre del usuario
+     * @param role rol del usuario al emitir el token
+     * @param tier nivel de suscripción al emitir el token
+     */
+    public ApiTokenAuthentication(Long userId, String username, UserRole role, Tier tier) {
+        super(List.of(new SimpleGrantedAuthority(role.getAuthority())));
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+        this.tier = tier;
+        setAuthenticated(true);
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return username;
+    }
+
+    public Long getUserId() { return userId; }
+    public UserRole getRole() { return role; }
+    public Tier getTier() { return tier; }
+}
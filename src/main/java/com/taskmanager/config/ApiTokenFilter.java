@@ -0,0 +1,72 @@
+package com.taskmanager.config;
+
+import com.taskmanager.service.ApiTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * FILTRO QUE AUTENTICA LAS PETICIONES DE LA API CON EL TOKEN DE LA CABECERA Authorization: Bearer
+ * VA EN LA CADENA SIN SESIÓN DE SecurityConfig: EL CONTEXTO DE SEGURIDAD SOLO VIVE LO QUE LA PETICIÓN
+ *
+ * SI EL TOKEN NO VALE RESPONDO 401 CON WWW-Authenticate PARA QUE EL CLIENTE PIDA OTRO
+ *
+ * NO ES UN @Component PARA QUE SPRING BOOT NO LO REGISTRE OTRA VEZ COMO FILTRO DEL SERVLET
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+public class ApiTokenFilter extends OncePerRequestFilter {
+
+    public static final String BEARER_PREFIX = "Bearer ";
+
+    private final ApiTokenService apiTokenService;
+
+    /**
+     * CREO EL FILTRO
+     *
+     * @param apiTokenService servicio que verifica los tokens
+     */
+    public ApiTokenFilter(ApiTokenService apiTokenService) {
+        this.apiTokenService = apiTokenService;
+    }
+
+    /**
+     * VERIFICO EL TOKEN Y DEJO LA AUTENTICACIÓN EN EL CONTEXTO DE LA PETICIÓN
+     *
+     * @param request petición actual
+     * @param response respuesta
+     * @param filterChain resto de la cadena
+     * @throws ServletException si falla la cadena
+     * @throws IOException si falla la escritura de la respuesta
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            try {
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(apiTokenService.verify(header.substring(BEARER_PREFIX.length()).trim()));
+                SecurityContextHolder.setContext(context);
+            } catch (AuthenticationException e) {
+                SecurityContextHolder.clearContext();
+                response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+                response.sendError(HttpStatus.UNAUTHORIZED.value(), e.getMessage());
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
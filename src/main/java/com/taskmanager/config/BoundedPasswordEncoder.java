@@ -0,0 +1,146 @@
+package com.taskmanager.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CODIFICADOR DE CONTRASEÑAS QUE HACE EL HASH EN UN POOL PROPIO Y ACOTADO
+ * BCRYPT GASTA DECENAS DE MILISEGUNDOS DE CPU POR LOGIN O CAMBIO DE CONTRASEÑA; CON EL POOL
+ * COMO MUCHO threads HILOS HASHEAN A LA VEZ Y UNA AVALANCHA DE LOGINS NO SE COME LA CPU DEL RESTO
+ * DE PÁGINAS. EL HILO DE LA PETICIÓN ESPERA EL RESULTADO SIN GASTAR CPU
+ *
+ * SI LA COLA ESTÁ LLENA O EL HASH TARDA MÁS DE timeout-ms FALLO AL MOMENTO CON
+ * AuthenticationServiceException: EL LOGIN VUELVE A /login?error Y LOS SERVICIOS LA VEN COMO RuntimeException
+ *
+ * MÉTRICAS: executor.* CON name=bcrypt (COLA, HILOS ACTIVOS, TIEMPOS) Y taskmanager.password.rejected
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ExecutorService executor;
+    private final ThreadPoolExecutor pool;
+    private final long timeoutMs;
+    private final Counter rejectedCounter;
+
+    /**
+     * CREO EL CODIFICADOR Y SU POOL
+     *
+     * @param delegate codificador real (BCrypt)
+     * @param threads hilos que pueden hashear a la vez
+     * @param queueCapacity hashes que pueden esperar en cola
+     * @param timeoutMs espera máxima de cada hash, cola incluida
+     * @param meterRegistry registro de métricas
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long timeoutMs,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutMs = timeoutMs;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "bcrypt");
+        this.rejectedCounter = Counter.builder("taskmanager.password.rejected")
+                .description("Hashes de contraseña rechazados por cola llena o timeout")
+                .register(meterRegistry);
+    }
+
+    /**
+     * CODIFICO UNA CONTRASEÑA EN EL POOL
+     *
+     * @param rawPassword contraseña en claro
+     * @return hash
+     */
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return runInPool(() -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * COMPRUEBO UNA CONTRASEÑA EN EL POOL
+     *
+     * @param rawPassword contraseña en claro
+     * @param encodedPassword hash guardado
+     * @return true si coinciden
+     */
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return runInPool(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * INDICO SI UN HASH SE HIZO CON MENOS COSTE DEL CONFIGURADO
+     * NO HASHEA, SOLO LEE EL PREFIJO, ASÍ QUE NO PASA POR EL POOL
+     *
+     * @param encodedPassword hash guardado
+     * @return true si hay que volver a hashear al hacer login
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * PARO EL POOL AL CERRAR EL CONTEXTO (SPRING LO LLAMA SOLO POR EL NOMBRE)
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * EJECUTO UNA OPERACIÓN EN EL POOL Y ESPERO SU RESULTADO
+     *
+     * @param task operación de BCrypt
+     * @param <T> tipo del resultado
+     * @return resultado de la operación
+     * @throws AuthenticationServiceException si el pool está saturado o tarda demasiado
+     */
+    private <T> T runInPool(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new AuthenticationServiceException("Servicio de contraseñas saturado, inténtalo más tarde", e);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new AuthenticationServiceException("Servicio de contraseñas saturado, inténtalo más tarde", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException("Comprobación de contraseña interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new AuthenticationServiceException("Error al procesar la contraseña", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.taskmanager.config;
+
+import org.springframework.core.ConfigurableObjectInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * SERIALIZADOR COMPACTO DE LOS ATRIBUTOS DE SESIÓN QUE SE GUARDAN EN LA BD
+ * USA LA SERIALIZACIÓN JAVA (VALE PARA CUALQUIER ATRIBUTO Serializable, COMO EL SecurityContext
+ * O LOS FLASH ATTRIBUTES) Y COMPRIME CON DEFLATE LOS QUE PASAN DE min-bytes. LOS DESCRIPTORES
+ * DE CLASE SE REPITEN MUCHO Y SE COMPRIMEN BIEN
+ *
+ * FORMATO: UN BYTE DE CABECERA (0 = SIN COMPRIMIR, 1 = DEFLATE) Y DESPUÉS LOS DATOS. LOS ATRIBUTOS
+ * GUARDADOS CON EL SERIALIZADOR POR DEFECTO EMPIEZAN POR 0xAC (CABECERA JAVA) Y SE SIGUEN LEYENDO
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+public class CompactSessionSerializer {
+
+    private static final byte RAW = 0;
+    private static final byte DEFLATED = 1;
+
+    // PRIMER BYTE DE UN FLUJO DE SERIALIZACIÓN JAVA (STREAM_MAGIC 0xACED)
+    private static final byte JAVA_STREAM_MAGIC = (byte) 0xAC;
+
+    private final ClassLoader classLoader;
+    private final int minBytesToCompress;
+
+    /**
+     * CREO EL SERIALIZADOR
+     *
+     * @param classLoader cargador de clases para leer los atributos
+     * @param minBytesToCompress tamaño a partir del cual intento comprimir
+     */
+    public CompactSessionSerializer(ClassLoader classLoader, int minBytesToCompress) {
+        this.classLoader = classLoader;
+        this.minBytesToCompress = minBytesToCompress;
+    }
+
+    /**
+     * SERIALIZO UN ATRIBUTO, COMPRIMIDO SOLO SI ASÍ OCUPA MENOS
+     *
+     * @param attribute atributo de sesión
+     * @return bytes con la cabecera de formato
+     */
+    public byte[] serialize(Object attribute) {
+        try {
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(256);
+            try (ObjectOutputStream out = new ObjectOutputStream(raw)) {
+                out.writeObject(attribute);
+            }
+            byte[] serialized = raw.toByteArray();
+
+            if (serialized.length >= minBytesToCompress) {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream(serialized.length / 2);
+                compressed.write(DEFLATED);
+                try (DeflaterOutputStream out = new DeflaterOutputStream(compressed)) {
+                    out.write(serialized);
+                }
+                if (compressed.size() < serialized.length + 1) {
+                    return compressed.toByteArray();
+                }
+            }
+
+            byte[] result = new byte[serialized.length + 1];
+            result[0] = RAW;
+            System.arraycopy(serialized, 0, result, 1, serialized.length);
+            return result;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("No se pudo serializar el atributo de sesión "
+                    + attribute.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * LEO UN ATRIBUTO GUARDADO CON ESTE FORMATO O CON EL SERIALIZADOR POR DEFECTO
+     *
+     * @param bytes bytes guardados en la BD
+     * @return atributo de sesión
+     */
+    public Object deserialize(byte[] bytes) {
+        try {
+            InputStream in;
+            if (bytes[0] == JAVA_STREAM_MAGIC) {
+                in = new ByteArrayInputStream(bytes);
+            } else if (bytes[0] == DEFLATED) {
+                in = new InflaterInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1));
+            } else if (bytes[0] == RAW) {
+                in = new ByteArrayInputStream(bytes, 1, bytes.length - 1);
+            } else {
+                throw new IllegalArgumentException("Formato de atributo de sesión desconocido: " + bytes[0]);
+            }
+
+            try (ObjectInputStream objectIn = new ConfigurableObjectInputStream(in, classLoader)) {
+                return objectIn.readObject();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalArgumentException("No se pudo leer el atributo de sesión", e);
+        }
+    }
+}
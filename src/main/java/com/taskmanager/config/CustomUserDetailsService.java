@@ -2,13 +2,16 @@ package com.taskmanager.config;
 
 import com.taskmanager.model.User;
 import com.taskmanager.repository.UserRepository;
+import com.taskmanager.service.LoginAttemptService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -18,15 +21,21 @@ import java.util.List;
  * SERVICIO PERSONALIZADO PARA CARGAR USUARIOS EN SPRING SECURITY
  * CONECTA MI SISTEMA DE USUARIOS CON LA AUTENTICACIÓN DE SPRING
  *
+ * TAMBIÉN GUARDA EL HASH NUEVO CUANDO SPRING SECURITY REHASHEA UNA CONTRASEÑA CON MENOS COSTE
+ * DEL CONFIGURADO TRAS UN LOGIN CORRECTO (UserDetailsPasswordService)
+ *
  * @author Mario Flores
  * @version 1.0
  */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LoginAttemptService loginAttemptService;
+
     /**
      * CARGO UN USUARIO POR SU USERNAME PARA SPRING SECURITY
      * ESTE MÉTODO SE LLAMA AUTOMÁTICAMENTE AL HACER LOGIN
@@ -53,11 +62,32 @@ public class CustomUserDetailsService implements UserDetailsService {
                 user.getEnabled(),
                 true, // accountNonExpired
                 true, // credentialsNonExpired
-                true, // accountNonLocked
+                !loginAttemptService.isBlocked(username), // accountNonLocked: BLOQUEADA TRAS FALLOS SEGUIDOS
                 getAuthorities(user)
         );
     }
 
+    /**
+     * GUARDO EL HASH NUEVO DE UN USUARIO
+     * SPRING SECURITY LO LLAMA TRAS UN LOGIN CORRECTO SI EL HASH GUARDADO TIENE MENOS COSTE DEL CONFIGURADO
+     *
+     * @param user detalles del usuario autenticado
+     * @param newPassword hash nuevo con el coste actual
+     * @return detalles del usuario con el hash nuevo
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.findByUsername(user.getUsername()).ifPresent(existing -> {
+            existing.setPassword(newPassword);
+            userRepository.save(existing);
+            System.out.println("🔐 Contraseña rehasheada con el coste actual para: " + user.getUsername());
+        });
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
+
     /**
      * CONVIERTO EL ROL DE MI USUARIO A AUTHORITIES DE SPRING SECURITY
      *
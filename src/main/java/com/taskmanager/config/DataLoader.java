@@ -13,6 +13,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * CLASE QUE SE EJECUTA AL ARRANCAR LA APLICACIÓN
@@ -72,8 +74,6 @@ public class DataLoader implements CommandLineRunner {
                     5    // Máximo 5 ubicaciones
             );
             freePlan.setFeatures("Gestión básica de tareas,Mapas interactivos,Soporte por email");
-            subscriptionPlanRepository.save(freePlan);
-            System.out.println("✅ PLAN GRATUITO CREADO: " + freePlan.getName());
 
             // PLAN PREMIUM BÁSICO
             SubscriptionPlan premiumPlan = new SubscriptionPlan(
@@ -84,8 +84,6 @@ public class DataLoader implements CommandLineRunner {
                     null   // Ubicaciones ilimitadas
             );
             premiumPlan.setFeatures("Tareas ilimitadas,Ubicaciones ilimitadas,Estadísticas avanzadas,Soporte prioritario,Sin anuncios,Exportación de datos");
-            subscriptionPlanRepository.save(premiumPlan);
-            System.out.println("✅ PLAN PREMIUM CREADO: " + premiumPlan.getName() + " - €" + premiumPlan.getPrice());
 
             // PLAN PREMIUM ANUAL (OPCIONAL)
             SubscriptionPlan premiumAnnualPlan = new SubscriptionPlan(
@@ -96,7 +94,10 @@ public class DataLoader implements CommandLineRunner {
                     null   // Ubicaciones ilimitadas
             );
             premiumAnnualPlan.setFeatures("Todas las funcionalidades Premium,Descuento del 16%,Facturación anual,Soporte telefónico,Acceso beta");
-            subscriptionPlanRepository.save(premiumAnnualPlan);
+            // GUARDO LOS TRES PLANES EN UN SOLO LOTE DE INSERTS
+            subscriptionPlanRepository.saveAll(List.of(freePlan, premiumPlan, premiumAnnualPlan));
+            System.out.println("✅ PLAN GRATUITO CREADO: " + freePlan.getName());
+            System.out.println("✅ PLAN PREMIUM CREADO: " + premiumPlan.getName() + " - €" + premiumPlan.getPrice());
             System.out.println("✅ PLAN PREMIUM ANUAL CREADO: " + premiumAnnualPlan.getName() + " - €" + premiumAnnualPlan.getPrice());
 
             System.out.println("=== PLANES DE SUSCRIPCIÓN CREADOS ===");
@@ -118,6 +119,9 @@ public class DataLoader implements CommandLineRunner {
             SubscriptionPlan freePlan = subscriptionPlanRepository.findByName("FREE").orElse(null);
             SubscriptionPlan premiumPlan = subscriptionPlanRepository.findByName("PREMIUM").orElse(null);
 
+            // LAS SUSCRIPCIONES SE GUARDAN AL FINAL, EN LOTE, DESPUÉS DE LOS USUARIOS
+            List<UserSubscription> subscriptions = new ArrayList<>();
+
             // CREO EL USUARIO ADMINISTRADOR
             User admin = new User();
             admin.setUsername("admin");
@@ -125,13 +129,12 @@ public class DataLoader implements CommandLineRunner {
             admin.setPassword(passwordEncoder.encode("admin123"));
             admin.setRole(UserRole.ADMIN);
             admin.setEnabled(true);
-            admin = userRepository.save(admin);
 
             // ASIGNO PLAN PREMIUM AL ADMIN
             if (premiumPlan != null) {
                 UserSubscription adminSubscription = new UserSubscription(admin, premiumPlan);
                 adminSubscription.setPaymentReference("ADMIN_PREMIUM_GRANT");
-                userSubscriptionRepository.save(adminSubscription);
+                subscriptions.add(adminSubscription);
                 System.out.println("✅ ADMIN CREADO: admin@taskmanager.com / admin123 (PREMIUM)");
             }
 
@@ -142,13 +145,12 @@ public class DataLoader implements CommandLineRunner {
             mario.setPassword(passwordEncoder.encode("mario123"));
             mario.setRole(UserRole.USER);
             mario.setEnabled(true);
-            mario = userRepository.save(mario);
 
             // ASIGNO PLAN PREMIUM A MARIO
             if (premiumPlan != null) {
                 UserSubscription marioSubscription = new UserSubscription(mario, premiumPlan);
                 marioSubscription.setPaymentReference("DEMO_PREMIUM_USER");
-                userSubscriptionRepository.save(marioSubscription);
+                subscriptions.add(marioSubscription);
                 System.out.println("✅ USUARIO MARIO CREADO: mario@taskmanager.com / mario123 (PREMIUM)");
             }
 
@@ -159,13 +161,12 @@ public class DataLoader implements CommandLineRunner {
             testUser.setPassword(passwordEncoder.encode("test123"));
             testUser.setRole(UserRole.USER);
             testUser.setEnabled(true);
-            testUser = userRepository.save(testUser);
 
             // ASIGNO PLAN GRATUITO AL USUARIO TEST
             if (freePlan != null) {
                 UserSubscription testSubscription = new UserSubscription(testUser, freePlan);
                 testSubscription.setPaymentReference("FREE_PLAN");
-                userSubscriptionRepository.save(testSubscription);
+                subscriptions.add(testSubscription);
                 System.out.println("✅ USUARIO TEST CREADO: test@taskmanager.com / test123 (FREE)");
             }
 
@@ -176,13 +177,12 @@ public class DataLoader implements CommandLineRunner {
             demoUser.setPassword(passwordEncoder.encode("demo123"));
             demoUser.setRole(UserRole.USER);
             demoUser.setEnabled(false); // Usuario deshabilitado para pruebas
-            demoUser = userRepository.save(demoUser);
 
             // ASIGNO PLAN GRATUITO AL USUARIO DEMO
             if (freePlan != null) {
                 UserSubscription demoSubscription = new UserSubscription(demoUser, freePlan);
                 demoSubscription.setPaymentReference("DEMO_FREE_DISABLED");
-                userSubscriptionRepository.save(demoSubscription);
+                subscriptions.add(demoSubscription);
                 System.out.println("✅ USUARIO DEMO CREADO: demo@taskmanager.com / demo123 (FREE - DESHABILITADO)");
             }
 
@@ -193,16 +193,19 @@ public class DataLoader implements CommandLineRunner {
             premiumUser.setPassword(passwordEncoder.encode("premium123"));
             premiumUser.setRole(UserRole.USER);
             premiumUser.setEnabled(true);
-            premiumUser = userRepository.save(premiumUser);
 
             // ASIGNO PLAN PREMIUM
             if (premiumPlan != null) {
                 UserSubscription premiumSubscription = new UserSubscription(premiumUser, premiumPlan);
                 premiumSubscription.setPaymentReference("DEMO_PREMIUM_USER_2");
-                userSubscriptionRepository.save(premiumSubscription);
+                subscriptions.add(premiumSubscription);
                 System.out.println("✅ USUARIO PREMIUM CREADO: premium@taskmanager.com / premium123 (PREMIUM)");
             }
 
+            // GUARDO USUARIOS Y SUSCRIPCIONES CON saveAll: UNA TRANSACCIÓN Y LOTES JDBC
+            userRepository.saveAll(List.of(admin, mario, testUser, demoUser, premiumUser));
+            userSubscriptionRepository.saveAll(subscriptions);
+
             System.out.println("=== USUARIOS CREADOS ===");
         } else {
             System.out.println("=== USUARIOS YA EXISTEN ===");
@@ -238,6 +241,12 @@ public class DataLoader implements CommandLineRunner {
         // AQUÍ PUEDES AGREGAR MÁS USUARIOS, TAREAS, UBICACIONES, ETC.
         // PARA TENER UNA BASE DE DATOS MÁS RICA EN DATOS DE PRUEBA
 
+        // LOS PLANES SE BUSCAN UNA VEZ Y USUARIOS Y SUSCRIPCIONES SE GUARDAN EN LOTE AL FINAL
+        SubscriptionPlan freePlan = subscriptionPlanRepository.findByName("FREE").orElse(null);
+        SubscriptionPlan premiumPlan = subscriptionPlanRepository.findByName("PREMIUM").orElse(null);
+        List<User> users = new ArrayList<>();
+        List<UserSubscription> subscriptions = new ArrayList<>();
+
         // EJEMPLO: Crear más usuarios con diferentes configuraciones
         for (int i = 1; i <= 5; i++) {
             User sampleUser = new User();
@@ -247,22 +256,23 @@ public class DataLoader implements CommandLineRunner {
             sampleUser.setRole(UserRole.USER);
             sampleUser.setEnabled(true);
 
-            sampleUser = userRepository.save(sampleUser);
+            users.add(sampleUser);
 
             // ALTERNAR ENTRE PLANES GRATUITO Y PREMIUM
-            SubscriptionPlan planToAssign = (i % 2 == 0) ?
-                    subscriptionPlanRepository.findByName("PREMIUM").orElse(null) :
-                    subscriptionPlanRepository.findByName("FREE").orElse(null);
+            SubscriptionPlan planToAssign = (i % 2 == 0) ? premiumPlan : freePlan;
 
             if (planToAssign != null) {
                 UserSubscription subscription = new UserSubscription(sampleUser, planToAssign);
                 subscription.setPaymentReference("SAMPLE_DATA_" + i);
-                userSubscriptionRepository.save(subscription);
+                subscriptions.add(subscription);
             }
 
             System.out.println("✅ Usuario de muestra " + i + " creado: " + sampleUser.getEmail());
         }
 
+        userRepository.saveAll(users);
+        userSubscriptionRepository.saveAll(subscriptions);
+
         System.out.println("=== DATOS DE PRUEBA ADICIONALES CREADOS ===");
     }
 }
\ No newline at end of file
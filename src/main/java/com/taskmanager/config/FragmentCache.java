@@ -0,0 +1,107 @@
+package com.taskmanager.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.web.IWebExchange;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CACHÉ DE FRAGMENTOS THYMELEAF YA RENDERIZADOS
+ * PARA TROZOS DE PÁGINA QUE CASI NUNCA CAMBIAN (LAS TARJETAS DE LOS PLANES): LOS RENDERIZO
+ * UNA VEZ POR CLAVE Y LA VISTA LOS PINTA CON th:utext
+ *
+ * LA CLAVE LA CONSTRUYE EL CONTROLADOR CON TODO LO QUE SE PINTA EN EL FRAGMENTO; SI CAMBIA
+ * UN DATO CAMBIA LA CLAVE Y SE RENDERIZA DE NUEVO (LAS ENTRADAS VIEJAS CADUCAN SOLAS)
+ *
+ * DESACTIVADA POR DEFECTO PARA VER LOS CAMBIOS DE LAS PLANTILLAS EN DESARROLLO; EL PERFIL
+ * prod LA ACTIVA JUNTO CON LA CACHÉ DE PLANTILLAS. MÉTRICAS EN cache.* CON cache=thymeleaf-fragments
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Component
+public class FragmentCache {
+
+    @Autowired
+    private SpringTemplateEngine templateEngine;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.view.fragment-cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.view.fragment-cache.max-entries:1000}")
+    private long maxEntries;
+
+    @Value("${app.view.fragment-cache.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    // PLANTILLA::FRAGMENTO::CLAVE -> HTML RENDERIZADO
+    private Cache<String, String> cache;
+
+    /**
+     * CREO LA CACHÉ Y REGISTRO SUS MÉTRICAS
+     */
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "thymeleaf-fragments");
+    }
+
+    /**
+     * DEVUELVO EL HTML DEL FRAGMENTO PARA ESA CLAVE, RENDERIZÁNDOLO SOLO SI NO ESTÁ EN CACHÉ
+     *
+     * @param template plantilla que contiene el fragmento
+     * @param fragment nombre del th:fragment
+     * @param key clave con todos los datos que pinta el fragmento
+     * @param variables variables del fragmento
+     * @param request petición actual (para los enlaces @{...})
+     * @param response respuesta actual
+     * @return HTML del fragmento
+     */
+    public String render(String template, String fragment, String key, Map<String, Object> variables,
+                         HttpServletRequest request, HttpServletResponse response) {
+        if (!enabled) {
+            return process(template, fragment, variables, request, response);
+        }
+        return cache.get(template + "::" + fragment + "::" + key,
+                cacheKey -> process(template, fragment, variables, request, response));
+    }
+
+    /**
+     * RENDERIZO SOLO EL FRAGMENTO CON UN CONTEXTO WEB COMO EL DE LA VISTA
+     *
+     * @param template plantilla que contiene el fragmento
+     * @param fragment nombre del th:fragment
+     * @param variables variables del fragmento
+     * @param request petición actual
+     * @param response respuesta actual
+     * @return HTML del fragmento
+     */
+    private String process(String template, String fragment, Map<String, Object> variables,
+                           HttpServletRequest request, HttpServletResponse response) {
+        IWebExchange exchange = JakartaServletWebApplication.buildApplication(request.getServletContext())
+                .buildExchange(request, response);
+        WebContext context = new WebContext(exchange, request.getLocale(), variables);
+        return templateEngine.process(template, Set.of(fragment), context);
+    }
+}
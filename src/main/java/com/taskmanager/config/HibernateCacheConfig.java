@@ -0,0 +1,49 @@
+package com.taskmanager.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+
+/**
+ * CONFIGURACIÓN DE LA CACHÉ DE SEGUNDO NIVEL DE HIBERNATE
+ * CREO YO EL CACHE MANAGER DE CAFFEINE CON LAS REGIONES DE hibernate-cache.conf
+ * Y SE LO PASO A HIBERNATE, ASÍ EL FICHERO SE LEE IGUAL DESDE EL IDE, LOS TESTS Y EL JAR
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    /**
+     * CREO EL CACHE MANAGER JCACHE DE CAFFEINE
+     *
+     * @param configUri recurso con las regiones (esquema classpath: de Caffeine)
+     * @return cache manager compartido por todas las regiones
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${app.cache.hibernate-config:classpath:hibernate-cache.conf}") String configUri) {
+        CaffeineCachingProvider provider = (CaffeineCachingProvider) Caching.getCachingProvider(
+                CaffeineCachingProvider.class.getName());
+        return provider.getCacheManager(URI.create(configUri), getClass().getClassLoader());
+    }
+
+    /**
+     * LE ENTREGO EL CACHE MANAGER A HIBERNATE
+     *
+     * @param hibernateCacheManager cache manager de Caffeine
+     * @return personalizador de propiedades de Hibernate
+     */
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
@@ -0,0 +1,114 @@
+package com.taskmanager.config;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.MapSession;
+import org.springframework.session.MapSessionRepository;
+import org.springframework.session.PrincipalNameIndexResolver;
+import org.springframework.session.Session;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * REPOSITORIO DE SESIONES EN MEMORIA CON BÚSQUEDA POR USUARIO
+ * ES EL SUSTITUTO DEL REPOSITORIO JDBC PARA UN SOLO NODO Y PARA LOS TESTS (app.session.store=memory):
+ * MISMO FILTRO DE SPRING SESSION Y MISMO REGISTRO DE SESIONES CONCURRENTES, SIN TOCAR LA BD
+ *
+ * MapSessionRepository NO SABE BUSCAR POR USUARIO; LO HAGO RECORRIENDO LAS SESIONES, QUE EN MEMORIA
+ * Y CON UN SOLO NODO SON POCAS. LAS CADUCADAS SE BORRAN EN UNA PASADA PERIÓDICA
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+public class InMemoryIndexedSessionRepository implements FindByIndexNameSessionRepository<MapSession> {
+
+    // ID DE SESIÓN -> SESIÓN (EL MISMO MAPA QUE USA MapSessionRepository)
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    private final MapSessionRepository delegate = new MapSessionRepository(sessions);
+
+    private final PrincipalNameIndexResolver<Session> indexResolver = new PrincipalNameIndexResolver<>();
+
+    /**
+     * CREO EL REPOSITORIO CON EL TIEMPO DE INACTIVIDAD DE LAS SESIONES NUEVAS
+     *
+     * @param maxInactiveInterval tiempo sin peticiones tras el que caduca una sesión
+     */
+    public InMemoryIndexedSessionRepository(Duration maxInactiveInterval) {
+        delegate.setDefaultMaxInactiveInterval(maxInactiveInterval);
+    }
+
+    /**
+     * CREO UNA SESIÓN NUEVA SIN GUARDARLA
+     *
+     * @return sesión nueva
+     */
+    @Override
+    public MapSession createSession() {
+        return delegate.createSession();
+    }
+
+    /**
+     * GUARDO UNA COPIA DE LA SESIÓN
+     *
+     * @param session sesión a guardar
+     */
+    @Override
+    public void save(MapSession session) {
+        delegate.save(session);
+    }
+
+    /**
+     * BUSCO UNA SESIÓN POR ID (LAS CADUCADAS SE BORRAN AL PEDIRLAS)
+     *
+     * @param id identificador de la sesión
+     * @return sesión o null si no existe o ha caducado
+     */
+    @Override
+    public MapSession findById(String id) {
+        return delegate.findById(id);
+    }
+
+    /**
+     * BORRO UNA SESIÓN
+     *
+     * @param id identificador de la sesión
+     */
+    @Override
+    public void deleteById(String id) {
+        delegate.deleteById(id);
+    }
+
+    /**
+     * BUSCO LAS SESIONES VIVAS DE UN USUARIO (LO USA EL REGISTRO DE SESIONES CONCURRENTES)
+     *
+     * @param indexName nombre del índice; solo se admite el de usuario
+     * @param indexValue nombre del usuario
+     * @return sesiones del usuario por id
+     */
+    @Override
+    public Map<String, MapSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        Map<String, MapSession> result = new HashMap<>();
+        if (!PRINCIPAL_NAME_INDEX_NAME.equals(indexName)) {
+            return result;
+        }
+
+        for (Session session : sessions.values()) {
+            if (!session.isExpired() && indexValue.equals(indexResolver.resolveIndexValueFor(session))) {
+                result.put(session.getId(), new MapSession(session));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * BORRO LAS SESIONES CADUCADAS QUE NADIE HA VUELTO A PEDIR
+     */
+    @Scheduled(fixedDelayString = "${app.session.memory.cleanup-interval-ms:60000}")
+    public void purgeExpiredSessions() {
+        sessions.values().removeIf(Session::isExpired);
+    }
+}
@@ -0,0 +1,150 @@
+package com.taskmanager.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * PROPIEDADES DEL SIMULADOR DE PASARELA DE PAGOS
+ * PERMITEN CAMBIAR LATENCIAS, TASAS DE ERROR Y SEMILLA SIN TOCAR CÓDIGO
+ * PARA HACER PRUEBAS DE CARGA REPRODUCIBLES DEL CHECKOUT
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Component
+@ConfigurationProperties(prefix = "app.payment.gateway")
+public class PaymentGatewayProperties {
+
+    /**
+     * TIPOS DE DISTRIBUCIÓN DE LATENCIA SOPORTADOS
+     */
+    public enum LatencyType {
+        FIXED,
+        UNIFORM,
+        LOG_NORMAL,
+        HEAVY_TAIL
+    }
+
+    // DISTRIBUCIÓN DE LATENCIA
+    private LatencyType latencyType = LatencyType.UNIFORM;
+
+    // LATENCIA PARA FIXED
+    private long fixedLatencyMs = 1000;
+
+    // RANGO PARA UNIFORM Y MÍNIMO (ESCALA) PARA HEAVY_TAIL
+    private long minLatencyMs = 1000;
+    private long maxLatencyMs = 3000;
+
+    // MEDIANA Y DISPERSIÓN PARA LOG_NORMAL
+    private long medianLatencyMs = 1500;
+    private double latencySigma = 0.5;
+
+    // FORMA DE LA COLA PARETO PARA HEAVY_TAIL (MENOR = COLA MÁS PESADA)
+    private double tailShape = 1.5;
+
+    // PROBABILIDADES DE CADA RESULTADO PARA TARJETAS NO PREDEFINIDAS
+    private double successRate = 0.85;
+    private double rejectionRate = 0.10;
+
+    // PROBABILIDAD DE QUE LA PASARELA NO RESPONDA
+    private double timeoutRate = 0.0;
+
+    // TIEMPO MÁXIMO DE RESPUESTA DE LA PASARELA
+    private long timeoutMs = 30000;
+
+    // SEMILLA PARA RESULTADOS REPRODUCIBLES (NULL = ALEATORIO)
+    private Long seed;
+
+    // HILOS DEL PLANIFICADOR QUE COMPLETA LAS RESPUESTAS
+    private int schedulerThreads = 2;
+
+    // ==================== CLIENTE: TIMEOUT, REINTENTOS Y CORTOCIRCUITO ====================
+
+    // TIEMPO MÁXIMO QUE ESPERO CADA LLAMADA
+    private long callTimeoutMs = 10000;
+
+    // REINTENTOS ADICIONALES PARA FALLOS TÉCNICOS Y TIMEOUTS
+    private int maxRetries = 2;
+
+    // BACKOFF EXPONENCIAL CON JITTER COMPLETO
+    private long retryBaseDelayMs = 200;
+    private long retryMaxDelayMs = 5000;
+
+    // TASA DE FALLOS QUE ABRE EL CORTOCIRCUITO
+    private double breakerFailureRateThreshold = 0.5;
+
+    // LLAMADAS POR VENTANA Y MÍNIMO PARA EVALUAR LA TASA
+    private int breakerWindowSize = 50;
+    private int breakerMinimumCalls = 20;
+
+    // TIEMPO ABIERTO Y LLAMADAS DE PRUEBA EN SEMIABIERTO
+    private long breakerOpenDurationMs = 30000;
+    private int breakerHalfOpenCalls = 5;
+
+    // GETTERS Y SETTERS
+    public LatencyType getLatencyType() { return latencyType; }
+    public void setLatencyType(LatencyType latencyType) { this.latencyType = latencyType; }
+
+    public long getFixedLatencyMs() { return fixedLatencyMs; }
+    public void setFixedLatencyMs(long fixedLatencyMs) { this.fixedLatencyMs = fixedLatencyMs; }
+
+    public long getMinLatencyMs() { return minLatencyMs; }
+    public void setMinLatencyMs(long minLatencyMs) { this.minLatencyMs = minLatencyMs; }
+
+    public long getMaxLatencyMs() { return maxLatencyMs; }
+    public void setMaxLatencyMs(long maxLatencyMs) { this.maxLatencyMs = maxLatencyMs; }
+
+    public long getMedianLatencyMs() { return medianLatencyMs; }
+    public void setMedianLatencyMs(long medianLatencyMs) { this.medianLatencyMs = medianLatencyMs; }
+
+    public double getLatencySigma() { return latencySigma; }
+    public void setLatencySigma(double latencySigma) { this.latencySigma = latencySigma; }
+
+    public double getTailShape() { return tailShape; }
+    public void setTailShape(double tailShape) { this.tailShape = tailShape; }
+
+    public double getSuccessRate() { return successRate; }
+    public void setSuccessRate(double successRate) { this.successRate = successRate; }
+
+    public double getRejectionRate() { return rejectionRate; }
+    public void setRejectionRate(double rejectionRate) { this.rejectionRate = rejectionRate; }
+
+    public double getTimeoutRate() { return timeoutRate; }
+    public void setTimeoutRate(double timeoutRate) { this.timeoutRate = timeoutRate; }
+
+    public long getTimeoutMs() { return timeoutMs; }
+    public void setTimeoutMs(long timeoutMs) { this.timeoutMs = timeoutMs; }
+
+    public Long getSeed() { return seed; }
+    public void setSeed(Long seed) { this.seed = seed; }
+
+    public int getSchedulerThreads() { return schedulerThreads; }
+    public void setSchedulerThreads(int schedulerThreads) { this.schedulerThreads = schedulerThreads; }
+
+    public long getCallTimeoutMs() { return callTimeoutMs; }
+    public void setCallTimeoutMs(long callTimeoutMs) { this.callTimeoutMs = callTimeoutMs; }
+
+    public int getMaxRetries() { return maxRetries; }
+    public void setMaxRetries(int maxRetries) { this.maxRetries = maxRetries; }
+
+    public long getRetryBaseDelayMs() { return retryBaseDelayMs; }
+    public void setRetryBaseDelayMs(long retryBaseDelayMs) { this.retryBaseDelayMs = retryBaseDelayMs; }
+
+    public long getRetryMaxDelayMs() { return retryMaxDelayMs; }
+    public void setRetryMaxDelayMs(long retryMaxDelayMs) { this.retryMaxDelayMs = retryMaxDelayMs; }
+
+    public double getBreakerFailureRateThreshold() { return breakerFailureRateThreshold; }
+    public void setBreakerFailureRateThreshold(double breakerFailureRateThreshold) { this.breakerFailureRateThreshold = breakerFailureRateThreshold; }
+
+    public int getBreakerWindowSize() { return breakerWindowSize; }
+    public void setBreakerWindowSize(int breakerWindowSize) { this.breakerWindowSize = breakerWindowSize; }
+
+    public int getBreakerMinimumCalls() { return breakerMinimumCalls; }
+    public void setBreakerMinimumCalls(int breakerMinimumCalls) { this.breakerMinimumCalls = breakerMinimumCalls; }
+
+    public long getBreakerOpenDurationMs() { return breakerOpenDurationMs; }
+    public void setBreakerOpenDurationMs(long breakerOpenDurationMs) { this.breakerOpenDurationMs = breakerOpenDurationMs; }
+
+    public int getBreakerHalfOpenCalls() { return breakerHalfOpenCalls; }
+    public void setBreakerHalfOpenCalls(int breakerHalfOpenCalls) { this.breakerHalfOpenCalls = breakerHalfOpenCalls; }
+}
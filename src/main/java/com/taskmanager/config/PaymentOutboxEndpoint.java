@@ -0,0 +1,62 @@
+package com.taskmanager.config;
+
+import com.taskmanager.service.PaymentOutboxService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ENDPOINT DE ACTUATOR DEL OUTBOX DE EVENTOS DE PAGO
+ * GET /actuator/paymentoutbox: EVENTOS PENDIENTES Y DESCARTADOS
+ * POST /actuator/paymentoutbox: VUELVE A PONER EN COLA LOS DESCARTADOS TRAS AGOTAR SUS INTENTOS
+ *
+ * COMO TODO ACTUATOR SALVO health, REQUIERE ROL ADMIN
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Component
+@Endpoint(id = "paymentoutbox")
+public class PaymentOutboxEndpoint {
+
+    private final PaymentOutboxService paymentOutboxService;
+
+    /**
+     * CREO EL ENDPOINT
+     *
+     * @param paymentOutboxService servicio del outbox
+     */
+    public PaymentOutboxEndpoint(PaymentOutboxService paymentOutboxService) {
+        this.paymentOutboxService = paymentOutboxService;
+    }
+
+    /**
+     * DEVUELVO EL ESTADO DEL OUTBOX
+     *
+     * @return eventos pendientes y descartados
+     */
+    @ReadOperation
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("pending", paymentOutboxService.countPendingEvents());
+        summary.put("failed", paymentOutboxService.countFailedEvents());
+        return summary;
+    }
+
+    /**
+     * REENCOLO LOS EVENTOS DESCARTADOS
+     *
+     * @return número de eventos reencolados
+     */
+    @WriteOperation
+    public Map<String, Object> replayFailed() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("success", true);
+        response.put("replayed", paymentOutboxService.replayFailedEvents());
+        return response;
+    }
+}
@@ -0,0 +1,60 @@
+package com.taskmanager.config;
+
+import com.taskmanager.service.ProfilingService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * CONFIGURACIÓN DEL MODO DE PERFILADO (app.profiling.enabled, DESACTIVADO POR DEFECTO)
+ * CON ÉL ACTIVO CADA PETICIÓN Y CADA MÉTODO DE SERVICIO EMITE UN EVENTO JFR CON SU DURACIÓN,
+ * LA MEMORIA QUE RESERVA Y LAS CONSULTAS QUE LANZA, Y /actuator/profiling RESUME LOS PEORES
+ *
+ * SIN ÉL NO SE CREA NINGUNO DE ESTOS BEANS Y LAS PETICIONES NO PAGAN NADA
+ * LAS CONSULTAS LAS CUENTA QueryCountingDataSource: CON app.query-tracking.enabled=false SALEN A 0
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.profiling.enabled", havingValue = "true")
+public class ProfilingConfig {
+
+    /**
+     * REGISTRO EL FILTRO DE PETICIONES EL PRIMERO, ANTES QUE EL DE SPRING SECURITY
+     *
+     * @param profilingService servicio que acumula las medidas
+     * @return registro del filtro en el servlet
+     */
+    @Bean
+    public FilterRegistrationBean<RequestProfilingFilter> requestProfilingFilter(ProfilingService profilingService) {
+        FilterRegistrationBean<RequestProfilingFilter> registration =
+                new FilterRegistrationBean<>(new RequestProfilingFilter(profilingService));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * CREO EL ASPECTO QUE MIDE LOS MÉTODOS DE SERVICIO
+     *
+     * @param profilingService servicio que acumula las medidas
+     * @return aspecto
+     */
+    @Bean
+    public ServiceProfilingAspect serviceProfilingAspect(ProfilingService profilingService) {
+        return new ServiceProfilingAspect(profilingService);
+    }
+
+    /**
+     * CREO EL ENDPOINT /actuator/profiling
+     *
+     * @param profilingService servicio con las medidas acumuladas
+     * @return endpoint
+     */
+    @Bean
+    public ProfilingEndpoint profilingEndpoint(ProfilingService profilingService) {
+        return new ProfilingEndpoint(profilingService);
+    }
+}
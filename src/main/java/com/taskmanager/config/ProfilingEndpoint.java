@@ -0,0 +1,85 @@
+package com.taskmanager.config;
+
+import com.taskmanager.service.ProfilingService;
+import jdk.jfr.Recording;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ENDPOINT DE ACTUATOR CON EL RESUMEN DEL MODO DE PERFILADO
+ * GET /actuator/profiling: PETICIONES Y MÉTODOS DE SERVICIO QUE MÁS MEMORIA RESERVAN, CON SU
+ * DURACIÓN Y CONSULTAS SQL, Y EL ESTADO DE LA GRABACIÓN JFR
+ * DELETE /actuator/profiling: EMPIEZA UNA MEDIDA NUEVA (POR EJEMPLO ANTES DE UNA PRUEBA DE CARGA)
+ *
+ * COMO TODO ACTUATOR SALVO health, REQUIERE ROL ADMIN
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Endpoint(id = "profiling")
+public class ProfilingEndpoint {
+
+    private final ProfilingService profilingService;
+
+    /**
+     * CREO EL ENDPOINT
+     *
+     * @param profilingService servicio con las medidas acumuladas
+     */
+    public ProfilingEndpoint(ProfilingService profilingService) {
+        this.profilingService = profilingService;
+    }
+
+    /**
+     * DEVUELVO EL RESUMEN DESDE EL ÚLTIMO REINICIO
+     *
+     * @return resumen de peticiones, métodos de servicio y grabación
+     */
+    @ReadOperation
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("since", profilingService.getSince().toString());
+        summary.put("allocationSupported", profilingService.isAllocationSupported());
+        summary.put("recording", recording());
+        summary.put("requests", profilingService.getTopRequests());
+        summary.put("serviceMethods", profilingService.getTopServiceMethods());
+        return summary;
+    }
+
+    /**
+     * BORRO LO ACUMULADO
+     *
+     * @return confirmación con la fecha del nuevo inicio
+     */
+    @DeleteOperation
+    public Map<String, Object> reset() {
+        profilingService.reset();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("success", true);
+        response.put("since", profilingService.getSince().toString());
+        return response;
+    }
+
+    /**
+     * DESCRIBO LA GRABACIÓN JFR DEL MODO DE PERFILADO
+     *
+     * @return estado, nombre y fichero de la grabación
+     */
+    private Map<String, Object> recording() {
+        Map<String, Object> info = new LinkedHashMap<>();
+        Recording recording = profilingService.getRecording();
+        if (recording == null) {
+            info.put("state", "DISABLED");
+            return info;
+        }
+        info.put("name", recording.getName());
+        info.put("state", recording.getState().name());
+        info.put("file", profilingService.getRecordingFile());
+        info.put("sizeBytes", recording.getSize());
+        return info;
+    }
+}
@@ -0,0 +1,327 @@
+package com.taskmanager.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * PROXY DEL DATASOURCE QUE CUENTA Y CRONOMETRA LAS SENTENCIAS SQL DE CADA HILO
+ * ENVUELVE LAS CONEXIONES Y SUS SENTENCIAS; CADA execute* SUMA UNA SENTENCIA Y SU TIEMPO
+ * (UN executeBatch ES UNA SOLA IDA Y VUELTA Y CUENTA COMO UNA). NO MIDE EL RECORRIDO DEL ResultSet
+ *
+ * PASA POR AQUÍ TODO EL SQL: HIBERNATE, JdbcTemplate, SPRING SESSION Y FLYWAY
+ *
+ * LOS CONTADORES DEL HILO SOLO CRECEN: QUIEN QUIERA SABER CUÁNTAS CONSULTAS HIZO UN TROZO DE CÓDIGO
+ * LEE EL VALOR ANTES Y DESPUÉS Y RESTA. ENTRE beginRequest Y endRequest ADEMÁS CUENTO CUÁNTAS VECES
+ * SE REPITE CADA FORMA DE SENTENCIA PARA DETECTAR N+1 (LO USA QueryTrackingFilter)
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+    // FORMAS DISTINTAS QUE SIGO COMO MÁXIMO EN UNA PETICIÓN
+    private static final int MAX_TRACKED_SHAPES = 1000;
+
+    private static final ThreadLocal<ThreadQueries> QUERIES = ThreadLocal.withInitial(ThreadQueries::new);
+
+    /**
+     * CREO EL PROXY
+     *
+     * @param targetDataSource datasource real
+     */
+    public QueryCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    /**
+     * DEVUELVO UNA CONEXIÓN DEL DATASOURCE REAL ENVUELTA
+     *
+     * @return conexión que cuenta sus sentencias
+     * @throws SQLException si falla el datasource real
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection());
+    }
+
+    /**
+     * DEVUELVO UNA CONEXIÓN DEL DATASOURCE REAL ENVUELTA
+     *
+     * @param username usuario
+     * @param password contraseña
+     * @return conexión que cuenta sus sentencias
+     * @throws SQLException si falla el datasource real
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    /**
+     * DEVUELVO CUÁNTAS SENTENCIAS HA EJECUTADO ESTE HILO DESDE QUE ARRANCÓ
+     *
+     * @return contador del hilo actual
+     */
+    public static long currentThreadCount() {
+        return QUERIES.get().count;
+    }
+
+    /**
+     * DEVUELVO CUÁNTOS NANOSEGUNDOS HA PASADO ESTE HILO ESPERANDO A LA BD DESDE QUE ARRANCÓ
+     *
+     * @return tiempo acumulado del hilo actual
+     */
+    public static long currentThreadNanos() {
+        return QUERIES.get().nanos;
+    }
+
+    /**
+     * EMPIEZO A CONTAR LAS FORMAS DE SENTENCIA DE UNA PETICIÓN EN ESTE HILO
+     */
+    public static void beginRequest() {
+        ThreadQueries queries = QUERIES.get();
+        queries.shapes = new HashMap<>();
+        queries.requestStartCount = queries.count;
+        queries.requestStartNanos = queries.nanos;
+    }
+
+    /**
+     * TERMINO LA PETICIÓN DE ESTE HILO Y DEVUELVO LO QUE HA HECHO EN LA BD
+     *
+     * @return consultas, tiempo y la sentencia más repetida de la petición
+     */
+    public static RequestQueries endRequest() {
+        ThreadQueries queries = QUERIES.get();
+        String mostRepeated = null;
+        int maxRepeat = 0;
+        if (queries.shapes != null) {
+            for (Map.Entry<String, int[]> entry : queries.shapes.entrySet()) {
+                if (entry.getValue()[0] > maxRepeat) {
+                    maxRepeat = entry.getValue()[0];
+                    mostRepeated = entry.getKey();
+                }
+            }
+        }
+        RequestQueries result = new RequestQueries(queries.count - queries.requestStartCount,
+                queries.nanos - queries.requestStartNanos, mostRepeated, maxRepeat);
+        queries.shapes = null;
+        return result;
+    }
+
+    /**
+     * SUMO UNA SENTENCIA AL HILO ACTUAL
+     *
+     * @param sql sentencia (con ? en los parámetros si es preparada)
+     * @param nanos tiempo de ejecución
+     */
+    private static void record(String sql, long nanos) {
+        ThreadQueries queries = QUERIES.get();
+        queries.count++;
+        queries.nanos += nanos;
+        if (queries.shapes != null && sql != null
+                && (queries.shapes.size() < MAX_TRACKED_SHAPES || queries.shapes.containsKey(sql))) {
+            queries.shapes.computeIfAbsent(sql, s -> new int[1])[0]++;
+        }
+    }
+
+    /**
+     * ENVUELVO LA CONEXIÓN PARA QUE LAS SENTENCIAS QUE CREE TAMBIÉN VAYAN ENVUELTAS
+     *
+     * @param connection conexión real
+     * @return proxy de la conexión
+     */
+    private static Connection wrapConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    /**
+     * ENVUELVO UNA SENTENCIA CON LA INTERFAZ MÁS CONCRETA QUE IMPLEMENTE
+     *
+     * @param statement sentencia real
+     * @param sql SQL con el que se preparó, o null si es un Statement simple
+     * @return proxy de la sentencia
+     */
+    private static Statement wrapStatement(Statement statement, String sql) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (Statement) Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, new StatementHandler(statement, sql));
+    }
+
+    /**
+     * PARA LOS Statement SIMPLES EL SQL LLEVA LOS VALORES DENTRO: LOS CAMBIO POR ? PARA QUE
+     * DOS CONSULTAS IGUALES CON DISTINTO ID TENGAN LA MISMA FORMA
+     *
+     * @param sql sentencia con literales
+     * @return sentencia con ? en lugar de números y cadenas
+     */
+    static String shapeOf(String sql) {
+        StringBuilder shape = new StringBuilder(sql.length());
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                // SALTO LA CADENA ENTERA, CON SUS '' ESCAPADAS
+                i++;
+                while (i < sql.length() && !(sql.charAt(i) == '\'' && !nextIsQuote(sql, i))) {
+                    i += sql.charAt(i) == '\'' ? 2 : 1;
+                }
+                shape.append('?');
+                i++;
+            } else if (Character.isDigit(c) && (i == 0 || !isIdentifierPart(sql.charAt(i - 1)))) {
+                // NÚMERO SUELTO, NO PARTE DE UN NOMBRE COMO t1_0
+                while (i < sql.length() && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                shape.append('?');
+            } else {
+                shape.append(c);
+                i++;
+            }
+        }
+        return shape.toString();
+    }
+
+    private static boolean nextIsQuote(String sql, int i) {
+        return i + 1 < sql.length() && sql.charAt(i + 1) == '\'';
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /**
+     * MANEJADOR DE LA CONEXIÓN: ENVUELVE LAS SENTENCIAS QUE CREA Y DELEGA EL RESTO
+     */
+    private static class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            Object result = invokeTarget(target, method, args);
+            String name = method.getName();
+            if (result instanceof Statement statement
+                    && (name.equals("prepareStatement") || name.equals("prepareCall"))) {
+                return wrapStatement(statement, (String) args[0]);
+            }
+            if (result instanceof Statement statement && name.equals("createStatement")) {
+                return wrapStatement(statement, null);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * MANEJADOR DE LA SENTENCIA: CRONOMETRA LOS execute* Y DELEGA EL RESTO
+     */
+    private static class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String sql;
+
+        StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (!method.getName().startsWith("execute")) {
+                return invokeTarget(target, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return invokeTarget(target, method, args);
+            } finally {
+                String shape = sql;
+                if (shape == null && args != null && args.length > 0 && args[0] instanceof String literal) {
+                    shape = shapeOf(literal);
+                }
+                record(shape, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * LLAMO AL OBJETO REAL DEVOLVIENDO SU EXCEPCIÓN ORIGINAL
+     *
+     * @param target objeto real
+     * @param method método invocado
+     * @param args argumentos
+     * @return lo que devuelve el objeto real
+     * @throws Throwable la excepción del objeto real
+     */
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * CONTADORES DE UN HILO (SOLO LOS TOCA ESE HILO)
+     */
+    private static class ThreadQueries {
+        private long count;
+        private long nanos;
+        private long requestStartCount;
+        private long requestStartNanos;
+        // SENTENCIA -> VECES EN LA PETICIÓN ACTUAL (null FUERA DE UNA PETICIÓN)
+        private Map<String, int[]> shapes;
+    }
+
+    /**
+     * LO QUE HA HECHO UNA PETICIÓN EN LA BD
+     */
+    public static class RequestQueries {
+
+        private final long count;
+        private final long nanos;
+        private final String mostRepeatedSql;
+        private final int maxRepeat;
+
+        public RequestQueries(long count, long nanos, String mostRepeatedSql, int maxRepeat) {
+            this.count = count;
+            this.nanos = nanos;
+            this.mostRepeatedSql = mostRepeatedSql;
+            this.maxRepeat = maxRepeat;
+        }
+
+        public long getCount() { return count; }
+        public long getNanos() { return nanos; }
+        public String getMostRepeatedSql() { return mostRepeatedSql; }
+        public int getMaxRepeat() { return maxRepeat; }
+    }
+}
@@ -0,0 +1,67 @@
+package com.taskmanager.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * CONFIGURACIÓN DEL CONTEO DE CONSULTAS SQL POR PETICIÓN (app.query-tracking.enabled)
+ * ENVUELVO EL DATASOURCE DE LA APLICACIÓN EN QueryCountingDataSource Y REGISTRO QueryTrackingFilter
+ *
+ * ACTIVO TAMBIÉN EN LOS TESTS: UN N+1 NUEVO SALE COMO AVISO EN EL LOG Y EN taskmanager.http.query.warnings
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.query-tracking.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryTrackingConfig {
+
+    /**
+     * ENVUELVO EL DATASOURCE "dataSource" (EL DE SPRING BOOT O EL ENRUTADOR DE LA RÉPLICA)
+     * LOS POOLS DE ReadReplicaConfig QUEDAN SIN ENVOLVER: SOLO LOS USA EL ENRUTADOR Y EL MONITOR DE RETRASO
+     *
+     * @return post-procesador del datasource
+     */
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof QueryCountingDataSource)
+                        && beanName.equals("dataSource")) {
+                    return new QueryCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * REGISTRO EL FILTRO DETRÁS DEL DE PERFILADO Y DELANTE DEL DE SPRING SESSION
+     *
+     * @param meterRegistry registro de métricas
+     * @param headers si añado las cabeceras X-Query-*
+     * @param maxPerRequest consultas por petición a partir de las que aviso
+     * @param repeatThreshold repeticiones de una sentencia a partir de las que aviso
+     * @return registro del filtro en el servlet
+     */
+    @Bean
+    public FilterRegistrationBean<QueryTrackingFilter> queryTrackingFilter(
+            MeterRegistry meterRegistry,
+            @Value("${app.query-tracking.headers:true}") boolean headers,
+            @Value("${app.query-tracking.max-per-request:30}") int maxPerRequest,
+            @Value("${app.query-tracking.repeat-threshold:5}") int repeatThreshold) {
+        FilterRegistrationBean<QueryTrackingFilter> registration = new FilterRegistrationBean<>(
+                new QueryTrackingFilter(meterRegistry, headers, maxPerRequest, repeatThreshold));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
@@ -0,0 +1,172 @@
+package com.taskmanager.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FILTRO QUE CUENTA LAS CONSULTAS SQL DE CADA PETICIÓN HTTP (LAS MIDE QueryCountingDataSource)
+ * - MÉTRICAS POR RUTA: taskmanager.http.queries (CONSULTAS) Y taskmanager.http.query.time (TIEMPO EN LA BD)
+ * - CABECERAS X-Query-Count Y X-Query-Time-Ms CON LO HECHO HASTA ENVIAR LA RESPUESTA (SI headers=true)
+ * - AVISO EN EL LOG Y taskmanager.http.query.warnings SI LA PETICIÓN PASA DE max-per-request CONSULTAS
+ *   O REPITE LA MISMA SENTENCIA repeat-threshold VECES, QUE ES EL SÍNTOMA DE UN N+1
+ *
+ * VA ANTES QUE SPRING SESSION (LO REGISTRA QueryTrackingConfig), ASÍ LA CARGA Y EL GUARDADO
+ * DE LA SESIÓN CUENTAN EN LA PETICIÓN
+ *
+ * NO ES UN @Component PARA QUE SPRING BOOT NO LO REGISTRE OTRA VEZ COMO FILTRO DEL SERVLET
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+public class QueryTrackingFilter extends OncePerRequestFilter {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String QUERY_TIME_HEADER = "X-Query-Time-Ms";
+
+    // LONGITUD MÁXIMA DEL SQL QUE SE ESCRIBE EN EL AVISO
+    private static final int MAX_LOGGED_SQL = 300;
+
+    private final MeterRegistry meterRegistry;
+    private final boolean headers;
+    private final int maxPerRequest;
+    private final int repeatThreshold;
+
+    /**
+     * CREO EL FILTRO
+     *
+     * @param meterRegistry registro de métricas
+     * @param headers si añado las cabeceras con las consultas a la respuesta
+     * @param maxPerRequest consultas a partir de las que aviso
+     * @param repeatThreshold repeticiones de una misma sentencia a partir de las que aviso
+     */
+    public QueryTrackingFilter(MeterRegistry meterRegistry, boolean headers, int maxPerRequest, int repeatThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.headers = headers;
+        this.maxPerRequest = maxPerRequest;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    /**
+     * CUENTO LAS CONSULTAS DE LA PETICIÓN, LAS PUBLICO Y AVISO SI HAY DEMASIADAS
+     *
+     * @param request petición actual
+     * @param response respuesta
+     * @param filterChain resto de la cadena
+     * @throws ServletException si falla la cadena
+     * @throws IOException si falla la escritura de la respuesta
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        QueryCountingDataSource.beginRequest();
+        QueryHeadersResponse headersResponse = headers ? new QueryHeadersResponse(response) : null;
+
+        try {
+            filterChain.doFilter(request, headersResponse != null ? headersResponse : response);
+        } finally {
+            if (headersResponse != null) {
+                // SI NADIE HA ENVIADO AÚN LA RESPUESTA LAS ESCRIBO AHORA, CON TODAS LAS CONSULTAS
+                headersResponse.writeHeaders();
+            }
+            QueryCountingDataSource.RequestQueries queries = QueryCountingDataSource.endRequest();
+            record(request, queries);
+        }
+    }
+
+    /**
+     * PUBLICO LAS MÉTRICAS DE LA RUTA Y AVISO SI PASA DE LOS UMBRALES
+     *
+     * @param request petición terminada
+     * @param queries lo que ha hecho en la BD
+     */
+    private void record(HttpServletRequest request, QueryCountingDataSource.RequestQueries queries) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : "otras";
+        String method = request.getMethod();
+
+        DistributionSummary.builder("taskmanager.http.queries")
+                .description("Consultas SQL por petición HTTP")
+                .tag("method", method)
+                .tag("route", route)
+                .register(meterRegistry)
+                .record(queries.getCount());
+        Timer.builder("taskmanager.http.query.time")
+                .description("Tiempo esperando a la base de datos por petición HTTP")
+                .tag("method", method)
+                .tag("route", route)
+                .register(meterRegistry)
+                .record(queries.getNanos(), TimeUnit.NANOSECONDS);
+
+        if (queries.getCount() > maxPerRequest) {
+            warningCounter(method, route, "too_many").increment();
+            System.out.println("⚠️ " + method + " " + route + " HIZO " + queries.getCount()
+                    + " CONSULTAS (MÁXIMO " + maxPerRequest + ")");
+        }
+        if (queries.getMaxRepeat() >= repeatThreshold) {
+            warningCounter(method, route, "repeated").increment();
+            String sql = queries.getMostRepeatedSql();
+            System.out.println("⚠️ POSIBLE N+1 EN " + method + " " + route + ": " + queries.getMaxRepeat()
+                    + " VECES LA MISMA CONSULTA: "
+                    + (sql.length() > MAX_LOGGED_SQL ? sql.substring(0, MAX_LOGGED_SQL) + "..." : sql));
+        }
+    }
+
+    /**
+     * CONTADOR DE AVISOS DE LA RUTA
+     *
+     * @param method método HTTP
+     * @param route patrón de la ruta
+     * @param type too_many O repeated
+     * @return contador
+     */
+    private Counter warningCounter(String method, String route, String type) {
+        return Counter.builder("taskmanager.http.query.warnings")
+                .description("Peticiones con demasiadas consultas o con la misma consulta repetida")
+                .tag("method", method)
+                .tag("route", route)
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    /**
+     * RESPUESTA QUE AÑADE LAS CABECERAS DE CONSULTAS JUSTO ANTES DE ENVIARSE
+     * LO QUE SE CONSULTE DESPUÉS (GUARDAR LA SESIÓN) SOLO CUENTA EN LAS MÉTRICAS
+     */
+    private static class QueryHeadersResponse extends OnCommittedResponseWrapper {
+
+        private final long startCount = QueryCountingDataSource.currentThreadCount();
+        private final long startNanos = QueryCountingDataSource.currentThreadNanos();
+        private boolean written;
+
+        QueryHeadersResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeaders();
+        }
+
+        void writeHeaders() {
+            if (written || isCommitted()) {
+                return;
+            }
+            written = true;
+            long nanos = QueryCountingDataSource.currentThreadNanos() - startNanos;
+            setHeader(QUERY_COUNT_HEADER, Long.toString(QueryCountingDataSource.currentThreadCount() - startCount));
+            setHeader(QUERY_TIME_HEADER, Long.toString(TimeUnit.NANOSECONDS.toMillis(nanos)));
+        }
+    }
+}
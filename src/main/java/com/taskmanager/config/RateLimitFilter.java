@@ -0,0 +1,128 @@
+package com.taskmanager.config;
+
+import com.taskmanager.model.UserRole;
+import com.taskmanager.service.RateLimitService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FILTRO QUE APLICA EL LIMITADOR DE PETICIONES A LAS RUTAS CARAS (PAGO, ESTADO DEL PAGO, API)
+ * VA EN LA CADENA DE SecurityConfig DESPUÉS DE LA AUTORIZACIÓN: SOLO CUENTA PETICIONES DE USUARIOS
+ * AUTENTICADOS QUE YA TIENEN PERMISO, Y LAS DEMÁS LAS CORTA SPRING SECURITY SIN LLEGAR AQUÍ
+ *
+ * SI EL USUARIO SE HA QUEDADO SIN TOKENS RESPONDO 429 CON Retry-After EN SEGUNDOS; EL CUERPO
+ * LO PINTA EL CONTROLADOR DE ERRORES (HTML PARA EL NAVEGADOR, JSON PARA fetch)
+ *
+ * NO ES UN @Component PARA QUE SPRING BOOT NO LO REGISTRE OTRA VEZ COMO FILTRO DEL SERVLET
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitService rateLimitService;
+    private final boolean enabled;
+    private final List<LimitedRoute> routes = new ArrayList<>();
+
+    /**
+     * CREO EL FILTRO CON LAS RUTAS CONFIGURADAS
+     *
+     * @param rateLimitService servicio con los cubos de tokens
+     * @param properties rutas y límites
+     */
+    public RateLimitFilter(RateLimitService rateLimitService, RateLimitProperties properties) {
+        this.rateLimitService = rateLimitService;
+        this.enabled = properties.isEnabled();
+
+        for (Map.Entry<String, RateLimitProperties.Route> entry : properties.getRoutes().entrySet()) {
+            RateLimitProperties.Route route = entry.getValue();
+            List<RequestMatcher> matchers = new ArrayList<>();
+            for (String pattern : route.getPatterns()) {
+                matchers.add(new AntPathRequestMatcher(pattern, route.getMethod()));
+            }
+            if (!matchers.isEmpty()) {
+                routes.add(new LimitedRoute(entry.getKey(), route, new OrRequestMatcher(matchers)));
+            }
+        }
+    }
+
+    /**
+     * SOLO FILTRO SI EL LIMITADOR ESTÁ ACTIVO
+     *
+     * @param request petición actual
+     * @return true si no hay que limitar
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || routes.isEmpty();
+    }
+
+    /**
+     * GASTO UN TOKEN DEL USUARIO EN LA PRIMERA RUTA QUE COINCIDA O RESPONDO 429
+     *
+     * @param request petición actual
+     * @param response respuesta
+     * @param filterChain resto de la cadena
+     * @throws ServletException si falla la cadena
+     * @throws IOException si falla la escritura de la respuesta
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
+            for (LimitedRoute route : routes) {
+                if (!route.matcher().matches(request)) {
+                    continue;
+                }
+
+                long retryAfterSeconds;
+                if (auth instanceof ApiTokenAuthentication apiToken) {
+                    // EL TOKEN YA TRAE EL NIVEL: NO HACE FALTA BUSCAR LA SUSCRIPCIÓN
+                    retryAfterSeconds = rateLimitService.tryAcquire(auth.getName(), apiToken.getTier(),
+                            route.name(), route.config());
+                } else {
+                    boolean admin = auth.getAuthorities().stream()
+                            .anyMatch(authority -> UserRole.ADMIN.getAuthority().equals(authority.getAuthority()));
+                    retryAfterSeconds = rateLimitService.tryAcquire(auth.getName(), admin, route.name(), route.config());
+                }
+                if (retryAfterSeconds > 0) {
+                    response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+                    response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(),
+                            "Demasiadas peticiones, vuelve a intentarlo en " + retryAfterSeconds + " s");
+                    return;
+                }
+                break;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * RUTA CONFIGURADA CON SU MATCHER YA CONSTRUIDO
+     *
+     * @param name nombre de la ruta
+     * @param config límites de la ruta
+     * @param matcher patrones de la ruta
+     */
+    private record LimitedRoute(String name, RateLimitProperties.Route config, RequestMatcher matcher) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.taskmanager.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PROPIEDADES DEL LIMITADOR DE PETICIONES POR USUARIO Y RUTA
+ * CADA RUTA LIMITADA TIENE SUS PATRONES DE URL Y UN CUBO DE TOKENS POR NIVEL:
+ * ADMIN SALE DEL ROL DEL USUARIO Y, PARA EL RESTO, PREMIUM O FREE SALE DE SU SUSCRIPCIÓN
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * NIVELES CON LÍMITES PROPIOS
+     */
+    public enum Tier {
+        FREE,
+        PREMIUM,
+        ADMIN
+    }
+
+    // INTERRUPTOR GENERAL
+    private boolean enabled = true;
+
+    // MÁXIMO DE CUBOS EN MEMORIA (UNO POR USUARIO, RUTA Y NIVEL)
+    private long maxBuckets = 100000;
+
+    // MINUTOS SIN PETICIONES TRAS LOS QUE SE OLVIDA UN CUBO (VUELVE LLENO)
+    private long idleMinutes = 10;
+
+    // SEGUNDOS QUE RECUERDO SI UN USUARIO ES PREMIUM ANTES DE CONSULTAR OTRA VEZ LA BD
+    private long tierCacheSeconds = 60;
+
+    // RUTAS LIMITADAS POR NOMBRE (EL NOMBRE SALE EN LAS MÉTRICAS)
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    /**
+     * RUTA LIMITADA: PATRONES DE URL, MÉTODO OPCIONAL Y LÍMITE DE CADA NIVEL
+     */
+    public static class Route {
+
+        // PATRONES AL ESTILO DE SecurityConfig, POR EJEMPLO /payment/status/**
+        private List<String> patterns = new ArrayList<>();
+
+        // MÉTODO HTTP LIMITADO (VACÍO = TODOS)
+        private String method;
+
+        // LÍMITE DE CADA NIVEL; UN NIVEL SIN LÍMITE NO SE LIMITA
+        private Map<Tier, Limit> limits = new EnumMap<>(Tier.class);
+
+        public List<String> getPatterns() { return patterns; }
+        public void setPatterns(List<String> patterns) { this.patterns = patterns; }
+
+        public String getMethod() { return method; }
+        public void setMethod(String method) { this.method = method; }
+
+        public Map<Tier, Limit> getLimits() { return limits; }
+        public void setLimits(Map<Tier, Limit> limits) { this.limits = limits; }
+    }
+
+    /**
+     * CUBO DE TOKENS: capacity ES LA RÁFAGA MÁXIMA Y refill-per-minute EL RITMO SOSTENIDO
+     */
+    public static class Limit {
+
+        private long capacity = 60;
+
+        private long refillPerMinute = 60;
+
+        public long getCapacity() { return capacity; }
+        public void setCapacity(long capacity) { this.capacity = capacity; }
+
+        public long getRefillPerMinute() { return refillPerMinute; }
+        public void setRefillPerMinute(long refillPerMinute) { this.refillPerMinute = refillPerMinute; }
+    }
+
+    // GETTERS Y SETTERS
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public long getMaxBuckets() { return maxBuckets; }
+    public void setMaxBuckets(long maxBuckets) { this.maxBuckets = maxBuckets; }
+
+    public long getIdleMinutes() { return idleMinutes; }
+    public void setIdleMinutes(long idleMinutes) { this.idleMinutes = idleMinutes; }
+
+    public long getTierCacheSeconds() { return tierCacheSeconds; }
+    public void setTierCacheSeconds(long tierCacheSeconds) { this.tierCacheSeconds = tierCacheSeconds; }
+
+    public Map<String, Route> getRoutes() { return routes; }
+    public void setRoutes(Map<String, Route> routes) { this.routes = routes; }
+}
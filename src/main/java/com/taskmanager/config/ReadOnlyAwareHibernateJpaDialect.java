@@ -0,0 +1,92 @@
+package com.taskmanager.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * DIALECTO JPA QUE HACE DE SOLO LECTURA TAMBIÉN LAS TRANSACCIONES readOnly DENTRO DE OPEN-IN-VIEW
+ *
+ * SPRING SOLO CARGA LAS ENTIDADES SIN SNAPSHOT CUANDO LA TRANSACCIÓN ABRE SU PROPIA SESIÓN; CON
+ * OPEN-IN-VIEW LA SESIÓN ES DE LA PETICIÓN Y SOLO PONE FlushMode.MANUAL. AQUÍ ACTIVO EL MODO SOLO
+ * LECTURA DE LA SESIÓN DURANTE LA TRANSACCIÓN Y LO QUITO AL TERMINAR
+ *
+ * COMO LAS ENTIDADES LEÍDAS ASÍ SIGUEN EN LA SESIÓN (POR EJEMPLO, LA TAREA QUE SE CARGA PARA COMPROBAR
+ * EL DUEÑO ANTES DE EDITARLA), AL EMPEZAR UNA TRANSACCIÓN DE ESCRITURA LAS VUELVO EDITABLES
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+public class ReadOnlyAwareHibernateJpaDialect extends HibernateJpaDialect {
+
+    /**
+     * EMPIEZO LA TRANSACCIÓN AJUSTANDO EL MODO SOLO LECTURA DE LA SESIÓN
+     *
+     * @param entityManager entity manager de la transacción o de la petición
+     * @param definition definición de la transacción
+     * @return datos de la transacción para la limpieza
+     */
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+
+        if (!definition.isReadOnly()) {
+            makeEntitiesWritable(session);
+        }
+
+        Object transactionData = super.beginTransaction(entityManager, definition);
+
+        // SESIÓN DE LA PETICIÓN: SPRING NO LA HA PUESTO EN SOLO LECTURA
+        if (definition.isReadOnly() && !session.isDefaultReadOnly()) {
+            session.setDefaultReadOnly(true);
+            return new ReadOnlySessionData(session, transactionData);
+        }
+        return transactionData;
+    }
+
+    /**
+     * AL TERMINAR DEVUELVO LA SESIÓN DE LA PETICIÓN A SU MODO NORMAL
+     *
+     * @param transactionData datos devueltos por beginTransaction
+     */
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReadOnlySessionData readOnlyData) {
+            readOnlyData.session().setDefaultReadOnly(false);
+            super.cleanupTransaction(readOnlyData.delegate());
+            return;
+        }
+        super.cleanupTransaction(transactionData);
+    }
+
+    /**
+     * VUELVO EDITABLES LAS ENTIDADES CARGADAS EN SOLO LECTURA; HIBERNATE LES TOMA EL SNAPSHOT AHORA
+     *
+     * @param session sesión de Hibernate
+     */
+    private void makeEntitiesWritable(SessionImplementor session) {
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if (entry.getValue().getStatus() == Status.READ_ONLY) {
+                session.setReadOnly(entry.getKey(), false);
+            }
+        }
+    }
+
+    /**
+     * DATOS DE UNA TRANSACCIÓN readOnly SOBRE LA SESIÓN DE LA PETICIÓN
+     *
+     * @param session sesión puesta en solo lectura
+     * @param delegate datos de la transacción de HibernateJpaDialect
+     */
+    private record ReadOnlySessionData(SessionImplementor session, Object delegate) {
+    }
+}
@@ -0,0 +1,144 @@
+package com.taskmanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * CONFIGURACIÓN DE LA RÉPLICA DE LECTURA
+ * SOLO SE ACTIVA CON app.datasource.replica.enabled=true; SIN ELLA SPRING BOOT CREA SU DATASOURCE DE SIEMPRE
+ *
+ * CREO DOS POOLS HIKARI (PRIMARIA Y RÉPLICA) Y LOS EXPONGO COMO UN ÚNICO DATASOURCE QUE ENRUTA
+ * LAS TRANSACCIONES DE SOLO LECTURA A LA RÉPLICA. ASÍ LOS INFORMES Y LISTADOS NO COMPITEN
+ * CON LAS ESCRITURAS DEL CHECKOUT POR LAS CONEXIONES DE LA PRIMARIA
+ *
+ * ACTUATOR PUBLICA LAS MÉTRICAS hikaricp.* DE CADA POOL (ETIQUETA pool) Y LAS DE ENRUTADO Y RETRASO
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    /**
+     * PROPIEDADES DE LA PRIMARIA (spring.datasource.*), LAS MISMAS QUE SIN RÉPLICA
+     *
+     * @return propiedades de conexión de la primaria
+     */
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties primaryDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    /**
+     * POOL DE LA PRIMARIA, CONFIGURABLE CON spring.datasource.hikari.*
+     *
+     * @param properties propiedades de la primaria
+     * @return pool de escrituras
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("TaskManagerPrimary");
+        return dataSource;
+    }
+
+    /**
+     * PROPIEDADES DE LA RÉPLICA (app.datasource.replica.url, username, password...)
+     *
+     * @return propiedades de conexión de la réplica
+     */
+    @Bean
+    @ConfigurationProperties("app.datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    /**
+     * POOL DE LA RÉPLICA, CONFIGURABLE CON app.datasource.replica.hikari.*
+     *
+     * @param properties propiedades de la réplica
+     * @return pool de lecturas
+     */
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Qualifier("replicaDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("TaskManagerReplica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * MONITOR DEL RETRASO DE LA RÉPLICA
+     *
+     * @param primaryDataSource pool de la primaria
+     * @param replicaDataSource pool de la réplica
+     * @param maxLagMs retraso máximo antes de volver a la primaria
+     * @param meterRegistry registro de métricas
+     * @return monitor con su tarea programada
+     */
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                               @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               @Value("${app.datasource.replica.max-lag-ms:5000}") long maxLagMs,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(primaryDataSource, replicaDataSource, maxLagMs, meterRegistry);
+    }
+
+    /**
+     * DATASOURCE QUE USAN JPA, FLYWAY Y JDBC: ENRUTADOR ENVUELTO EN UN PROXY PEREZOSO
+     *
+     * @param primaryDataSource pool de la primaria
+     * @param replicaDataSource pool de la réplica
+     * @param replicaLagMonitor monitor del retraso
+     * @param meterRegistry registro de métricas
+     * @return datasource principal de la aplicación
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 MeterRegistry meterRegistry) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(replicaLagMonitor, meterRegistry);
+        routing.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Route.PRIMARY, primaryDataSource,
+                ReadWriteRoutingDataSource.Route.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * HIBERNATE DEVUELVE LA CONEXIÓN AL ACABAR CADA TRANSACCIÓN
+     * CON OPEN-IN-VIEW LA SESIÓN VIVE TODA LA PETICIÓN; SI GUARDARA LA CONEXIÓN, UNA ESCRITURA
+     * DESPUÉS DE UNA LECTURA REUTILIZARÍA LA CONEXIÓN DE LA RÉPLICA
+     *
+     * @return personalizador de propiedades de Hibernate
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransactionCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,82 @@
+package com.taskmanager.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * DATASOURCE QUE ELIGE POOL POR TRANSACCIÓN
+ * LAS TRANSACCIONES @Transactional(readOnly = true) VAN A LA RÉPLICA Y EL RESTO A LA PRIMARIA
+ *
+ * SE USA DETRÁS DE UN LazyConnectionDataSourceProxy: ASÍ LA CONEXIÓN REAL SE PIDE EN LA PRIMERA
+ * SENTENCIA, CUANDO SPRING YA HA MARCADO LA TRANSACCIÓN COMO DE SOLO LECTURA
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * POOLS DISPONIBLES
+     */
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final Counter primaryCounter;
+    private final Counter replicaCounter;
+    private final Counter fallbackCounter;
+
+    /**
+     * CREO EL ENRUTADOR CON UN CONTADOR POR DESTINO
+     *
+     * @param replicaLagMonitor monitor del retraso de la réplica
+     * @param meterRegistry registro de métricas
+     */
+    public ReadWriteRoutingDataSource(ReplicaLagMonitor replicaLagMonitor, MeterRegistry meterRegistry) {
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.primaryCounter = routingCounter(meterRegistry, Route.PRIMARY, "write");
+        this.replicaCounter = routingCounter(meterRegistry, Route.REPLICA, "read");
+        this.fallbackCounter = routingCounter(meterRegistry, Route.PRIMARY, "replica-fallback");
+    }
+
+    /**
+     * DECIDO EL POOL DE LA CONEXIÓN QUE SE VA A ABRIR
+     *
+     * @return clave del pool
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryCounter.increment();
+            return Route.PRIMARY;
+        }
+
+        if (!replicaLagMonitor.isReplicaUsable()) {
+            fallbackCounter.increment();
+            return Route.PRIMARY;
+        }
+
+        replicaCounter.increment();
+        return Route.REPLICA;
+    }
+
+    /**
+     * CREO EL CONTADOR DE CONEXIONES ENRUTADAS
+     *
+     * @param meterRegistry registro de métricas
+     * @param route pool destino
+     * @param reason motivo
+     * @return contador
+     */
+    private static Counter routingCounter(MeterRegistry meterRegistry, Route route, String reason) {
+        return Counter.builder("taskmanager.datasource.routing")
+                .description("Conexiones entregadas por el DataSource de lectura/escritura")
+                .tag("pool", route.name().toLowerCase())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
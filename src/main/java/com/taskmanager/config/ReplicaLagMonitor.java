@@ -0,0 +1,107 @@
+package com.taskmanager.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+
+/**
+ * VIGILO EL RETRASO DE LA RÉPLICA DE LECTURA CON UNA TABLA DE LATIDOS
+ * EN CADA CICLO ESCRIBO LA HORA EN LA PRIMARIA Y LEO EL ÚLTIMO LATIDO QUE HA LLEGADO A LA RÉPLICA;
+ * LA DIFERENCIA ES EL RETRASO DE REPLICACIÓN (MÁS, COMO MUCHO, UN INTERVALO DE LATIDO)
+ *
+ * SI EL RETRASO SUPERA EL MÁXIMO O LA RÉPLICA NO RESPONDE, LAS LECTURAS VUELVEN A LA PRIMARIA
+ * HASTA QUE SE RECUPERA. FUNCIONA IGUAL CON POSTGRESQL QUE CON DOS H2 EN LOCAL
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final long maxLagMs;
+
+    // RETRASO MEDIDO EN EL ÚLTIMO CICLO (-1 = SIN MEDIDA)
+    private volatile long lagMs = -1;
+
+    // HASTA LA PRIMERA MEDIDA LA RÉPLICA NO SE USA
+    private volatile boolean replicaUsable = false;
+
+    /**
+     * CREO EL MONITOR Y PUBLICO EL RETRASO COMO MÉTRICA
+     *
+     * @param primaryDataSource pool de la primaria
+     * @param replicaDataSource pool de la réplica
+     * @param maxLagMs retraso máximo tolerado
+     * @param meterRegistry registro de métricas
+     */
+    public ReplicaLagMonitor(DataSource primaryDataSource, DataSource replicaDataSource, long maxLagMs,
+                             MeterRegistry meterRegistry) {
+        this.primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.replicaJdbcTemplate.setQueryTimeout(1);
+        this.maxLagMs = maxLagMs;
+
+        Gauge.builder("taskmanager.datasource.replica.lag", this, ReplicaLagMonitor::getLagMs)
+                .description("Retraso de replicación medido con la tabla de latidos (-1 = sin medida)")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("taskmanager.datasource.replica.usable", this, monitor -> monitor.isReplicaUsable() ? 1 : 0)
+                .description("1 si las lecturas van a la réplica, 0 si vuelven a la primaria")
+                .register(meterRegistry);
+    }
+
+    /**
+     * ESCRIBO EL LATIDO EN LA PRIMARIA Y MIDO EL RETRASO DE LA RÉPLICA
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.heartbeat-interval-ms:1000}")
+    public void refresh() {
+        long now = System.currentTimeMillis();
+
+        try {
+            primaryJdbcTemplate.update("update replication_heartbeat set beat_at = ? where id = 1", new Timestamp(now));
+        } catch (DataAccessException e) {
+            System.out.println("⚠️ NO SE PUDO ESCRIBIR EL LATIDO EN LA PRIMARIA: " + e.getMessage());
+        }
+
+        boolean wasUsable = replicaUsable;
+        try {
+            Timestamp lastBeat = replicaJdbcTemplate.queryForObject(
+                    "select beat_at from replication_heartbeat where id = 1", Timestamp.class);
+            lagMs = lastBeat != null ? Math.max(0, now - lastBeat.getTime()) : -1;
+            replicaUsable = lagMs >= 0 && lagMs <= maxLagMs;
+        } catch (DataAccessException e) {
+            lagMs = -1;
+            replicaUsable = false;
+        }
+
+        if (wasUsable != replicaUsable) {
+            System.out.println(replicaUsable
+                    ? "✅ RÉPLICA DE LECTURA DISPONIBLE - Retraso: " + lagMs + " ms"
+                    : "⚠️ RÉPLICA DE LECTURA FUERA DE SERVICIO, LEO DE LA PRIMARIA - Retraso: " + lagMs + " ms");
+        }
+    }
+
+    /**
+     * INDICO SI LAS LECTURAS PUEDEN IR A LA RÉPLICA
+     *
+     * @return true si la réplica responde y está dentro del retraso máximo
+     */
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    /**
+     * OBTENGO EL ÚLTIMO RETRASO MEDIDO
+     *
+     * @return retraso en milisegundos o -1 si no hay medida
+     */
+    public long getLagMs() {
+        return lagMs;
+    }
+}
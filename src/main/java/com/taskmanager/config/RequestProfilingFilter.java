@@ -0,0 +1,81 @@
+package com.taskmanager.config;
+
+import com.taskmanager.event.RequestProfileEvent;
+import com.taskmanager.service.ProfilingService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * FILTRO DEL MODO DE PERFILADO QUE MIDE CADA PETICIÓN HTTP COMPLETA
+ * VA EL PRIMERO DE LA CADENA DEL SERVLET (LO REGISTRA ProfilingConfig), ASÍ LA SEGURIDAD,
+ * LA SESIÓN Y EL RENDERIZADO DE LA VISTA CUENTAN EN LA MEDIDA
+ *
+ * AGRUPO POR EL PATRÓN DE LA RUTA (/api/locations/{id}) Y NO POR LA URI PARA NO TENER UNA
+ * ENTRADA POR CADA ID; LO QUE NO ATIENDE NINGÚN CONTROLADOR VA A "otras"
+ *
+ * NO ES UN @Component PARA QUE SOLO EXISTA CON app.profiling.enabled=true
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+public class RequestProfilingFilter extends OncePerRequestFilter {
+
+    private final ProfilingService profilingService;
+
+    /**
+     * CREO EL FILTRO
+     *
+     * @param profilingService servicio que acumula las medidas
+     */
+    public RequestProfilingFilter(ProfilingService profilingService) {
+        this.profilingService = profilingService;
+    }
+
+    /**
+     * MIDO LA PETICIÓN, EMITO EL EVENTO JFR Y LA ACUMULO EN EL RESUMEN
+     *
+     * @param request petición actual
+     * @param response respuesta
+     * @param filterChain resto de la cadena
+     * @throws ServletException si falla la cadena
+     * @throws IOException si falla la escritura de la respuesta
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestProfileEvent event = new RequestProfileEvent();
+        event.begin();
+        long startNanos = System.nanoTime();
+        long startBytes = profilingService.currentThreadAllocatedBytes();
+        long startQueries = QueryCountingDataSource.currentThreadCount();
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long allocatedBytes = startBytes < 0 ? 0 : profilingService.currentThreadAllocatedBytes() - startBytes;
+            long queries = QueryCountingDataSource.currentThreadCount() - startQueries;
+            long nanos = System.nanoTime() - startNanos;
+
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String route = pattern != null ? pattern.toString() : "otras";
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = request.getMethod();
+                event.route = route;
+                event.status = response.getStatus();
+                event.allocatedBytes = allocatedBytes;
+                event.queries = queries;
+                event.commit();
+            }
+
+            profilingService.recordRequest(request.getMethod() + " " + route, nanos, allocatedBytes, queries);
+        }
+    }
+}
@@ -1,15 +1,35 @@
 package com.taskmanager.config;
 
+import com.taskmanager.service.ApiTokenService;
+import com.taskmanager.service.RateLimitService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.session.SessionRegistry;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
+import org.springframework.security.web.authentication.ExceptionMappingAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+
+import java.util.Map;
 
 /**
  * Configuración de seguridad para la aplicación Task Manager.
@@ -34,6 +54,30 @@ public class SecurityConfig {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    /**
+     * Coste de BCrypt. Al subirlo, los hashes antiguos se rehashean en el siguiente login correcto.
+     */
+    @Value("${app.security.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    /**
+     * Hilos que pueden hashear a la vez; 0 usa la mitad de los procesadores.
+     */
+    @Value("${app.security.bcrypt.threads:0}")
+    private int bcryptThreads;
+
+    /**
+     * Hashes que pueden esperar en cola antes de rechazar.
+     */
+    @Value("${app.security.bcrypt.queue-capacity:50}")
+    private int bcryptQueueCapacity;
+
+    /**
+     * Espera máxima de cada hash, cola incluida.
+     */
+    @Value("${app.security.bcrypt.timeout-ms:5000}")
+    private long bcryptTimeoutMs;
+
     /**
      * Configuro el encoder de contraseñas utilizando BCrypt.
      *
@@ -41,11 +85,74 @@ public class SecurityConfig {
      * seguro y resistente a ataques de fuerza bruta. Este encoder
      * genera un salt único para cada contraseña.</p>
      *
+     * <p>El hash se hace en un pool propio y acotado para que una avalancha
+     * de logins no deje sin CPU al resto de páginas.</p>
+     *
+     * @param meterRegistry registro de métricas para la cola del pool
      * @return PasswordEncoder configurado con BCrypt
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        int threads = bcryptThreads > 0
+                ? bcryptThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength),
+                threads, bcryptQueueCapacity, bcryptTimeoutMs, meterRegistry);
+    }
+
+    /**
+     * Defino la cadena sin sesión para las peticiones a la API que traen un token.
+     *
+     * <p>Solo atiende las rutas /api/** con cabecera Authorization: Bearer. El token
+     * firmado lleva el id, el rol y el plan del usuario, así que autenticar la petición
+     * no consulta la BD ni lee ni crea la sesión. Las llamadas del navegador sin token
+     * siguen por la cadena principal con su cookie de sesión.</p>
+     *
+     * @param http objeto HttpSecurity para configurar la seguridad web
+     * @param apiTokenService servicio que verifica los tokens
+     * @param rateLimitService cubos de tokens del limitador de peticiones
+     * @param rateLimitProperties rutas limitadas y sus límites
+     * @return SecurityFilterChain de la API sin sesión
+     * @throws Exception si ocurre error durante la configuración
+     */
+    @Bean
+    @Order(1)
+    @ConditionalOnProperty(name = "app.security.api-token.enabled", havingValue = "true", matchIfMissing = true)
+    public SecurityFilterChain apiTokenFilterChain(HttpSecurity http, ApiTokenService apiTokenService,
+                                                   RateLimitService rateLimitService,
+                                                   RateLimitProperties rateLimitProperties) throws Exception {
+        http
+                // Solo peticiones a la API con token; el resto sigue por la cadena principal
+                .securityMatcher(new AndRequestMatcher(
+                        new AntPathRequestMatcher("/api/**"),
+                        request -> {
+                            String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+                            return header != null && header.startsWith(ApiTokenFilter.BEARER_PREFIX);
+                        }))
+
+                // Mismas reglas por rol que en la cadena principal
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/api/locations/**").hasAnyRole("USER", "ADMIN")
+                        .requestMatchers("/api/sync").hasAnyRole("USER", "ADMIN")
+                        .anyRequest().authenticated()
+                )
+
+                // Verifico el token antes de que la petición se considere anónima
+                .addFilterBefore(new ApiTokenFilter(apiTokenService), AnonymousAuthenticationFilter.class)
+                .addFilterAfter(new RateLimitFilter(rateLimitService, rateLimitProperties), AuthorizationFilter.class)
+
+                // Sin sesión: el contexto de seguridad vive solo lo que dura la petición
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .securityContext(context -> context
+                        .securityContextRepository(new RequestAttributeSecurityContextRepository()))
+                .requestCache(cache -> cache.disable())
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+
+                // Sin cookies no hay CSRF que proteger
+                .csrf(csrf -> csrf.disable());
+
+        return http.build();
     }
 
     /**
@@ -56,37 +163,52 @@ public class SecurityConfig {
      * Implemento un sistema granular de permisos basado en rutas y roles.</p>
      *
      * @param http objeto HttpSecurity para configurar la seguridad web
+     * @param rateLimitService cubos de tokens del limitador de peticiones
+     * @param rateLimitProperties rutas limitadas y sus límites
+     * @param sessionRegistry registro de sesiones compartido por los nodos (ver SessionConfig)
      * @return SecurityFilterChain configurado con todas las reglas de seguridad
      * @throws Exception si ocurre error durante la configuración
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, RateLimitService rateLimitService,
+                                                   RateLimitProperties rateLimitProperties,
+                                                   SessionRegistry sessionRegistry) throws Exception {
         http
                 // Configuro las reglas de autorización por rutas
                 .authorizeHttpRequests(auth -> auth
                         // Rutas públicas accesibles sin autenticación
                         .requestMatchers("/login", "/register", "/css/**", "/js/**", "/images/**", "/error").permitAll()
+                        .requestMatchers("/webjars/**").permitAll() // Bootstrap y Leaflet servidos por la aplicación
                         .requestMatchers("/h2-console/**").permitAll() // Consola H2 para desarrollo
+                        .requestMatchers("/payment/webhook").permitAll() // Pasarela de pagos, protegido por firma HMAC
+                        .requestMatchers("/actuator/health").permitAll() // Sondas de vida del balanceador
+                        .requestMatchers("/api/auth/token").permitAll() // Emisión de tokens, comprueba la contraseña
 
                         // Rutas administrativas restringidas a rol ADMIN
                         .requestMatchers("/users/create", "/users/edit/**", "/users/delete/**").hasRole("ADMIN")
+                        .requestMatchers("/payment/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
 
                         // Rutas de funcionalidad general para usuarios autenticados
                         .requestMatchers("/tasks/**").hasAnyRole("USER", "ADMIN")
                         .requestMatchers("/users/catalog").hasAnyRole("USER", "ADMIN")
                         .requestMatchers("/maps/**").hasAnyRole("USER", "ADMIN")
                         .requestMatchers("/api/locations/**").hasAnyRole("USER", "ADMIN")
+                        .requestMatchers("/api/sync").hasAnyRole("USER", "ADMIN")
 
                         // Cualquier otra ruta requiere autenticación
                         .anyRequest().authenticated()
                 )
 
+                // Limito las peticiones por usuario y ruta una vez autorizadas (429 con Retry-After)
+                .addFilterAfter(new RateLimitFilter(rateLimitService, rateLimitProperties), AuthorizationFilter.class)
+
                 // Configuro el formulario de login personalizado
                 .formLogin(form -> form
                         .loginPage("/login")                    // Página de login personalizada
                         .loginProcessingUrl("/login")           // URL que procesa el formulario
                         .defaultSuccessUrl("/", true)           // Redirección tras login exitoso
-                        .failureUrl("/login?error=true")        // Redirección tras error de login
+                        .failureHandler(loginFailureHandler())  // Redirección tras error de login
                         .usernameParameter("username")          // Nombre del campo usuario
                         .passwordParameter("password")          // Nombre del campo contraseña
                         .permitAll()                            // Permitir acceso a todos
@@ -98,7 +220,7 @@ public class SecurityConfig {
                         .logoutSuccessUrl("/login?logout=true") // Redirección tras logout
                         .invalidateHttpSession(true)           // Invalidar sesión HTTP
                         .clearAuthentication(true)             // Limpiar autenticación
-                        .deleteCookies("JSESSIONID")           // Eliminar cookies de sesión
+                        .deleteCookies("SESSION")              // Eliminar la cookie de Spring Session
                         .permitAll()                           // Permitir acceso a todos
                 )
 
@@ -106,6 +228,7 @@ public class SecurityConfig {
                 .sessionManagement(session -> session
                         .maximumSessions(1)                    // Una sesión por usuario
                         .maxSessionsPreventsLogin(false)      // Permitir nueva sesión
+                        .sessionRegistry(sessionRegistry)      // Registro compartido entre nodos
                 )
 
                 // Deshabilito CSRF temporalmente para debugging
@@ -119,6 +242,21 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Defino a dónde vuelve un login fallido.
+     *
+     * <p>Una cuenta bloqueada por fallos repetidos vuelve con su propio aviso;
+     * cualquier otro error muestra el mensaje genérico.</p>
+     *
+     * @return manejador de fallos de login
+     */
+    private ExceptionMappingAuthenticationFailureHandler loginFailureHandler() {
+        ExceptionMappingAuthenticationFailureHandler handler = new ExceptionMappingAuthenticationFailureHandler();
+        handler.setDefaultFailureUrl("/login?error=true");
+        handler.setExceptionMappings(Map.of(LockedException.class.getName(), "/login?locked=true"));
+        return handler;
+    }
+
     /**
      * Configuro el AuthenticationManager con mi servicio personalizado.
      *
@@ -127,18 +265,20 @@ public class SecurityConfig {
      * verificar contraseñas durante el proceso de login.</p>
      *
      * @param http objeto HttpSecurity para acceder al builder de autenticación
+     * @param passwordEncoder encoder BCrypt con su pool acotado
      * @return AuthenticationManager configurado con mi servicio de usuarios
      * @throws Exception si ocurre error durante la configuración
      */
     @Bean
-    public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
+    public AuthenticationManager authenticationManager(HttpSecurity http, PasswordEncoder passwordEncoder)
+            throws Exception {
         AuthenticationManagerBuilder authBuilder =
                 http.getSharedObject(AuthenticationManagerBuilder.class);
 
         // Configuro mi servicio personalizado y el encoder de contraseñas
         authBuilder
                 .userDetailsService(userDetailsService)
-                .passwordEncoder(passwordEncoder());
+                .passwordEncoder(passwordEncoder);
 
         return authBuilder.build();
     }
@@ -0,0 +1,78 @@
+package com.taskmanager.config;
+
+import com.taskmanager.event.ServiceMethodProfileEvent;
+import com.taskmanager.service.ProfilingService;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * ASPECTO DEL MODO DE PERFILADO QUE MIDE LOS MÉTODOS PÚBLICOS DE LOS @Service DEL PROYECTO
+ * TIENE MÁS PRIORIDAD QUE @Transactional, ASÍ EL COMMIT Y SU FLUSH
+ * CUENTAN EN EL MÉTODO QUE ABRE LA TRANSACCIÓN
+ *
+ * LAS LLAMADAS DENTRO DEL MISMO SERVICIO (this.metodo()) NO PASAN POR EL PROXY Y NO SE MIDEN
+ * POR SEPARADO; SU COSTE VA EN EL MÉTODO QUE LAS HACE
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceProfilingAspect {
+
+    private final ProfilingService profilingService;
+
+    /**
+     * CREO EL ASPECTO
+     *
+     * @param profilingService servicio que acumula las medidas
+     */
+    public ServiceProfilingAspect(ProfilingService profilingService) {
+        this.profilingService = profilingService;
+    }
+
+    /**
+     * MIDO LA LLAMADA, EMITO EL EVENTO JFR Y LA ACUMULO EN EL RESUMEN
+     *
+     * @param joinPoint llamada interceptada
+     * @return lo que devuelve el método
+     * @throws Throwable lo que lance el método, sin tocar
+     */
+    @Around("within(com.taskmanager.service..*) && @within(org.springframework.stereotype.Service)"
+            + " && !within(com.taskmanager.service.ProfilingService)")
+    public Object profile(ProceedingJoinPoint joinPoint) throws Throwable {
+        ServiceMethodProfileEvent event = new ServiceMethodProfileEvent();
+        event.begin();
+        long startNanos = System.nanoTime();
+        long startBytes = profilingService.currentThreadAllocatedBytes();
+        long startQueries = QueryCountingDataSource.currentThreadCount();
+        boolean failed = true;
+
+        try {
+            Object result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            long allocatedBytes = startBytes < 0 ? 0 : profilingService.currentThreadAllocatedBytes() - startBytes;
+            long queries = QueryCountingDataSource.currentThreadCount() - startQueries;
+            long nanos = System.nanoTime() - startNanos;
+            String service = joinPoint.getSignature().getDeclaringType().getSimpleName();
+            String method = joinPoint.getSignature().getName();
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.service = service;
+                event.method = method;
+                event.allocatedBytes = allocatedBytes;
+                event.queries = queries;
+                event.failed = failed;
+                event.commit();
+            }
+
+            profilingService.recordServiceMethod(service + "." + method, nanos, allocatedBytes, queries);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.taskmanager.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.core.session.SessionRegistryImpl;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+import org.springframework.session.security.SpringSessionBackedSessionRegistry;
+
+import java.time.Duration;
+
+/**
+ * CONFIGURACIÓN DE LAS SESIONES HTTP CON SPRING SESSION
+ * EL ALMACÉN SE ELIGE CON app.session.store (VARIABLE APP_SESSION_STORE):
+ * - memory: SESIONES EN LA MEMORIA DEL NODO (DESARROLLO, TESTS Y UN SOLO NODO)
+ * - jdbc: SESIONES EN LAS TABLAS spring_session DE LA BD (MIGRACIÓN V7), COMPARTIDAS POR TODOS LOS
+ *   NODOS DETRÁS DEL BALANCEADOR SIN SESIÓN PEGADA; LO MONTA LA AUTOCONFIGURACIÓN DE SPRING BOOT
+ *
+ * EN LOS DOS CASOS EL LÍMITE DE UNA SESIÓN POR USUARIO DE SecurityConfig USA EL REGISTRO RESPALDADO
+ * POR EL REPOSITORIO, ASÍ QUE CON jdbc UN LOGIN EN UN NODO CADUCA LA SESIÓN ABIERTA EN OTRO
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Configuration
+public class SessionConfig {
+
+    /**
+     * SERIALIZACIÓN DE LOS ATRIBUTOS QUE EL REPOSITORIO JDBC GUARDA EN LA BD (VER CompactSessionSerializer)
+     * SPRING SESSION LA BUSCA POR ESTE NOMBRE DE BEAN
+     *
+     * @param minBytesToCompress tamaño a partir del cual se comprime un atributo
+     * @return servicio de conversión entre atributos y bytes
+     */
+    @Bean(name = "springSessionConversionService")
+    public ConversionService springSessionConversionService(
+            @Value("${app.session.compress-min-bytes:256}") int minBytesToCompress) {
+        CompactSessionSerializer serializer =
+                new CompactSessionSerializer(getClass().getClassLoader(), minBytesToCompress);
+        GenericConversionService conversionService = new GenericConversionService();
+        conversionService.addConverter(Object.class, byte[].class, serializer::serialize);
+        conversionService.addConverter(byte[].class, Object.class, serializer::deserialize);
+        return conversionService;
+    }
+
+    /**
+     * REGISTRO DE SESIONES CONCURRENTES RESPALDADO POR EL REPOSITORIO DE SESIONES
+     * SUSTITUYE AL REGISTRO EN MEMORIA DE SPRING SECURITY, QUE SOLO VE LAS SESIONES DE SU NODO
+     * SI NO HAY REPOSITORIO (ARRANQUE SIN SERVIDOR WEB, COMO EN ALGUNOS TESTS) USO EL DE SPRING SECURITY
+     *
+     * @param sessionRepository repositorio con búsqueda por usuario (memoria o JDBC)
+     * @param <S> tipo de sesión del repositorio
+     * @return registro de sesiones
+     */
+    @Bean
+    public <S extends Session> SessionRegistry sessionRegistry(
+            ObjectProvider<FindByIndexNameSessionRepository<S>> sessionRepository) {
+        FindByIndexNameSessionRepository<S> repository = sessionRepository.getIfAvailable();
+        if (repository == null) {
+            return new SessionRegistryImpl();
+        }
+        return new SpringSessionBackedSessionRegistry<>(repository);
+    }
+
+    /**
+     * ALMACÉN EN MEMORIA: SOLO SI app.session.store=memory (O NO ESTÁ CONFIGURADO)
+     * AL DEFINIR UN SessionRepository, SPRING BOOT NO MONTA EL REPOSITORIO JDBC
+     */
+    @Configuration
+    @EnableSpringHttpSession
+    @ConditionalOnProperty(name = "app.session.store", havingValue = "memory", matchIfMissing = true)
+    static class InMemorySessionConfig {
+
+        /**
+         * REPOSITORIO DE SESIONES EN MEMORIA CON BÚSQUEDA POR USUARIO
+         *
+         * @param timeout tiempo de inactividad de las sesiones
+         * @return repositorio en memoria
+         */
+        @Bean
+        public InMemoryIndexedSessionRepository sessionRepository(
+                @Value("${server.servlet.session.timeout:30m}") Duration timeout) {
+            return new InMemoryIndexedSessionRepository(timeout);
+        }
+    }
+}
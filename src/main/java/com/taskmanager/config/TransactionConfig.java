@@ -0,0 +1,37 @@
+package com.taskmanager.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+/**
+ * CONFIGURACIÓN DE LAS TRANSACCIONES JPA
+ * LOS SERVICIOS SON readOnly POR DEFECTO: FlushMode.MANUAL Y ENTIDADES SIN SNAPSHOT,
+ * ASÍ LAS CONSULTAS NO PAGAN DIRTY CHECKING NI FLUSH AL HACER COMMIT, TAMBIÉN CON OPEN-IN-VIEW
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Configuration
+public class TransactionConfig {
+
+    /**
+     * USO ReadOnlyAwareHibernateJpaDialect EN LUGAR DEL DIALECTO DE HIBERNATE POR DEFECTO
+     * SE APLICA ANTES DE INICIALIZAR EL ENTITY MANAGER FACTORY, QUE SOLO TOMA EL DEL ADAPTADOR SI NO HAY OTRO
+     *
+     * @return post-procesador del entity manager factory
+     */
+    @Bean
+    public static BeanPostProcessor readOnlyAwareJpaDialectPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof LocalContainerEntityManagerFactoryBean factoryBean) {
+                    factoryBean.setJpaDialect(new ReadOnlyAwareHibernateJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+}
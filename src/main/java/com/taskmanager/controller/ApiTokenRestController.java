@@ -0,0 +1,97 @@
+package com.taskmanager.controller;
+
+import com.taskmanager.model.User;
+import com.taskmanager.service.ApiTokenService;
+import com.taskmanager.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * CONTROLADOR REST QUE EMITE LOS TOKENS FIRMADOS DE LA API SIN SESIÓN
+ * EL CLIENTE MANDA SU USUARIO Y CONTRASEÑA UNA VEZ Y USA EL TOKEN EN Authorization: Bearer
+ * HASTA QUE CADUCA; ENTONCES PIDE OTRO
+ *
+ * LA CONTRASEÑA SE COMPRUEBA CON EL MISMO AuthenticationManager QUE EL FORMULARIO: POOL ACOTADO
+ * DE BCRYPT Y BLOQUEO TRAS FALLOS SEGUIDOS INCLUIDOS
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/auth")
+@ConditionalOnProperty(name = "app.security.api-token.enabled", havingValue = "true", matchIfMissing = true)
+public class ApiTokenRestController {
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private ApiTokenService apiTokenService;
+
+    @Autowired
+    private UserService userService;
+
+    /**
+     * EMITO UN TOKEN PARA EL USUARIO SI LAS CREDENCIALES SON CORRECTAS
+     * ENDPOINT: POST /api/auth/token
+     *
+     * @param credentials JSON con username y password
+     * @return ResponseEntity con el token y su validez en segundos, o el error
+     */
+    @PostMapping("/token")
+    public ResponseEntity<Map<String, Object>> issueToken(@RequestBody Map<String, String> credentials) {
+        Map<String, Object> response = new HashMap<>();
+        String username = credentials.get("username");
+        String password = credentials.get("password");
+
+        if (username == null || password == null) {
+            response.put("success", false);
+            response.put("message", "El usuario y la contraseña son obligatorios");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        try {
+            authenticationManager.authenticate(
+                    UsernamePasswordAuthenticationToken.unauthenticated(username, password));
+            User user = userService.findByUsername(username);
+
+            response.put("success", true);
+            response.put("token", apiTokenService.issueToken(user));
+            response.put("tokenType", "Bearer");
+            response.put("expiresIn", apiTokenService.getTtlSeconds());
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(response);
+        } catch (LockedException e) {
+            response.put("success", false);
+            response.put("message", "Cuenta bloqueada temporalmente por intentos fallidos");
+            return ResponseEntity.status(HttpStatus.LOCKED).body(response);
+        } catch (AuthenticationServiceException e) {
+            // POOL DE BCRYPT SATURADO: QUE EL CLIENTE VUELVA A INTENTARLO
+            response.put("success", false);
+            response.put("message", "Servicio ocupado, inténtalo de nuevo");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        } catch (AuthenticationException e) {
+            response.put("success", false);
+            response.put("message", "Usuario o contraseña incorrectos");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Error interno del servidor");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package com.taskmanager.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.taskmanager.model.*;
+import com.taskmanager.service.PaymentReportingService;
 import com.taskmanager.service.PaymentSimulatorService;
+import com.taskmanager.service.PaymentWebhookService;
 import com.taskmanager.service.SubscriptionService;
 import com.taskmanager.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
@@ -12,10 +20,14 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * CONTROLADOR QUE MANEJA EL PROCESAMIENTO DE PAGOS Y TRANSACCIONES
@@ -37,6 +49,25 @@ public class PaymentController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private PaymentWebhookService paymentWebhookService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PaymentReportingService paymentReportingService;
+
+    // TAMAÑO DE PÁGINA DEL HISTORIAL DE PAGOS
+    @Value("${app.payment.history.page-size:20}")
+    private int historyPageSize;
+
+    // TAMAÑO MÁXIMO DE PÁGINA QUE ACEPTO DEL CLIENTE
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
+    // DÍAS HACIA ATRÁS QUE ACEPTO EN EL DETALLE DIARIO DEL RESUMEN (UN AÑO)
+    private static final int MAX_SUMMARY_DAYS = 366;
+
     /**
      * PROCESO EL FORMULARIO DE PAGO ENVIADO DESDE CHECKOUT
      * MANEJA DATOS DE TARJETA Y CREA LA TRANSACCIÓN
@@ -154,35 +185,25 @@ public class PaymentController {
         response.put("statusDisplay", transaction.getStatus().getDisplayName());
         response.put("amount", transaction.getFormattedAmount());
         response.put("referenceCode", transaction.getReferenceCode());
-        response.put("isFinished", transaction.getStatus().isFinalized());
-
-        // SI ES EXITOSO, ACTIVAR SUSCRIPCIÓN
-        if (transaction.getStatus() == PaymentStatus.COMPLETED) {
-            try {
-                // VERIFICAR SI YA SE ACTIVÓ LA SUSCRIPCIÓN
-                UserSubscription existingSubscription = subscriptionService.getUserActiveSubscription(currentUser);
 
-                if (existingSubscription == null ||
-                        !transaction.getReferenceCode().equals(existingSubscription.getPaymentReference())) {
+        // SOLO CONSULTA: LA ACTIVACIÓN LA HACE EL CONSUMIDOR DE EVENTOS DEL OUTBOX
+        boolean isFinished = transaction.getStatus().isFinalized();
 
-                    // ACTIVAR SUSCRIPCIÓN PREMIUM
-                    UserSubscription newSubscription = subscriptionService.upgradeToPremium(
-                            currentUser,
-                            transaction.getSubscriptionPlan(),
-                            transaction.getReferenceCode()
-                    );
-
-                    response.put("subscriptionActivated", true);
-                    response.put("planName", newSubscription.getSubscriptionPlan().getName());
-                }
+        if (transaction.getStatus().activatesSubscription()) {
+            UserSubscription subscription = subscriptionService.getSubscriptionByPaymentReference(referenceCode);
 
+            if (subscription != null) {
+                response.put("subscriptionActivated", true);
+                response.put("planName", subscription.getSubscriptionPlan().getName());
                 response.put("redirectUrl", "/subscription/success?transactionRef=" + referenceCode);
-
-            } catch (Exception e) {
-                response.put("subscriptionError", e.getMessage());
+            } else {
+                // PAGO COMPLETADO PERO EL EVENTO AÚN NO SE HA DESPACHADO, SIGO CONSULTANDO
+                isFinished = false;
             }
         }
 
+        response.put("isFinished", isFinished);
+
         // SI FALLÓ, INCLUIR MENSAJE DE ERROR
         if (transaction.isFailed()) {
             response.put("errorMessage", transaction.getErrorMessage());
@@ -194,32 +215,55 @@ public class PaymentController {
 
     /**
      * MUESTRO EL HISTORIAL DE PAGOS DEL USUARIO
-     * PÁGINA CON TODAS LAS TRANSACCIONES REALIZADAS
+     * PÁGINA PAGINADA CON LOS CONTADORES CALCULADOS EN LA BD
      *
+     * @param page número de página (desde 0)
+     * @param size tamaño de página
+     * @param status filtro de estado (COMPLETED, FAILED, PENDING)
+     * @param search prefijo del código de referencia
      * @param model objeto para pasar datos a la vista
      * @param auth información del usuario autenticado
      * @return vista del historial de pagos
      */
     @GetMapping("/history")
-    public String showPaymentHistory(Model model, Authentication auth) {
+    public String showPaymentHistory(@RequestParam(defaultValue = "0") int page,
+                                     @RequestParam(required = false) Integer size,
+                                     @RequestParam(required = false) String status,
+                                     @RequestParam(required = false) String search,
+                                     Model model, Authentication auth) {
         User currentUser = getUserFromAuth(auth);
 
-        // OBTENER HISTORIAL COMPLETO
-        List<PaymentTransaction> transactions = paymentSimulatorService.getUserPaymentHistory(currentUser);
+        // PÁGINA SOLICITADA CON LÍMITES RAZONABLES
+        int pageSize = Math.min(size != null && size > 0 ? size : historyPageSize, MAX_HISTORY_PAGE_SIZE);
+        Page<PaymentTransaction> transactionPage = paymentSimulatorService.getUserPaymentHistoryPage(
+                currentUser, status, search, Math.max(page, 0), pageSize);
 
-        // ESTADÍSTICAS
-        long successfulPayments = transactions.stream()
-                .mapToLong(t -> t.isSuccessful() ? 1 : 0)
-                .sum();
+        // ESTADÍSTICAS CON UNA SOLA CONSULTA GROUP BY
+        Map<PaymentStatus, Long> statusCounts = paymentSimulatorService.getUserPaymentStatusCounts(currentUser);
 
-        long failedPayments = transactions.stream()
-                .mapToLong(t -> t.isFailed() ? 1 : 0)
+        long totalTransactions = statusCounts.values().stream().mapToLong(Long::longValue).sum();
+        long successfulPayments = statusCounts.getOrDefault(PaymentStatus.COMPLETED, 0L);
+        long failedPayments = statusCounts.entrySet().stream()
+                .filter(entry -> entry.getKey().isFailed())
+                .mapToLong(Map.Entry::getValue)
                 .sum();
 
+        // VENTANA DE NÚMEROS DE PÁGINA ALREDEDOR DE LA ACTUAL
+        List<Integer> pageNumbers = new ArrayList<>();
+        int firstPage = Math.max(0, transactionPage.getNumber() - 2);
+        int lastPage = Math.min(transactionPage.getTotalPages() - 1, transactionPage.getNumber() + 2);
+        for (int i = firstPage; i <= lastPage; i++) {
+            pageNumbers.add(i);
+        }
+
         // DATOS PARA LA VISTA
-        model.addAttribute("transactions", transactions);
+        model.addAttribute("transactions", transactionPage.getContent());
+        model.addAttribute("transactionPage", transactionPage);
+        model.addAttribute("pageNumbers", pageNumbers);
+        model.addAttribute("statusFilter", status);
+        model.addAttribute("searchQuery", search);
         model.addAttribute("currentUser", currentUser);
-        model.addAttribute("totalTransactions", transactions.size());
+        model.addAttribute("totalTransactions", totalTransactions);
         model.addAttribute("successfulPayments", successfulPayments);
         model.addAttribute("failedPayments", failedPayments);
 
@@ -262,36 +306,68 @@ public class PaymentController {
     }
 
     /**
-     * WEBHOOK SIMULADO PARA PROCESAR NOTIFICACIONES DE PAGO
-     * SIMULA CALLBACKS DE PASARELAS REALES
+     * WEBHOOK PARA RECIBIR NOTIFICACIONES DE LA PASARELA DE PAGOS
+     * VERIFICA LA FIRMA Y ENCOLA LA NOTIFICACIÓN SIN TOCAR LA BD; LA RESPUESTA ES ASÍNCRONA:
+     * EL HILO HTTP QUEDA LIBRE Y EL 202 SALE CUANDO EL LOTE DE LA BANDEJA SE CONFIRMA;
+     * LOS CAMBIOS DE ESTADO SE APLICAN EN LOTES EN SEGUNDO PLANO
      *
-     * @param payload datos del webhook
-     * @return respuesta de confirmación
+     * @param rawBody cuerpo crudo (necesario para verificar la firma)
+     * @param signature firma HMAC-SHA256 en hexadecimal
+     * @return respuesta de aceptación
      */
     @PostMapping("/webhook")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> handlePaymentWebhook(@RequestBody Map<String, Object> payload) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> handlePaymentWebhook(@RequestBody byte[] rawBody,
+                                                                    @RequestHeader(value = "X-Webhook-Signature", required = false) String signature) {
 
         Map<String, Object> response = new HashMap<>();
 
-        try {
-            // PROCESAR WEBHOOK (AQUÍ PUEDES IMPLEMENTAR LÓGICA ADICIONAL)
-            String referenceCode = (String) payload.get("reference_code");
-            String status = (String) payload.get("status");
-
-            // LOG DEL WEBHOOK RECIBIDO
-            System.out.println("🔗 WEBHOOK RECIBIDO - Ref: " + referenceCode + ", Status: " + status);
+        // VERIFICAR FIRMA ANTES DE LEER NADA
+        if (!paymentWebhookService.verifySignature(rawBody, signature)) {
+            response.put("success", false);
+            response.put("error", "Firma inválida");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response));
+        }
 
-            response.put("success", true);
-            response.put("message", "Webhook procesado correctamente");
+        PaymentWebhookService.WebhookNotification notification;
+        try {
+            JsonNode payload = objectMapper.readTree(rawBody);
+            notification = new PaymentWebhookService.WebhookNotification(
+                    payload.path("event_id").asText(null),
+                    payload.path("reference_code").asText(null),
+                    PaymentStatus.valueOf(payload.path("status").asText("").toUpperCase()),
+                    payload.path("error_message").asText(null)
+            );
 
-            return ResponseEntity.ok(response);
+            if (notification.getEventId() == null || notification.getReferenceCode() == null) {
+                throw new IllegalArgumentException("Faltan event_id o reference_code");
+            }
 
-        } catch (Exception e) {
+        } catch (IOException | IllegalArgumentException e) {
             response.put("success", false);
-            response.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(response);
+            response.put("error", "Payload inválido: " + e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(response));
         }
+
+        return paymentWebhookService.enqueue(notification)
+                .handle((result, error) -> {
+                    // COLA LLENA O LOTE QUE NO SE PUDO GUARDAR: 503 PARA QUE LA PASARELA REINTENTE
+                    if (error != null || result == PaymentWebhookService.EnqueueResult.QUEUE_FULL) {
+                        response.put("success", false);
+                        response.put("error", error != null
+                                ? "No se pudo guardar el webhook, reintentar más tarde"
+                                : "Cola de webhooks llena, reintentar más tarde");
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, "5")
+                                .body(response);
+                    }
+
+                    response.put("success", true);
+                    response.put("eventId", notification.getEventId());
+                    response.put("duplicate", result == PaymentWebhookService.EnqueueResult.DUPLICATE);
+
+                    return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+                });
     }
 
     /**
@@ -326,6 +402,45 @@ public class PaymentController {
         return "redirect:/payment/history";
     }
 
+    /**
+     * ENDPOINT DE ADMINISTRACIÓN CON EL RESUMEN DE INGRESOS Y ÉXITO DE PAGOS
+     * LEE LOS AGREGADOS MATERIALIZADOS, NO LA TABLA DE TRANSACCIONES
+     * LOS INGRESOS DE 24 HORAS TIENEN PRECISIÓN DE HORA: NO INCLUYEN LA HORA EN CURSO
+     *
+     * @param days días hacia atrás para el detalle diario (entre 1 y 366)
+     * @return JSON con el resumen
+     */
+    @GetMapping("/admin/summary")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getPaymentSummary(@RequestParam(defaultValue = "30") int days) {
+        Map<String, Object> response = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        // DÍAS SOLICITADOS CON LÍMITES RAZONABLES
+        int summaryDays = Math.min(Math.max(days, 1), MAX_SUMMARY_DAYS);
+
+        response.put("success", true);
+        response.put("totalRevenue", paymentReportingService.getTotalRevenue());
+        response.put("revenueLast24h", paymentReportingService.getRevenueInPeriod(now.minusHours(24), now));
+        response.put("successRate", paymentReportingService.getSuccessRate());
+        response.put("countsByStatus", paymentReportingService.getCountsByStatus());
+
+        List<Map<String, Object>> daily = new ArrayList<>();
+        for (PaymentRollup bucket : paymentReportingService.getDailyBuckets(summaryDays)) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("date", bucket.getBucketStart().toLocalDate().toString());
+            row.put("status", bucket.getPaymentStatus().name());
+            row.put("planId", bucket.getSubscriptionPlanId());
+            row.put("paymentMethod", bucket.getPaymentMethod());
+            row.put("count", bucket.getTransactionCount());
+            row.put("amount", bucket.getTotalAmount());
+            daily.add(row);
+        }
+        response.put("daily", daily);
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * MÉTODO AUXILIAR PARA OBTENER EL USUARIO DESDE LA AUTENTICACIÓN
      *
@@ -1,10 +1,13 @@
 package com.taskmanager.controller;
 
+import com.taskmanager.config.FragmentCache;
 import com.taskmanager.model.SubscriptionPlan;
 import com.taskmanager.model.User;
 import com.taskmanager.model.UserSubscription;
 import com.taskmanager.service.SubscriptionService;
 import com.taskmanager.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
@@ -34,16 +37,22 @@ public class SubscriptionController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private FragmentCache fragmentCache;
+
     /**
      * MUESTRO EL CATÁLOGO DE PLANES DISPONIBLES
      * PÁGINA PRINCIPAL DEL SISTEMA DE SUSCRIPCIONES
      *
      * @param model objeto para pasar datos a la vista
      * @param auth información del usuario autenticado
+     * @param request petición actual (para renderizar las tarjetas de los planes)
+     * @param response respuesta actual
      * @return vista del catálogo de planes
      */
     @GetMapping("/plans")
-    public String showPlans(Model model, Authentication auth) {
+    public String showPlans(Model model, Authentication auth,
+                            HttpServletRequest request, HttpServletResponse response) {
         User currentUser = getUserFromAuth(auth);
 
         // OBTENGO TODOS LOS PLANES ACTIVOS
@@ -62,11 +71,52 @@ public class SubscriptionController {
         model.addAttribute("currentSubscription", currentSubscription);
         model.addAttribute("currentUser", currentUser);
         model.addAttribute("usageStats", usageStats);
-        model.addAttribute("hasPremium", subscriptionService.hasActivePremiumSubscription(currentUser));
+        boolean hasPremium = subscriptionService.hasActivePremiumSubscription(currentUser);
+        model.addAttribute("hasPremium", hasPremium);
+
+        // TARJETAS DE LOS PLANES DESDE LA CACHÉ DE FRAGMENTOS
+        Long currentPlanId = currentSubscription != null ? currentSubscription.getSubscriptionPlan().getId() : null;
+        Map<String, Object> cardVariables = new HashMap<>();
+        cardVariables.put("freePlan", freePlan);
+        cardVariables.put("premiumPlans", premiumPlans);
+        cardVariables.put("currentPlanId", currentPlanId);
+        cardVariables.put("hasPremium", hasPremium);
+        model.addAttribute("planCardsHtml", fragmentCache.render("subscription/plan-cards", "planCards",
+                planCardsKey(freePlan, premiumPlans, currentPlanId, hasPremium), cardVariables, request, response));
 
         return "subscription/plans";
     }
 
+    /**
+     * CONSTRUYO LA CLAVE DE LAS TARJETAS CON TODO LO QUE PINTAN
+     * SI SE EDITA UN PLAN (PRECIO, LÍMITES...) LA CLAVE CAMBIA Y LAS TARJETAS SE RENDERIZAN DE NUEVO
+     *
+     * @param freePlan plan gratuito
+     * @param premiumPlans planes premium
+     * @param currentPlanId plan actual del usuario (null si no tiene)
+     * @param hasPremium si el usuario tiene premium activo
+     * @return clave del fragmento
+     */
+    private String planCardsKey(SubscriptionPlan freePlan, List<SubscriptionPlan> premiumPlans,
+                                Long currentPlanId, boolean hasPremium) {
+        StringBuilder key = new StringBuilder();
+        for (SubscriptionPlan plan : premiumPlans) {
+            key.append(planKey(plan)).append(';');
+        }
+        return planKey(freePlan) + "|" + key + "|" + currentPlanId + "|" + hasPremium;
+    }
+
+    /**
+     * DATOS DE UN PLAN QUE APARECEN EN SU TARJETA
+     *
+     * @param plan plan de suscripción
+     * @return parte de la clave de ese plan
+     */
+    private String planKey(SubscriptionPlan plan) {
+        return plan.getId() + ":" + plan.getName() + ":" + plan.getPrice() + ":" + plan.getDescription()
+                + ":" + plan.getMaxTasks() + ":" + plan.getMaxLocations();
+    }
+
     /**
      * MUESTRO LA PÁGINA DE GESTIÓN DE SUSCRIPCIÓN ACTUAL
      * PERMITE VER DETALLES Y GESTIONAR LA SUSCRIPCIÓN ACTIVA
@@ -79,13 +129,8 @@ public class SubscriptionController {
     public String manageSubscription(Model model, Authentication auth) {
         User currentUser = getUserFromAuth(auth);
 
-        // OBTENGO SUSCRIPCIÓN ACTUAL
-        UserSubscription currentSubscription = subscriptionService.getUserActiveSubscription(currentUser);
-
-        if (currentSubscription == null) {
-            // CREAR SUSCRIPCIÓN GRATUITA SI NO TIENE NINGUNA
-            currentSubscription = subscriptionService.createFreeSubscription(currentUser);
-        }
+        // OBTENGO SUSCRIPCIÓN ACTUAL (SE CREA LA GRATUITA SI NO TIENE NINGUNA)
+        UserSubscription currentSubscription = subscriptionService.getOrCreateActiveSubscription(currentUser);
 
         // ESTADÍSTICAS DE USO
         SubscriptionService.SubscriptionUsageStats usageStats = subscriptionService.getUserUsageStats(currentUser);
@@ -0,0 +1,123 @@
+package com.taskmanager.controller;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskLocation;
+import com.taskmanager.model.User;
+import com.taskmanager.service.SyncService;
+import com.taskmanager.service.SyncService.SyncChanges;
+import com.taskmanager.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CONTROLADOR REST DE SINCRONIZACIÓN INCREMENTAL PARA LOS CLIENTES MÓVILES Y EL MAPA
+ * EN VEZ DE DESCARGAR TODAS LAS TAREAS Y UBICACIONES, EL CLIENTE PIDE LO QUE HA CAMBIADO DESDE SU TOKEN
+ *
+ * FLUJO DEL CLIENTE:
+ * 1. GET /api/sync SIN TOKEN: RECIBE TODO (full=true) Y GUARDA EL token
+ * 2. GET /api/sync?since=token: APLICA tasks Y locations POR ID, BORRA LOS deletedTaskIds / deletedLocationIds
+ *    Y GUARDA EL token NUEVO; SI LLEGA full=true SUSTITUYE SU COPIA LOCAL ENTERA
+ *
+ * LAS FILAS SE SERIALIZAN A MANO PARA NO SACAR EL USUARIO PROPIETARIO EN EL JSON
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/sync")
+public class SyncRestController {
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private UserService userService;
+
+    /**
+     * OBTENGO LOS CAMBIOS DEL USUARIO AUTENTICADO DESDE SU ÚLTIMA SINCRONIZACIÓN
+     * ENDPOINT: GET /api/sync?since=token
+     *
+     * @param since token devuelto por la sincronización anterior (opcional)
+     * @param auth información del usuario autenticado
+     * @return ResponseEntity con los cambios y el token siguiente en JSON
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> sync(@RequestParam(required = false) String since,
+                                                    Authentication auth) {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            User currentUser = userService.getAuthenticatedUser(auth);
+            SyncChanges changes = syncService.getChangesSince(currentUser, since);
+
+            response.put("success", true);
+            response.put("token", changes.getToken());
+            response.put("full", changes.isFull());
+            response.put("tasks", changes.getTasks().stream().map(this::toTaskData).toList());
+            response.put("locations", changes.getLocations().stream().map(this::toLocationData).toList());
+            response.put("deletedTaskIds", changes.getDeletedTaskIds());
+            response.put("deletedLocationIds", changes.getDeletedLocationIds());
+
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Error interno del servidor");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    // MÉTODOS AUXILIARES PRIVADOS
+
+    /**
+     * PASO UNA TAREA A LOS DATOS QUE NECESITA EL CLIENTE
+     *
+     * @param task tarea
+     * @return mapa con los campos de la tarea
+     */
+    private Map<String, Object> toTaskData(Task task) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("id", task.getId());
+        data.put("title", task.getTitle());
+        data.put("description", task.getDescription());
+        data.put("completed", task.getCompleted());
+        data.put("createdAt", task.getCreatedAt());
+        data.put("updatedAt", task.getUpdatedAt());
+        return data;
+    }
+
+    /**
+     * PASO UNA UBICACIÓN A LOS DATOS QUE NECESITA EL CLIENTE
+     *
+     * @param location ubicación
+     * @return mapa con los campos de la ubicación
+     */
+    private Map<String, Object> toLocationData(TaskLocation location) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("id", location.getId());
+        data.put("name", location.getName());
+        data.put("description", location.getDescription());
+        data.put("latitude", location.getLatitude());
+        data.put("longitude", location.getLongitude());
+        data.put("address", location.getAddress());
+        data.put("active", location.getActive());
+        data.put("createdAt", location.getCreatedAt());
+        data.put("updatedAt", location.getUpdatedAt());
+        return data;
+    }
+}
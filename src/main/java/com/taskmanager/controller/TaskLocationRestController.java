@@ -2,13 +2,17 @@ package com.taskmanager.controller;
 
 import com.taskmanager.model.TaskLocation;
 import com.taskmanager.model.User;
+import com.taskmanager.service.LocationVersionService;
+import com.taskmanager.service.LocationVersionService.LocationSetVersion;
 import com.taskmanager.service.TaskLocationService;
 import com.taskmanager.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -20,6 +24,10 @@ import java.util.Optional;
  * DEVUELVE DATOS EN FORMATO JSON PARA SER CONSUMIDOS POR JAVASCRIPT
  * IMPLEMENTA ENDPOINTS COMPLETOS PARA CRUD DE UBICACIONES
  *
+ * LAS LECTURAS LLEVAN ETag CON LA VERSIÓN DE LAS UBICACIONES DEL USUARIO: SI EL NAVEGADOR
+ * MANDA If-None-Match CON LA VERSIÓN ACTUAL RESPONDO 304 TRAS LEER SOLO LA VERSIÓN. SI NO, LEO DE LA
+ * PRIMARIA (readFromPrimary) PARA NO GUARDAR DATOS DE LA RÉPLICA BAJO UNA VERSIÓN MÁS NUEVA
+ *
  * @author Mario Flores
  * @version 1.0
  */
@@ -33,19 +41,31 @@ public class TaskLocationRestController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private LocationVersionService locationVersionService;
+
+    // EL NAVEGADOR GUARDA LA RESPUESTA PERO LA REVALIDA SIEMPRE CON LA ETag
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     /**
      * OBTENGO TODAS LAS UBICACIONES DEL USUARIO AUTENTICADO
      * ENDPOINT: GET /api/locations
      *
      * @param auth información del usuario autenticado
-     * @return ResponseEntity con lista de ubicaciones en JSON
+     * @param webRequest petición con If-None-Match / If-Modified-Since
+     * @return 304 si el cliente tiene la versión actual; si no, ResponseEntity con lista de ubicaciones en JSON
      */
     @GetMapping
-    public ResponseEntity<List<TaskLocation>> getAllLocations(Authentication auth) {
+    public ResponseEntity<List<TaskLocation>> getAllLocations(Authentication auth, WebRequest webRequest) {
         try {
-            User currentUser = getUserFromAuth(auth);
-            List<TaskLocation> locations = taskLocationService.getAllLocationsByUser(currentUser);
-            return ResponseEntity.ok(locations);
+            LocationSetVersion version = locationVersionService.getVersion(auth.getName());
+            if (webRequest.checkNotModified(version.eTag(), version.lastModified())) {
+                return notModified();
+            }
+
+            List<TaskLocation> locations = locationVersionService.readFromPrimary(() ->
+                    taskLocationService.getAllLocationsByUser(getUserFromAuth(auth)));
+            return versioned(version).body(locations);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -56,14 +76,20 @@ public class TaskLocationRestController {
      * ENDPOINT: GET /api/locations/active
      *
      * @param auth información del usuario autenticado
-     * @return ResponseEntity con ubicaciones activas en JSON
+     * @param webRequest petición con If-None-Match / If-Modified-Since
+     * @return 304 si el cliente tiene la versión actual; si no, ResponseEntity con ubicaciones activas en JSON
      */
     @GetMapping("/active")
-    public ResponseEntity<List<TaskLocation>> getActiveLocations(Authentication auth) {
+    public ResponseEntity<List<TaskLocation>> getActiveLocations(Authentication auth, WebRequest webRequest) {
         try {
-            User currentUser = getUserFromAuth(auth);
-            List<TaskLocation> locations = taskLocationService.getActiveLocationsByUser(currentUser);
-            return ResponseEntity.ok(locations);
+            LocationSetVersion version = locationVersionService.getVersion(auth.getName());
+            if (webRequest.checkNotModified(version.eTag(), version.lastModified())) {
+                return notModified();
+            }
+
+            List<TaskLocation> locations = locationVersionService.readFromPrimary(() ->
+                    taskLocationService.getActiveLocationsByUser(getUserFromAuth(auth)));
+            return versioned(version).body(locations);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -75,26 +101,35 @@ public class TaskLocationRestController {
      *
      * @param id identificador de la ubicación
      * @param auth información del usuario autenticado
-     * @return ResponseEntity con la ubicación o error 404
+     * @param webRequest petición con If-None-Match / If-Modified-Since
+     * @return 304 si el cliente tiene la versión actual; si no, ResponseEntity con la ubicación o error 404
      */
     @GetMapping("/{id}")
-    public ResponseEntity<TaskLocation> getLocationById(@PathVariable Long id, Authentication auth) {
+    public ResponseEntity<TaskLocation> getLocationById(@PathVariable Long id, Authentication auth,
+                                                        WebRequest webRequest) {
         try {
-            User currentUser = getUserFromAuth(auth);
-            Optional<TaskLocation> locationOpt = taskLocationService.getLocationById(id);
+            LocationSetVersion version = locationVersionService.getVersion(auth.getName());
+            if (webRequest.checkNotModified(version.eTag(), version.lastModified())) {
+                return notModified();
+            }
+
+            return locationVersionService.readFromPrimary(() -> {
+                User currentUser = getUserFromAuth(auth);
+                Optional<TaskLocation> locationOpt = taskLocationService.getLocationById(id);
 
-            if (locationOpt.isPresent()) {
-                TaskLocation location = locationOpt.get();
+                if (locationOpt.isPresent()) {
+                    TaskLocation location = locationOpt.get();
 
-                // VERIFICO QUE LA UBICACIÓN PERTENEZCA AL USUARIO
-                if (location.getUser().getId().equals(currentUser.getId())) {
-                    return ResponseEntity.ok(location);
+                    // VERIFICO QUE LA UBICACIÓN PERTENEZCA AL USUARIO
+                    if (location.getUser().getId().equals(currentUser.getId())) {
+                        return versioned(version).body(location);
+                    } else {
+                        return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+                    }
                 } else {
-                    return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+                    return ResponseEntity.notFound().build();
                 }
-            } else {
-                return ResponseEntity.notFound().build();
-            }
+            });
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -296,15 +331,21 @@ public class TaskLocationRestController {
      *
      * @param query texto a buscar
      * @param auth información del usuario autenticado
-     * @return ResponseEntity con ubicaciones que coincidan
+     * @param webRequest petición con If-None-Match / If-Modified-Since
+     * @return 304 si el cliente tiene la versión actual; si no, ResponseEntity con ubicaciones que coincidan
      */
     @GetMapping("/search")
     public ResponseEntity<List<TaskLocation>> searchLocations(@RequestParam("q") String query,
-                                                              Authentication auth) {
+                                                              Authentication auth, WebRequest webRequest) {
         try {
-            User currentUser = getUserFromAuth(auth);
-            List<TaskLocation> locations = taskLocationService.searchLocations(query, currentUser);
-            return ResponseEntity.ok(locations);
+            LocationSetVersion version = locationVersionService.getVersion(auth.getName());
+            if (webRequest.checkNotModified(version.eTag(), version.lastModified())) {
+                return notModified();
+            }
+
+            List<TaskLocation> locations = locationVersionService.readFromPrimary(() ->
+                    taskLocationService.searchLocations(query, getUserFromAuth(auth)));
+            return versioned(version).body(locations);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -319,19 +360,23 @@ public class TaskLocationRestController {
      * @param minLng longitud mínima
      * @param maxLng longitud máxima
      * @param auth información del usuario autenticado
-     * @return ResponseEntity con ubicaciones en el área
+     * @param webRequest petición con If-None-Match / If-Modified-Since
+     * @return 304 si el cliente tiene la versión actual; si no, ResponseEntity con ubicaciones en el área
      */
     @GetMapping("/bounds")
     public ResponseEntity<List<TaskLocation>> getLocationsInBounds(
             @RequestParam Double minLat, @RequestParam Double maxLat,
             @RequestParam Double minLng, @RequestParam Double maxLng,
-            Authentication auth) {
+            Authentication auth, WebRequest webRequest) {
         try {
-            User currentUser = getUserFromAuth(auth);
-            List<TaskLocation> locations = taskLocationService.getLocationsInBounds(
-                    minLat, maxLat, minLng, maxLng, currentUser
-            );
-            return ResponseEntity.ok(locations);
+            LocationSetVersion version = locationVersionService.getVersion(auth.getName());
+            if (webRequest.checkNotModified(version.eTag(), version.lastModified())) {
+                return notModified();
+            }
+
+            List<TaskLocation> locations = locationVersionService.readFromPrimary(() ->
+                    taskLocationService.getLocationsInBounds(minLat, maxLat, minLng, maxLng, getUserFromAuth(auth)));
+            return versioned(version).body(locations);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -342,26 +387,58 @@ public class TaskLocationRestController {
      * ENDPOINT: GET /api/locations/stats
      *
      * @param auth información del usuario autenticado
-     * @return ResponseEntity con estadísticas en JSON
+     * @param webRequest petición con If-None-Match / If-Modified-Since
+     * @return 304 si el cliente tiene la versión actual; si no, ResponseEntity con estadísticas en JSON
      */
     @GetMapping("/stats")
-    public ResponseEntity<Map<String, Object>> getLocationStats(Authentication auth) {
+    public ResponseEntity<Map<String, Object>> getLocationStats(Authentication auth, WebRequest webRequest) {
         try {
-            User currentUser = getUserFromAuth(auth);
+            LocationSetVersion version = locationVersionService.getVersion(auth.getName());
+            if (webRequest.checkNotModified(version.eTag(), version.lastModified())) {
+                return notModified();
+            }
 
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("activeCount", taskLocationService.countActiveLocations(currentUser));
-            stats.put("inactiveCount", taskLocationService.countInactiveLocations(currentUser));
-            stats.put("totalCount", taskLocationService.countActiveLocations(currentUser) +
-                    taskLocationService.countInactiveLocations(currentUser));
-            stats.put("recentLocations", taskLocationService.getRecentLocations(currentUser));
+            Map<String, Object> stats = locationVersionService.readFromPrimary(() -> {
+                User currentUser = getUserFromAuth(auth);
 
-            return ResponseEntity.ok(stats);
+                Map<String, Object> values = new HashMap<>();
+                values.put("activeCount", taskLocationService.countActiveLocations(currentUser));
+                values.put("inactiveCount", taskLocationService.countInactiveLocations(currentUser));
+                values.put("totalCount", taskLocationService.countActiveLocations(currentUser) +
+                        taskLocationService.countInactiveLocations(currentUser));
+                values.put("recentLocations", taskLocationService.getRecentLocations(currentUser));
+                return values;
+            });
+
+            return versioned(version).body(stats);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * RESPUESTA 304: EL CLIENTE YA TIENE LA VERSIÓN ACTUAL (checkNotModified YA PUSO ETag Y Last-Modified)
+     *
+     * @param <T> tipo del cuerpo
+     * @return respuesta sin cuerpo
+     */
+    private <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+    }
+
+    /**
+     * RESPUESTA 200 CON LA VERSIÓN DE LAS UBICACIONES COMO ETag Y Last-Modified
+     *
+     * @param version versión leída antes de consultar las ubicaciones
+     * @return constructor de la respuesta
+     */
+    private ResponseEntity.BodyBuilder versioned(LocationSetVersion version) {
+        return ResponseEntity.ok()
+                .eTag(version.eTag())
+                .lastModified(version.lastModified())
+                .cacheControl(REVALIDATE);
+    }
+
     /**
      * MÉTODO AUXILIAR PARA OBTENER EL USUARIO DESDE LA AUTENTICACIÓN
      *
@@ -369,7 +446,6 @@ public class TaskLocationRestController {
      * @return el usuario logueado
      */
     private User getUserFromAuth(Authentication auth) {
-        String username = auth.getName();
-        return userService.findByUsername(username);
+        return userService.getAuthenticatedUser(auth);
     }
 }
\ No newline at end of file
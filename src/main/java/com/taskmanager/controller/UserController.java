@@ -4,12 +4,12 @@ import com.taskmanager.model.User;
 import com.taskmanager.model.UserRole;
 import com.taskmanager.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
 import java.util.Optional;
 
 /**
@@ -25,24 +25,45 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    // USUARIOS POR PÁGINA DEL CATÁLOGO
+    @Value("${app.users.catalog.page-size:50}")
+    private int catalogPageSize;
+
+    // TAMAÑO MÁXIMO DE PÁGINA QUE ACEPTO DEL CLIENTE
+    private static final int MAX_CATALOG_PAGE_SIZE = 200;
+
     /**
-     * MUESTRO LA LISTA DE TODOS LOS USUARIOS (CATÁLOGO)
+     * MUESTRO UNA PÁGINA DEL CATÁLOGO DE USUARIOS
+     * PAGINADO POR CLAVE: EL ENLACE "SIGUIENTE" LLEVA EL CURSOR DEL ÚLTIMO USUARIO DE LA PÁGINA
      *
+     * @param sort orden: recent (más nuevos primero) o username
+     * @param cursor cursor de la página (vacío para la primera)
+     * @param size usuarios por página (opcional)
      * @param model objeto para pasar datos a la vista
      * @return nombre de la vista del catálogo
      */
     @GetMapping("/catalog")
-    public String catalog(Model model) {
-        List<User> users = userService.getAllUsers();
-        long totalUsers = users.size();
-        long adminCount = userService.countUsersByRole(UserRole.ADMIN);
-        long userCount = userService.countUsersByRole(UserRole.USER);
+    public String catalog(@RequestParam(defaultValue = "recent") String sort,
+                          @RequestParam(required = false) String cursor,
+                          @RequestParam(required = false) Integer size,
+                          Model model) {
+        UserService.CatalogSort catalogSort = "username".equalsIgnoreCase(sort)
+                ? UserService.CatalogSort.USERNAME
+                : UserService.CatalogSort.RECENT;
 
-        model.addAttribute("users", users);
-        model.addAttribute("totalUsers", totalUsers);
-        model.addAttribute("adminCount", adminCount);
-        model.addAttribute("userCount", userCount);
+        UserService.CatalogPage page;
+        try {
+            page = userService.getCatalogPage(catalogSort, cursor, pageSize(size));
+        } catch (IllegalArgumentException e) {
+            // CURSOR MANIPULADO O CADUCADO: VUELVO A LA PRIMERA PÁGINA
+            model.addAttribute("errorMessage", e.getMessage());
+            page = userService.getCatalogPage(catalogSort, null, pageSize(size));
+            cursor = null;
+        }
 
+        model.addAttribute("sort", catalogSort == UserService.CatalogSort.USERNAME ? "username" : "recent");
+        model.addAttribute("searchResults", false);
+        addCatalogAttributes(model, page, cursor);
         return "users/catalog";
     }
 
@@ -152,20 +173,37 @@ public class UserController {
     }
 
     /**
-     * BUSCO USUARIOS POR TEXTO
+     * BUSCO USUARIOS CUYO USERNAME O EMAIL EMPIEZA POR EL TEXTO
+     * LOS RESULTADOS SE MUESTRAN EN EL MISMO CATÁLOGO, TAMBIÉN PAGINADOS POR CLAVE
      *
      * @param query texto de búsqueda
+     * @param cursor cursor de la página (vacío para la primera)
+     * @param size usuarios por página (opcional)
      * @param model objeto para pasar datos a la vista
-     * @return nombre de la vista de resultados
+     * @return nombre de la vista del catálogo con los resultados
      */
     @GetMapping("/search")
-    public String searchUsers(@RequestParam String query, Model model) {
-        List<User> users = userService.searchUsers(query);
-        model.addAttribute("users", users);
+    public String searchUsers(@RequestParam String query,
+                              @RequestParam(required = false) String cursor,
+                              @RequestParam(required = false) Integer size,
+                              Model model) {
+        if (query.isBlank()) {
+            return "redirect:/users/catalog";
+        }
+
+        UserService.CatalogPage page;
+        try {
+            page = userService.searchUsers(query, cursor, pageSize(size));
+        } catch (IllegalArgumentException e) {
+            model.addAttribute("errorMessage", e.getMessage());
+            page = userService.searchUsers(query, null, pageSize(size));
+            cursor = null;
+        }
+
         model.addAttribute("searchQuery", query);
         model.addAttribute("searchResults", true);
-
-        return "users/search-results";
+        addCatalogAttributes(model, page, cursor);
+        return "users/catalog";
     }
 
     /**
@@ -193,4 +231,36 @@ public class UserController {
 
         return "redirect:/users/catalog";
     }
-}
\ No newline at end of file
+
+    // MÉTODOS AUXILIARES PRIVADOS
+
+    /**
+     * CALCULO EL TAMAÑO DE PÁGINA CON LÍMITES RAZONABLES
+     *
+     * @param size tamaño pedido por el cliente
+     * @return tamaño a usar
+     */
+    private int pageSize(Integer size) {
+        return Math.min(size != null && size > 0 ? size : catalogPageSize, MAX_CATALOG_PAGE_SIZE);
+    }
+
+    /**
+     * PASO A LA VISTA LA PÁGINA Y LOS CONTADORES DEL CATÁLOGO
+     * EL TOTAL ES UNA ESTIMACIÓN: UN COUNT(*) EXACTO RECORRERÍA LA TABLA EN CADA VISITA
+     *
+     * @param model objeto para pasar datos a la vista
+     * @param page página de usuarios
+     * @param cursor cursor de la página actual
+     */
+    private void addCatalogAttributes(Model model, UserService.CatalogPage page, String cursor) {
+        long totalUsers = userService.estimateUserCount();
+        long adminCount = userService.countUsersByRole(UserRole.ADMIN);
+
+        model.addAttribute("users", page.getUsers());
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("firstPage", cursor == null || cursor.isBlank());
+        model.addAttribute("totalUsers", totalUsers);
+        model.addAttribute("adminCount", adminCount);
+        model.addAttribute("userCount", Math.max(0, totalUsers - adminCount));
+    }
+}
@@ -0,0 +1,70 @@
+package com.taskmanager.event;
+
+import com.taskmanager.model.PaymentOutboxEvent;
+import com.taskmanager.model.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * EVENTO EN PROCESO QUE NOTIFICA EL ESTADO FINAL DE UN PAGO
+ * LO PUBLICA EL DESPACHADOR DEL OUTBOX Y LO RECIBEN LOS CONSUMIDORES
+ * (ACTIVACIÓN DE SUSCRIPCIONES, MÉTRICAS, WEBHOOKS...)
+ *
+ * <p>LOS CONSUMIDORES SE EJECUTAN DENTRO DE LA TRANSACCIÓN QUE MARCA EL EVENTO
+ * COMO PUBLICADO, ASÍ QUE SI UNO FALLA EL EVENTO SE REINTENTA COMPLETO.
+ * DEBEN SER IDEMPOTENTES.</p>
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+public class PaymentEvent {
+
+    private final Long eventId;
+    private final Long transactionId;
+    private final String referenceCode;
+    private final Long userId;
+    private final Long subscriptionPlanId;
+    private final BigDecimal amount;
+    private final String paymentMethod;
+    private final LocalDateTime transactionDate;
+    private final PaymentStatus paymentStatus;
+
+    /**
+     * CONSTRUYO EL EVENTO A PARTIR DE LA FILA DEL OUTBOX
+     *
+     * @param outboxEvent fila del outbox
+     */
+    public PaymentEvent(PaymentOutboxEvent outboxEvent) {
+        this.eventId = outboxEvent.getId();
+        this.transactionId = outboxEvent.getTransactionId();
+        this.referenceCode = outboxEvent.getReferenceCode();
+        this.userId = outboxEvent.getUserId();
+        this.subscriptionPlanId = outboxEvent.getSubscriptionPlanId();
+        this.amount = outboxEvent.getAmount();
+        this.paymentMethod = outboxEvent.getPaymentMethod();
+        this.transactionDate = outboxEvent.getTransactionDate() != null
+                ? outboxEvent.getTransactionDate() : outboxEvent.getCreatedAt();
+        this.paymentStatus = outboxEvent.getPaymentStatus();
+    }
+
+    // GETTERS
+    public Long getEventId() { return eventId; }
+    public Long getTransactionId() { return transactionId; }
+    public String getReferenceCode() { return referenceCode; }
+    public Long getUserId() { return userId; }
+    public Long getSubscriptionPlanId() { return subscriptionPlanId; }
+    public BigDecimal getAmount() { return amount; }
+    public String getPaymentMethod() { return paymentMethod; }
+    public LocalDateTime getTransactionDate() { return transactionDate; }
+    public PaymentStatus getPaymentStatus() { return paymentStatus; }
+
+    @Override
+    public String toString() {
+        return "PaymentEvent{" +
+                "eventId=" + eventId +
+                ", referenceCode='" + referenceCode + '\'' +
+                ", paymentStatus=" + paymentStatus +
+                '}';
+    }
+}
@@ -0,0 +1,47 @@
+package com.taskmanager.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * CONSUMIDOR QUE PUBLICA MÉTRICAS DE PAGOS FINALIZADOS EN ACTUATOR
+ * CUENTA PAGOS POR ESTADO Y REGISTRA LOS MONTOS COBRADOS
+ *
+ * LAS MÉTRICAS NO SON TRANSACCIONALES: SOLO SE TOCAN DESPUÉS DEL COMMIT QUE MARCA EL EVENTO
+ * COMO PUBLICADO, ASÍ UN INTENTO QUE SE DESHACE Y SE REINTENTA NO CUENTA DOS VECES
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Component
+public class PaymentMetricsListener {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * ACTUALIZO LOS CONTADORES CON CADA PAGO FINALIZADO, UNA VEZ CONFIRMADA SU PUBLICACIÓN
+     *
+     * @param event evento de pago finalizado
+     */
+    @TransactionalEventListener
+    public void onPaymentEvent(PaymentEvent event) {
+        Counter.builder("payments.finalized")
+                .description("Pagos que alcanzaron un estado final")
+                .tag("status", event.getPaymentStatus().name())
+                .register(meterRegistry)
+                .increment();
+
+        if (event.getPaymentStatus().isSuccessful() && event.getAmount() != null) {
+            DistributionSummary.builder("payments.revenue")
+                    .description("Importe de los pagos completados")
+                    .baseUnit("EUR")
+                    .register(meterRegistry)
+                    .record(event.getAmount().doubleValue());
+        }
+    }
+}
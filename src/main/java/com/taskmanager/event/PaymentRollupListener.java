@@ -0,0 +1,31 @@
+package com.taskmanager.event;
+
+import com.taskmanager.service.PaymentReportingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * CONSUMIDOR QUE MANTIENE LOS AGREGADOS MATERIALIZADOS DE PAGOS
+ * SE EJECUTA EN LA MISMA TRANSACCIÓN QUE MARCA EL EVENTO COMO PUBLICADO,
+ * ASÍ CADA ESTADO FINAL SE SUMA UNA SOLA VEZ
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Component
+public class PaymentRollupListener {
+
+    @Autowired
+    private PaymentReportingService paymentReportingService;
+
+    /**
+     * SUMO EL PAGO A SUS BUCKETS DE HORA Y DÍA
+     *
+     * @param event evento de pago finalizado
+     */
+    @EventListener
+    public void onPaymentEvent(PaymentEvent event) {
+        paymentReportingService.applyPaymentEvent(event);
+    }
+}
@@ -0,0 +1,42 @@
+package com.taskmanager.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * EVENTO JFR CON EL COSTE DE UNA PETICIÓN HTTP COMPLETA (CADENA DE FILTROS Y SEGURIDAD INCLUIDAS)
+ * LO EMITE RequestProfilingFilter CUANDO EL MODO DE PERFILADO ESTÁ ACTIVO; LA DURACIÓN LA PONE JFR
+ *
+ * SOLO CUESTA ALGO SI HAY UNA GRABACIÓN QUE LO TENGA ACTIVADO (jfr/taskmanager.jfc)
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Name("taskmanager.Request")
+@Label("Petición HTTP")
+@Category({"Task Manager", "Perfilado"})
+@Description("Duración, memoria reservada y consultas SQL de una petición HTTP")
+@StackTrace(false)
+public class RequestProfileEvent extends jdk.jfr.Event {
+
+    @Label("Método HTTP")
+    public String method;
+
+    @Label("Ruta")
+    @Description("Patrón de la ruta del controlador, o la URI si no la atiende ninguno")
+    public String route;
+
+    @Label("Estado HTTP")
+    public int status;
+
+    @Label("Memoria reservada")
+    @DataAmount
+    public long allocatedBytes;
+
+    @Label("Consultas SQL")
+    public long queries;
+}
@@ -0,0 +1,42 @@
+package com.taskmanager.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * EVENTO JFR CON EL COSTE DE UNA LLAMADA A UN MÉTODO PÚBLICO DE UN @Service
+ * LO EMITE ServiceProfilingAspect CUANDO EL MODO DE PERFILADO ESTÁ ACTIVO
+ *
+ * LOS VALORES SON INCLUSIVOS: SI UN SERVICIO LLAMA A OTRO, LA MEMORIA Y LAS CONSULTAS DEL
+ * SEGUNDO CUENTAN EN LOS DOS EVENTOS. LA TRANSACCIÓN (Y SU FLUSH AL HACER COMMIT) VA DENTRO
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Name("taskmanager.ServiceMethod")
+@Label("Método de servicio")
+@Category({"Task Manager", "Perfilado"})
+@Description("Duración, memoria reservada y consultas SQL de una llamada a un método de servicio")
+@StackTrace(false)
+public class ServiceMethodProfileEvent extends jdk.jfr.Event {
+
+    @Label("Servicio")
+    public String service;
+
+    @Label("Método")
+    public String method;
+
+    @Label("Memoria reservada")
+    @DataAmount
+    public long allocatedBytes;
+
+    @Label("Consultas SQL")
+    public long queries;
+
+    @Label("Con error")
+    public boolean failed;
+}
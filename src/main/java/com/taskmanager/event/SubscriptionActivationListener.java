@@ -0,0 +1,36 @@
+package com.taskmanager.event;
+
+import com.taskmanager.service.SubscriptionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * CONSUMIDOR QUE ACTIVA LA SUSCRIPCIÓN PREMIUM CUANDO UN PAGO SE COMPLETA
+ * SUSTITUYE A LA ACTIVACIÓN QUE ANTES SE HACÍA AL CONSULTAR EL ESTADO DEL PAGO
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Component
+public class SubscriptionActivationListener {
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    /**
+     * ACTIVO LA SUSCRIPCIÓN SI EL PAGO LO PERMITE
+     * ES IDEMPOTENTE: SI YA EXISTE UNA SUSCRIPCIÓN CON ESA REFERENCIA NO HACE NADA
+     * TAMPOCO HACE NADA (SIN LANZAR) SI EL PAGO YA ESTÁ REEMBOLSADO O EN DISPUTA CUANDO SE PUBLICA SU COMPLETED
+     *
+     * @param event evento de pago finalizado
+     */
+    @EventListener
+    public void onPaymentEvent(PaymentEvent event) {
+        if (!event.getPaymentStatus().activatesSubscription()) {
+            return;
+        }
+
+        subscriptionService.activateSubscriptionForPayment(event.getReferenceCode());
+    }
+}
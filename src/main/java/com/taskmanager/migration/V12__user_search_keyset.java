@@ -0,0 +1,53 @@
+package com.taskmanager.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * MIGRACIÓN DE LA BÚSQUEDA DE USUARIOS PAGINADA POR CLAVE (username_lower, id) Y (email_lower, id)
+ * LOS ÍNDICES DE V8 SOLO TENÍAN LA COLUMNA EN MINÚSCULAS: SERVÍAN PARA EL LIKE 'x%' PERO NO PARA
+ * EL ORDEN, Y CADA PÁGINA ORDENABA TODAS LAS COINCIDENCIAS. AHORA EL ÍNDICE DA LAS DOS COSAS
+ *
+ * - POSTGRESQL: varchar_pattern_ops NO SIRVE PARA ORDER BY CON LA COLACIÓN DE LA BD, ASÍ QUE VUELVO
+ *   A CREAR LAS COLUMNAS GENERADAS CON COLLATE "C": CON ESA COLACIÓN UN B-TREE NORMAL SIRVE PARA EL
+ *   LIKE 'x%' Y PARA EL ORDEN, Y ORDENA IGUAL QUE H2 (POR CÓDIGO DE CARÁCTER)
+ * - H2: CAMBIO LOS ÍNDICES POR LOS COMPUESTOS
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+public class V12__user_search_keyset extends BaseJavaMigration {
+
+    /**
+     * CAMBIO LOS ÍNDICES DE LAS COLUMNAS EN MINÚSCULAS POR (columna, id)
+     *
+     * @param context contexto de Flyway con la conexión de la migración
+     * @throws Exception si falla alguna sentencia
+     */
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean postgres = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+
+        try (Statement statement = connection.createStatement()) {
+            if (postgres) {
+                // AL BORRAR LA COLUMNA SE BORRA SU ÍNDICE DE V8
+                statement.execute("alter table users drop column username_lower");
+                statement.execute("alter table users drop column email_lower");
+                statement.execute("alter table users add column username_lower varchar(50) collate \"C\" "
+                        + "generated always as (lower(username)) stored");
+                statement.execute("alter table users add column email_lower varchar(100) collate \"C\" "
+                        + "generated always as (lower(email)) stored");
+            } else {
+                statement.execute("drop index if exists idx_users_username_lower");
+                statement.execute("drop index if exists idx_users_email_lower");
+            }
+
+            statement.execute("create index if not exists idx_users_username_lower on users (username_lower, id)");
+            statement.execute("create index if not exists idx_users_email_lower on users (email_lower, id)");
+        }
+    }
+}
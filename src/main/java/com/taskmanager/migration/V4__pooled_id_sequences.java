@@ -0,0 +1,79 @@
+package com.taskmanager.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * MIGRACIÓN QUE CAMBIA LOS IDS DE IDENTITY A SECUENCIAS (VER PooledSequenceIdGenerator)
+ * ES JAVA Y NO SQL PORQUE CADA SECUENCIA EMPIEZA DESPUÉS DEL MAYOR ID YA GUARDADO
+ *
+ * LA SECUENCIA QUEDA COMO DEFAULT DE LA COLUMNA, ASÍ LOS INSERTS HECHOS A MANO
+ * SIGUEN FUNCIONANDO Y NO CHOCAN CON LOS BLOQUES QUE RESERVA HIBERNATE
+ *
+ * CAMBIAR app.id.allocation-size DESPUÉS NECESITA OTRA MIGRACIÓN CON ALTER SEQUENCE ... INCREMENT BY
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+public class V4__pooled_id_sequences extends BaseJavaMigration {
+
+    // TABLAS CON ID GENERADO
+    private static final List<String> TABLES = List.of(
+            "users", "subscription_plans", "tasks", "task_locations", "user_subscriptions",
+            "payment_transactions", "payment_outbox_events", "payment_rollups");
+
+    /**
+     * CREO UNA SECUENCIA POR TABLA CON EL INCREMENTO DEL BLOQUE DE IDS
+     * Y QUITO LA IDENTITY DE LA COLUMNA id
+     *
+     * @param context contexto de Flyway con la conexión de la migración
+     * @throws Exception si falla alguna sentencia
+     */
+    @Override
+    public void migrate(Context context) throws Exception {
+        int allocationSize = Integer.parseInt(
+                context.getConfiguration().getPlaceholders().getOrDefault("id_allocation_size", "50"));
+        Connection connection = context.getConnection();
+        boolean postgres = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+
+        try (Statement statement = connection.createStatement()) {
+            for (String table : TABLES) {
+                String sequence = table + "_seq";
+                long start = maxId(statement, table) + 1;
+
+                statement.execute("create sequence " + sequence + " start with " + start
+                        + " increment by " + allocationSize);
+
+                if (postgres) {
+                    statement.execute("alter table " + table + " alter column id drop identity if exists");
+                    statement.execute("alter table " + table + " alter column id set default nextval('" + sequence + "')");
+                    statement.execute("alter sequence " + sequence + " owned by " + table + ".id");
+                } else {
+                    statement.execute("alter table " + table + " alter column id drop identity");
+                    statement.execute("alter table " + table + " alter column id set default next value for " + sequence);
+                }
+            }
+        }
+    }
+
+    /**
+     * OBTENGO EL MAYOR ID DE UNA TABLA
+     *
+     * @param statement sentencia abierta
+     * @param table tabla
+     * @return mayor id o 0 si está vacía
+     * @throws SQLException si falla la consulta
+     */
+    private long maxId(Statement statement, String table) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("select coalesce(max(id), 0) from " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
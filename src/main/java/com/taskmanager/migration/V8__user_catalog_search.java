@@ -0,0 +1,63 @@
+package com.taskmanager.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * MIGRACIÓN DEL CATÁLOGO DE USUARIOS PAGINADO POR CLAVE Y CON BÚSQUEDA POR PREFIJO
+ * ES JAVA Y NO SQL PORQUE LAS COLUMNAS GENERADAS Y LOS ÍNDICES PARA LIKE 'x%' SE ESCRIBEN
+ * DISTINTO EN POSTGRESQL Y EN H2
+ *
+ * - username_lower Y email_lower: COPIAS EN MINÚSCULAS QUE MANTIENE LA BD (TAMBIÉN CON INSERTS A MANO)
+ * - ÍNDICES B-TREE SOBRE ELLAS; EN POSTGRESQL CON varchar_pattern_ops PARA QUE LIKE 'x%' LOS USE
+ *   AUNQUE LA COLACIÓN DE LA BD NO SEA C
+ * - created_at OBLIGATORIO E ÍNDICE (created_at, id) PARA RECORRER EL CATÁLOGO DE MÁS NUEVO A MÁS ANTIGUO
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+public class V8__user_catalog_search extends BaseJavaMigration {
+
+    /**
+     * AÑADO LAS COLUMNAS EN MINÚSCULAS Y LOS ÍNDICES DEL CATÁLOGO
+     *
+     * @param context contexto de Flyway con la conexión de la migración
+     * @throws Exception si falla alguna sentencia
+     */
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean postgres = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+
+        try (Statement statement = connection.createStatement()) {
+            // LOS USUARIOS ANTIGUOS SIN FECHA QUEDAN AL FINAL DEL CATÁLOGO
+            statement.execute("update users set created_at = timestamp '2000-01-01 00:00:00' where created_at is null");
+            statement.execute("alter table users alter column created_at set default localtimestamp");
+            statement.execute("alter table users alter column created_at set not null");
+
+            if (postgres) {
+                statement.execute("alter table users add column username_lower varchar(50) "
+                        + "generated always as (lower(username)) stored");
+                statement.execute("alter table users add column email_lower varchar(100) "
+                        + "generated always as (lower(email)) stored");
+                statement.execute("create index if not exists idx_users_username_lower "
+                        + "on users (username_lower varchar_pattern_ops)");
+                statement.execute("create index if not exists idx_users_email_lower "
+                        + "on users (email_lower varchar_pattern_ops)");
+            } else {
+                statement.execute("alter table users add column username_lower varchar(50) "
+                        + "generated always as (lower(username))");
+                statement.execute("alter table users add column email_lower varchar(100) "
+                        + "generated always as (lower(email))");
+                statement.execute("create index if not exists idx_users_username_lower on users (username_lower)");
+                statement.execute("create index if not exists idx_users_email_lower on users (email_lower)");
+            }
+
+            statement.execute("create index if not exists idx_users_created_id on users (created_at, id)");
+            statement.execute("create index if not exists idx_users_role on users (role)");
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.taskmanager.model;
+
+/**
+ * ENUM QUE DEFINE LOS ESTADOS DE UN EVENTO DEL OUTBOX DE PAGOS
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+public enum OutboxEventStatus {
+
+    /**
+     * EVENTO ESCRITO PERO AÚN NO PUBLICADO A LOS CONSUMIDORES
+     */
+    PENDING,
+
+    /**
+     * EVENTO ENTREGADO CORRECTAMENTE A TODOS LOS CONSUMIDORES
+     */
+    PUBLISHED,
+
+    /**
+     * EVENTO DESCARTADO TRAS AGOTAR LOS REINTENTOS
+     */
+    FAILED
+}
@@ -0,0 +1,337 @@
+package com.taskmanager.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * ENTIDAD QUE REPRESENTA UN EVENTO DE PAGO PENDIENTE DE PUBLICAR (PATRÓN OUTBOX)
+ * SE ESCRIBE EN LA MISMA TRANSACCIÓN QUE EL ESTADO FINAL DEL PAGO
+ * Y UN DESPACHADOR EN SEGUNDO PLANO LO ENTREGA A LOS CONSUMIDORES
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Entity
+@Table(name = "payment_outbox_events")
+public class PaymentOutboxEvent {
+
+    /**
+     * ID ÚNICO DEL EVENTO (SOLO DESEMPATA EL ORDEN DE PUBLICACIÓN: SALE DE BLOQUES POR NODO)
+     */
+    @Id
+    @GeneratedValue(generator = "payment_outbox_events_seq")
+    @GenericGenerator(name = "payment_outbox_events_seq", type = PooledSequenceIdGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "payment_outbox_events_seq"))
+    private Long id;
+
+    /**
+     * ID DE LA TRANSACCIÓN DE PAGO QUE ORIGINÓ EL EVENTO
+     */
+    @Column(name = "transaction_id", nullable = false)
+    private Long transactionId;
+
+    /**
+     * CÓDIGO DE REFERENCIA DE LA TRANSACCIÓN
+     */
+    @Column(name = "reference_code", nullable = false, length = 100)
+    private String referenceCode;
+
+    /**
+     * USUARIO QUE REALIZÓ EL PAGO
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * PLAN POR EL QUE SE PAGÓ
+     */
+    @Column(name = "subscription_plan_id", nullable = false)
+    private Long subscriptionPlanId;
+
+    /**
+     * MONTO DEL PAGO
+     */
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    /**
+     * MÉTODO DE PAGO (VISA, MASTERCARD...)
+     */
+    @Column(name = "payment_method", length = 50)
+    private String paymentMethod;
+
+    /**
+     * FECHA DE LA TRANSACCIÓN (DEFINE EL BUCKET DE LOS AGREGADOS)
+     */
+    @Column(name = "transaction_date")
+    private LocalDateTime transactionDate;
+
+    /**
+     * ESTADO FINAL DEL PAGO QUE SE NOTIFICA
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", nullable = false)
+    private PaymentStatus paymentStatus;
+
+    /**
+     * ESTADO DE PUBLICACIÓN DEL EVENTO
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxEventStatus status;
+
+    /**
+     * NÚMERO DE INTENTOS DE PUBLICACIÓN FALLIDOS
+     */
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    /**
+     * ÚLTIMO ERROR AL PUBLICAR
+     */
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    /**
+     * PRIMER INSTANTE EN QUE SE PUEDE INTENTAR PUBLICAR (CRECE CON CADA FALLO)
+     */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * FECHA DE CREACIÓN DEL EVENTO (DEFINE EL ORDEN DE PUBLICACIÓN)
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * FECHA EN QUE SE PUBLICÓ CORRECTAMENTE
+     */
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    // CONSTRUCTORES
+
+    /**
+     * CONSTRUCTOR VACÍO PARA JPA
+     */
+    public PaymentOutboxEvent() {
+    }
+
+    /**
+     * CONSTRUCTOR A PARTIR DE UNA TRANSACCIÓN CON ESTADO FINAL
+     *
+     * @param transaction transacción cuyo estado se notifica
+     */
+    public PaymentOutboxEvent(PaymentTransaction transaction) {
+        this.transactionId = transaction.getId();
+        this.referenceCode = transaction.getReferenceCode();
+        this.userId = transaction.getUser().getId();
+        this.subscriptionPlanId = transaction.getSubscriptionPlan().getId();
+        this.amount = transaction.getAmount();
+        this.paymentMethod = transaction.getPaymentMethod();
+        this.transactionDate = transaction.getTransactionDate();
+        this.paymentStatus = transaction.getStatus();
+        this.status = OutboxEventStatus.PENDING;
+        this.attempts = 0;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+
+    /**
+     * SE EJECUTA ANTES DE GUARDAR EN LA BD
+     */
+    @PrePersist
+    protected void onCreate() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+        if (this.nextAttemptAt == null) {
+            this.nextAttemptAt = this.createdAt;
+        }
+    }
+
+    // GETTERS Y SETTERS
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(Long transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public String getReferenceCode() {
+        return referenceCode;
+    }
+
+    public void setReferenceCode(String referenceCode) {
+        this.referenceCode = referenceCode;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getSubscriptionPlanId() {
+        return subscriptionPlanId;
+    }
+
+    public void setSubscriptionPlanId(Long subscriptionPlanId) {
+        this.subscriptionPlanId = subscriptionPlanId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(String paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public LocalDateTime getTransactionDate() {
+        return transactionDate;
+    }
+
+    public void setTransactionDate(LocalDateTime transactionDate) {
+        this.transactionDate = transactionDate;
+    }
+
+    public PaymentStatus getPaymentStatus() {
+        return paymentStatus;
+    }
+
+    public void setPaymentStatus(PaymentStatus paymentStatus) {
+        this.paymentStatus = paymentStatus;
+    }
+
+    public OutboxEventStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OutboxEventStatus status) {
+        this.status = status;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+
+    public void setPublishedAt(LocalDateTime publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+
+    // MÉTODOS ÚTILES
+
+    /**
+     * MARCO EL EVENTO COMO PUBLICADO
+     */
+    public void markPublished() {
+        this.status = OutboxEventStatus.PUBLISHED;
+        this.publishedAt = LocalDateTime.now();
+        this.lastError = null;
+    }
+
+    /**
+     * REGISTRO UN INTENTO FALLIDO Y APLAZO EL SIGUIENTE CON ESPERA EXPONENCIAL
+     * (initialBackoff, EL DOBLE, EL CUÁDRUPLE... HASTA maxBackoff)
+     * DESCARTO EL EVENTO SI SE AGOTAN LOS REINTENTOS; replay() LO VUELVE A PONER EN COLA
+     *
+     * @param error mensaje del error
+     * @param maxAttempts máximo de intentos permitidos
+     * @param initialBackoff espera tras el primer fallo
+     * @param maxBackoff espera máxima entre intentos
+     */
+    public void registerFailure(String error, int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+        this.attempts = this.attempts + 1;
+        this.lastError = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(this.attempts - 1, 30));
+        this.nextAttemptAt = LocalDateTime.now().plus(backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff);
+
+        if (this.attempts >= maxAttempts) {
+            this.status = OutboxEventStatus.FAILED;
+        }
+    }
+
+    /**
+     * VUELVO A PONER EN COLA UN EVENTO DESCARTADO, CON TODOS SUS INTENTOS
+     */
+    public void replay() {
+        this.status = OutboxEventStatus.PENDING;
+        this.attempts = 0;
+        this.nextAttemptAt = LocalDateTime.now();
+    }
+
+    /**
+     * REPRESENTACIÓN EN TEXTO DEL EVENTO
+     */
+    @Override
+    public String toString() {
+        return "PaymentOutboxEvent{" +
+                "id=" + id +
+                ", referenceCode='" + referenceCode + '\'' +
+                ", paymentStatus=" + paymentStatus +
+                ", status=" + status +
+                ", attempts=" + attempts +
+                ", nextAttemptAt=" + nextAttemptAt +
+                '}';
+    }
+}
@@ -0,0 +1,183 @@
+package com.taskmanager.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * ENTIDAD CON AGREGADOS MATERIALIZADOS DE PAGOS POR BUCKET DE TIEMPO
+ * UNA FILA POR (GRANULARIDAD, INICIO DEL BUCKET, ESTADO, PLAN, MÉTODO DE PAGO)
+ * SE ACTUALIZA DE FORMA INCREMENTAL CON CADA ESTADO FINAL DE PAGO
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Entity
+@Table(name = "payment_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_payment_rollup_bucket",
+                columnNames = {"granularity", "bucket_start", "payment_status", "subscription_plan_id", "payment_method"}))
+public class PaymentRollup {
+
+    /**
+     * ID ÚNICO DE LA FILA
+     */
+    @Id
+    @GeneratedValue(generator = "payment_rollups_seq")
+    @GenericGenerator(name = "payment_rollups_seq", type = PooledSequenceIdGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "payment_rollups_seq"))
+    private Long id;
+
+    /**
+     * TAMAÑO DEL BUCKET (HORA O DÍA)
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private RollupGranularity granularity;
+
+    /**
+     * INICIO DEL BUCKET
+     */
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    /**
+     * ESTADO DE LOS PAGOS AGREGADOS
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", nullable = false)
+    private PaymentStatus paymentStatus;
+
+    /**
+     * PLAN DE LOS PAGOS AGREGADOS
+     */
+    @Column(name = "subscription_plan_id", nullable = false)
+    private Long subscriptionPlanId;
+
+    /**
+     * MÉTODO DE PAGO DE LOS PAGOS AGREGADOS
+     */
+    @Column(name = "payment_method", nullable = false, length = 50)
+    private String paymentMethod;
+
+    /**
+     * NÚMERO DE PAGOS EN EL BUCKET
+     */
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount = 0L;
+
+    /**
+     * SUMA DE LOS MONTOS EN EL BUCKET
+     */
+    @Column(name = "total_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    // CONSTRUCTORES
+
+    /**
+     * CONSTRUCTOR VACÍO PARA JPA
+     */
+    public PaymentRollup() {
+    }
+
+    /**
+     * CONSTRUCTOR CON LA CLAVE DEL BUCKET Y SUS VALORES INICIALES
+     *
+     * @param granularity tamaño del bucket
+     * @param bucketStart inicio del bucket
+     * @param paymentStatus estado
+     * @param subscriptionPlanId plan
+     * @param paymentMethod método de pago
+     * @param transactionCount número de pagos
+     * @param totalAmount suma de montos
+     */
+    public PaymentRollup(RollupGranularity granularity, LocalDateTime bucketStart, PaymentStatus paymentStatus,
+                         Long subscriptionPlanId, String paymentMethod, long transactionCount, BigDecimal totalAmount) {
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.paymentStatus = paymentStatus;
+        this.subscriptionPlanId = subscriptionPlanId;
+        this.paymentMethod = paymentMethod;
+        this.transactionCount = transactionCount;
+        this.totalAmount = totalAmount;
+    }
+
+    // GETTERS Y SETTERS
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public RollupGranularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(RollupGranularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public PaymentStatus getPaymentStatus() {
+        return paymentStatus;
+    }
+
+    public void setPaymentStatus(PaymentStatus paymentStatus) {
+        this.paymentStatus = paymentStatus;
+    }
+
+    public Long getSubscriptionPlanId() {
+        return subscriptionPlanId;
+    }
+
+    public void setSubscriptionPlanId(Long subscriptionPlanId) {
+        this.subscriptionPlanId = subscriptionPlanId;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(String paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public Long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(Long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    @Override
+    public String toString() {
+        return "PaymentRollup{" +
+                "granularity=" + granularity +
+                ", bucketStart=" + bucketStart +
+                ", paymentStatus=" + paymentStatus +
+                ", transactionCount=" + transactionCount +
+                ", totalAmount=" + totalAmount +
+                '}';
+    }
+}
@@ -1,6 +1,9 @@
 package com.taskmanager.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -19,7 +22,9 @@ public class PaymentTransaction {
      * ID ÚNICO DE LA TRANSACCIÓN
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "payment_transactions_seq")
+    @GenericGenerator(name = "payment_transactions_seq", type = PooledSequenceIdGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "payment_transactions_seq"))
     private Long id;
 
     /**
@@ -97,6 +102,14 @@ public class PaymentTransaction {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    /**
+     * VERSIÓN PARA EL BLOQUEO OPTIMISTA: SI LA PASARELA, UN WEBHOOK Y EL LIMPIADOR
+     * FINALIZAN EL MISMO PAGO A LA VEZ SOLO GANA EL PRIMERO EN CONFIRMAR
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // CONSTRUCTORES
 
     /**
@@ -241,6 +254,14 @@ public class PaymentTransaction {
         this.createdAt = createdAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // MÉTODOS ÚTILES
 
     /**
@@ -0,0 +1,203 @@
+package com.taskmanager.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import java.time.LocalDateTime;
+
+/**
+ * ENTIDAD QUE REPRESENTA UNA NOTIFICACIÓN WEBHOOK DE LA PASARELA YA ACEPTADA
+ * SE GUARDA ANTES DE RESPONDER 202, ASÍ NINGUNA NOTIFICACIÓN CONFIRMADA SE PIERDE
+ * AUNQUE FALLE SU LOTE O SE CAIGA EL NODO CON LA COLA EN MEMORIA
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Entity
+@Table(name = "payment_webhook_inbox")
+public class PaymentWebhookInboxEntry {
+
+    /**
+     * ID ÚNICO DE LA ENTRADA (SOLO DESEMPATA EL ORDEN DE LLEGADA: SALE DE BLOQUES POR NODO)
+     */
+    @Id
+    @GeneratedValue(generator = "payment_webhook_inbox_seq")
+    @GenericGenerator(name = "payment_webhook_inbox_seq", type = PooledSequenceIdGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "payment_webhook_inbox_seq"))
+    private Long id;
+
+    /**
+     * ID DEL EVENTO EN LA PASARELA (ÚNICO: DESCARTA LOS REENVÍOS)
+     */
+    @Column(name = "event_id", nullable = false, unique = true, length = 100)
+    private String eventId;
+
+    /**
+     * CÓDIGO DE REFERENCIA DE LA TRANSACCIÓN NOTIFICADA
+     */
+    @Column(name = "reference_code", nullable = false, length = 100)
+    private String referenceCode;
+
+    /**
+     * ESTADO QUE NOTIFICA LA PASARELA
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", nullable = false)
+    private PaymentStatus paymentStatus;
+
+    /**
+     * MENSAJE DE ERROR ENVIADO POR LA PASARELA
+     */
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    /**
+     * FECHA EN QUE SE ACEPTÓ LA NOTIFICACIÓN (DEFINE EL ORDEN DE LLEGADA)
+     */
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    /**
+     * FECHA EN QUE SE APLICÓ (NULL MIENTRAS ESTÁ PENDIENTE)
+     */
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    /**
+     * NÚMERO DE INTENTOS DE APLICACIÓN FALLIDOS
+     */
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    /**
+     * ÚLTIMO ERROR AL APLICAR
+     */
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    // CONSTRUCTORES
+
+    /**
+     * CONSTRUCTOR VACÍO PARA JPA
+     */
+    public PaymentWebhookInboxEntry() {
+    }
+
+    /**
+     * CONSTRUCTOR CON LOS DATOS DE LA NOTIFICACIÓN
+     *
+     * @param eventId ID del evento en la pasarela
+     * @param referenceCode código de referencia de la transacción
+     * @param paymentStatus estado notificado
+     * @param errorMessage mensaje de error de la pasarela
+     */
+    public PaymentWebhookInboxEntry(String eventId, String referenceCode, PaymentStatus paymentStatus,
+                                    String errorMessage) {
+        this.eventId = eventId;
+        this.referenceCode = referenceCode;
+        this.paymentStatus = paymentStatus;
+        this.errorMessage = errorMessage != null && errorMessage.length() > 500
+                ? errorMessage.substring(0, 500) : errorMessage;
+        this.receivedAt = LocalDateTime.now();
+        this.attempts = 0;
+    }
+
+    // GETTERS Y SETTERS
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getReferenceCode() {
+        return referenceCode;
+    }
+
+    public void setReferenceCode(String referenceCode) {
+        this.referenceCode = referenceCode;
+    }
+
+    public PaymentStatus getPaymentStatus() {
+        return paymentStatus;
+    }
+
+    public void setPaymentStatus(PaymentStatus paymentStatus) {
+        this.paymentStatus = paymentStatus;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public LocalDateTime getReceivedAt() {
+        return receivedAt;
+    }
+
+    public void setReceivedAt(LocalDateTime receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    // MÉTODOS ÚTILES
+
+    /**
+     * MARCO LA NOTIFICACIÓN COMO APLICADA
+     */
+    public void markProcessed() {
+        this.processedAt = LocalDateTime.now();
+        this.lastError = null;
+    }
+
+    /**
+     * REPRESENTACIÓN EN TEXTO DE LA ENTRADA
+     */
+    @Override
+    public String toString() {
+        return "PaymentWebhookInboxEntry{" +
+                "id=" + id +
+                ", eventId='" + eventId + '\'' +
+                ", referenceCode='" + referenceCode + '\'' +
+                ", paymentStatus=" + paymentStatus +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
@@ -0,0 +1,55 @@
+package com.taskmanager.model;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * GENERADOR DE IDS CON SECUENCIA Y OPTIMIZADOR POOLED-LO PARA TODAS LAS ENTIDADES
+ * CADA LLAMADA A LA SECUENCIA RESERVA UN BLOQUE DE IDS EN MEMORIA, ASÍ HIBERNATE CONOCE
+ * EL ID ANTES DEL INSERT Y PUEDE MANDAR LOS INSERTS EN LOTES JDBC (CON IDENTITY NO PUEDE)
+ *
+ * EL TAMAÑO DEL BLOQUE SALE DE taskmanager.id.allocation_size Y DEBE COINCIDIR CON EL
+ * INCREMENT BY DE LAS SECUENCIAS; SI NO COINCIDE HIBERNATE FALLA AL ARRANCAR
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+public class PooledSequenceIdGenerator extends SequenceStyleGenerator {
+
+    // PROPIEDAD DE HIBERNATE CON EL TAMAÑO DEL BLOQUE
+    public static final String ALLOCATION_SIZE_SETTING = "taskmanager.id.allocation_size";
+
+    // TAMAÑO DEL BLOQUE SI NO SE CONFIGURA
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    /**
+     * APLICO EL TAMAÑO DE BLOQUE CONFIGURADO Y EL OPTIMIZADOR POOLED-LO
+     * ANTES DE QUE HIBERNATE CONFIGURE LA SECUENCIA
+     *
+     * @param type tipo del id
+     * @param parameters parámetros del generador (incluye el nombre de la secuencia)
+     * @param serviceRegistry registro de servicios de Hibernate
+     */
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        Integer allocationSize = serviceRegistry.requireService(ConfigurationService.class)
+                .getSetting(ALLOCATION_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_ALLOCATION_SIZE);
+
+        if (allocationSize < 1) {
+            throw new MappingException("El tamaño de bloque de ids debe ser mayor que 0: " + allocationSize);
+        }
+
+        parameters.put(OptimizableGenerator.INCREMENT_PARAM, String.valueOf(allocationSize));
+        parameters.put(OptimizableGenerator.OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
@@ -0,0 +1,45 @@
+package com.taskmanager.model;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * ENUM QUE DEFINE EL TAMAÑO DE LOS BUCKETS DE LOS AGREGADOS DE PAGOS
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+public enum RollupGranularity {
+
+    /**
+     * BUCKET DE UNA HORA
+     */
+    HOUR(ChronoUnit.HOURS),
+
+    /**
+     * BUCKET DE UN DÍA
+     */
+    DAY(ChronoUnit.DAYS);
+
+    // UNIDAD DE TIEMPO DEL BUCKET
+    private final ChronoUnit unit;
+
+    /**
+     * CONSTRUCTOR DEL ENUM
+     *
+     * @param unit unidad de truncado
+     */
+    RollupGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * OBTENGO EL INICIO DEL BUCKET AL QUE PERTENECE UNA FECHA
+     *
+     * @param dateTime fecha a truncar
+     * @return inicio del bucket
+     */
+    public LocalDateTime bucketStart(LocalDateTime dateTime) {
+        return dateTime.truncatedTo(unit);
+    }
+}
@@ -1,6 +1,11 @@
 package com.taskmanager.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -8,19 +13,24 @@ import java.util.List;
 /**
  * ENTIDAD QUE REPRESENTA LOS PLANES DE SUSCRIPCIÓN DISPONIBLES
  * DEFINE QUÉ FUNCIONALIDADES Y LÍMITES TIENE CADA PLAN
+ * SE GUARDA EN LA CACHÉ DE SEGUNDO NIVEL PORQUE CASI NUNCA CAMBIA
  *
  * @author Mario Flores
  * @version 1.0
  */
 @Entity
 @Table(name = "subscription_plans")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "subscription-plans")
 public class SubscriptionPlan {
 
     /**
      * ID ÚNICO DEL PLAN
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "subscription_plans_seq")
+    @GenericGenerator(name = "subscription_plans_seq", type = PooledSequenceIdGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "subscription_plans_seq"))
     private Long id;
 
     /**
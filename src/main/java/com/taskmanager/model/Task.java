@@ -1,6 +1,10 @@
 package com.taskmanager.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import java.time.LocalDateTime;
 
 /**
@@ -11,13 +15,17 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "tasks")
+// LAS FILAS BORRADAS SON LÁPIDAS PARA /api/sync: NINGUNA CONSULTA JPA LAS VE, SOLO LAS NATIVAS DEL REPOSITORIO
+@SQLRestriction("deleted_at IS NULL")
 public class Task {
 
     /**
      * ID ÚNICO DE LA TAREA
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "tasks_seq")
+    @GenericGenerator(name = "tasks_seq", type = PooledSequenceIdGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "tasks_seq"))
     private Long id;
 
     /**
@@ -44,6 +52,19 @@ public class Task {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    /**
+     * FECHA Y HORA DEL ÚLTIMO CAMBIO (ALTA, EDICIÓN O BORRADO)
+     * LA USA LA SINCRONIZACIÓN INCREMENTAL PARA SABER QUÉ HA CAMBIADO DESDE EL TOKEN DEL CLIENTE
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * FECHA Y HORA DEL BORRADO, NULL SI LA TAREA SIGUE VIVA
+     */
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     /**
      * USUARIO AL QUE PERTENECE LA TAREA
      * CADA TAREA TIENE UN DUEÑO
@@ -86,6 +107,24 @@ public class Task {
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    /**
+     * SE EJECUTA ANTES DE CADA UPDATE EN LA BD
+     * APUNTO EL INSTANTE DEL CAMBIO PARA LA SINCRONIZACIÓN INCREMENTAL
+     */
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * MARCO LA TAREA COMO BORRADA: SE QUEDA COMO LÁPIDA HASTA QUE LA PURGA LA ELIMINE
+     * EL updated_at LO PONE onUpdate() AL GUARDAR
+     */
+    public void markDeleted() {
+        this.deletedAt = LocalDateTime.now();
     }
 
     // GETTERS Y SETTERS
@@ -170,6 +209,22 @@ public class Task {
         this.createdAt = createdAt;
     }
 
+    /**
+     * OBTENGO LA FECHA DEL ÚLTIMO CAMBIO
+     * @return cuándo se modificó la tarea por última vez
+     */
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * OBTENGO LA FECHA DE BORRADO
+     * @return cuándo se borró la tarea, null si sigue viva
+     */
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
     /**
      * OBTENGO EL USUARIO PROPIETARIO
      * @return el usuario al que pertenece la tarea
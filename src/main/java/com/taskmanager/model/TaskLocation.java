@@ -1,6 +1,10 @@
 package com.taskmanager.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import java.time.LocalDateTime;
 
 /**
@@ -12,13 +16,17 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "task_locations")
+// LAS FILAS BORRADAS SON LÁPIDAS PARA /api/sync: NINGUNA CONSULTA JPA LAS VE, SOLO LAS NATIVAS DEL REPOSITORIO
+@SQLRestriction("deleted_at IS NULL")
 public class TaskLocation {
 
     /**
      * ID ÚNICO DE LA UBICACIÓN
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "task_locations_seq")
+    @GenericGenerator(name = "task_locations_seq", type = PooledSequenceIdGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "task_locations_seq"))
     private Long id;
 
     /**
@@ -65,6 +73,19 @@ public class TaskLocation {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    /**
+     * FECHA Y HORA DEL ÚLTIMO CAMBIO (ALTA, EDICIÓN O BORRADO)
+     * LA USA LA SINCRONIZACIÓN INCREMENTAL PARA SABER QUÉ HA CAMBIADO DESDE EL TOKEN DEL CLIENTE
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * FECHA Y HORA DEL BORRADO, NULL SI LA UBICACIÓN SIGUE VIVA
+     */
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     /**
      * USUARIO QUE CREÓ ESTA UBICACIÓN
      */
@@ -108,6 +129,24 @@ public class TaskLocation {
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    /**
+     * SE EJECUTA AUTOMÁTICAMENTE ANTES DE CADA UPDATE EN LA BASE DE DATOS
+     * APUNTA EL INSTANTE DEL CAMBIO PARA LA SINCRONIZACIÓN INCREMENTAL
+     */
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * MARCA LA UBICACIÓN COMO BORRADA: SE QUEDA COMO LÁPIDA HASTA QUE LA PURGA LA ELIMINE
+     * EL updated_at LO PONE onUpdate() AL GUARDAR
+     */
+    public void markDeleted() {
+        this.deletedAt = LocalDateTime.now();
     }
 
     // GETTERS Y SETTERS
@@ -240,6 +279,22 @@ public class TaskLocation {
         this.createdAt = createdAt;
     }
 
+    /**
+     * OBTIENE LA FECHA DEL ÚLTIMO CAMBIO
+     * @return cuándo se modificó la ubicación por última vez
+     */
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * OBTIENE LA FECHA DE BORRADO
+     * @return cuándo se borró la ubicación, null si sigue viva
+     */
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
     /**
      * OBTIENE EL USUARIO PROPIETARIO
      * @return el usuario que creó la ubicación
@@ -1,24 +1,34 @@
 package com.taskmanager.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * ENTIDAD QUE REPRESENTA UN USUARIO DEL SISTEMA
+ * SE GUARDA EN LA CACHÉ DE SEGUNDO NIVEL PORQUE SE LEE EN CADA PETICIÓN
  *
  * @author Mario Flores
  * @version 1.0
  */
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 public class User {
 
     /**
      * ID ÚNICO DEL USUARIO
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "users_seq")
+    @GenericGenerator(name = "users_seq", type = PooledSequenceIdGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "users_seq"))
     private Long id;
 
     /**
@@ -58,6 +68,18 @@ public class User {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    /**
+     * USERNAME EN MINÚSCULAS PARA LA BÚSQUEDA POR PREFIJO (COLUMNA GENERADA POR LA BD, MIGRACIÓN V8)
+     */
+    @Column(name = "username_lower", insertable = false, updatable = false)
+    private String usernameLower;
+
+    /**
+     * EMAIL EN MINÚSCULAS PARA LA BÚSQUEDA POR PREFIJO (COLUMNA GENERADA POR LA BD, MIGRACIÓN V8)
+     */
+    @Column(name = "email_lower", insertable = false, updatable = false)
+    private String emailLower;
+
     /**
      * TAREAS QUE PERTENECEN A ESTE USUARIO
      */
@@ -176,6 +198,20 @@ public class User {
         this.createdAt = createdAt;
     }
 
+    /**
+     * @return el username en minúsculas (lo calcula la BD, no tiene setter)
+     */
+    public String getUsernameLower() {
+        return usernameLower;
+    }
+
+    /**
+     * @return el email en minúsculas (lo calcula la BD, no tiene setter)
+     */
+    public String getEmailLower() {
+        return emailLower;
+    }
+
     /**
      * @return la lista de tareas del usuario
      */
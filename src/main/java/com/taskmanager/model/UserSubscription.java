@@ -1,24 +1,34 @@
 package com.taskmanager.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import java.time.LocalDateTime;
 
 /**
  * ENTIDAD QUE REPRESENTA LA SUSCRIPCIÓN ACTIVA DE UN USUARIO
  * RELACIONA UN USUARIO CON SU PLAN DE SUSCRIPCIÓN ACTUAL
+ * SE GUARDA EN LA CACHÉ DE SEGUNDO NIVEL PORQUE SE CONSULTA MUCHO MÁS DE LO QUE CAMBIA
  *
  * @author Mario Flores
  * @version 1.0
  */
 @Entity
 @Table(name = "user_subscriptions")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-subscriptions")
 public class UserSubscription {
 
     /**
      * ID ÚNICO DE LA SUSCRIPCIÓN
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "user_subscriptions_seq")
+    @GenericGenerator(name = "user_subscriptions_seq", type = PooledSequenceIdGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "user_subscriptions_seq"))
     private Long id;
 
     /**
@@ -0,0 +1,105 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.OutboxEventStatus;
+import com.taskmanager.model.PaymentOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * REPOSITORIO PARA EL OUTBOX DE EVENTOS DE PAGO
+ * LO USA EL DESPACHADOR PARA LEER LOTES PENDIENTES EN ORDEN
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Repository
+public interface PaymentOutboxEventRepository extends JpaRepository<PaymentOutboxEvent, Long> {
+
+    /**
+     * OBTENGO EL SIGUIENTE LOTE DE EVENTOS PENDIENTES CUYA ESPERA YA PASÓ, EN ORDEN DE ESCRITURA
+     * EL ORDEN ES created_at CON EL id DE DESEMPATE: LOS IDS SALEN DE BLOQUES POR NODO Y NO SIGUEN
+     * EL ORDEN DE ESCRITURA ENTRE NODOS
+     * SALTO LOS EVENTOS CON OTRO ANTERIOR DE LA MISMA TRANSACCIÓN SIN PUBLICAR (EN ESPERA O DESCARTADO):
+     * CADA TRANSACCIÓN SE PUBLICA EN ORDEN AUNQUE UN EVENTO FALLE Y ESPERE SU REINTENTO
+     *
+     * @param now instante actual
+     * @param pageable tamaño del lote
+     * @return eventos pendientes más antiguos primero
+     */
+    @Query("SELECT e FROM PaymentOutboxEvent e WHERE e.status = 'PENDING' AND e.nextAttemptAt <= :now " +
+            "AND NOT EXISTS (SELECT 1 FROM PaymentOutboxEvent o WHERE o.transactionId = e.transactionId " +
+            "AND o.status <> 'PUBLISHED' " +
+            "AND (o.createdAt < e.createdAt OR (o.createdAt = e.createdAt AND o.id < e.id))) " +
+            "ORDER BY e.createdAt ASC, e.id ASC")
+    List<PaymentOutboxEvent> findPendingEvents(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * RECLAMO UN EVENTO PENDIENTE PARA PUBLICARLO: SELECT ... FOR UPDATE SKIP LOCKED
+     * SI OTRO NODO LO ESTÁ PUBLICANDO (FILA BLOQUEADA) O YA LO PUBLICÓ NO DEVUELVE NADA
+     * ES NATIVA PORQUE EL DIALECTO DE H2 DE HIBERNATE NO GENERA SKIP LOCKED (H2 Y POSTGRES SÍ LO ENTIENDEN)
+     *
+     * @param id ID del evento
+     * @return el evento bloqueado hasta el commit, o vacío
+     */
+    @Query(value = "SELECT * FROM payment_outbox_events WHERE id = :id AND status = 'PENDING' FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    Optional<PaymentOutboxEvent> claimPending(@Param("id") Long id);
+
+    /**
+     * BLOQUEO LA TABLA DEL OUTBOX HASTA EL COMMIT (POSTGRES, MODO EXCLUSIVE)
+     * SIGUE DEJANDO LEER, PERO NINGÚN DESPACHADOR PUEDE RECLAMAR NI PUBLICAR Y NINGÚN PAGO
+     * PUEDE ESCRIBIR EVENTOS NUEVOS; ESPERA A LOS QUE YA ESTÁN PUBLICANDO
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE payment_outbox_events IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockTable();
+
+    /**
+     * BLOQUEO Y DEVUELVO LOS EVENTOS QUE AÚN NO SE HAN PUBLICADO (PENDIENTES Y DESCARTADOS)
+     * MIENTRAS DURE LA TRANSACCIÓN EL DESPACHADOR LOS SALTA (SKIP LOCKED)
+     *
+     * @return eventos sin publicar en orden de escritura
+     */
+    @Query(value = "SELECT * FROM payment_outbox_events WHERE status <> 'PUBLISHED' ORDER BY created_at ASC, id ASC "
+            + "FOR UPDATE", nativeQuery = true)
+    List<PaymentOutboxEvent> lockUnpublished();
+
+    /**
+     * VUELVO A PONER EN COLA TODOS LOS EVENTOS DESCARTADOS
+     *
+     * @param now instante desde el que se pueden publicar
+     * @return número de eventos reencolados
+     */
+    @Modifying
+    @Query("UPDATE PaymentOutboxEvent e SET e.status = 'PENDING', e.attempts = 0, e.nextAttemptAt = :now " +
+            "WHERE e.status = 'FAILED'")
+    int replayFailed(@Param("now") LocalDateTime now);
+
+    /**
+     * CUENTO EVENTOS POR ESTADO
+     * PARA MONITORIZAR EL RETRASO DEL DESPACHADOR
+     *
+     * @param status estado a contar
+     * @return número de eventos con ese estado
+     */
+    long countByStatus(OutboxEventStatus status);
+
+    /**
+     * ELIMINO EVENTOS YA PUBLICADOS ANTIGUOS
+     * LIMPIEZA PERIÓDICA DEL OUTBOX
+     *
+     * @param cutoffDate fecha límite
+     * @return número de eventos eliminados
+     */
+    @Modifying
+    @Query("DELETE FROM PaymentOutboxEvent e WHERE e.status = 'PUBLISHED' AND e.publishedAt < :cutoffDate")
+    int deletePublishedBefore(@Param("cutoffDate") LocalDateTime cutoffDate);
+}
@@ -0,0 +1,151 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.PaymentRollup;
+import com.taskmanager.model.PaymentStatus;
+import com.taskmanager.model.RollupGranularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * REPOSITORIO PARA LOS AGREGADOS MATERIALIZADOS DE PAGOS
+ * LAS CONSULTAS DE REPORTES LEEN UNAS POCAS FILAS POR DÍA EN LUGAR DE TODA LA TABLA DE PAGOS
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Repository
+public interface PaymentRollupRepository extends JpaRepository<PaymentRollup, Long> {
+
+    /**
+     * SUMO UN INCREMENTO AL BUCKET O LO CREO EN UNA SOLA SENTENCIA (POSTGRES)
+     * INSERT ... ON CONFLICT DO UPDATE ES ATÓMICO: DOS TRANSACCIONES QUE ESTRENAN EL MISMO BUCKET
+     * NO CHOCAN CON uk_payment_rollup_bucket, LA SEGUNDA ESPERA Y SUMA SOBRE LA FILA DE LA PRIMERA
+     *
+     * @param granularity tamaño del bucket (nombre del enum)
+     * @param bucketStart inicio del bucket
+     * @param status estado (nombre del enum)
+     * @param planId plan
+     * @param paymentMethod método de pago
+     * @param count pagos a sumar (negativo para restar)
+     * @param amount monto a sumar (negativo para restar)
+     * @return filas insertadas o actualizadas
+     */
+    @Modifying
+    @Query(value = "INSERT INTO payment_rollups (granularity, bucket_start, payment_status, subscription_plan_id, " +
+            "payment_method, transaction_count, total_amount) " +
+            "VALUES (:granularity, :bucketStart, :status, :planId, :paymentMethod, :count, :amount) " +
+            "ON CONFLICT (granularity, bucket_start, payment_status, subscription_plan_id, payment_method) " +
+            "DO UPDATE SET transaction_count = payment_rollups.transaction_count + EXCLUDED.transaction_count, " +
+            "total_amount = payment_rollups.total_amount + EXCLUDED.total_amount",
+            nativeQuery = true)
+    int upsertOnConflict(@Param("granularity") String granularity,
+                         @Param("bucketStart") LocalDateTime bucketStart,
+                         @Param("status") String status,
+                         @Param("planId") Long planId,
+                         @Param("paymentMethod") String paymentMethod,
+                         @Param("count") long count,
+                         @Param("amount") BigDecimal amount);
+
+    /**
+     * SUMO UN INCREMENTO AL BUCKET O LO CREO EN UNA SOLA SENTENCIA MERGE (H2)
+     * H2 NO TIENE ON CONFLICT; EL MERGE ESTÁNDAR HACE LO MISMO EN DESARROLLO Y EN LOS TESTS
+     *
+     * @param granularity tamaño del bucket (nombre del enum)
+     * @param bucketStart inicio del bucket
+     * @param status estado (nombre del enum)
+     * @param planId plan
+     * @param paymentMethod método de pago
+     * @param count pagos a sumar (negativo para restar)
+     * @param amount monto a sumar (negativo para restar)
+     * @return filas insertadas o actualizadas
+     */
+    @Modifying
+    @Query(value = "MERGE INTO payment_rollups r USING (SELECT CAST(:granularity AS VARCHAR(10)) AS granularity, " +
+            "CAST(:bucketStart AS TIMESTAMP(6)) AS bucket_start, CAST(:status AS VARCHAR(255)) AS payment_status, " +
+            "CAST(:planId AS BIGINT) AS subscription_plan_id, CAST(:paymentMethod AS VARCHAR(50)) AS payment_method, " +
+            "CAST(:count AS BIGINT) AS transaction_count, CAST(:amount AS NUMERIC(14,2)) AS total_amount) v " +
+            "ON r.granularity = v.granularity AND r.bucket_start = v.bucket_start " +
+            "AND r.payment_status = v.payment_status AND r.subscription_plan_id = v.subscription_plan_id " +
+            "AND r.payment_method = v.payment_method " +
+            "WHEN MATCHED THEN UPDATE SET transaction_count = r.transaction_count + v.transaction_count, " +
+            "total_amount = r.total_amount + v.total_amount " +
+            "WHEN NOT MATCHED THEN INSERT (granularity, bucket_start, payment_status, subscription_plan_id, " +
+            "payment_method, transaction_count, total_amount) VALUES (v.granularity, v.bucket_start, " +
+            "v.payment_status, v.subscription_plan_id, v.payment_method, v.transaction_count, v.total_amount)",
+            nativeQuery = true)
+    int upsertMerge(@Param("granularity") String granularity,
+                    @Param("bucketStart") LocalDateTime bucketStart,
+                    @Param("status") String status,
+                    @Param("planId") Long planId,
+                    @Param("paymentMethod") String paymentMethod,
+                    @Param("count") long count,
+                    @Param("amount") BigDecimal amount);
+
+    /**
+     * SUMO LOS MONTOS DE UN ESTADO EN UN RANGO DE BUCKETS [INICIO, FIN)
+     *
+     * @param granularity tamaño del bucket
+     * @param status estado
+     * @param start inicio incluido
+     * @param end fin excluido
+     * @return suma de montos (0 si no hay filas)
+     */
+    @Query("SELECT COALESCE(SUM(r.totalAmount), 0) FROM PaymentRollup r WHERE r.granularity = :granularity " +
+            "AND r.paymentStatus = :status AND r.bucketStart >= :start AND r.bucketStart < :end")
+    BigDecimal sumAmountBetween(@Param("granularity") RollupGranularity granularity,
+                                @Param("status") PaymentStatus status,
+                                @Param("start") LocalDateTime start,
+                                @Param("end") LocalDateTime end);
+
+    /**
+     * SUMO LOS MONTOS DE UN ESTADO EN TODOS LOS BUCKETS
+     *
+     * @param granularity tamaño del bucket
+     * @param status estado
+     * @return suma total de montos
+     */
+    @Query("SELECT COALESCE(SUM(r.totalAmount), 0) FROM PaymentRollup r WHERE r.granularity = :granularity " +
+            "AND r.paymentStatus = :status")
+    BigDecimal sumAmount(@Param("granularity") RollupGranularity granularity,
+                         @Param("status") PaymentStatus status);
+
+    /**
+     * CUENTO PAGOS POR ESTADO EN TODOS LOS BUCKETS
+     *
+     * @param granularity tamaño del bucket
+     * @return filas [estado, número de pagos]
+     */
+    @Query("SELECT r.paymentStatus, SUM(r.transactionCount) FROM PaymentRollup r WHERE r.granularity = :granularity " +
+            "GROUP BY r.paymentStatus")
+    List<Object[]> countByStatus(@Param("granularity") RollupGranularity granularity);
+
+    /**
+     * OBTENGO LOS BUCKETS DE UN RANGO DE FECHAS PARA REPORTES
+     *
+     * @param granularity tamaño del bucket
+     * @param start inicio incluido
+     * @param end fin excluido
+     * @return buckets ordenados por fecha
+     */
+    @Query("SELECT r FROM PaymentRollup r WHERE r.granularity = :granularity " +
+            "AND r.bucketStart >= :start AND r.bucketStart < :end ORDER BY r.bucketStart ASC")
+    List<PaymentRollup> findBuckets(@Param("granularity") RollupGranularity granularity,
+                                    @Param("start") LocalDateTime start,
+                                    @Param("end") LocalDateTime end);
+
+    /**
+     * ELIMINO TODOS LOS AGREGADOS ANTES DE RECONSTRUIRLOS
+     *
+     * @return filas eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM PaymentRollup r")
+    int deleteAllRollups();
+}
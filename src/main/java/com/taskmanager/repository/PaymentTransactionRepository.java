@@ -4,6 +4,8 @@ import com.taskmanager.model.PaymentTransaction;
 import com.taskmanager.model.PaymentStatus;
 import com.taskmanager.model.User;
 import com.taskmanager.model.SubscriptionPlan;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -11,6 +13,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,6 +36,15 @@ public interface PaymentTransactionRepository extends JpaRepository<PaymentTrans
      */
     Optional<PaymentTransaction> findByReferenceCode(String referenceCode);
 
+    /**
+     * BUSCO VARIAS TRANSACCIONES POR SUS CÓDIGOS DE REFERENCIA EN UNA SOLA CONSULTA
+     * LO USA EL PROCESADOR DE WEBHOOKS PARA APLICAR LOTES
+     *
+     * @param referenceCodes códigos de referencia
+     * @return transacciones encontradas
+     */
+    List<PaymentTransaction> findByReferenceCodeIn(Collection<String> referenceCodes);
+
     /**
      * BUSCO TODAS LAS TRANSACCIONES DE UN USUARIO
      * HISTORIAL COMPLETO DE PAGOS
@@ -43,6 +55,36 @@ public interface PaymentTransactionRepository extends JpaRepository<PaymentTrans
     @Query("SELECT pt FROM PaymentTransaction pt WHERE pt.user = :user ORDER BY pt.transactionDate DESC")
     List<PaymentTransaction> findAllTransactionsByUser(@Param("user") User user);
 
+    /**
+     * OBTENGO UNA PÁGINA DEL HISTORIAL DE UN USUARIO CON EL PLAN CARGADO EN LA MISMA CONSULTA
+     * EVITA EL N+1 AL MOSTRAR EL NOMBRE DEL PLAN DE CADA TRANSACCIÓN
+     *
+     * @param user el usuario
+     * @param statuses estados a incluir
+     * @param referencePrefix prefijo del código de referencia (con \, % y _ escapados) seguido de '%'
+     * @param pageable página solicitada
+     * @return página de transacciones (más recientes primero)
+     */
+    @Query(value = "SELECT pt FROM PaymentTransaction pt JOIN FETCH pt.subscriptionPlan " +
+            "WHERE pt.user = :user AND pt.status IN :statuses AND pt.referenceCode LIKE :referencePrefix ESCAPE '\\' " +
+            "ORDER BY pt.transactionDate DESC, pt.id DESC",
+            countQuery = "SELECT COUNT(pt) FROM PaymentTransaction pt " +
+                    "WHERE pt.user = :user AND pt.status IN :statuses AND pt.referenceCode LIKE :referencePrefix ESCAPE '\\'")
+    Page<PaymentTransaction> findHistoryPageByUser(@Param("user") User user,
+                                                   @Param("statuses") Collection<PaymentStatus> statuses,
+                                                   @Param("referencePrefix") String referencePrefix,
+                                                   Pageable pageable);
+
+    /**
+     * CUENTO LAS TRANSACCIONES DE UN USUARIO AGRUPADAS POR ESTADO EN UNA SOLA CONSULTA
+     * PARA LOS CONTADORES DEL HISTORIAL
+     *
+     * @param user el usuario
+     * @return filas [estado, número de transacciones]
+     */
+    @Query("SELECT pt.status, COUNT(pt) FROM PaymentTransaction pt WHERE pt.user = :user GROUP BY pt.status")
+    List<Object[]> countByStatusForUser(@Param("user") User user);
+
     /**
      * BUSCO TRANSACCIONES DE UN USUARIO POR ESTADO
      * PARA FILTRAR PAGOS EXITOSOS, FALLIDOS, ETC.
@@ -108,31 +150,24 @@ public interface PaymentTransactionRepository extends JpaRepository<PaymentTrans
      * PARA LIMPIEZA Y CANCELACIÓN AUTOMÁTICA
      *
      * @param cutoffDate fecha límite (ej: más de 1 hora pendiente)
+     * @param pageable tamaño del lote
      * @return transacciones pendientes muy antiguas
      */
-    @Query("SELECT pt FROM PaymentTransaction pt WHERE pt.status IN ('PENDING', 'PROCESSING') AND pt.transactionDate < :cutoffDate")
-    List<PaymentTransaction> findOldPendingTransactions(@Param("cutoffDate") LocalDateTime cutoffDate);
-
-    /**
-     * CALCULO INGRESOS TOTALES EXITOSOS
-     * ESTADÍSTICA FINANCIERA PRINCIPAL
-     *
-     * @return suma total de pagos completados
-     */
-    @Query("SELECT SUM(pt.amount) FROM PaymentTransaction pt WHERE pt.status = 'COMPLETED'")
-    BigDecimal calculateTotalSuccessfulRevenue();
+    @Query("SELECT pt FROM PaymentTransaction pt WHERE pt.status IN ('PENDING', 'PROCESSING') AND pt.transactionDate < :cutoffDate ORDER BY pt.id ASC")
+    List<PaymentTransaction> findOldPendingTransactions(@Param("cutoffDate") LocalDateTime cutoffDate, Pageable pageable);
 
     /**
-     * CALCULO INGRESOS EN UN RANGO DE FECHAS
-     * REPORTES FINANCIEROS PERIÓDICOS
+     * AGRUPO LOS PAGOS FINALIZADOS POR DÍA, HORA, ESTADO, PLAN Y MÉTODO
+     * SOLO SE USA PARA RECONSTRUIR LOS AGREGADOS MATERIALIZADOS
      *
-     * @param startDate fecha inicio
-     * @param endDate fecha fin
-     * @return ingresos en ese período
+     * @return filas [fecha, hora, estado, plan, método, número de pagos, suma de montos]
      */
-    @Query("SELECT SUM(pt.amount) FROM PaymentTransaction pt WHERE pt.status = 'COMPLETED' AND pt.transactionDate BETWEEN :startDate AND :endDate")
-    BigDecimal calculateRevenueInPeriod(@Param("startDate") LocalDateTime startDate,
-                                        @Param("endDate") LocalDateTime endDate);
+    @Query("SELECT CAST(pt.transactionDate AS LocalDate), EXTRACT(HOUR FROM pt.transactionDate), pt.status, " +
+            "pt.subscriptionPlan.id, pt.paymentMethod, COUNT(pt), SUM(pt.amount) FROM PaymentTransaction pt " +
+            "WHERE pt.status NOT IN ('PENDING', 'PROCESSING') " +
+            "GROUP BY CAST(pt.transactionDate AS LocalDate), EXTRACT(HOUR FROM pt.transactionDate), pt.status, " +
+            "pt.subscriptionPlan.id, pt.paymentMethod")
+    List<Object[]> aggregateFinalizedByHour();
 
     /**
      * CUENTO TRANSACCIONES POR ESTADO
@@ -212,15 +247,6 @@ public interface PaymentTransactionRepository extends JpaRepository<PaymentTrans
     @Query("SELECT pt FROM PaymentTransaction pt WHERE pt.user = :user AND pt.status = 'COMPLETED' ORDER BY pt.transactionDate DESC LIMIT 1")
     Optional<PaymentTransaction> findLastSuccessfulTransactionByUser(@Param("user") User user);
 
-    /**
-     * CALCULO TASA DE ÉXITO DE PAGOS
-     * PORCENTAJE DE TRANSACCIONES EXITOSAS
-     *
-     * @return porcentaje de éxito (0-100)
-     */
-    @Query("SELECT (COUNT(pt) * 100.0 / (SELECT COUNT(pt2) FROM PaymentTransaction pt2)) FROM PaymentTransaction pt WHERE pt.status = 'COMPLETED'")
-    Double calculateSuccessRate();
-
     /**
      * BUSCO TRANSACCIONES SOSPECHOSAS (MÚLTIPLES FALLOS)
      * PARA DETECCIÓN DE FRAUDE
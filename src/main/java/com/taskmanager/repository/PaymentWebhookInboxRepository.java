@@ -0,0 +1,92 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.PaymentWebhookInboxEntry;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * REPOSITORIO PARA LA BANDEJA DE ENTRADA DE LOS WEBHOOKS DE PAGOS
+ * LO USAN LOS TRABAJADORES PARA RECLAMAR SU LOTE Y EL BARRIDO PARA RECUPERAR PENDIENTES
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Repository
+public interface PaymentWebhookInboxRepository extends JpaRepository<PaymentWebhookInboxEntry, Long> {
+
+    /**
+     * RECLAMO LAS ENTRADAS DE UN LOTE QUE SIGUEN PENDIENTES, BLOQUEÁNDOLAS HASTA EL COMMIT
+     * SI OTRO TRABAJADOR U OTRO NODO YA LAS APLICÓ NO VUELVEN
+     * EL ORDEN DE LLEGADA ES received_at CON EL id DE DESEMPATE: LOS IDS SALEN DE BLOQUES POR NODO
+     *
+     * @param ids IDs de las entradas del lote
+     * @return entradas pendientes en orden de llegada
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM PaymentWebhookInboxEntry e WHERE e.id IN :ids AND e.processedAt IS NULL " +
+            "ORDER BY e.receivedAt ASC, e.id ASC")
+    List<PaymentWebhookInboxEntry> claimPending(@Param("ids") Collection<Long> ids);
+
+    /**
+     * OBTENGO LAS ENTRADAS PENDIENTES QUE LLEGARON ANTES DE UNA FECHA Y AÚN TIENEN INTENTOS
+     *
+     * @param receivedBefore fecha límite de llegada
+     * @param maxAttempts máximo de intentos fallidos
+     * @param pageable tamaño del lote
+     * @return entradas pendientes más antiguas primero
+     */
+    @Query("SELECT e FROM PaymentWebhookInboxEntry e WHERE e.processedAt IS NULL AND e.attempts < :maxAttempts " +
+            "AND e.receivedAt <= :receivedBefore ORDER BY e.receivedAt ASC, e.id ASC")
+    List<PaymentWebhookInboxEntry> findPending(@Param("receivedBefore") LocalDateTime receivedBefore,
+                                               @Param("maxAttempts") int maxAttempts,
+                                               Pageable pageable);
+
+    /**
+     * DE LOS IDS DE UN LOTE, DEVUELVO LOS QUE SE GUARDARON
+     * LAS FILAS DE REENVÍOS LAS DESCARTA EL INSERT DEL LOTE, ASÍ QUE SUS IDS NO EXISTEN
+     *
+     * @param ids IDs asignados a las entradas del lote
+     * @return IDs que están en la bandeja
+     */
+    @Query("SELECT e.id FROM PaymentWebhookInboxEntry e WHERE e.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * CUENTO LAS ENTRADAS PENDIENTES DE APLICAR
+     *
+     * @return entradas pendientes
+     */
+    long countByProcessedAtIsNull();
+
+    /**
+     * REGISTRO UN INTENTO FALLIDO DE APLICAR UNA ENTRADA
+     *
+     * @param id ID de la entrada
+     * @param error mensaje del error
+     * @return filas actualizadas
+     */
+    @Modifying
+    @Query("UPDATE PaymentWebhookInboxEntry e SET e.attempts = e.attempts + 1, e.lastError = :error WHERE e.id = :id")
+    int registerFailure(@Param("id") Long id, @Param("error") String error);
+
+    /**
+     * ELIMINO ENTRADAS YA APLICADAS ANTIGUAS
+     * MIENTRAS EXISTEN SU event_id SIGUE DESCARTANDO REENVÍOS
+     *
+     * @param cutoffDate fecha límite
+     * @return número de entradas eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM PaymentWebhookInboxEntry e WHERE e.processedAt < :cutoffDate")
+    int deleteProcessedBefore(@Param("cutoffDate") LocalDateTime cutoffDate);
+}
@@ -1,8 +1,11 @@
 package com.taskmanager.repository;
 
 import com.taskmanager.model.SubscriptionPlan;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -27,6 +30,7 @@ public interface SubscriptionPlanRepository extends JpaRepository<SubscriptionPl
      * @param name nombre del plan (ej: "FREE", "PREMIUM")
      * @return el plan si existe
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<SubscriptionPlan> findByName(String name);
 
     /**
@@ -45,6 +49,7 @@ public interface SubscriptionPlanRepository extends JpaRepository<SubscriptionPl
      * @return lista de planes activos ordenados por precio
      */
     @Query("SELECT sp FROM SubscriptionPlan sp WHERE sp.active = true ORDER BY sp.price ASC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<SubscriptionPlan> findAllActivePlans();
 
     /**
@@ -66,6 +71,7 @@ public interface SubscriptionPlanRepository extends JpaRepository<SubscriptionPl
      * @return el plan gratuito (precio = 0)
      */
     @Query("SELECT sp FROM SubscriptionPlan sp WHERE sp.price = 0 AND sp.active = true")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<SubscriptionPlan> findFreePlan();
 
     /**
@@ -75,6 +81,7 @@ public interface SubscriptionPlanRepository extends JpaRepository<SubscriptionPl
      * @return lista de planes premium ordenados por precio
      */
     @Query("SELECT sp FROM SubscriptionPlan sp WHERE sp.price > 0 AND sp.active = true ORDER BY sp.price ASC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<SubscriptionPlan> findPremiumPlans();
 
     /**
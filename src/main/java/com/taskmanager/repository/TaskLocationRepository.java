@@ -2,11 +2,14 @@ package com.taskmanager.repository;
 
 import com.taskmanager.model.TaskLocation;
 import com.taskmanager.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -106,13 +109,15 @@ public interface TaskLocationRepository extends JpaRepository<TaskLocation, Long
     /**
      * OBTENGO LAS UBICACIONES MÁS RECIENTES DE UN USUARIO
      * PARA MOSTRAR EN DASHBOARD O HISTORIAL RECIENTE
+     * EL PAGEABLE SE TRADUCE EN UN LIMIT Y EL ORDEN SALE DEL ÍNDICE (user_id, created_at)
      *
      * @param user el usuario propietario
-     * @return las 5 ubicaciones más recientes
+     * @param pageable primera página con el número de ubicaciones a devolver
+     * @return las ubicaciones más recientes
      */
     @Query("SELECT tl FROM TaskLocation tl WHERE tl.user = :user " +
-            "ORDER BY tl.createdAt DESC")
-    List<TaskLocation> findTop5ByUserOrderByCreatedAtDesc(@Param("user") User user);
+            "ORDER BY tl.createdAt DESC, tl.id DESC")
+    List<TaskLocation> findRecentByUser(@Param("user") User user, Pageable pageable);
 
     /**
      * OBTENGO TODAS LAS UBICACIONES ACTIVAS DE UN USUARIO ORDENADAS POR NOMBRE
@@ -159,4 +164,38 @@ public interface TaskLocationRepository extends JpaRepository<TaskLocation, Long
                                                  @Param("longitude") Double longitude,
                                                  @Param("radiusKm") Double radiusKm,
                                                  @Param("user") User user);
-}
\ No newline at end of file
+
+    /**
+     * OBTENGO LAS UBICACIONES DE UN USUARIO QUE HAN CAMBIADO DESPUÉS DE UN INSTANTE, BORRADAS INCLUIDAS
+     * ES NATIVA PARA SALTARME EL FILTRO deleted_at IS NULL DE LA ENTIDAD Y DEVOLVER LAS LÁPIDAS
+     * USA EL ÍNDICE (user_id, updated_at)
+     *
+     * @param userId id del usuario
+     * @param since instante del último cambio que ya tiene el cliente
+     * @return ubicaciones cambiadas, ordenadas por fecha de cambio
+     */
+    @Query(value = "SELECT * FROM task_locations WHERE user_id = :userId AND updated_at > :since ORDER BY updated_at, id",
+            nativeQuery = true)
+    List<TaskLocation> findChangedSince(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+
+    /**
+     * ELIMINO DEFINITIVAMENTE LAS LÁPIDAS ANTERIORES A UNA FECHA
+     *
+     * @param cutoffDate fecha límite
+     * @return número de ubicaciones eliminadas
+     */
+    @Modifying
+    @Query(value = "DELETE FROM task_locations WHERE deleted_at < :cutoffDate", nativeQuery = true)
+    int purgeDeletedBefore(@Param("cutoffDate") LocalDateTime cutoffDate);
+
+    /**
+     * ELIMINO DEFINITIVAMENTE LAS LÁPIDAS DE UN USUARIO
+     * HAY QUE HACERLO ANTES DE BORRAR EL USUARIO: LA CASCADA JPA NO LAS VE Y ROMPERÍAN LA CLAVE AJENA
+     *
+     * @param userId id del usuario
+     * @return número de ubicaciones eliminadas
+     */
+    @Modifying
+    @Query(value = "DELETE FROM task_locations WHERE user_id = :userId AND deleted_at IS NOT NULL", nativeQuery = true)
+    int purgeDeletedByUser(@Param("userId") Long userId);
+}
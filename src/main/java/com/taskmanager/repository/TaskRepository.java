@@ -2,11 +2,14 @@ package com.taskmanager.repository;
 
 import com.taskmanager.model.Task;
 import com.taskmanager.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -64,10 +67,46 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
 
     /**
      * OBTENGO LAS ÚLTIMAS TAREAS CREADAS POR UN USUARIO
+     * EL PAGEABLE SE TRADUCE EN UN LIMIT Y EL ORDEN SALE DEL ÍNDICE (user_id, created_at)
      *
      * @param user el usuario
-     * @return las 5 tareas más recientes
+     * @param pageable primera página con el número de tareas a devolver
+     * @return las tareas más recientes
      */
-    @Query("SELECT t FROM Task t WHERE t.user = :user ORDER BY t.createdAt DESC")
-    List<Task> findTop5ByUserOrderByCreatedAtDesc(@Param("user") User user);
-}
\ No newline at end of file
+    @Query("SELECT t FROM Task t WHERE t.user = :user ORDER BY t.createdAt DESC, t.id DESC")
+    List<Task> findRecentByUser(@Param("user") User user, Pageable pageable);
+
+    /**
+     * OBTENGO LAS TAREAS DE UN USUARIO QUE HAN CAMBIADO DESPUÉS DE UN INSTANTE, BORRADAS INCLUIDAS
+     * ES NATIVA PARA SALTARME EL FILTRO deleted_at IS NULL DE LA ENTIDAD Y DEVOLVER LAS LÁPIDAS
+     * USA EL ÍNDICE (user_id, updated_at)
+     *
+     * @param userId id del usuario
+     * @param since instante del último cambio que ya tiene el cliente
+     * @return tareas cambiadas, ordenadas por fecha de cambio
+     */
+    @Query(value = "SELECT * FROM tasks WHERE user_id = :userId AND updated_at > :since ORDER BY updated_at, id",
+            nativeQuery = true)
+    List<Task> findChangedSince(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+
+    /**
+     * ELIMINO DEFINITIVAMENTE LAS LÁPIDAS ANTERIORES A UNA FECHA
+     *
+     * @param cutoffDate fecha límite
+     * @return número de tareas eliminadas
+     */
+    @Modifying
+    @Query(value = "DELETE FROM tasks WHERE deleted_at < :cutoffDate", nativeQuery = true)
+    int purgeDeletedBefore(@Param("cutoffDate") LocalDateTime cutoffDate);
+
+    /**
+     * ELIMINO DEFINITIVAMENTE LAS LÁPIDAS DE UN USUARIO
+     * HAY QUE HACERLO ANTES DE BORRAR EL USUARIO: LA CASCADA JPA NO LAS VE Y ROMPERÍAN LA CLAVE AJENA
+     *
+     * @param userId id del usuario
+     * @return número de tareas eliminadas
+     */
+    @Modifying
+    @Query(value = "DELETE FROM tasks WHERE user_id = :userId AND deleted_at IS NOT NULL", nativeQuery = true)
+    int purgeDeletedByUser(@Param("userId") Long userId);
+}
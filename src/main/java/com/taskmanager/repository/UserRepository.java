@@ -2,11 +2,16 @@ package com.taskmanager.repository;
 
 import com.taskmanager.model.User;
 import com.taskmanager.model.UserRole;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +30,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @param username el nombre de usuario
      * @return el usuario si existe
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByUsername(String username);
 
     /**
@@ -67,15 +73,6 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     List<User> findByEnabled(Boolean enabled);
 
-    /**
-     * BUSCO USUARIOS QUE CONTENGAN UN TEXTO EN USERNAME O EMAIL
-     *
-     * @param searchTerm texto a buscar
-     * @return usuarios que coincidan
-     */
-    @Query("SELECT u FROM User u WHERE u.username LIKE %:searchTerm% OR u.email LIKE %:searchTerm%")
-    List<User> findByUsernameContainingOrEmailContaining(@Param("searchTerm") String searchTerm);
-
     /**
      * CUENTO CUÁNTOS USUARIOS HAY POR ROL
      *
@@ -84,10 +81,76 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     long countByRole(UserRole role);
 
+    // CATÁLOGO PAGINADO POR CLAVE: CADA PÁGINA EMPIEZA DONDE ACABÓ LA ANTERIOR Y NO SALTA FILAS CON OFFSET
+
+    /**
+     * PRIMERA PÁGINA DEL CATÁLOGO, MÁS NUEVOS PRIMERO (ÍNDICE idx_users_created_id)
+     *
+     * @param pageable tamaño de la página (siempre la página 0)
+     * @return usuarios de la página
+     */
+    @Query("SELECT u FROM User u ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> findCatalogFirstPage(Pageable pageable);
+
+    /**
+     * PÁGINA SIGUIENTE DEL CATÁLOGO POR FECHA, DESPUÉS DEL ÚLTIMO USUARIO MOSTRADO
+     * EL created_at <= DELANTE DEL OR DEJA QUE LA BD ENTRE POR EL ÍNDICE (created_at, id)
+     *
+     * @param createdAt fecha del último usuario mostrado
+     * @param id id del último usuario mostrado
+     * @param pageable tamaño de la página (siempre la página 0)
+     * @return usuarios de la página
+     */
+    @Query("SELECT u FROM User u WHERE u.createdAt <= :createdAt AND (u.createdAt < :createdAt OR u.id < :id) " +
+            "ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> findCatalogPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                    Pageable pageable);
+
+    /**
+     * PÁGINA DEL CATÁLOGO POR NOMBRE, DESPUÉS DEL ÚLTIMO USERNAME MOSTRADO (ÍNDICE ÚNICO DE username)
+     *
+     * @param username último username mostrado ('' para la primera página)
+     * @param pageable tamaño de la página (siempre la página 0)
+     * @return usuarios de la página
+     */
+    @Query("SELECT u FROM User u WHERE u.username > :username ORDER BY u.username")
+    List<User> findCatalogPageByUsernameAfter(@Param("username") String username, Pageable pageable);
+
+    /**
+     * BUSCO USUARIOS CUYO USERNAME EMPIEZA POR UN PREFIJO, SIN DISTINGUIR MAYÚSCULAS, EN ORDEN DE USERNAME
+     * LA CLAVE (username_lower, id) ES LA DEL ÍNDICE idx_users_username_lower: CADA PÁGINA LEE SOLO SUS FILAS
+     *
+     * @param prefix prefijo en minúsculas, con los comodines escapados y seguido de '%'
+     * @param usernameLower username en minúsculas del último usuario mostrado ('' para la primera página)
+     * @param id id del último usuario mostrado (0 para la primera página)
+     * @param pageable tamaño de la página (siempre la página 0)
+     * @return usuarios que coinciden, por username
+     */
+    @Query("SELECT u FROM User u WHERE u.usernameLower LIKE :prefix ESCAPE '\\' " +
+            "AND u.usernameLower >= :usernameLower AND (u.usernameLower > :usernameLower OR u.id > :id) " +
+            "ORDER BY u.usernameLower, u.id")
+    List<User> findByUsernamePrefixAfter(@Param("prefix") String prefix,
+                                         @Param("usernameLower") String usernameLower,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+
     /**
-     * OBTENGO TODOS LOS USUARIOS ORDENADOS POR FECHA DE CREACIÓN
+     * BUSCO USUARIOS CUYO EMAIL EMPIEZA POR UN PREFIJO Y SU USERNAME NO, SIN DISTINGUIR MAYÚSCULAS,
+     * EN ORDEN DE EMAIL (LOS QUE TAMBIÉN COINCIDEN POR USERNAME YA LOS DEVUELVE findByUsernamePrefixAfter)
+     * LA CLAVE (email_lower, id) ES LA DEL ÍNDICE idx_users_email_lower
      *
-     * @return usuarios ordenados por fecha
+     * @param prefix prefijo en minúsculas, con los comodines escapados y seguido de '%'
+     * @param emailLower email en minúsculas del último usuario mostrado ('' para la primera página)
+     * @param id id del último usuario mostrado (0 para la primera página)
+     * @param pageable tamaño de la página (siempre la página 0)
+     * @return usuarios que coinciden solo por email, por email
      */
-    List<User> findAllByOrderByCreatedAtDesc();
+    @Query("SELECT u FROM User u WHERE u.emailLower LIKE :prefix ESCAPE '\\' " +
+            "AND u.usernameLower NOT LIKE :prefix ESCAPE '\\' " +
+            "AND u.emailLower >= :emailLower AND (u.emailLower > :emailLower OR u.id > :id) " +
+            "ORDER BY u.emailLower, u.id")
+    List<User> findByEmailPrefixAfter(@Param("prefix") String prefix,
+                                      @Param("emailLower") String emailLower,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
 }
\ No newline at end of file
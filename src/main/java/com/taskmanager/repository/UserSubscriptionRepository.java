@@ -4,8 +4,11 @@ import com.taskmanager.model.User;
 import com.taskmanager.model.UserSubscription;
 import com.taskmanager.model.SubscriptionStatus;
 import com.taskmanager.model.SubscriptionPlan;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -31,6 +34,7 @@ public interface UserSubscriptionRepository extends JpaRepository<UserSubscripti
      * @return su suscripción activa si existe
      */
     @Query("SELECT us FROM UserSubscription us WHERE us.user = :user AND us.status = 'ACTIVE'")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<UserSubscription> findActiveSubscriptionByUser(@Param("user") User user);
 
     /**
@@ -89,6 +93,7 @@ public interface UserSubscriptionRepository extends JpaRepository<UserSubscripti
      * @return true si tiene suscripción activa
      */
     @Query("SELECT COUNT(us) > 0 FROM UserSubscription us WHERE us.user = :user AND us.status = 'ACTIVE'")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     boolean hasActiveSubscription(@Param("user") User user);
 
     /**
@@ -99,6 +104,7 @@ public interface UserSubscriptionRepository extends JpaRepository<UserSubscripti
      * @return true si tiene plan premium activo
      */
     @Query("SELECT COUNT(us) > 0 FROM UserSubscription us WHERE us.user = :user AND us.status = 'ACTIVE' AND us.subscriptionPlan.price > 0")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     boolean hasPremiumSubscription(@Param("user") User user);
 
     /**
@@ -0,0 +1,172 @@
+package com.taskmanager.service;
+
+import com.taskmanager.config.ApiTokenAuthentication;
+import com.taskmanager.config.RateLimitProperties.Tier;
+import com.taskmanager.model.User;
+import com.taskmanager.model.UserRole;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * SERVICIO QUE EMITE Y VERIFICA LOS TOKENS FIRMADOS DE LA API SIN SESIÓN
+ * EL TOKEN LLEVA EL ID, ROL, NIVEL DE SUSCRIPCIÓN, CADUCIDAD Y NOMBRE DEL USUARIO, FIRMADOS CON
+ * HMAC-SHA256. VERIFICARLO ES CALCULAR UNA FIRMA: NO TOCA LA BD NI LA SESIÓN
+ *
+ * FORMATO: base64url(userId|rol|nivel|caducidad|usuario) . base64url(firma)
+ *
+ * LOS TOKENS DURAN POCO (ttl-minutes) PORQUE NO SE PUEDEN REVOCAR: UN CAMBIO DE ROL, DE PLAN O
+ * LA BAJA DEL USUARIO SE NOTA CUANDO EL CLIENTE PIDE EL SIGUIENTE TOKEN
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Service
+public class ApiTokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    // SECRETO DE DESARROLLO DE application.properties: ES PÚBLICO, NUNCA VALE EN PRODUCCIÓN
+    private static final String DEV_SECRET = "dev-api-token-secret";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    // SECRETO CON EL QUE SE FIRMAN LOS TOKENS (IGUAL EN TODOS LOS NODOS)
+    @Value("${app.security.api-token.secret}")
+    private String secret;
+
+    // MINUTOS DE VALIDEZ DE CADA TOKEN
+    @Value("${app.security.api-token.ttl-minutes:15}")
+    private long ttlMinutes;
+
+    private SecretKeySpec key;
+
+    private Counter rejectedCounter;
+
+    /**
+     * PREPARO LA CLAVE DE FIRMA Y EL CONTADOR DE TOKENS RECHAZADOS
+     */
+    @PostConstruct
+    public void init() {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("Falta el secreto de los tokens de la API: define API_TOKEN_SECRET");
+        }
+        if (DEV_SECRET.equals(secret) && environment.acceptsProfiles(Profiles.of("prod"))) {
+            // CON LA CLAVE PUBLICADA EN EL REPOSITORIO CUALQUIERA PODRÍA FIRMAR TOKENS DE ADMIN
+            throw new IllegalStateException("El perfil prod no puede usar el secreto de desarrollo de los tokens "
+                    + "de la API: define API_TOKEN_SECRET");
+        }
+        key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        rejectedCounter = Counter.builder("taskmanager.api_token.rejected")
+                .description("Peticiones a la API con un token inválido o caducado")
+                .register(meterRegistry);
+    }
+
+    /**
+     * EMITO UN TOKEN PARA UN USUARIO YA AUTENTICADO
+     *
+     * @param user usuario autenticado
+     * @return token firmado
+     */
+    public String issueToken(User user) {
+        Tier tier = user.getRole() == UserRole.ADMIN
+                ? Tier.ADMIN
+                : subscriptionService.hasActivePremiumSubscription(user) ? Tier.PREMIUM : Tier.FREE;
+        long expiresAt = Instant.now().getEpochSecond() + getTtlSeconds();
+
+        String payload = user.getId() + "|" + user.getRole().name() + "|" + tier.name() + "|"
+                + expiresAt + "|" + user.getUsername();
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+    }
+
+    /**
+     * VERIFICO LA FIRMA Y LA CADUCIDAD DE UN TOKEN
+     *
+     * @param token token recibido en la cabecera Authorization
+     * @return autenticación con los datos del token
+     * @throws BadCredentialsException si el token está mal formado, mal firmado o caducado
+     */
+    public ApiTokenAuthentication verify(String token) {
+        try {
+            int dot = token.indexOf('.');
+            if (dot <= 0) {
+                throw new BadCredentialsException("Token mal formado");
+            }
+            byte[] payloadBytes = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+
+            // COMPARACIÓN EN TIEMPO CONSTANTE PARA NO FILTRAR INFORMACIÓN DE LA FIRMA
+            if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+                throw new BadCredentialsException("Firma del token inválida");
+            }
+
+            String[] fields = new String(payloadBytes, StandardCharsets.UTF_8).split("\\|", 5);
+            if (fields.length != 5) {
+                throw new BadCredentialsException("Token mal formado");
+            }
+            if (Long.parseLong(fields[3]) <= Instant.now().getEpochSecond()) {
+                throw new BadCredentialsException("Token caducado");
+            }
+
+            return new ApiTokenAuthentication(Long.valueOf(fields[0]), fields[4],
+                    UserRole.valueOf(fields[1]), Tier.valueOf(fields[2]));
+        } catch (IllegalArgumentException e) {
+            // BASE64, NÚMEROS O ENUMS INVÁLIDOS
+            rejectedCounter.increment();
+            throw new BadCredentialsException("Token mal formado", e);
+        } catch (BadCredentialsException e) {
+            rejectedCounter.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * OBTENGO LA VALIDEZ DE LOS TOKENS
+     *
+     * @return segundos de validez
+     */
+    public long getTtlSeconds() {
+        return ttlMinutes * 60;
+    }
+
+    /**
+     * CALCULO LA FIRMA HMAC-SHA256 DE LOS DATOS DEL TOKEN
+     *
+     * @param payload datos del token
+     * @return firma
+     */
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo firmar el token de la API", e);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.taskmanager.service;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * CORTOCIRCUITO SIN BLOQUEOS PARA LAS LLAMADAS A LA PASARELA DE PAGOS
+ * CUENTA ÉXITOS Y FALLOS EN UNA VENTANA DE LLAMADAS Y, SI LA TASA DE ERROR SUPERA
+ * EL UMBRAL, RECHAZA AL MOMENTO HASTA QUE PASA EL TIEMPO DE ENFRIAMIENTO
+ *
+ * <p>TODO EL ESTADO VIVE EN UNA INSTANTÁNEA INMUTABLE QUE SE SUSTITUYE CON CAS,
+ * ASÍ NINGÚN HILO SE QUEDA ESPERANDO UN MONITOR.</p>
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+public class GatewayCircuitBreaker {
+
+    /**
+     * ESTADOS DEL CORTOCIRCUITO
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final double failureRateThreshold;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final long openDurationMs;
+    private final int halfOpenMaxCalls;
+    private final LongSupplier clock;
+
+    private final AtomicReference<Snapshot> snapshot =
+            new AtomicReference<>(new Snapshot(State.CLOSED, 0, 0, 0L, 0));
+
+    /**
+     * CREO EL CORTOCIRCUITO
+     *
+     * @param failureRateThreshold tasa de fallos (0-1) que abre el circuito
+     * @param windowSize llamadas por ventana antes de reiniciar los contadores
+     * @param minimumCalls llamadas mínimas en la ventana para evaluar la tasa
+     * @param openDurationMs tiempo que permanece abierto
+     * @param halfOpenMaxCalls llamadas de prueba en semiabierto
+     * @param clock reloj en milisegundos
+     */
+    public GatewayCircuitBreaker(double failureRateThreshold, int windowSize, int minimumCalls,
+                                 long openDurationMs, int halfOpenMaxCalls, LongSupplier clock) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.openDurationMs = openDurationMs;
+        this.halfOpenMaxCalls = halfOpenMaxCalls;
+        this.clock = clock;
+    }
+
+    /**
+     * PIDO PERMISO PARA HACER UNA LLAMADA
+     *
+     * @return true si la llamada puede salir hacia la pasarela
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            Snapshot current = snapshot.get();
+
+            switch (current.state) {
+                case CLOSED:
+                    return true;
+
+                case OPEN:
+                    if (clock.getAsLong() - current.openedAt < openDurationMs) {
+                        return false;
+                    }
+                    // ENFRIAMIENTO CUMPLIDO: PASO A SEMIABIERTO CON ESTA LLAMADA COMO PRIMERA PRUEBA
+                    if (snapshot.compareAndSet(current, new Snapshot(State.HALF_OPEN, 0, 0, current.openedAt, 1))) {
+                        return true;
+                    }
+                    break;
+
+                case HALF_OPEN:
+                    if (current.permits >= halfOpenMaxCalls) {
+                        return false;
+                    }
+                    if (snapshot.compareAndSet(current, current.withPermits(current.permits + 1))) {
+                        return true;
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * REGISTRO UNA LLAMADA CORRECTA
+     */
+    public void recordSuccess() {
+        record(false);
+    }
+
+    /**
+     * REGISTRO UNA LLAMADA FALLIDA (ERROR TÉCNICO O TIMEOUT)
+     */
+    public void recordFailure() {
+        record(true);
+    }
+
+    /**
+     * OBTENGO EL ESTADO ACTUAL
+     *
+     * @return estado del circuito
+     */
+    public State getState() {
+        return snapshot.get().state;
+    }
+
+    /**
+     * ACTUALIZO LOS CONTADORES Y DECIDO SI EL CIRCUITO CAMBIA DE ESTADO
+     *
+     * @param failed si la llamada falló
+     */
+    private void record(boolean failed) {
+        while (true) {
+            Snapshot current = snapshot.get();
+            Snapshot next;
+
+            switch (current.state) {
+                case HALF_OPEN:
+                    if (failed) {
+                        next = new Snapshot(State.OPEN, 0, 0, clock.getAsLong(), 0);
+                    } else if (current.calls + 1 >= halfOpenMaxCalls) {
+                        next = new Snapshot(State.CLOSED, 0, 0, 0L, 0);
+                    } else {
+                        next = new Snapshot(State.HALF_OPEN, current.calls + 1, 0, current.openedAt, current.permits);
+                    }
+                    break;
+
+                case CLOSED:
+                    int calls = current.calls + 1;
+                    int failures = current.failures + (failed ? 1 : 0);
+
+                    if (calls >= minimumCalls && (double) failures / calls >= failureRateThreshold) {
+                        next = new Snapshot(State.OPEN, 0, 0, clock.getAsLong(), 0);
+                    } else if (calls >= windowSize) {
+                        // VENTANA COMPLETA SIN ABRIR: EMPIEZO UNA NUEVA
+                        next = new Snapshot(State.CLOSED, 0, 0, 0L, 0);
+                    } else {
+                        next = new Snapshot(State.CLOSED, calls, failures, 0L, 0);
+                    }
+                    break;
+
+                default:
+                    // RESULTADOS TARDÍOS CON EL CIRCUITO ABIERTO NO CAMBIAN NADA
+                    return;
+            }
+
+            if (snapshot.compareAndSet(current, next)) {
+                if (next.state != current.state) {
+                    System.out.println("⚡ CORTOCIRCUITO DE PASARELA: " + current.state + " -> " + next.state);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * INSTANTÁNEA INMUTABLE DEL ESTADO
+     */
+    private static final class Snapshot {
+        private final State state;
+        private final int calls;
+        private final int failures;
+        private final long openedAt;
+        private final int permits;
+
+        private Snapshot(State state, int calls, int failures, long openedAt, int permits) {
+            this.state = state;
+            this.calls = calls;
+            this.failures = failures;
+            this.openedAt = openedAt;
+            this.permits = permits;
+        }
+
+        private Snapshot withPermits(int newPermits) {
+            return new Snapshot(state, calls, failures, openedAt, newPermits);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.taskmanager.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * SERVICIO QUE LLEVA LA VERSIÓN DEL CONJUNTO DE UBICACIONES DE CADA USUARIO
+ * TaskLocationService LA SUBE EN CADA ALTA, EDICIÓN, CAMBIO DE ESTADO O BORRADO, Y LA API
+ * LA USA COMO ETag: SI EL CLIENTE YA TIENE ESA VERSIÓN RESPONDO 304 CON UNA SOLA CONSULTA POR CLAVE
+ *
+ * LA VERSIÓN VIVE EN LAS COLUMNAS location_version Y locations_modified_at DE users (V16), ASÍ TODAS
+ * LAS INSTANCIAS DAN LA MISMA ETag AUNQUE LA SESIÓN NO SEA PEGADA. LA ETag LLEVA EL ID DEL USUARIO PARA QUE
+ * NO COINCIDAN LAS DE DOS USUARIOS EN EL MISMO NAVEGADOR, Y LA FECHA DEL ÚLTIMO CAMBIO PARA QUE UNA BD
+ * RECREADA NO REPITA UNA ETag ANTERIOR
+ *
+ * LAS COLUMNAS NO ESTÁN MAPEADAS EN User Y SE TOCAN CON JdbcTemplate: SUBIR LA VERSIÓN NO INVALIDA
+ * LA CACHÉ DE SEGUNDO NIVEL DE LOS USUARIOS
+ *
+ * LAS LECTURAS QUE SALEN CON ETag PASAN POR readFromPrimary: LA VERSIÓN SUBE AL CONFIRMAR EN LA PRIMARIA
+ * Y LA RÉPLICA PUEDE NO TENER AÚN ESE CAMBIO
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Service
+public class LocationVersionService {
+
+    // FUERA DE TRANSACCIÓN VA A LA PRIMARIA (ReadWriteRoutingDataSource); ENTRA POR EL ÍNDICE ÚNICO DE username
+    private static final String SELECT_VERSION =
+            "select id, location_version, locations_modified_at from users where username = ?";
+
+    // EL UPDATE BLOQUEA LA FILA DEL USUARIO HASTA EL COMMIT: DOS CAMBIOS A LA VEZ NO PIERDEN NINGUNA SUBIDA
+    private static final String BUMP_VERSION =
+            "update users set location_version = location_version + 1, locations_modified_at = ? where username = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * OBTENGO LA VERSIÓN ACTUAL DE LAS UBICACIONES DE UN USUARIO
+     * HAY QUE LEERLA ANTES DE CONSULTAR LAS UBICACIONES: SI UN CAMBIO LLEGA ENTRE MEDIAS,
+     * EL CLIENTE SE QUEDA CON LA VERSIÓN VIEJA Y LA SIGUIENTE PETICIÓN DESCARGA DE NUEVO
+     *
+     * @param username nombre del usuario
+     * @return versión actual
+     * @throws RuntimeException si el usuario no existe
+     */
+    public LocationSetVersion getVersion(String username) {
+        List<LocationSetVersion> versions = jdbcTemplate.query(SELECT_VERSION, (resultSet, rowNum) ->
+                new LocationSetVersion(Long.toString(resultSet.getLong("id"), 36),
+                        resultSet.getLong("location_version"),
+                        resultSet.getTimestamp("locations_modified_at").getTime()), username);
+
+        if (versions.isEmpty()) {
+            throw new RuntimeException("Usuario no encontrado: " + username);
+        }
+        return versions.get(0);
+    }
+
+    /**
+     * HAGO UNA LECTURA DE UBICACIONES EN UNA TRANSACCIÓN DE ESCRITURA PARA QUE VAYA A LA PRIMARIA
+     * EN LA RÉPLICA PODRÍA LEER DATOS ANTERIORES A LA VERSIÓN Y EL NAVEGADOR LOS GUARDARÍA BAJO UNA
+     * ETag FUERTE QUE YA NO VUELVE A DESCARGAR HASTA EL SIGUIENTE CAMBIO
+     *
+     * @param read lectura que va a salir con la versión como ETag
+     * @param <T> tipo del resultado
+     * @return resultado de la lectura
+     */
+    @Transactional
+    public <T> T readFromPrimary(Supplier<T> read) {
+        return read.get();
+    }
+
+    /**
+     * SUBO LA VERSIÓN DE UN USUARIO DENTRO DE LA TRANSACCIÓN QUE CAMBIA SUS UBICACIONES
+     * LA NUEVA VERSIÓN SOLO SE VE AL CONFIRMAR, JUNTO A LOS CAMBIOS: UNA LECTURA CONCURRENTE NUNCA
+     * GUARDA DATOS VIEJOS CON LA VERSIÓN NUEVA, Y SI SE DESHACE EL CAMBIO SE DESHACE LA SUBIDA
+     *
+     * @param username nombre del usuario cuyas ubicaciones han cambiado
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bump(String username) {
+        jdbcTemplate.update(BUMP_VERSION, new Timestamp(System.currentTimeMillis()), username);
+    }
+
+    /**
+     * VERSIÓN DEL CONJUNTO DE UBICACIONES DE UN USUARIO
+     *
+     * @param token ID del usuario en base 36
+     * @param number número de cambios
+     * @param lastModified instante del último cambio en milisegundos
+     */
+    public record LocationSetVersion(String token, long number, long lastModified) {
+
+        /**
+         * ETag FUERTE CON EL USUARIO, EL NÚMERO DE VERSIÓN Y EL INSTANTE DEL ÚLTIMO CAMBIO
+         *
+         * @return ETag entre comillas
+         */
+        public String eTag() {
+            return "\"" + token + "-" + number + "-" + Long.toString(lastModified, 36) + "\"";
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.taskmanager.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.AuthenticationFailureBadCredentialsEvent;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * SERVICIO QUE FRENA LOS LOGINS FALLIDOS REPETIDOS CONTRA UNA MISMA CUENTA
+ * CUENTA LOS FALLOS POR NOMBRE DE USUARIO CON LOS EVENTOS DE SPRING SECURITY; AL LLEGAR A
+ * max-failures LA CUENTA QUEDA BLOQUEADA HASTA QUE PASAN lock-minutes SIN FALLOS NUEVOS
+ *
+ * CustomUserDetailsService DEVUELVE LA CUENTA BLOQUEADA Y SPRING SECURITY LA RECHAZA ANTES DE
+ * COMPROBAR LA CONTRASEÑA, ASÍ UN ATAQUE A UNA CUENTA NO GASTA CPU DE BCRYPT
+ *
+ * LOS CONTADORES VIVEN EN MEMORIA EN UNA CACHÉ CAFFEINE ACOTADA (POR INSTANCIA)
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Service
+public class LoginAttemptService {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // FALLOS SEGUIDOS QUE BLOQUEAN LA CUENTA
+    @Value("${app.security.login.max-failures:5}")
+    private int maxFailures;
+
+    // MINUTOS DE BLOQUEO DESDE EL ÚLTIMO FALLO
+    @Value("${app.security.login.lock-minutes:15}")
+    private long lockMinutes;
+
+    // CUENTAS DISTINTAS QUE SE SIGUEN COMO MÁXIMO
+    @Value("${app.security.login.max-tracked-accounts:100000}")
+    private long maxTrackedAccounts;
+
+    // USUARIO -> FALLOS SEGUIDOS (CADUCA lock-minutes DESPUÉS DEL ÚLTIMO FALLO)
+    private Cache<String, Integer> failures;
+
+    private Counter blockedCounter;
+
+    /**
+     * CREO LA CACHÉ DE FALLOS Y EL CONTADOR DE LOGINS BLOQUEADOS
+     */
+    @PostConstruct
+    public void init() {
+        failures = Caffeine.newBuilder()
+                .maximumSize(maxTrackedAccounts)
+                .expireAfterWrite(Duration.ofMinutes(lockMinutes))
+                .build();
+        blockedCounter = Counter.builder("taskmanager.login.blocked")
+                .description("Intentos de login rechazados por cuenta bloqueada")
+                .register(meterRegistry);
+    }
+
+    /**
+     * INDICO SI UNA CUENTA ESTÁ BLOQUEADA POR FALLOS REPETIDOS
+     *
+     * @param username nombre de usuario del intento
+     * @return true si hay que rechazar el login sin comprobar la contraseña
+     */
+    public boolean isBlocked(String username) {
+        Integer count = failures.getIfPresent(username);
+        if (count != null && count >= maxFailures) {
+            blockedCounter.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * SUMO UN FALLO CUANDO LA CONTRASEÑA NO COINCIDE
+     *
+     * @param event evento de credenciales incorrectas
+     */
+    @EventListener
+    public void onLoginFailure(AuthenticationFailureBadCredentialsEvent event) {
+        failures.asMap().merge(event.getAuthentication().getName(), 1, Integer::sum);
+    }
+
+    /**
+     * OLVIDO LOS FALLOS AL ENTRAR CORRECTAMENTE
+     *
+     * @param event evento de login correcto
+     */
+    @EventListener
+    public void onLoginSuccess(AuthenticationSuccessEvent event) {
+        failures.invalidate(event.getAuthentication().getName());
+    }
+}
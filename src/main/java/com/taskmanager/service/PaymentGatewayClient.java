@@ -0,0 +1,125 @@
+package com.taskmanager.service;
+
+import com.taskmanager.config.PaymentGatewayProperties;
+import com.taskmanager.model.PaymentStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * CLIENTE DE LA PASARELA DE PAGOS CON TIMEOUT, REINTENTOS Y CORTOCIRCUITO
+ * TODO ES ASÍNCRONO: UNA PASARELA LENTA NO ACUMULA HILOS NI CONEXIONES
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Service
+public class PaymentGatewayClient {
+
+    @Autowired
+    private PaymentGatewaySimulator paymentGatewaySimulator;
+
+    private final PaymentGatewayProperties properties;
+    private final GatewayCircuitBreaker circuitBreaker;
+
+    public PaymentGatewayClient(PaymentGatewayProperties properties) {
+        this.properties = properties;
+        this.circuitBreaker = new GatewayCircuitBreaker(
+                properties.getBreakerFailureRateThreshold(),
+                properties.getBreakerWindowSize(),
+                properties.getBreakerMinimumCalls(),
+                properties.getBreakerOpenDurationMs(),
+                properties.getBreakerHalfOpenCalls(),
+                System::currentTimeMillis
+        );
+    }
+
+    /**
+     * AUTORIZO UN PAGO APLICANDO TIMEOUT POR LLAMADA Y REINTENTOS CON BACKOFF
+     * LOS RECHAZOS DEL BANCO NO SE REINTENTAN, SOLO LOS FALLOS TÉCNICOS
+     *
+     * @param cardNumber número de tarjeta
+     * @param amount monto a cobrar
+     * @return futuro con la respuesta definitiva
+     */
+    public CompletableFuture<PaymentGatewaySimulator.GatewayResponse> authorize(String cardNumber, BigDecimal amount) {
+        return attempt(cardNumber, amount, 0);
+    }
+
+    /**
+     * OBTENGO EL ESTADO DEL CORTOCIRCUITO
+     *
+     * @return estado actual
+     */
+    public GatewayCircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * HAGO UN INTENTO Y, SI FALLA POR CAUSA TÉCNICA, PROGRAMO EL SIGUIENTE
+     *
+     * @param cardNumber número de tarjeta
+     * @param amount monto a cobrar
+     * @param attempt número de intento (0 = primero)
+     * @return futuro con la respuesta
+     */
+    private CompletableFuture<PaymentGatewaySimulator.GatewayResponse> attempt(String cardNumber, BigDecimal amount,
+                                                                               int attempt) {
+        // CIRCUITO ABIERTO: FALLO INMEDIATO SIN TOCAR LA PASARELA
+        if (!circuitBreaker.tryAcquire()) {
+            return CompletableFuture.completedFuture(new PaymentGatewaySimulator.GatewayResponse(
+                    PaymentStatus.FAILED, "Pasarela no disponible temporalmente", 0));
+        }
+
+        return paymentGatewaySimulator.authorize(cardNumber, amount)
+                .orTimeout(properties.getCallTimeoutMs(), TimeUnit.MILLISECONDS)
+                .handle((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                        String message = cause instanceof TimeoutException
+                                ? "Tiempo de espera agotado con la pasarela"
+                                : "Error de comunicación con la pasarela";
+                        return new PaymentGatewaySimulator.GatewayResponse(
+                                PaymentStatus.FAILED, message, properties.getCallTimeoutMs());
+                    }
+                    return response;
+                })
+                .thenCompose(response -> {
+                    // SOLO FAILED ES UN FALLO TÉCNICO; UN RECHAZO ES UNA RESPUESTA VÁLIDA
+                    if (response.getStatus() != PaymentStatus.FAILED) {
+                        circuitBreaker.recordSuccess();
+                        return CompletableFuture.completedFuture(response);
+                    }
+
+                    circuitBreaker.recordFailure();
+
+                    if (attempt >= properties.getMaxRetries()) {
+                        return CompletableFuture.completedFuture(response);
+                    }
+
+                    long delay = backoffDelay(attempt);
+                    System.out.println("🔁 REINTENTANDO PAGO EN " + delay + " ms (intento " + (attempt + 2) + ")");
+
+                    return CompletableFuture
+                            .supplyAsync(() -> null, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                            .thenCompose(ignored -> attempt(cardNumber, amount, attempt + 1));
+                });
+    }
+
+    /**
+     * CALCULO LA ESPERA ANTES DEL SIGUIENTE INTENTO (BACKOFF EXPONENCIAL CON JITTER COMPLETO)
+     *
+     * @param attempt intento que acaba de fallar
+     * @return milisegundos de espera
+     */
+    private long backoffDelay(int attempt) {
+        long cap = Math.min(properties.getRetryMaxDelayMs(), properties.getRetryBaseDelayMs() << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+}
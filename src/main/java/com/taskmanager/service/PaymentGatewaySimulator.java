@@ -0,0 +1,203 @@
+package com.taskmanager.service;
+
+import com.taskmanager.config.PaymentGatewayProperties;
+import com.taskmanager.model.PaymentStatus;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SIMULADOR DE PASARELA DE PAGOS NO BLOQUEANTE
+ * DECIDE EL RESULTADO Y LA LATENCIA AL RECIBIR LA PETICIÓN Y PROGRAMA LA RESPUESTA
+ * EN UN TEMPORIZADOR, ASÍ MILES DE PAGOS CONCURRENTES NO OCUPAN MILES DE HILOS
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Service
+public class PaymentGatewaySimulator {
+
+    // TARJETAS DE PRUEBA CON COMPORTAMIENTOS ESPECÍFICOS
+    private static final Map<String, String> TEST_CARDS = Map.of(
+            // TARJETAS QUE SIEMPRE APRUEBAN
+            "4111111111111111", "VISA_SUCCESS",
+            "5555555555554444", "MASTERCARD_SUCCESS",
+            "378282246310005", "AMEX_SUCCESS",
+            // TARJETAS QUE SIEMPRE RECHAZAN
+            "4000000000000002", "VISA_DECLINED",
+            "5555555555554445", "MASTERCARD_DECLINED",
+            // TARJETAS CON FONDOS INSUFICIENTES
+            "4000000000009995", "INSUFFICIENT_FUNDS",
+            // TARJETAS EXPIRADAS
+            "4000000000000069", "EXPIRED_CARD",
+            // TARJETAS CON PROCESAMIENTO LENTO
+            "4000000000000259", "SLOW_PROCESSING"
+    );
+
+    // LATENCIA DE LA TARJETA DE PROCESAMIENTO LENTO
+    private static final long SLOW_PROCESSING_LATENCY_MS = 8000;
+
+    private final PaymentGatewayProperties properties;
+    private final ScheduledExecutorService scheduler;
+
+    // GENERADOR COMPARTIDO CUANDO HAY SEMILLA; SI NO, UNO POR HILO
+    private final Random seededRandom;
+
+    public PaymentGatewaySimulator(PaymentGatewayProperties properties) {
+        this.properties = properties;
+        this.seededRandom = properties.getSeed() != null ? new Random(properties.getSeed()) : null;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(properties.getSchedulerThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "payment-gateway-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * PARO EL PLANIFICADOR AL CERRAR LA APLICACIÓN
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * ENVÍO UNA AUTORIZACIÓN A LA PASARELA SIMULADA
+     * VUELVE AL MOMENTO; EL FUTURO SE COMPLETA CUANDO VENCE LA LATENCIA SIMULADA
+     *
+     * @param cardNumber número de tarjeta
+     * @param amount monto a cobrar
+     * @return futuro con la respuesta de la pasarela
+     */
+    public CompletableFuture<GatewayResponse> authorize(String cardNumber, BigDecimal amount) {
+        GatewayResponse response = decide(cardNumber);
+
+        CompletableFuture<GatewayResponse> future = new CompletableFuture<>();
+        scheduler.schedule(() -> future.complete(response), response.getLatencyMs(), TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    /**
+     * DECIDO RESULTADO Y LATENCIA DE UNA PETICIÓN SIN ESPERAR
+     *
+     * @param cardNumber número de tarjeta
+     * @return respuesta que dará la pasarela
+     */
+    GatewayResponse decide(String cardNumber) {
+        String cardType = TEST_CARDS.get(cardNumber);
+        Random random = random();
+
+        long latency = "SLOW_PROCESSING".equals(cardType) ? SLOW_PROCESSING_LATENCY_MS : sampleLatency(random);
+
+        // LA PASARELA NO RESPONDE O TARDA MÁS QUE EL LÍMITE
+        if (random.nextDouble() < properties.getTimeoutRate() || latency > properties.getTimeoutMs()) {
+            return new GatewayResponse(PaymentStatus.FAILED, "Tiempo de espera agotado con la pasarela",
+                    properties.getTimeoutMs());
+        }
+
+        if (cardType == null) {
+            // TARJETA NO RECONOCIDA - RESULTADO SEGÚN LAS TASAS CONFIGURADAS
+            return randomOutcome(random, latency);
+        }
+
+        return switch (cardType) {
+            case "VISA_SUCCESS", "MASTERCARD_SUCCESS", "AMEX_SUCCESS", "SLOW_PROCESSING" ->
+                    new GatewayResponse(PaymentStatus.COMPLETED, null, latency);
+
+            case "VISA_DECLINED", "MASTERCARD_DECLINED" ->
+                    new GatewayResponse(PaymentStatus.REJECTED, "Tarjeta rechazada por el banco emisor", latency);
+
+            case "INSUFFICIENT_FUNDS" ->
+                    new GatewayResponse(PaymentStatus.REJECTED, "Fondos insuficientes", latency);
+
+            case "EXPIRED_CARD" ->
+                    new GatewayResponse(PaymentStatus.REJECTED, "Tarjeta expirada", latency);
+
+            default -> new GatewayResponse(PaymentStatus.FAILED, "Error desconocido", latency);
+        };
+    }
+
+    /**
+     * GENERO UNA LATENCIA SEGÚN LA DISTRIBUCIÓN CONFIGURADA
+     *
+     * @param random generador a usar
+     * @return milisegundos de latencia
+     */
+    long sampleLatency(Random random) {
+        double latency = switch (properties.getLatencyType()) {
+            case FIXED -> properties.getFixedLatencyMs();
+
+            case UNIFORM -> properties.getMinLatencyMs()
+                    + random.nextDouble() * (properties.getMaxLatencyMs() - properties.getMinLatencyMs());
+
+            case LOG_NORMAL -> properties.getMedianLatencyMs()
+                    * Math.exp(properties.getLatencySigma() * random.nextGaussian());
+
+            // PARETO: LA MAYORÍA CERCA DEL MÍNIMO, UNAS POCAS MUY LENTAS
+            case HEAVY_TAIL -> properties.getMinLatencyMs()
+                    / Math.pow(1.0 - random.nextDouble(), 1.0 / properties.getTailShape());
+        };
+
+        return Math.max(0, Math.round(latency));
+    }
+
+    /**
+     * GENERO UN RESULTADO ALEATORIO PARA TARJETAS NO PREDEFINIDAS
+     *
+     * @param random generador a usar
+     * @param latency latencia ya calculada
+     * @return respuesta aleatoria
+     */
+    private GatewayResponse randomOutcome(Random random, long latency) {
+        double value = random.nextDouble();
+
+        if (value < properties.getSuccessRate()) {
+            return new GatewayResponse(PaymentStatus.COMPLETED, null, latency);
+        } else if (value < properties.getSuccessRate() + properties.getRejectionRate()) {
+            return new GatewayResponse(PaymentStatus.REJECTED, "Tarjeta rechazada", latency);
+        } else {
+            return new GatewayResponse(PaymentStatus.FAILED, "Error en procesamiento", latency);
+        }
+    }
+
+    /**
+     * OBTENGO EL GENERADOR ALEATORIO A USAR EN ESTA PETICIÓN
+     *
+     * @return generador con semilla o el del hilo actual
+     */
+    private Random random() {
+        return seededRandom != null ? seededRandom : ThreadLocalRandom.current();
+    }
+
+    // ==================== CLASE AUXILIAR PARA RESPUESTAS ====================
+
+    /**
+     * RESPUESTA DE LA PASARELA SIMULADA
+     */
+    public static class GatewayResponse {
+        private final PaymentStatus status;
+        private final String errorMessage;
+        private final long latencyMs;
+
+        public GatewayResponse(PaymentStatus status, String errorMessage, long latencyMs) {
+            this.status = status;
+            this.errorMessage = errorMessage;
+            this.latencyMs = latencyMs;
+        }
+
+        public PaymentStatus getStatus() { return status; }
+        public String getErrorMessage() { return errorMessage; }
+        public long getLatencyMs() { return latencyMs; }
+    }
+}
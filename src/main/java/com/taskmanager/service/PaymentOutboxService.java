@@ -0,0 +1,186 @@
+package com.taskmanager.service;
+
+import com.taskmanager.event.PaymentEvent;
+import com.taskmanager.model.OutboxEventStatus;
+import com.taskmanager.model.PaymentOutboxEvent;
+import com.taskmanager.model.PaymentTransaction;
+import com.taskmanager.repository.PaymentOutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * SERVICIO QUE GESTIONA EL OUTBOX DE EVENTOS DE PAGO
+ * ESCRIBE LOS EVENTOS JUNTO AL ESTADO FINAL DEL PAGO Y LOS DESPACHA EN LOTES
+ * A LOS CONSUMIDORES EN PROCESO MEDIANTE EL BUS DE EVENTOS DE SPRING
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Service
+public class PaymentOutboxService {
+
+    @Autowired
+    private PaymentOutboxEventRepository outboxRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // TAMAÑO DEL LOTE QUE LEE EL DESPACHADOR EN CADA PASADA
+    @Value("${app.payment.outbox.batch-size:100}")
+    private int batchSize;
+
+    // INTENTOS ANTES DE DESCARTAR UN EVENTO
+    @Value("${app.payment.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    // ESPERA TRAS EL PRIMER FALLO; SE DOBLA EN CADA FALLO HASTA backoff-max-ms
+    @Value("${app.payment.outbox.backoff-initial-ms:1000}")
+    private long backoffInitialMs;
+
+    @Value("${app.payment.outbox.backoff-max-ms:300000}")
+    private long backoffMaxMs;
+
+    // DÍAS QUE SE CONSERVAN LOS EVENTOS PUBLICADOS
+    @Value("${app.payment.outbox.retention-days:7}")
+    private int retentionDays;
+
+    public PaymentOutboxService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * REGISTRO EL ESTADO FINAL DE UN PAGO EN EL OUTBOX
+     * DEBE LLAMARSE DENTRO DE LA TRANSACCIÓN QUE GUARDA EL ESTADO FINAL,
+     * ASÍ EL EVENTO SOLO EXISTE SI EL CAMBIO DE ESTADO SE CONFIRMA
+     *
+     * @param transaction transacción con estado final ya asignado
+     * @return el evento escrito
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public PaymentOutboxEvent recordFinalStatus(PaymentTransaction transaction) {
+        if (!transaction.getStatus().isFinalized()) {
+            throw new IllegalArgumentException("Solo se registran pagos con estado final: " + transaction.getStatus());
+        }
+        return outboxRepository.save(new PaymentOutboxEvent(transaction));
+    }
+
+    /**
+     * DESPACHADOR EN SEGUNDO PLANO: LEE LOTES DE EVENTOS PENDIENTES Y LOS PUBLICA
+     * CADA EVENTO SE PUBLICA EN SU PROPIA TRANSACCIÓN PARA QUE UN FALLO NO BLOQUEE EL LOTE;
+     * SOLO SE QUEDAN ESPERANDO LOS EVENTOS POSTERIORES DE LA MISMA TRANSACCIÓN DE PAGO
+     *
+     * @return número de eventos publicados en esta pasada
+     */
+    @Scheduled(fixedDelayString = "${app.payment.outbox.poll-interval-ms:1000}")
+    public int dispatchPendingEvents() {
+        int published = 0;
+        int publishedInBatch;
+
+        // SIGO MIENTRAS EL LOTE PUBLIQUE ALGO, AUNQUE NO VENGA LLENO: EL SIGUIENTE LOTE INCLUYE LOS EVENTOS
+        // DE LAS TRANSACCIONES QUE ESPERABAN AL ANTERIOR; SI NO SE PUBLICA NINGUNO ESPERO A LA SIGUIENTE PASADA
+        do {
+            List<PaymentOutboxEvent> batch = outboxRepository.findPendingEvents(LocalDateTime.now(),
+                    PageRequest.of(0, batchSize));
+
+            publishedInBatch = 0;
+            for (PaymentOutboxEvent event : batch) {
+                if (publish(event.getId())) {
+                    publishedInBatch++;
+                }
+            }
+            published += publishedInBatch;
+        } while (publishedInBatch > 0);
+
+        return published;
+    }
+
+    /**
+     * LIMPIEZA PERIÓDICA DE EVENTOS YA PUBLICADOS
+     *
+     * @return número de eventos eliminados
+     */
+    @Scheduled(fixedDelayString = "${app.payment.outbox.cleanup-interval-ms:3600000}")
+    @Transactional
+    public int purgePublishedEvents() {
+        return outboxRepository.deletePublishedBefore(LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    /**
+     * CUENTO LOS EVENTOS QUE AÚN ESPERAN SER PUBLICADOS
+     *
+     * @return eventos pendientes
+     */
+    public long countPendingEvents() {
+        return outboxRepository.countByStatus(OutboxEventStatus.PENDING);
+    }
+
+    /**
+     * CUENTO LOS EVENTOS DESCARTADOS TRAS AGOTAR SUS INTENTOS
+     *
+     * @return eventos descartados
+     */
+    public long countFailedEvents() {
+        return outboxRepository.countByStatus(OutboxEventStatus.FAILED);
+    }
+
+    /**
+     * VUELVO A PONER EN COLA LOS EVENTOS DESCARTADOS (UNA VEZ ARREGLADO EL CONSUMIDOR QUE FALLABA)
+     * LOS CONSUMIDORES SON IDEMPOTENTES, ASÍ QUE REPUBLICAR ES SEGURO
+     * TAMBIÉN LIBERA LOS EVENTOS POSTERIORES DE SUS TRANSACCIONES, QUE ESPERABAN A QUE SE PUBLICARAN
+     *
+     * @return número de eventos reencolados
+     */
+    @Transactional
+    public int replayFailedEvents() {
+        int replayed = outboxRepository.replayFailed(LocalDateTime.now());
+        System.out.println("🔁 EVENTOS DE PAGO DESCARTADOS REENCOLADOS: " + replayed);
+        return replayed;
+    }
+
+    /**
+     * PUBLICO UN EVENTO Y LO MARCO COMO PUBLICADO EN LA MISMA TRANSACCIÓN
+     * LO RECLAMO CON FOR UPDATE SKIP LOCKED: SI OTRO NODO LO ESTÁ PUBLICANDO LO SALTO
+     * SI ALGÚN CONSUMIDOR FALLA SE DESHACE TODO Y SE REGISTRA EL INTENTO CON SU ESPERA
+     *
+     * @param eventId ID del evento a publicar
+     * @return true si se publicó
+     */
+    private boolean publish(Long eventId) {
+        try {
+            Boolean done = transactionTemplate.execute(status -> {
+                PaymentOutboxEvent event = outboxRepository.claimPending(eventId).orElse(null);
+                if (event == null) {
+                    return false;
+                }
+
+                eventPublisher.publishEvent(new PaymentEvent(event));
+                event.markPublished();
+                return true;
+            });
+            return Boolean.TRUE.equals(done);
+
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxRepository.findById(eventId)
+                            .ifPresent(event -> event.registerFailure(e.getMessage(), maxAttempts,
+                                    Duration.ofMillis(backoffInitialMs), Duration.ofMillis(backoffMaxMs))));
+
+            System.out.println("❌ ERROR PUBLICANDO EVENTO DE PAGO " + eventId + ": " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.taskmanager.service;
+
+import com.taskmanager.event.PaymentEvent;
+import com.taskmanager.model.PaymentOutboxEvent;
+import com.taskmanager.model.PaymentRollup;
+import com.taskmanager.model.PaymentStatus;
+import com.taskmanager.model.RollupGranularity;
+import com.taskmanager.repository.PaymentOutboxEventRepository;
+import com.taskmanager.repository.PaymentRollupRepository;
+import com.taskmanager.repository.PaymentTransactionRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SERVICIO DE REPORTES DE PAGOS SOBRE AGREGADOS MATERIALIZADOS
+ * MANTIENE BUCKETS POR HORA Y POR DÍA ACTUALIZADOS CON CADA ESTADO FINAL,
+ * ASÍ LOS INGRESOS Y LA TASA DE ÉXITO CUESTAN O(DÍAS) Y NO O(TRANSACCIONES)
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Service
+@Transactional
+public class PaymentReportingService {
+
+    // MÉTODO DE PAGO PARA TRANSACCIONES SIN MÉTODO REGISTRADO
+    private static final String UNKNOWN_METHOD = "UNKNOWN";
+
+    @Autowired
+    private PaymentRollupRepository paymentRollupRepository;
+
+    @Autowired
+    private PaymentTransactionRepository paymentTransactionRepository;
+
+    @Autowired
+    private PaymentOutboxEventRepository paymentOutboxEventRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    // POSTGRES USA INSERT ... ON CONFLICT; H2 (DESARROLLO Y TESTS) USA MERGE
+    private boolean postgres;
+
+    // ==================== ACTUALIZACIÓN INCREMENTAL ====================
+
+    /**
+     * MIRO UNA VEZ SI LA BD ES POSTGRES PARA ELEGIR EL UPSERT Y EL BLOQUEO DE LA RECONSTRUCCIÓN
+     *
+     * @throws MetaDataAccessException si no puedo leer los metadatos de la BD
+     */
+    @PostConstruct
+    void detectDatabase() throws MetaDataAccessException {
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        postgres = product.toLowerCase().contains("postgres");
+    }
+
+    /**
+     * APLICO UN ESTADO FINAL DE PAGO A LOS BUCKETS DE HORA Y DÍA
+     *
+     * @param event evento de pago finalizado
+     */
+    public void applyPaymentEvent(PaymentEvent event) {
+        for (PaymentRollup delta : deltasOf(event, 1)) {
+            addToBucket(delta);
+        }
+    }
+
+    /**
+     * CALCULO LO QUE UN EVENTO SUMA A CADA BUCKET (O RESTA, CON SIGNO -1)
+     * LOS REEMBOLSOS Y DISPUTAS SOLO LLEGAN DESDE COMPLETED, ASÍ QUE TAMBIÉN LO RESTO DE AHÍ
+     *
+     * @param event evento de pago finalizado
+     * @param sign 1 para aplicarlo, -1 para descontarlo
+     * @return incrementos por bucket (filas sin guardar)
+     */
+    private List<PaymentRollup> deltasOf(PaymentEvent event, int sign) {
+        String method = event.getPaymentMethod() != null ? event.getPaymentMethod() : UNKNOWN_METHOD;
+        BigDecimal amount = event.getAmount() != null ? event.getAmount() : BigDecimal.ZERO;
+        BigDecimal signedAmount = sign < 0 ? amount.negate() : amount;
+        List<PaymentRollup> deltas = new ArrayList<>();
+
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            LocalDateTime bucket = granularity.bucketStart(event.getTransactionDate());
+
+            deltas.add(new PaymentRollup(granularity, bucket, event.getPaymentStatus(), event.getSubscriptionPlanId(),
+                    method, sign, signedAmount));
+
+            if (event.getPaymentStatus() == PaymentStatus.REFUNDED
+                    || event.getPaymentStatus() == PaymentStatus.DISPUTED) {
+                deltas.add(new PaymentRollup(granularity, bucket, PaymentStatus.COMPLETED,
+                        event.getSubscriptionPlanId(), method, -sign, signedAmount.negate()));
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * SUMO AL BUCKET CON UN UPSERT ATÓMICO EN LA BD (LO CREA SI AÚN NO EXISTE)
+     *
+     * @param delta incremento del bucket
+     */
+    private void addToBucket(PaymentRollup delta) {
+        if (postgres) {
+            paymentRollupRepository.upsertOnConflict(delta.getGranularity().name(), delta.getBucketStart(),
+                    delta.getPaymentStatus().name(), delta.getSubscriptionPlanId(), delta.getPaymentMethod(),
+                    delta.getTransactionCount(), delta.getTotalAmount());
+        } else {
+            paymentRollupRepository.upsertMerge(delta.getGranularity().name(), delta.getBucketStart(),
+                    delta.getPaymentStatus().name(), delta.getSubscriptionPlanId(), delta.getPaymentMethod(),
+                    delta.getTransactionCount(), delta.getTotalAmount());
+        }
+    }
+
+    // ==================== RECONSTRUCCIÓN ====================
+
+    /**
+     * RECONSTRUYO TODOS LOS AGREGADOS DESDE LA TABLA DE PAGOS
+     * UNA SOLA CONSULTA GROUP BY POR HORA; LOS DÍAS SE SUMAN EN MEMORIA
+     *
+     * LOS PAGOS YA TIENEN SU ESTADO FINAL PERO LOS EVENTOS SIN PUBLICAR AÚN LOS VA A SUMAR EL DESPACHADOR:
+     * BLOQUEO EL OUTBOX (TABLA ENTERA EN POSTGRES, LAS FILAS SIN PUBLICAR EN H2) Y DESCUENTO ESOS EVENTOS,
+     * ASÍ CUANDO SE PUBLIQUEN DESPUÉS DEL COMMIT EL TOTAL QUEDA BIEN Y NINGÚN PAGO CUENTA DOS VECES
+     *
+     * @return número de filas de agregados generadas
+     */
+    public int rebuildRollups() {
+        if (postgres) {
+            paymentOutboxEventRepository.lockTable();
+        }
+        List<PaymentOutboxEvent> unpublished = paymentOutboxEventRepository.lockUnpublished();
+
+        paymentRollupRepository.deleteAllRollups();
+
+        Map<String, PaymentRollup> rollups = new LinkedHashMap<>();
+
+        for (Object[] row : paymentTransactionRepository.aggregateFinalizedByHour()) {
+            LocalDate date = (LocalDate) row[0];
+            int hour = ((Number) row[1]).intValue();
+            PaymentStatus status = (PaymentStatus) row[2];
+            Long planId = (Long) row[3];
+            String method = row[4] != null ? (String) row[4] : UNKNOWN_METHOD;
+            long count = ((Number) row[5]).longValue();
+            BigDecimal amount = row[6] != null ? (BigDecimal) row[6] : BigDecimal.ZERO;
+
+            merge(rollups, new PaymentRollup(RollupGranularity.HOUR, date.atTime(hour, 0), status, planId, method,
+                    count, amount));
+            merge(rollups, new PaymentRollup(RollupGranularity.DAY, date.atStartOfDay(), status, planId, method,
+                    count, amount));
+        }
+
+        for (PaymentOutboxEvent event : unpublished) {
+            for (PaymentRollup delta : deltasOf(new PaymentEvent(event), -1)) {
+                merge(rollups, delta);
+            }
+        }
+
+        List<PaymentRollup> rows = rollups.values().stream()
+                .filter(rollup -> rollup.getTransactionCount() != 0 || rollup.getTotalAmount().signum() != 0)
+                .toList();
+        paymentRollupRepository.saveAll(rows);
+
+        System.out.println("📊 AGREGADOS DE PAGOS RECONSTRUIDOS - Filas: " + rows.size()
+                + " (eventos sin publicar descontados: " + unpublished.size() + ")");
+        return rows.size();
+    }
+
+    /**
+     * SUMO UN INCREMENTO A LA FILA DE SU BUCKET EN MEMORIA
+     *
+     * @param rollups filas por clave de bucket
+     * @param delta incremento
+     */
+    private void merge(Map<String, PaymentRollup> rollups, PaymentRollup delta) {
+        String key = delta.getGranularity() + "|" + delta.getBucketStart() + "|" + delta.getPaymentStatus()
+                + "|" + delta.getSubscriptionPlanId() + "|" + delta.getPaymentMethod();
+        PaymentRollup rollup = rollups.computeIfAbsent(key, k -> new PaymentRollup(delta.getGranularity(),
+                delta.getBucketStart(), delta.getPaymentStatus(), delta.getSubscriptionPlanId(),
+                delta.getPaymentMethod(), 0, BigDecimal.ZERO));
+        rollup.setTransactionCount(rollup.getTransactionCount() + delta.getTransactionCount());
+        rollup.setTotalAmount(rollup.getTotalAmount().add(delta.getTotalAmount()));
+    }
+
+    /**
+     * AL ARRANCAR, SI NO HAY AGREGADOS PERO SÍ PAGOS, LOS RELLENO UNA VEZ
+     * EL DESPACHADOR PUEDE ESTAR YA PUBLICANDO: rebuildRollups SE COORDINA CON ÉL A TRAVÉS DEL OUTBOX
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (paymentRollupRepository.count() == 0 && paymentTransactionRepository.count() > 0) {
+            rebuildRollups();
+        }
+    }
+
+    // ==================== CONSULTAS ====================
+
+    /**
+     * CALCULO LOS INGRESOS TOTALES DE PAGOS COMPLETADOS
+     *
+     * @return suma total
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalRevenue() {
+        return paymentRollupRepository.sumAmount(RollupGranularity.DAY, PaymentStatus.COMPLETED);
+    }
+
+    /**
+     * CALCULO LOS INGRESOS EN UN RANGO [INICIO, FIN) CON PRECISIÓN DE HORA
+     * DÍAS COMPLETOS DESDE LOS BUCKETS DIARIOS Y LOS EXTREMOS DESDE LOS HORARIOS
+     *
+     * @param start inicio incluido
+     * @param end fin excluido
+     * @return ingresos del período
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getRevenueInPeriod(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime from = start.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime to = end.truncatedTo(ChronoUnit.HOURS);
+        if (!from.isBefore(to)) {
+            return BigDecimal.ZERO;
+        }
+
+        LocalDateTime firstFullDay = from.truncatedTo(ChronoUnit.DAYS).equals(from)
+                ? from : from.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+        LocalDateTime lastFullDay = to.truncatedTo(ChronoUnit.DAYS);
+
+        // EL RANGO NO CONTIENE NINGÚN DÍA COMPLETO
+        if (!firstFullDay.isBefore(lastFullDay)) {
+            return paymentRollupRepository.sumAmountBetween(RollupGranularity.HOUR, PaymentStatus.COMPLETED, from, to);
+        }
+
+        return paymentRollupRepository.sumAmountBetween(RollupGranularity.HOUR, PaymentStatus.COMPLETED, from, firstFullDay)
+                .add(paymentRollupRepository.sumAmountBetween(RollupGranularity.DAY, PaymentStatus.COMPLETED, firstFullDay, lastFullDay))
+                .add(paymentRollupRepository.sumAmountBetween(RollupGranularity.HOUR, PaymentStatus.COMPLETED, lastFullDay, to));
+    }
+
+    /**
+     * CUENTO LOS PAGOS FINALIZADOS POR ESTADO
+     *
+     * @return mapa estado -> número de pagos
+     */
+    @Transactional(readOnly = true)
+    public Map<PaymentStatus, Long> getCountsByStatus() {
+        Map<PaymentStatus, Long> counts = new EnumMap<>(PaymentStatus.class);
+        for (Object[] row : paymentRollupRepository.countByStatus(RollupGranularity.DAY)) {
+            counts.put((PaymentStatus) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    /**
+     * CALCULO LA TASA DE ÉXITO SOBRE LOS PAGOS FINALIZADOS
+     *
+     * @return porcentaje de éxito (0-100)
+     */
+    @Transactional(readOnly = true)
+    public double getSuccessRate() {
+        Map<PaymentStatus, Long> counts = getCountsByStatus();
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+        if (total == 0) {
+            return 0.0;
+        }
+
+        return BigDecimal.valueOf(counts.getOrDefault(PaymentStatus.COMPLETED, 0L) * 100.0 / total)
+                .setScale(2, RoundingMode.HALF_UP)
+                .doubleValue();
+    }
+
+    /**
+     * OBTENGO LOS BUCKETS DIARIOS DE LOS ÚLTIMOS DÍAS
+     *
+     * @param days número de días hacia atrás (incluye hoy)
+     * @return buckets diarios ordenados por fecha
+     */
+    @Transactional(readOnly = true)
+    public List<PaymentRollup> getDailyBuckets(int days) {
+        LocalDateTime end = LocalDate.now().plusDays(1).atStartOfDay();
+        return paymentRollupRepository.findBuckets(RollupGranularity.DAY, end.minusDays(days), end);
+    }
+}
@@ -3,17 +3,26 @@ package com.taskmanager.service;
 import com.taskmanager.model.*;
 import com.taskmanager.repository.PaymentTransactionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
-import java.util.regex.Pattern;
 
 /**
  * SERVICIO QUE SIMULA EL PROCESAMIENTO DE PAGOS CON TARJETAS DE CRÉDITO
@@ -23,33 +32,33 @@ import java.util.regex.Pattern;
  * @version 1.0
  */
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class PaymentSimulatorService {
 
     @Autowired
     private PaymentTransactionRepository paymentTransactionRepository;
 
-    // TARJETAS DE PRUEBA CON COMPORTAMIENTOS ESPECÍFICOS
-    private static final Map<String, String> TEST_CARDS = new HashMap<>();
+    @Autowired
+    private PaymentOutboxService paymentOutboxService;
+
+    @Autowired
+    private PaymentGatewayClient paymentGatewayClient;
 
-    static {
-        // TARJETAS QUE SIEMPRE APRUEBAN
-        TEST_CARDS.put("4111111111111111", "VISA_SUCCESS");
-        TEST_CARDS.put("5555555555554444", "MASTERCARD_SUCCESS");
-        TEST_CARDS.put("378282246310005", "AMEX_SUCCESS");
+    // MINUTOS SIN RESPUESTA TRAS LOS QUE UN PAGO SE DA POR FALLIDO
+    @Value("${app.payment.reaper.stale-after-minutes:10}")
+    private long staleAfterMinutes;
 
-        // TARJETAS QUE SIEMPRE RECHAZAN
-        TEST_CARDS.put("4000000000000002", "VISA_DECLINED");
-        TEST_CARDS.put("5555555555554445", "MASTERCARD_DECLINED");
+    // TAMAÑO DEL LOTE DEL LIMPIADOR DE PAGOS ATASCADOS
+    @Value("${app.payment.reaper.batch-size:100}")
+    private int reaperBatchSize;
 
-        // TARJETAS CON FONDOS INSUFICIENTES
-        TEST_CARDS.put("4000000000009995", "INSUFFICIENT_FUNDS");
+    // RELECTURAS DE UN PAGO MODIFICADO A LA VEZ POR OTRO PROCESO ANTES DE RENDIRSE
+    private static final int MAX_CONFLICT_RETRIES = 3;
 
-        // TARJETAS EXPIRADAS
-        TEST_CARDS.put("4000000000000069", "EXPIRED_CARD");
+    private final TransactionTemplate transactionTemplate;
 
-        // TARJETAS CON PROCESAMIENTO LENTO
-        TEST_CARDS.put("4000000000000259", "SLOW_PROCESSING");
+    public PaymentSimulatorService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -64,6 +73,7 @@ public class PaymentSimulatorService {
      * @param cardHolderName nombre del titular
      * @return transacción creada
      */
+    @Transactional
     public PaymentTransaction initiatePayment(User user, SubscriptionPlan subscriptionPlan,
                                               String cardNumber, String expiryMonth, String expiryYear,
                                               String cvv, String cardHolderName) {
@@ -80,119 +90,141 @@ public class PaymentSimulatorService {
         // GUARDAR ÚLTIMOS 4 DÍGITOS
         transaction.setCardLastDigits(cardNumber.substring(cardNumber.length() - 4));
 
-        // DATOS ADICIONALES
-        Map<String, String> transactionData = new HashMap<>();
-        transactionData.put("cardHolderName", cardHolderName);
-        transactionData.put("expiryMonth", expiryMonth);
-        transactionData.put("expiryYear", expiryYear);
-        transaction.setTransactionData(transactionData.toString());
+        // DATOS ADICIONALES (MISMO FORMATO QUE Map.toString, SIN CREAR EL MAPA)
+        transaction.setTransactionData("{cardHolderName=" + cardHolderName
+                + ", expiryMonth=" + expiryMonth
+                + ", expiryYear=" + expiryYear + "}");
 
         // GUARDAR COMO PENDIENTE
         transaction = paymentTransactionRepository.save(transaction);
 
-        // PROCESAR ASINCRÓNICAMENTE
-        processPaymentAsync(transaction, cardNumber);
+        // ENVIAR A LA PASARELA CUANDO LA TRANSACCIÓN PENDIENTE ESTÉ CONFIRMADA
+        submitAfterCommit(transaction.getId(), cardNumber, transaction.getAmount());
 
         return transaction;
     }
 
     /**
-     * PROCESO ASÍNCRONO DE PAGO (SIMULA LLAMADA A PASARELA REAL)
+     * ENVÍO LA AUTORIZACIÓN A LA PASARELA DESPUÉS DEL COMMIT
+     * ASÍ LA RESPUESTA NUNCA LLEGA ANTES DE QUE LA TRANSACCIÓN PENDIENTE SEA VISIBLE
      *
-     * @param transaction transacción a procesar
-     * @param cardNumber número de tarjeta para determinar comportamiento
+     * @param transactionId ID de la transacción guardada
+     * @param cardNumber número de tarjeta (solo en memoria, no se persiste)
+     * @param amount monto a cobrar
      */
-    @Async
-    public CompletableFuture<Void> processPaymentAsync(PaymentTransaction transaction, String cardNumber) {
-        try {
-            // SIMULAR TIEMPO DE PROCESAMIENTO
-            Thread.sleep(getProcessingDelay(cardNumber));
-
-            // DETERMINAR RESULTADO BASADO EN LA TARJETA
-            PaymentResult result = simulatePaymentProcessing(cardNumber, transaction.getAmount());
-
-            // ACTUALIZAR TRANSACCIÓN
-            transaction.setStatus(result.getStatus());
-            transaction.setErrorMessage(result.getErrorMessage());
-
-            // GUARDAR RESULTADO
-            paymentTransactionRepository.save(transaction);
-
-            // LOG DEL RESULTADO
-            logPaymentResult(transaction, result);
-
-        } catch (InterruptedException e) {
-            // MANEJO DE ERROR EN PROCESAMIENTO
-            transaction.setStatus(PaymentStatus.FAILED);
-            transaction.setErrorMessage("Error interno en procesamiento");
-            paymentTransactionRepository.save(transaction);
-
-            Thread.currentThread().interrupt();
+    private void submitAfterCommit(Long transactionId, String cardNumber, BigDecimal amount) {
+        Runnable submit = () -> paymentGatewayClient.authorize(cardNumber, amount)
+                .thenAccept(response -> completePayment(transactionId, response))
+                .exceptionally(error -> {
+                    System.out.println("❌ ERROR COMPLETANDO PAGO " + transactionId + ": " + error.getMessage());
+                    return null;
+                });
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit.run();
+            return;
         }
 
-        return CompletableFuture.completedFuture(null);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit.run();
+            }
+        });
     }
 
     /**
-     * SIMULO EL PROCESAMIENTO SEGÚN EL NÚMERO DE TARJETA
+     * APLICO LA RESPUESTA DE LA PASARELA EN UNA TRANSACCIÓN NUEVA
+     * SE EJECUTA EN EL HILO DEL TEMPORIZADOR, SIN BLOQUEAR NINGÚN HILO DE PETICIÓN
+     * SI UN WEBHOOK O EL LIMPIADOR CAMBIÓ EL PAGO A LA VEZ (VERSIÓN DISTINTA) LO RELEO:
+     * SI YA ESTÁ FINALIZADO NO HAGO NADA, ASÍ NO HAY DOBLE FINALIZACIÓN NI DOBLE EVENTO
      *
-     * @param cardNumber número de tarjeta
-     * @param amount monto a procesar
-     * @return resultado de la simulación
+     * @param transactionId ID de la transacción a completar
+     * @param response respuesta de la pasarela
      */
-    private PaymentResult simulatePaymentProcessing(String cardNumber, BigDecimal amount) {
-        String cardType = TEST_CARDS.get(cardNumber);
-
-        if (cardType == null) {
-            // TARJETA NO RECONOCIDA - COMPORTAMIENTO ALEATORIO
-            return getRandomResult();
+    void completePayment(Long transactionId, PaymentGatewaySimulator.GatewayResponse response) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                applyGatewayResponse(transactionId, response);
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_CONFLICT_RETRIES) {
+                    throw e;
+                }
+            }
         }
+    }
 
-        return switch (cardType) {
-            case "VISA_SUCCESS", "MASTERCARD_SUCCESS", "AMEX_SUCCESS" ->
-                    new PaymentResult(PaymentStatus.COMPLETED, null);
-
-            case "VISA_DECLINED", "MASTERCARD_DECLINED" ->
-                    new PaymentResult(PaymentStatus.REJECTED, "Tarjeta rechazada por el banco emisor");
+    /**
+     * GUARDO EL RESULTADO DE LA PASARELA Y SU EVENTO EN UNA TRANSACCIÓN
+     *
+     * @param transactionId ID de la transacción a completar
+     * @param response respuesta de la pasarela
+     */
+    private void applyGatewayResponse(Long transactionId, PaymentGatewaySimulator.GatewayResponse response) {
+        transactionTemplate.executeWithoutResult(status -> {
+            PaymentTransaction transaction = paymentTransactionRepository.findById(transactionId).orElse(null);
 
-            case "INSUFFICIENT_FUNDS" ->
-                    new PaymentResult(PaymentStatus.REJECTED, "Fondos insuficientes");
+            // PUEDE HABER SIDO FINALIZADA ANTES POR UN WEBHOOK
+            if (transaction == null || transaction.getStatus().isFinalized()) {
+                return;
+            }
 
-            case "EXPIRED_CARD" ->
-                    new PaymentResult(PaymentStatus.REJECTED, "Tarjeta expirada");
+            // ACTUALIZAR TRANSACCIÓN
+            transaction.setStatus(response.getStatus());
+            transaction.setErrorMessage(response.getErrorMessage());
 
-            case "SLOW_PROCESSING" -> {
-                // SIMULAR PROCESAMIENTO LENTO
-                try {
-                    Thread.sleep(5000);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-                yield new PaymentResult(PaymentStatus.COMPLETED, null);
-            }
+            // GUARDAR RESULTADO Y SU EVENTO EN LA MISMA TRANSACCIÓN
+            paymentTransactionRepository.save(transaction);
+            paymentOutboxService.recordFinalStatus(transaction);
 
-            default -> new PaymentResult(PaymentStatus.FAILED, "Error desconocido");
-        };
+            // LOG DEL RESULTADO
+            logPaymentResult(transaction, response);
+        });
     }
 
     /**
-     * GENERO RESULTADO ALEATORIO PARA TARJETAS NO PREDEFINIDAS
+     * LIMPIADOR PERIÓDICO: DA POR FALLIDOS LOS PAGOS QUE SIGUEN EN CURSO DEMASIADO TIEMPO
+     * TRABAJA EN LOTES, CADA UNO EN SU PROPIA TRANSACCIÓN, Y ESCRIBE SUS EVENTOS EN EL OUTBOX
      *
-     * @return resultado aleatorio
+     * @return número de pagos marcados como fallidos
      */
-    private PaymentResult getRandomResult() {
-        double random = Math.random();
-
-        if (random < 0.85) {
-            // 85% DE ÉXITO
-            return new PaymentResult(PaymentStatus.COMPLETED, null);
-        } else if (random < 0.95) {
-            // 10% RECHAZADAS
-            return new PaymentResult(PaymentStatus.REJECTED, "Tarjeta rechazada");
-        } else {
-            // 5% ERRORES
-            return new PaymentResult(PaymentStatus.FAILED, "Error en procesamiento");
+    @Scheduled(fixedDelayString = "${app.payment.reaper.interval-ms:60000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int failStalePayments() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(staleAfterMinutes);
+        int total = 0;
+        int batchCount;
+
+        do {
+            try {
+                batchCount = transactionTemplate.execute(status -> {
+                    List<PaymentTransaction> stale = paymentTransactionRepository.findOldPendingTransactions(
+                            cutoff, PageRequest.of(0, reaperBatchSize));
+
+                    for (PaymentTransaction transaction : stale) {
+                        transaction.setStatus(PaymentStatus.FAILED);
+                        transaction.setErrorMessage("Pago expirado sin respuesta de la pasarela");
+                    }
+
+                    paymentTransactionRepository.saveAll(stale);
+                    stale.forEach(paymentOutboxService::recordFinalStatus);
+                    return stale.size();
+                });
+            } catch (OptimisticLockingFailureException e) {
+                // LA PASARELA O UN WEBHOOK FINALIZÓ ALGÚN PAGO DEL LOTE A LA VEZ: SE DESHACE EL LOTE
+                // Y LA SIGUIENTE PASADA YA NO LO VE EN CURSO
+                System.out.println("⚠️ LOTE DEL LIMPIADOR DE PAGOS EN CONFLICTO, SE REPITE EN LA SIGUIENTE PASADA");
+                break;
+            }
+            total += batchCount;
+        } while (batchCount == reaperBatchSize);
+
+        if (total > 0) {
+            System.out.println("🧹 PAGOS ATASCADOS MARCADOS COMO FALLIDOS: " + total);
         }
+
+        return total;
     }
 
     /**
@@ -213,23 +245,6 @@ public class PaymentSimulatorService {
         }
     }
 
-    /**
-     * OBTENGO EL DELAY DE PROCESAMIENTO SEGÚN LA TARJETA
-     *
-     * @param cardNumber número de tarjeta
-     * @return milisegundos de delay
-     */
-    private long getProcessingDelay(String cardNumber) {
-        String cardType = TEST_CARDS.get(cardNumber);
-
-        if ("SLOW_PROCESSING".equals(cardType)) {
-            return 8000; // 8 segundos
-        }
-
-        // DELAY NORMAL ENTRE 1-3 SEGUNDOS
-        return 1000 + (long)(Math.random() * 2000);
-    }
-
     /**
      * VALIDO LOS DATOS DE LA TARJETA
      *
@@ -253,7 +268,7 @@ public class PaymentSimulatorService {
         }
 
         // VALIDAR CVV
-        if (cvv == null || !cvv.matches("\\d{3,4}")) {
+        if (cvv == null || !isDigits(cvv, 3, 4)) {
             throw new IllegalArgumentException("CVV inválido");
         }
 
@@ -265,24 +280,26 @@ public class PaymentSimulatorService {
 
     /**
      * VALIDO EL NÚMERO DE TARJETA USANDO ALGORITMO LUHN
+     * RECORRO LOS CARACTERES UNA VEZ, SALTANDO ESPACIOS, SIN COPIAR LA CADENA NI USAR REGEX
      *
      * @param cardNumber número a validar
      * @return true si es válido
      */
     private boolean isValidCardNumber(String cardNumber) {
-        // REMOVER ESPACIOS Y VALIDAR SOLO NÚMEROS
-        cardNumber = cardNumber.replaceAll("\\s", "");
-        if (!cardNumber.matches("\\d{13,19}")) {
-            return false;
-        }
-
-        // ALGORITMO LUHN
         int sum = 0;
+        int digits = 0;
         boolean alternate = false;
 
         for (int i = cardNumber.length() - 1; i >= 0; i--) {
-            int digit = Character.getNumericValue(cardNumber.charAt(i));
+            char c = cardNumber.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                return false;
+            }
 
+            int digit = c - '0';
             if (alternate) {
                 digit *= 2;
                 if (digit > 9) {
@@ -291,10 +308,32 @@ public class PaymentSimulatorService {
             }
 
             sum += digit;
+            digits++;
             alternate = !alternate;
         }
 
-        return sum % 10 == 0;
+        return digits >= 13 && digits <= 19 && sum % 10 == 0;
+    }
+
+    /**
+     * COMPRUEBO QUE LA CADENA SOLO TIENE DÍGITOS Y SU LONGITUD ESTÁ EN EL RANGO
+     *
+     * @param value cadena a comprobar
+     * @param min longitud mínima
+     * @param max longitud máxima
+     * @return true si son solo dígitos con esa longitud
+     */
+    private boolean isDigits(String value, int min, int max) {
+        if (value.length() < min || value.length() > max) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -334,10 +373,12 @@ public class PaymentSimulatorService {
 
     /**
      * OBTENGO EL ESTADO DE UNA TRANSACCIÓN
+     * NO ES readOnly PARA LEER DE LA PRIMARIA: EL SONDEO DEL CHECKOUT NECESITA EL ESTADO RECIÉN ESCRITO
      *
      * @param referenceCode código de referencia
      * @return transacción si existe
      */
+    @Transactional
     public PaymentTransaction getTransactionStatus(String referenceCode) {
         return paymentTransactionRepository.findByReferenceCode(referenceCode).orElse(null);
     }
@@ -352,6 +393,66 @@ public class PaymentSimulatorService {
         return paymentTransactionRepository.findAllTransactionsByUser(user);
     }
 
+    /**
+     * OBTENGO UNA PÁGINA DEL HISTORIAL DE PAGOS DE UN USUARIO
+     *
+     * @param user el usuario
+     * @param statusFilter filtro de la vista: COMPLETED, FAILED, PENDING o vacío para todos
+     * @param search prefijo del código de referencia (opcional)
+     * @param page número de página (desde 0)
+     * @param size tamaño de página
+     * @return página de transacciones
+     */
+    public Page<PaymentTransaction> getUserPaymentHistoryPage(User user, String statusFilter, String search,
+                                                              int page, int size) {
+        String referencePrefix = escapeLike(search == null ? "" : search.trim()) + "%";
+        return paymentTransactionRepository.findHistoryPageByUser(
+                user, resolveStatusFilter(statusFilter), referencePrefix, PageRequest.of(page, size));
+    }
+
+    /**
+     * CUENTO LOS PAGOS DE UN USUARIO POR ESTADO CON UNA SOLA CONSULTA GROUP BY
+     *
+     * @param user el usuario
+     * @return mapa estado -> número de transacciones
+     */
+    public Map<PaymentStatus, Long> getUserPaymentStatusCounts(User user) {
+        Map<PaymentStatus, Long> counts = new EnumMap<>(PaymentStatus.class);
+        for (Object[] row : paymentTransactionRepository.countByStatusForUser(user)) {
+            counts.put((PaymentStatus) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    /**
+     * TRADUZCO EL FILTRO DE LA VISTA A LOS ESTADOS QUE INCLUYE
+     *
+     * @param statusFilter filtro recibido
+     * @return estados a consultar
+     */
+    private List<PaymentStatus> resolveStatusFilter(String statusFilter) {
+        if (statusFilter == null || statusFilter.isBlank()) {
+            return List.of(PaymentStatus.values());
+        }
+
+        return switch (statusFilter.trim().toUpperCase()) {
+            case "COMPLETED" -> List.of(PaymentStatus.COMPLETED);
+            case "FAILED" -> Arrays.stream(PaymentStatus.values()).filter(PaymentStatus::isFailed).toList();
+            case "PENDING" -> Arrays.stream(PaymentStatus.values()).filter(PaymentStatus::isInProgress).toList();
+            default -> List.of(PaymentStatus.values());
+        };
+    }
+
+    /**
+     * ESCAPO LOS COMODINES DE LIKE PARA QUE EL PREFIJO SE BUSQUE LITERAL
+     *
+     * @param text texto a buscar
+     * @return texto con \, % y _ escapados
+     */
+    private String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     /**
      * OBTENGO TARJETAS DE PRUEBA PARA MOSTRAR AL USUARIO
      *
@@ -371,15 +472,16 @@ public class PaymentSimulatorService {
      * LOG DEL RESULTADO DEL PAGO
      *
      * @param transaction transacción procesada
-     * @param result resultado obtenido
+     * @param result respuesta de la pasarela
      */
-    private void logPaymentResult(PaymentTransaction transaction, PaymentResult result) {
+    private void logPaymentResult(PaymentTransaction transaction, PaymentGatewaySimulator.GatewayResponse result) {
         String message = String.format(
-                "PAGO PROCESADO - TXN: %s, Usuario: %s, Monto: %s, Estado: %s",
+                "PAGO PROCESADO - TXN: %s, Usuario: %s, Monto: %s, Estado: %s, Latencia: %d ms",
                 transaction.getReferenceCode(),
                 transaction.getUser().getUsername(),
                 transaction.getFormattedAmount(),
-                result.getStatus()
+                result.getStatus(),
+                result.getLatencyMs()
         );
 
         System.out.println("💳 " + message);
@@ -388,22 +490,4 @@ public class PaymentSimulatorService {
             System.out.println("❌ Error: " + result.getErrorMessage());
         }
     }
-
-    // ==================== CLASE AUXILIAR PARA RESULTADOS ====================
-
-    /**
-     * CLASE PARA ENCAPSULAR RESULTADOS DE PAGO
-     */
-    private static class PaymentResult {
-        private final PaymentStatus status;
-        private final String errorMessage;
-
-        public PaymentResult(PaymentStatus status, String errorMessage) {
-            this.status = status;
-            this.errorMessage = errorMessage;
-        }
-
-        public PaymentStatus getStatus() { return status; }
-        public String getErrorMessage() { return errorMessage; }
-    }
-}
\ No newline at end of file
+}
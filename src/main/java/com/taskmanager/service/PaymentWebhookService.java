@@ -0,0 +1,669 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.PaymentStatus;
+import com.taskmanager.model.PaymentTransaction;
+import com.taskmanager.model.PaymentWebhookInboxEntry;
+import com.taskmanager.repository.PaymentTransactionRepository;
+import com.taskmanager.repository.PaymentWebhookInboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SERVICIO QUE RECIBE LAS NOTIFICACIONES WEBHOOK DE LA PASARELA DE PAGOS
+ * EL HILO HTTP SOLO LAS PASA A UN ESCRITOR QUE LAS GUARDA EN LA BANDEJA DE ENTRADA POR LOTES
+ * (UN BATCH JDBC; LOS REENVÍOS LOS DESCARTA LA RESTRICCIÓN ÚNICA DE event_id) Y LAS ENCOLA EN MEMORIA;
+ * UN GRUPO DE TRABAJADORES LAS APLICA EN LOTES, ASÍ LOS PICOS DE CALLBACKS NO OCUPAN LOS HILOS HTTP
+ *
+ * LA BANDEJA HACE QUE UN 202 NO SE PIERDA: SI UN LOTE FALLA SE REINTENTA NOTIFICACIÓN A NOTIFICACIÓN
+ * Y LO QUE QUEDE PENDIENTE (FALLOS, COLA PERDIDA EN UNA CAÍDA) LO VUELVE A ENCOLAR EL BARRIDO
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Service
+public class PaymentWebhookService {
+
+    @Autowired
+    private PaymentTransactionRepository paymentTransactionRepository;
+
+    @Autowired
+    private PaymentOutboxService paymentOutboxService;
+
+    @Autowired
+    private PaymentWebhookInboxRepository inboxRepository;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // IDS PARA EL LOTE: UN VALOR DE LA SECUENCIA POR FILA, COMO LOS INSERTS A MANO DE V4 (NO CHOCAN CON
+    // LOS BLOQUES QUE RESERVA HIBERNATE); CONOCER EL ID DICE DESPUÉS QUÉ FILAS SE GUARDARON
+    private static final String POSTGRES_NEXT_IDS =
+            "select nextval('payment_webhook_inbox_seq') from generate_series(1, ?)";
+    private static final String H2_NEXT_IDS =
+            "select next value for payment_webhook_inbox_seq from system_range(1, ?)";
+
+    // INSERT QUE DESCARTA LOS event_id YA GUARDADOS (REENVÍOS) SIN ROMPER EL LOTE
+    private static final String POSTGRES_INSERT = "insert into payment_webhook_inbox (id, event_id, reference_code, "
+            + "payment_status, error_message, received_at, attempts) values (?, ?, ?, ?, ?, ?, 0) "
+            + "on conflict (event_id) do nothing";
+    private static final String H2_INSERT = "merge into payment_webhook_inbox i using (select cast(? as bigint) as id, "
+            + "cast(? as varchar(100)) as event_id, cast(? as varchar(100)) as reference_code, "
+            + "cast(? as varchar(255)) as payment_status, cast(? as varchar(500)) as error_message, "
+            + "cast(? as timestamp(6)) as received_at) v on i.event_id = v.event_id "
+            + "when not matched then insert (id, event_id, reference_code, payment_status, error_message, received_at, "
+            + "attempts) values (v.id, v.event_id, v.reference_code, v.payment_status, v.error_message, v.received_at, 0)";
+
+    // SECRETO DE DESARROLLO DE application.properties: ES PÚBLICO, NUNCA VALE EN PRODUCCIÓN
+    private static final String DEV_SECRET = "dev-webhook-secret";
+
+    // SECRETO COMPARTIDO CON LA PASARELA PARA FIRMAR LOS WEBHOOKS
+    @Value("${app.payment.webhook.secret}")
+    private String secret;
+
+    @Value("${app.payment.webhook.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.payment.webhook.workers:2}")
+    private int workers;
+
+    @Value("${app.payment.webhook.batch-size:200}")
+    private int batchSize;
+
+    // TIEMPO QUE SE CONSERVA UNA NOTIFICACIÓN APLICADA (Y SU ID DE EVENTO DESCARTA REENVÍOS)
+    @Value("${app.payment.webhook.dedupe-ttl-minutes:60}")
+    private long dedupeTtlMinutes;
+
+    // ANTIGÜEDAD A PARTIR DE LA QUE EL BARRIDO VUELVE A ENCOLAR UNA NOTIFICACIÓN PENDIENTE
+    @Value("${app.payment.webhook.recovery-delay-seconds:60}")
+    private long recoveryDelaySeconds;
+
+    // INTENTOS FALLIDOS TRAS LOS QUE UNA NOTIFICACIÓN SE QUEDA EN LA BANDEJA PARA REVISARLA A MANO
+    @Value("${app.payment.webhook.max-attempts:5}")
+    private int maxAttempts;
+
+    private volatile BlockingQueue<PaymentWebhookInboxEntry> queue;
+    private ExecutorService workerPool;
+    private volatile boolean running;
+
+    // NOTIFICACIONES ACEPTADAS QUE ESPERAN AL ESCRITOR DE LA BANDEJA
+    private BlockingQueue<PendingNotification> inboxQueue;
+    private ExecutorService inboxWriter;
+    private volatile boolean accepting;
+
+    // POSTGRES USA INSERT ... ON CONFLICT; H2 (DESARROLLO Y TESTS) USA MERGE
+    private boolean postgres;
+
+    // IDS DE LA BANDEJA QUE ESTÁN EN LA COLA O APLICÁNDOSE EN ESTE NODO (EL BARRIDO LOS SALTA)
+    private final Set<Long> queuedIds = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger processedCount = new AtomicInteger();
+
+    public PaymentWebhookService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * VALIDO EL SECRETO Y ARRANCO EL ESCRITOR DE LA BANDEJA, LA COLA Y LOS TRABAJADORES AL INICIAR LA APLICACIÓN
+     */
+    @PostConstruct
+    public void init() {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("Falta el secreto de los webhooks de pagos: define PAYMENT_WEBHOOK_SECRET");
+        }
+        if (DEV_SECRET.equals(secret) && environment.acceptsProfiles(Profiles.of("prod"))) {
+            // CON LA CLAVE PUBLICADA EN EL REPOSITORIO CUALQUIERA PODRÍA FIRMAR UN PAGO COMPLETADO
+            throw new IllegalStateException("El perfil prod no puede usar el secreto de desarrollo de los webhooks "
+                    + "de pagos: define PAYMENT_WEBHOOK_SECRET");
+        }
+
+        postgres = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres")));
+
+        inboxQueue = new ArrayBlockingQueue<>(queueCapacity);
+        accepting = true;
+        inboxWriter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-webhook-inbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        inboxWriter.submit(this::inboxWriterLoop);
+
+        start();
+    }
+
+    /**
+     * PARO EL ESCRITOR GUARDANDO LO YA ACEPTADO Y DESPUÉS LOS TRABAJADORES
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        accepting = false;
+        inboxWriter.shutdown();
+        if (!inboxWriter.awaitTermination(10, TimeUnit.SECONDS)) {
+            inboxWriter.shutdownNow();
+        }
+        stop();
+    }
+
+    /**
+     * ARRANCO LA COLA Y LOS TRABAJADORES QUE APLICAN LAS NOTIFICACIONES
+     * SE PUEDEN PARAR Y ARRANCAR SIN TOCAR EL ESCRITOR: LO ACEPTADO MIENTRAS TANTO LO RECUPERA EL BARRIDO
+     */
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        queuedIds.clear();
+        running = true;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        workerPool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "payment-webhook-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        for (int i = 0; i < workers; i++) {
+            workerPool.submit(this::workerLoop);
+        }
+    }
+
+    /**
+     * PARO LOS TRABAJADORES DRENANDO LO QUE QUEDE EN LA COLA
+     */
+    public void stop() throws InterruptedException {
+        running = false;
+        workerPool.shutdown();
+        if (!workerPool.awaitTermination(10, TimeUnit.SECONDS)) {
+            workerPool.shutdownNow();
+        }
+    }
+
+    /**
+     * VERIFICO LA FIRMA HMAC-SHA256 DEL CUERPO RECIBIDO
+     * LA COMPARACIÓN ES EN TIEMPO CONSTANTE PARA NO FILTRAR INFORMACIÓN
+     *
+     * @param body cuerpo crudo de la petición
+     * @param signature firma en hexadecimal enviada por la pasarela
+     * @return true si la firma es válida
+     */
+    public boolean verifySignature(byte[] body, String signature) {
+        if (signature == null || signature.isBlank()) {
+            return false;
+        }
+
+        byte[] expected = sign(body);
+        byte[] received;
+        try {
+            received = HexFormat.of().parseHex(signature.trim().toLowerCase());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+
+        return MessageDigest.isEqual(expected, received);
+    }
+
+    /**
+     * CALCULO LA FIRMA HMAC-SHA256 DE UN CUERPO
+     *
+     * @param body bytes a firmar
+     * @return firma cruda
+     */
+    public byte[] sign(byte[] body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac.doFinal(body);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("No se pudo calcular la firma del webhook", e);
+        }
+    }
+
+    /**
+     * ACEPTO UNA NOTIFICACIÓN SIN TOCAR LA BD: LA PASO AL ESCRITOR DE LA BANDEJA
+     * EL RESULTADO SE COMPLETA CUANDO SU LOTE SE CONFIRMA, ASÍ EL 202 SOLO SALE CON LA FILA GUARDADA
+     * CON LA COLA LLENA NO GUARDO NADA, ASÍ EL 503 DEJA QUE LA PASARELA REINTENTE
+     *
+     * @param notification notificación ya verificada
+     * @return resultado de la aceptación; falla si no se pudo guardar
+     */
+    public CompletableFuture<EnqueueResult> enqueue(WebhookNotification notification) {
+        if (!accepting || queue.remainingCapacity() == 0) {
+            return CompletableFuture.completedFuture(EnqueueResult.QUEUE_FULL);
+        }
+
+        PendingNotification pending = new PendingNotification(new PaymentWebhookInboxEntry(
+                notification.getEventId(), notification.getReferenceCode(),
+                notification.getStatus(), notification.getErrorMessage()));
+        if (!inboxQueue.offer(pending)) {
+            return CompletableFuture.completedFuture(EnqueueResult.QUEUE_FULL);
+        }
+        return pending.result;
+    }
+
+    /**
+     * OBTENGO EL NÚMERO DE NOTIFICACIONES EN ESPERA
+     *
+     * @return tamaño actual de la cola
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * OBTENGO EL NÚMERO DE NOTIFICACIONES APLICADAS DESDE EL ARRANQUE
+     *
+     * @return notificaciones procesadas
+     */
+    public int getProcessedCount() {
+        return processedCount.get();
+    }
+
+    /**
+     * BORRO LAS NOTIFICACIONES APLICADAS QUE YA SUPERARON EL TIEMPO DE DEDUPLICACIÓN
+     *
+     * @return número de entradas eliminadas
+     */
+    @Scheduled(fixedDelayString = "${app.payment.webhook.dedupe-cleanup-interval-ms:60000}")
+    public int purgeProcessedNotifications() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(dedupeTtlMinutes);
+        return transactionTemplate.execute(status -> inboxRepository.deleteProcessedBefore(cutoff));
+    }
+
+    /**
+     * BARRIDO DE RECUPERACIÓN: VUELVO A ENCOLAR LAS NOTIFICACIONES PENDIENTES ANTIGUAS
+     * (LOTES FALLIDOS, LA COLA PERDIDA EN UNA CAÍDA O LAS QUE NO CUPIERON) MIENTRAS HAYA SITIO
+     *
+     * @return número de notificaciones encoladas
+     */
+    @Scheduled(fixedDelayString = "${app.payment.webhook.recovery-interval-ms:30000}")
+    public int requeuePendingNotifications() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(recoveryDelaySeconds);
+        List<PaymentWebhookInboxEntry> pending = inboxRepository.findPending(cutoff, maxAttempts,
+                PageRequest.of(0, Math.max(queue.remainingCapacity(), 1)));
+
+        int requeued = 0;
+        for (PaymentWebhookInboxEntry entry : pending) {
+            if (queuedIds.contains(entry.getId())) {
+                continue;
+            }
+            if (!offer(entry)) {
+                break;
+            }
+            requeued++;
+        }
+
+        if (requeued > 0) {
+            System.out.println("🔁 WEBHOOKS PENDIENTES ENCOLADOS DE NUEVO: " + requeued);
+        }
+        return requeued;
+    }
+
+    /**
+     * ENCOLO UNA ENTRADA DE LA BANDEJA SI NO ESTÁ YA EN LA COLA DE ESTE NODO
+     *
+     * @param entry entrada guardada
+     * @return false si la cola está llena
+     */
+    private boolean offer(PaymentWebhookInboxEntry entry) {
+        if (!queuedIds.add(entry.getId())) {
+            return true;
+        }
+        if (!queue.offer(entry)) {
+            queuedIds.remove(entry.getId());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * BUCLE DEL ESCRITOR DE LA BANDEJA: ESPERA UNA NOTIFICACIÓN Y GUARDA DE UNA VEZ TODAS LAS QUE HAYAN
+     * LLEGADO MIENTRAS TANTO; CON MÁS CARGA LOS LOTES CRECEN Y LOS VIAJES A LA BD NO
+     */
+    private void inboxWriterLoop() {
+        List<PendingNotification> batch = new ArrayList<>(batchSize);
+
+        while (accepting || !inboxQueue.isEmpty()) {
+            try {
+                PendingNotification first = inboxQueue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                inboxQueue.drainTo(batch, batchSize - 1);
+                storeBatch(batch);
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                System.out.println("❌ ERROR EN EL ESCRITOR DE WEBHOOKS: " + e.getMessage());
+            } finally {
+                batch.forEach(pending -> pending.result.complete(EnqueueResult.QUEUE_FULL));
+                batch.clear();
+            }
+        }
+
+        // LAS QUE ENTRARON JUSTO AL PARAR NO SE GUARDAN: 503 PARA QUE LA PASARELA REINTENTE
+        PendingNotification pending;
+        while ((pending = inboxQueue.poll()) != null) {
+            pending.result.complete(EnqueueResult.QUEUE_FULL);
+        }
+    }
+
+    /**
+     * GUARDO UN LOTE EN LA BANDEJA, ENCOLO LAS NUEVAS Y COMPLETO EL RESULTADO DE CADA PETICIÓN
+     * SI EL LOTE FALLA LO REPITO UNA VEZ (EN H2 OTRO NODO PUEDE GUARDAR EL MISMO event_id ENTRE EL MERGE
+     * Y EL COMMIT); SI VUELVE A FALLAR LAS PETICIONES RESPONDEN 503 Y LA PASARELA REINTENTA
+     *
+     * @param batch notificaciones aceptadas por los hilos HTTP
+     */
+    private void storeBatch(List<PendingNotification> batch) {
+        Set<Long> inserted;
+        try {
+            inserted = insertBatch(batch);
+        } catch (DataIntegrityViolationException e) {
+            try {
+                inserted = insertBatch(batch);
+            } catch (RuntimeException retryError) {
+                failBatch(batch, retryError);
+                return;
+            }
+        } catch (RuntimeException e) {
+            failBatch(batch, e);
+            return;
+        }
+
+        for (PendingNotification pending : batch) {
+            if (inserted.contains(pending.entry.getId())) {
+                // SI LA COLA SE LLENÓ MIENTRAS TANTO LA ENTRADA YA ESTÁ GUARDADA: LA ENCOLARÁ EL BARRIDO
+                offer(pending.entry);
+                pending.result.complete(EnqueueResult.ACCEPTED);
+            } else {
+                pending.result.complete(EnqueueResult.DUPLICATE);
+            }
+        }
+    }
+
+    /**
+     * INSERTO EL LOTE EN UNA TRANSACCIÓN: UNA CONSULTA DE IDS, UN BATCH JDBC Y UNA CONSULTA DE LOS IDS GUARDADOS
+     * LA FILA DE UN event_id YA GUARDADO (O REPETIDO EN EL MISMO LOTE) NO SE INSERTA Y SU ID NO APARECE
+     *
+     * @param batch notificaciones a guardar
+     * @return ids de las entradas que se insertaron
+     */
+    private Set<Long> insertBatch(List<PendingNotification> batch) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(postgres ? POSTGRES_NEXT_IDS : H2_NEXT_IDS, Long.class,
+                    batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).entry.setId(ids.get(i));
+            }
+
+            jdbcTemplate.batchUpdate(postgres ? POSTGRES_INSERT : H2_INSERT, batch, batch.size(), (statement, pending) -> {
+                PaymentWebhookInboxEntry entry = pending.entry;
+                statement.setLong(1, entry.getId());
+                statement.setString(2, entry.getEventId());
+                statement.setString(3, entry.getReferenceCode());
+                statement.setString(4, entry.getPaymentStatus().name());
+                statement.setString(5, entry.getErrorMessage());
+                statement.setTimestamp(6, Timestamp.valueOf(entry.getReceivedAt()));
+            });
+
+            return new HashSet<>(inboxRepository.findExistingIds(ids));
+        });
+    }
+
+    /**
+     * RESPONDO 503 A LAS PETICIONES DE UN LOTE QUE NO SE PUDO GUARDAR
+     *
+     * @param batch notificaciones del lote
+     * @param error error producido
+     */
+    private void failBatch(List<PendingNotification> batch, RuntimeException error) {
+        System.out.println("❌ ERROR GUARDANDO LOTE DE WEBHOOKS (" + batch.size() + "): " + error.getMessage());
+        batch.forEach(pending -> pending.result.completeExceptionally(error));
+    }
+
+    /**
+     * BUCLE DE CADA TRABAJADOR: ESPERA UNA NOTIFICACIÓN Y DRENA HASTA COMPLETAR EL LOTE
+     */
+    private void workerLoop() {
+        List<PaymentWebhookInboxEntry> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PaymentWebhookInboxEntry first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                applyBatchOrEach(batch);
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.forEach(entry -> queuedIds.remove(entry.getId()));
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * APLICO UN LOTE Y, SI FALLA, CADA NOTIFICACIÓN POR SEPARADO
+     * ASÍ UNA FILA MALA NO DESHACE LAS DEMÁS; LAS QUE FALLAN SE QUEDAN PENDIENTES CON SU INTENTO
+     *
+     * @param batch entradas de la bandeja a aplicar
+     */
+    private void applyBatchOrEach(List<PaymentWebhookInboxEntry> batch) {
+        try {
+            applyBatch(batch);
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                registerFailure(batch.get(0), e);
+                return;
+            }
+            System.out.println("❌ ERROR APLICANDO LOTE DE WEBHOOKS, REINTENTO UNO A UNO: " + e.getMessage());
+        }
+
+        for (PaymentWebhookInboxEntry entry : batch) {
+            try {
+                applyBatch(List.of(entry));
+            } catch (RuntimeException e) {
+                registerFailure(entry, e);
+            }
+        }
+    }
+
+    /**
+     * APLICO UN LOTE DE NOTIFICACIONES EN UNA ÚNICA TRANSACCIÓN
+     * RECLAMO LAS ENTRADAS PENDIENTES, CARGO TODAS LAS TRANSACCIONES CON UNA CONSULTA
+     * Y APLICO CADA NOTIFICACIÓN EN ORDEN DE LLEGADA: COMPLETED Y LUEGO REFUNDED DEJA LOS DOS
+     * EVENTOS EN EL OUTBOX, Y UN COMPLETED QUE LLEGA DESPUÉS DE UN REFUNDED NO LO DESHACE
+     *
+     * @param batch entradas de la bandeja a aplicar
+     */
+    void applyBatch(List<PaymentWebhookInboxEntry> batch) {
+        Integer applied = transactionTemplate.execute(status -> {
+            List<PaymentWebhookInboxEntry> claimed = inboxRepository.claimPending(
+                    batch.stream().map(PaymentWebhookInboxEntry::getId).collect(Collectors.toList()));
+            if (claimed.isEmpty()) {
+                return 0;
+            }
+
+            Map<String, PaymentTransaction> transactions = paymentTransactionRepository
+                    .findByReferenceCodeIn(claimed.stream()
+                            .map(PaymentWebhookInboxEntry::getReferenceCode)
+                            .collect(Collectors.toSet()))
+                    .stream()
+                    .collect(Collectors.toMap(PaymentTransaction::getReferenceCode, Function.identity()));
+
+            Set<PaymentTransaction> updated = new LinkedHashSet<>();
+            for (PaymentWebhookInboxEntry entry : claimed) {
+                entry.markProcessed();
+
+                PaymentTransaction transaction = transactions.get(entry.getReferenceCode());
+                if (transaction == null || !canTransition(transaction.getStatus(), entry.getPaymentStatus())) {
+                    continue;
+                }
+
+                if (transaction.getStatus().isInProgress() && isReversal(entry.getPaymentStatus())) {
+                    // EL REEMBOLSO LLEGÓ ANTES QUE EL COMPLETED: EL PAGO SE COMPLETÓ, LO REGISTRO PRIMERO
+                    // PARA QUE LOS AGREGADOS RESTEN DE UN COMPLETED QUE SÍ SE SUMÓ
+                    transaction.setStatus(PaymentStatus.COMPLETED);
+                    paymentOutboxService.recordFinalStatus(transaction);
+                }
+
+                transaction.setStatus(entry.getPaymentStatus());
+                transaction.setErrorMessage(entry.getErrorMessage());
+                paymentOutboxService.recordFinalStatus(transaction);
+                updated.add(transaction);
+            }
+
+            paymentTransactionRepository.saveAll(updated);
+            return claimed.size();
+        });
+
+        if (applied != null && applied > 0) {
+            processedCount.addAndGet(applied);
+            System.out.println("🔗 LOTE DE WEBHOOKS APLICADO - Notificaciones: " + applied);
+        }
+    }
+
+    /**
+     * REGISTRO EL FALLO DE UNA NOTIFICACIÓN; SE QUEDA PENDIENTE PARA EL BARRIDO
+     *
+     * @param entry entrada que no se pudo aplicar
+     * @param error error producido
+     */
+    private void registerFailure(PaymentWebhookInboxEntry entry, RuntimeException error) {
+        String message = error.getMessage() != null && error.getMessage().length() > 500
+                ? error.getMessage().substring(0, 500) : error.getMessage();
+        try {
+            transactionTemplate.executeWithoutResult(status -> inboxRepository.registerFailure(entry.getId(), message));
+        } catch (RuntimeException e) {
+            System.out.println("❌ NO SE PUDO REGISTRAR EL FALLO DEL WEBHOOK " + entry.getEventId() + ": " + e.getMessage());
+        }
+        System.out.println("❌ ERROR APLICANDO WEBHOOK " + entry.getEventId() + ": " + error.getMessage());
+    }
+
+    /**
+     * VERIFICO SI UN WEBHOOK PUEDE CAMBIAR EL ESTADO ACTUAL
+     * SOLO SE FINALIZAN PAGOS EN CURSO, SALVO REEMBOLSOS Y DISPUTAS DE PAGOS COMPLETADOS
+     *
+     * @param current estado actual
+     * @param target estado notificado
+     * @return true si se debe aplicar
+     */
+    private boolean canTransition(PaymentStatus current, PaymentStatus target) {
+        if (current == target || !target.isFinalized()) {
+            return false;
+        }
+
+        if (current.isInProgress()) {
+            return true;
+        }
+
+        return current == PaymentStatus.COMPLETED && isReversal(target);
+    }
+
+    /**
+     * VERIFICO SI UN ESTADO DESHACE UN PAGO COMPLETADO (REEMBOLSO O DISPUTA)
+     *
+     * @param status estado notificado
+     * @return true si solo tiene sentido después de COMPLETED
+     */
+    private boolean isReversal(PaymentStatus status) {
+        return status == PaymentStatus.REFUNDED || status == PaymentStatus.DISPUTED;
+    }
+
+    // ==================== CLASES AUXILIARES ====================
+
+    /**
+     * RESULTADO DE INTENTAR ENCOLAR UNA NOTIFICACIÓN
+     */
+    public enum EnqueueResult {
+        ACCEPTED,
+        DUPLICATE,
+        QUEUE_FULL
+    }
+
+    /**
+     * NOTIFICACIÓN ACEPTADA QUE ESPERA AL ESCRITOR, CON EL RESULTADO QUE ESPERA SU PETICIÓN
+     * LA FECHA DE LLEGADA ES LA DE LA PETICIÓN, NO LA DEL LOTE
+     */
+    private static class PendingNotification {
+        private final PaymentWebhookInboxEntry entry;
+        private final CompletableFuture<EnqueueResult> result = new CompletableFuture<>();
+
+        private PendingNotification(PaymentWebhookInboxEntry entry) {
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * NOTIFICACIÓN DE LA PASARELA YA VALIDADA
+     */
+    public static class WebhookNotification {
+        private final String eventId;
+        private final String referenceCode;
+        private final PaymentStatus status;
+        private final String errorMessage;
+
+        public WebhookNotification(String eventId, String referenceCode, PaymentStatus status, String errorMessage) {
+            this.eventId = eventId;
+            this.referenceCode = referenceCode;
+            this.status = status;
+            this.errorMessage = errorMessage;
+        }
+
+        public String getEventId() { return eventId; }
+        public String getReferenceCode() { return referenceCode; }
+        public PaymentStatus getStatus() { return status; }
+        public String getErrorMessage() { return errorMessage; }
+    }
+}
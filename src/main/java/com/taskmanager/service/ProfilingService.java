@@ -0,0 +1,276 @@
+package com.taskmanager.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SERVICIO DEL MODO DE PERFILADO (app.profiling.enabled)
+ * ACUMULA EN MEMORIA LO QUE MIDEN RequestProfilingFilter Y ServiceProfilingAspect (DURACIÓN,
+ * MEMORIA RESERVADA POR EL HILO Y CONSULTAS SQL) PARA EL RESUMEN DE /actuator/profiling
+ *
+ * AL ARRANCAR INICIA UNA GRABACIÓN JFR CON LA PLANTILLA jfr/taskmanager.jfc (NUESTROS EVENTOS,
+ * MUESTREO DE RESERVAS Y GC) QUE SE VUELCA AL FICHERO AL PARAR LA APLICACIÓN O CON
+ * jcmd PID JFR.dump name=taskmanager filename=... SIN ADJUNTAR NINGÚN PROFILER EXTERNO
+ *
+ * LA MEMORIA RESERVADA LA DA com.sun.management.ThreadMXBean; SI LA JVM NO LA SOPORTA SE QUEDA EN 0
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Service
+@ConditionalOnProperty(name = "app.profiling.enabled", havingValue = "true")
+public class ProfilingService {
+
+    public static final String RECORDING_NAME = "taskmanager";
+
+    private static final String RECORDING_TEMPLATE = "jfr/taskmanager.jfc";
+
+    // INICIAR LA GRABACIÓN JFR AL ARRANCAR
+    @Value("${app.profiling.recording.enabled:true}")
+    private boolean recordingEnabled;
+
+    // FICHERO DONDE SE VUELCA LA GRABACIÓN AL PARAR
+    @Value("${app.profiling.recording.file:taskmanager-profile.jfr}")
+    private String recordingFile;
+
+    // MINUTOS DE HISTORIA QUE GUARDA LA GRABACIÓN
+    @Value("${app.profiling.recording.max-age-minutes:30}")
+    private long recordingMaxAgeMinutes;
+
+    // TAMAÑO MÁXIMO DE LA GRABACIÓN EN DISCO
+    @Value("${app.profiling.recording.max-size-mb:250}")
+    private long recordingMaxSizeMb;
+
+    // ENTRADAS DE CADA LISTA DEL RESUMEN
+    @Value("${app.profiling.summary.top:20}")
+    private int summaryTop;
+
+    private final com.sun.management.ThreadMXBean threadBean = threadBean();
+
+    // "GET /api/sync" -> ESTADÍSTICAS
+    private final Map<String, Stats> requestStats = new ConcurrentHashMap<>();
+
+    // "TaskService.getTasksByUser" -> ESTADÍSTICAS
+    private final Map<String, Stats> serviceMethodStats = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime since = LocalDateTime.now();
+
+    private Recording recording;
+
+    /**
+     * INICIO LA GRABACIÓN JFR CON LA PLANTILLA DEL PROYECTO
+     *
+     * @throws Exception si no se puede leer la plantilla
+     */
+    @PostConstruct
+    public void init() throws Exception {
+        System.out.println("🔬 Modo de perfilado activo (memoria por hilo: "
+                + (isAllocationSupported() ? "sí" : "no disponible") + ")");
+        if (!recordingEnabled) {
+            return;
+        }
+
+        try (Reader reader = new InputStreamReader(
+                new ClassPathResource(RECORDING_TEMPLATE).getInputStream(), StandardCharsets.UTF_8)) {
+            recording = new Recording(Configuration.create(reader));
+        }
+        recording.setName(RECORDING_NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(Duration.ofMinutes(recordingMaxAgeMinutes));
+        recording.setMaxSize(recordingMaxSizeMb * 1024 * 1024);
+        recording.setDestination(Path.of(recordingFile));
+        recording.start();
+        System.out.println("🔬 Grabación JFR '" + RECORDING_NAME + "' iniciada, se vuelca en " + recordingFile);
+    }
+
+    /**
+     * PARO LA GRABACIÓN, QUE SE ESCRIBE EN EL FICHERO DE DESTINO
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (recording == null) {
+            return;
+        }
+        try {
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+                System.out.println("🔬 Grabación JFR guardada en " + recordingFile);
+            }
+        } catch (Exception e) {
+            System.out.println("⚠️ No se pudo guardar la grabación JFR: " + e.getMessage());
+        } finally {
+            recording.close();
+        }
+    }
+
+    /**
+     * DEVUELVO LOS BYTES QUE HA RESERVADO EL HILO ACTUAL DESDE QUE EMPEZÓ
+     *
+     * @return bytes reservados, o -1 si la JVM no lo soporta para este hilo
+     */
+    public long currentThreadAllocatedBytes() {
+        return threadBean != null ? threadBean.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    /**
+     * INDICO SI SE PUEDE MEDIR LA MEMORIA RESERVADA POR HILO
+     *
+     * @return true si las medidas de memoria son reales
+     */
+    public boolean isAllocationSupported() {
+        return threadBean != null;
+    }
+
+    /**
+     * ACUMULO UNA PETICIÓN HTTP
+     *
+     * @param route "MÉTODO patrón" de la petición
+     * @param nanos duración
+     * @param allocatedBytes memoria reservada
+     * @param queries consultas SQL
+     */
+    public void recordRequest(String route, long nanos, long allocatedBytes, long queries) {
+        requestStats.computeIfAbsent(route, Stats::new).add(nanos, allocatedBytes, queries);
+    }
+
+    /**
+     * ACUMULO UNA LLAMADA A UN MÉTODO DE SERVICIO
+     *
+     * @param method "Servicio.método"
+     * @param nanos duración
+     * @param allocatedBytes memoria reservada
+     * @param queries consultas SQL
+     */
+    public void recordServiceMethod(String method, long nanos, long allocatedBytes, long queries) {
+        serviceMethodStats.computeIfAbsent(method, Stats::new).add(nanos, allocatedBytes, queries);
+    }
+
+    /**
+     * DEVUELVO LAS PETICIONES QUE MÁS MEMORIA HAN RESERVADO EN TOTAL
+     *
+     * @return las summary.top primeras
+     */
+    public List<Stats> getTopRequests() {
+        return top(requestStats);
+    }
+
+    /**
+     * DEVUELVO LOS MÉTODOS DE SERVICIO QUE MÁS MEMORIA HAN RESERVADO EN TOTAL
+     *
+     * @return los summary.top primeros
+     */
+    public List<Stats> getTopServiceMethods() {
+        return top(serviceMethodStats);
+    }
+
+    /**
+     * BORRO LO ACUMULADO PARA EMPEZAR UNA MEDIDA NUEVA (LA GRABACIÓN JFR SIGUE)
+     */
+    public void reset() {
+        requestStats.clear();
+        serviceMethodStats.clear();
+        since = LocalDateTime.now();
+    }
+
+    public LocalDateTime getSince() { return since; }
+    public Recording getRecording() { return recording; }
+    public String getRecordingFile() { return recordingFile; }
+
+    /**
+     * ORDENO POR MEMORIA TOTAL RESERVADA, QUE ES LO QUE PRESIONA AL GC
+     *
+     * @param stats estadísticas acumuladas
+     * @return las summary.top primeras
+     */
+    private List<Stats> top(Map<String, Stats> stats) {
+        List<Stats> sorted = new ArrayList<>(stats.values());
+        sorted.sort(Comparator.comparingLong(Stats::getTotalAllocatedBytes).reversed());
+        return sorted.size() > summaryTop ? sorted.subList(0, summaryTop) : sorted;
+    }
+
+    /**
+     * OBTENGO EL ThreadMXBean DE HOTSPOT CON LA MEMORIA RESERVADA POR HILO ACTIVADA
+     *
+     * @return el bean, o null si la JVM no lo soporta
+     */
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            if (!bean.isThreadAllocatedMemoryEnabled()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return bean;
+        }
+        return null;
+    }
+
+    /**
+     * ESTADÍSTICAS ACUMULADAS DE UNA RUTA O UN MÉTODO
+     * SE ACTUALIZAN DESDE MUCHOS HILOS A LA VEZ SIN BLOQUEOS
+     */
+    public static class Stats {
+
+        private final String name;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder totalAllocatedBytes = new LongAdder();
+        private final LongAccumulator maxAllocatedBytes = new LongAccumulator(Math::max, 0);
+        private final LongAdder totalQueries = new LongAdder();
+        private final LongAccumulator maxQueries = new LongAccumulator(Math::max, 0);
+
+        public Stats(String name) {
+            this.name = name;
+        }
+
+        void add(long nanos, long allocatedBytes, long queries) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            if (allocatedBytes > 0) {
+                totalAllocatedBytes.add(allocatedBytes);
+                maxAllocatedBytes.accumulate(allocatedBytes);
+            }
+            totalQueries.add(queries);
+            maxQueries.accumulate(queries);
+        }
+
+        public String getName() { return name; }
+        public long getCount() { return count.sum(); }
+        public double getAvgMs() { return average(TimeUnit.NANOSECONDS.toMicros(totalNanos.sum())) / 1000.0; }
+        public double getMaxMs() { return TimeUnit.NANOSECONDS.toMicros(maxNanos.get()) / 1000.0; }
+        public long getTotalAllocatedBytes() { return totalAllocatedBytes.sum(); }
+        public long getAvgAllocatedBytes() { return Math.round(average(totalAllocatedBytes.sum())); }
+        public long getMaxAllocatedBytes() { return maxAllocatedBytes.get(); }
+        public double getAvgQueries() { return Math.round(average(totalQueries.sum()) * 100) / 100.0; }
+        public long getMaxQueries() { return maxQueries.get(); }
+
+        private double average(long total) {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) total / n;
+        }
+    }
+}
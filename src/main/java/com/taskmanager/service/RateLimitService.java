@@ -0,0 +1,138 @@
+package com.taskmanager.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.taskmanager.config.RateLimitProperties;
+import com.taskmanager.config.RateLimitProperties.Limit;
+import com.taskmanager.config.RateLimitProperties.Tier;
+import com.taskmanager.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SERVICIO QUE DECIDE SI UNA PETICIÓN CABE EN EL LÍMITE DE SU USUARIO PARA ESA RUTA
+ * CADA USUARIO TIENE SU PROPIO CUBO POR RUTA, ASÍ UN SCRIPT QUE MACHACA EL PAGO O LA API
+ * SOLO AGOTA SUS TOKENS Y NO LA BD DE LOS DEMÁS
+ *
+ * LOS CUBOS VIVEN EN MEMORIA EN UNA CACHÉ CAFFEINE ACOTADA QUE OLVIDA LOS INACTIVOS. EL NIVEL
+ * PREMIUM SE CONSULTA EN LA BD COMO MUCHO UNA VEZ POR tier-cache-seconds Y USUARIO; AL CAMBIAR
+ * DE NIVEL EL USUARIO ESTRENA CUBO PORQUE EL NIVEL FORMA PARTE DE LA CLAVE
+ *
+ * CON VARIAS INSTANCIAS CADA UNA LLEVA SUS CUBOS: EL LÍMITE EFECTIVO ES EL CONFIGURADO POR INSTANCIA
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Service
+public class RateLimitService {
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // USUARIO|RUTA|NIVEL -> CUBO
+    private Cache<String, TokenBucket> buckets;
+
+    // USUARIO -> TIENE SUSCRIPCIÓN PREMIUM ACTIVA
+    private Cache<String, Boolean> premiumUsers;
+
+    /**
+     * CREO LAS CACHÉS DE CUBOS Y DE NIVELES
+     */
+    @PostConstruct
+    public void init() {
+        buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(Duration.ofMinutes(properties.getIdleMinutes()))
+                .build();
+        premiumUsers = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterWrite(Duration.ofSeconds(properties.getTierCacheSeconds()))
+                .build();
+    }
+
+    /**
+     * INTENTO GASTAR UN TOKEN DEL USUARIO EN ESA RUTA
+     *
+     * @param username nombre del usuario autenticado
+     * @param admin true si tiene el rol ADMIN
+     * @param routeName nombre de la ruta limitada
+     * @param route configuración de la ruta
+     * @return 0 si la petición puede pasar; si no, segundos que debe esperar (Retry-After)
+     */
+    public long tryAcquire(String username, boolean admin, String routeName, RateLimitProperties.Route route) {
+        return tryAcquire(username, admin ? Tier.ADMIN : resolveSubscriptionTier(username), routeName, route);
+    }
+
+    /**
+     * INTENTO GASTAR UN TOKEN DEL USUARIO EN ESA RUTA CON UN NIVEL YA CONOCIDO
+     * LO USAN LAS PETICIONES CON TOKEN DE LA API, QUE TRAEN EL NIVEL FIRMADO Y NO CONSULTAN LA BD
+     *
+     * @param username nombre del usuario autenticado
+     * @param tier nivel del usuario
+     * @param routeName nombre de la ruta limitada
+     * @param route configuración de la ruta
+     * @return 0 si la petición puede pasar; si no, segundos que debe esperar (Retry-After)
+     */
+    public long tryAcquire(String username, Tier tier, String routeName, RateLimitProperties.Route route) {
+        Limit limit = route.getLimits().get(tier);
+        if (limit == null) {
+            return 0;
+        }
+
+        TokenBucket bucket = buckets.get(username + "|" + routeName + "|" + tier,
+                key -> new TokenBucket(limit.getCapacity(), limit.getRefillPerMinute(), System::nanoTime));
+        long waitNanos = bucket.tryConsume();
+        if (waitNanos == 0) {
+            return 0;
+        }
+
+        rejectedCounter(routeName, tier).increment();
+        // REDONDEO HACIA ARRIBA: CON UN Retry-After MENOR EL CLIENTE VOLVERÍA ANTES DE TENER TOKEN
+        long nanosPerSecond = TimeUnit.SECONDS.toNanos(1);
+        return (waitNanos + nanosPerSecond - 1) / nanosPerSecond;
+    }
+
+    /**
+     * OBTENGO EL NIVEL DE SUSCRIPCIÓN DE UN USUARIO QUE NO ES ADMIN
+     *
+     * @param username nombre del usuario
+     * @return PREMIUM si tiene un plan de pago activo, FREE en otro caso
+     */
+    private Tier resolveSubscriptionTier(String username) {
+        boolean premium = premiumUsers.get(username, key -> {
+            User user = userService.findByUsername(key);
+            return user != null && subscriptionService.hasActivePremiumSubscription(user);
+        });
+        return premium ? Tier.PREMIUM : Tier.FREE;
+    }
+
+    /**
+     * OBTENGO EL CONTADOR DE PETICIONES RECHAZADAS
+     *
+     * @param routeName ruta limitada
+     * @param tier nivel del usuario
+     * @return contador
+     */
+    private Counter rejectedCounter(String routeName, Tier tier) {
+        return Counter.builder("taskmanager.rate_limit.rejected")
+                .description("Peticiones rechazadas con 429 por el limitador")
+                .tag("route", routeName)
+                .tag("tier", tier.name().toLowerCase())
+                .register(meterRegistry);
+    }
+}
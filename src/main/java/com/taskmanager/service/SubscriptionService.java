@@ -1,6 +1,7 @@
 package com.taskmanager.service;
 
 import com.taskmanager.model.*;
+import com.taskmanager.repository.PaymentTransactionRepository;
 import com.taskmanager.repository.SubscriptionPlanRepository;
 import com.taskmanager.repository.UserSubscriptionRepository;
 import com.taskmanager.repository.TaskRepository;
@@ -10,18 +11,20 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * SERVICIO QUE MANEJA TODA LA LÓGICA DE NEGOCIO DE LAS SUSCRIPCIONES
  * GESTIONA PLANES, LÍMITES Y VALIDACIONES DEL SISTEMA PREMIUM
+ * LAS CONSULTAS SON DE SOLO LECTURA (SIN FLUSH NI SNAPSHOTS); LOS MÉTODOS QUE ESCRIBEN LLEVAN @Transactional
  *
  * @author Mario Flores
  * @version 1.0
  */
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class SubscriptionService {
 
     @Autowired
@@ -36,6 +39,9 @@ public class SubscriptionService {
     @Autowired
     private TaskLocationRepository taskLocationRepository;
 
+    @Autowired
+    private PaymentTransactionRepository paymentTransactionRepository;
+
     // ==================== GESTIÓN DE PLANES ====================
 
     /**
@@ -108,19 +114,41 @@ public class SubscriptionService {
         return userSubscriptionRepository.hasPremiumSubscription(user);
     }
 
+    /**
+     * OBTENGO LA SUSCRIPCIÓN ACTIVA Y, SI NO TIENE NINGUNA, LE CREO LA GRATUITA
+     * CONSULTA Y ALTA EN UNA SOLA TRANSACCIÓN
+     *
+     * @param user el usuario
+     * @return la suscripción activa
+     */
+    @Transactional
+    public UserSubscription getOrCreateActiveSubscription(User user) {
+        UserSubscription subscription = getUserActiveSubscription(user);
+        return subscription != null ? subscription : createFreeSubscription(user);
+    }
+
     /**
      * CREO UNA SUSCRIPCIÓN GRATUITA PARA UN NUEVO USUARIO
      *
      * @param user usuario recién registrado
      * @return la suscripción creada
      */
+    @Transactional
     public UserSubscription createFreeSubscription(User user) {
-        SubscriptionPlan freePlan = getFreePlan();
+        return userSubscriptionRepository.save(newFreeSubscription(user, getFreePlan()));
+    }
 
+    /**
+     * PREPARO (SIN GUARDAR) UNA SUSCRIPCIÓN AL PLAN GRATUITO
+     *
+     * @param user usuario
+     * @param freePlan plan gratuito
+     * @return la suscripción sin persistir
+     */
+    private UserSubscription newFreeSubscription(User user, SubscriptionPlan freePlan) {
         UserSubscription subscription = new UserSubscription(user, freePlan);
         subscription.setPaymentReference("FREE_PLAN");
-
-        return userSubscriptionRepository.save(subscription);
+        return subscription;
     }
 
     /**
@@ -131,6 +159,7 @@ public class SubscriptionService {
      * @param paymentReference referencia del pago
      * @return la nueva suscripción premium
      */
+    @Transactional
     public UserSubscription upgradeToPremium(User user, SubscriptionPlan premiumPlan, String paymentReference) {
         // CANCELAR SUSCRIPCIÓN ACTUAL SI EXISTE
         UserSubscription currentSubscription = getUserActiveSubscription(user);
@@ -148,12 +177,54 @@ public class SubscriptionService {
         return userSubscriptionRepository.save(premiumSubscription);
     }
 
+    /**
+     * ACTIVO LA SUSCRIPCIÓN PREMIUM ASOCIADA A UN PAGO COMPLETADO
+     * ES IDEMPOTENTE: SI YA HAY UNA SUSCRIPCIÓN CON ESA REFERENCIA LA DEVUELVO SIN CAMBIOS
+     * SI EL PAGO YA NO ACTIVA (SE REEMBOLSÓ O DISPUTÓ ANTES DE PUBLICAR SU COMPLETED) NO HAGO NADA:
+     * LANZAR AQUÍ DESHARÍA LA PUBLICACIÓN ENTERA, INCLUIDOS LOS AGREGADOS DEL MISMO EVENTO
+     *
+     * @param paymentReference referencia del pago
+     * @return la suscripción activada, o null si el pago ya no activa la suscripción
+     */
+    @Transactional
+    public UserSubscription activateSubscriptionForPayment(String paymentReference) {
+        Optional<UserSubscription> existing = userSubscriptionRepository.findByPaymentReference(paymentReference);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        PaymentTransaction transaction = paymentTransactionRepository.findByReferenceCode(paymentReference)
+                .orElseThrow(() -> new RuntimeException("Transacción no encontrada: " + paymentReference));
+
+        if (!transaction.getStatus().activatesSubscription()) {
+            System.out.println("⏭️ PAGO " + paymentReference + " YA EN " + transaction.getStatus()
+                    + ", NO SE ACTIVA LA SUSCRIPCIÓN");
+            return null;
+        }
+
+        System.out.println("⭐ ACTIVANDO SUSCRIPCIÓN PARA PAGO " + paymentReference);
+        return upgradeToPremium(transaction.getUser(), transaction.getSubscriptionPlan(), paymentReference);
+    }
+
+    /**
+     * BUSCO LA SUSCRIPCIÓN CREADA A PARTIR DE UN PAGO
+     * NO ES readOnly PARA LEER DE LA PRIMARIA: LA CONSULTA EL SONDEO JUSTO DESPUÉS DE ACTIVARLA
+     *
+     * @param paymentReference referencia del pago
+     * @return la suscripción o null si aún no se ha activado
+     */
+    @Transactional
+    public UserSubscription getSubscriptionByPaymentReference(String paymentReference) {
+        return userSubscriptionRepository.findByPaymentReference(paymentReference).orElse(null);
+    }
+
     /**
      * CANCELAR SUSCRIPCIÓN PREMIUM DE UN USUARIO
      *
      * @param user el usuario
      * @return true si se canceló correctamente
      */
+    @Transactional
     public boolean cancelPremiumSubscription(User user) {
         UserSubscription subscription = getUserActiveSubscription(user);
 
@@ -178,6 +249,7 @@ public class SubscriptionService {
      * @param paymentReference nueva referencia de pago
      * @return suscripción renovada
      */
+    @Transactional
     public UserSubscription renewSubscription(UserSubscription subscription, String paymentReference) {
         // EXTENDER FECHA DE VENCIMIENTO
         if (subscription.getEndDate() != null) {
@@ -329,18 +401,27 @@ public class SubscriptionService {
         List<UserSubscription> expiredSubscriptions =
                 userSubscriptionRepository.findExpiredActiveSubscriptions(LocalDateTime.now());
 
-        int count = 0;
+        if (expiredSubscriptions.isEmpty()) {
+            return 0;
+        }
+
+        // EL PLAN GRATUITO SE BUSCA UNA VEZ Y LOS CAMBIOS SE GUARDAN EN LOTES JDBC
+        SubscriptionPlan freePlan = getFreePlan();
+        List<UserSubscription> freeSubscriptions = new ArrayList<>(expiredSubscriptions.size());
+        LocalDateTime now = LocalDateTime.now();
+
         for (UserSubscription subscription : expiredSubscriptions) {
             subscription.setStatus(SubscriptionStatus.EXPIRED);
-            subscription.setUpdatedAt(LocalDateTime.now());
-            userSubscriptionRepository.save(subscription);
+            subscription.setUpdatedAt(now);
 
             // CREAR SUSCRIPCIÓN GRATUITA AUTOMÁTICAMENTE
-            createFreeSubscription(subscription.getUser());
-            count++;
+            freeSubscriptions.add(newFreeSubscription(subscription.getUser(), freePlan));
         }
 
-        return count;
+        userSubscriptionRepository.saveAll(expiredSubscriptions);
+        userSubscriptionRepository.saveAll(freeSubscriptions);
+
+        return expiredSubscriptions.size();
     }
 
     /**
@@ -0,0 +1,184 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskLocation;
+import com.taskmanager.model.User;
+import com.taskmanager.repository.TaskLocationRepository;
+import com.taskmanager.repository.TaskRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SERVICIO DE SINCRONIZACIÓN INCREMENTAL DE TAREAS Y UBICACIONES PARA LOS CLIENTES (MÓVIL Y MAPA)
+ * EL CLIENTE MANDA EL TOKEN DE SU ÚLTIMA SINCRONIZACIÓN Y RECIBE SOLO LO CREADO, EDITADO O BORRADO DESDE
+ * ENTONCES; SI NO HA CAMBIADO NADA LA RESPUESTA VA VACÍA
+ *
+ * EL TOKEN SON MILISEGUNDOS EPOCH DEL RELOJ DE LA APLICACIÓN (EL MISMO QUE RELLENA updated_at). LO DEVUELVO
+ * UN POCO HACIA ATRÁS (app.sync.overlap-ms) PORQUE updated_at SE ESCRIBE AL HACER FLUSH Y UNA TRANSACCIÓN
+ * LARGA PUEDE CONFIRMARSE DESPUÉS DE MI CONSULTA CON UNA FECHA ANTERIOR, Y PORQUE CADA NODO USA SU RELOJ.
+ * EL CLIENTE APLICA LOS CAMBIOS POR ID, ASÍ QUE RECIBIR DOS VECES LA MISMA FILA NO ROMPE NADA
+ *
+ * LOS CAMBIOS SE LEEN SIEMPRE DE LA PRIMARIA: EN LA RÉPLICA UNA FILA CONFIRMADA PUEDE LLEGAR HASTA
+ * app.datasource.replica.max-lag-ms MÁS TARDE, Y SI EL TOKEN YA LA HA PASADO EL CLIENTE NO LA VE NUNCA.
+ * ASÍ EL SOLAPE SOLO TIENE QUE CUBRIR LA DURACIÓN DEL COMMIT Y EL DESFASE DE RELOJ ENTRE NODOS
+ *
+ * LOS BORRADOS SON LÁPIDAS (deleted_at) QUE SE PURGAN A LOS app.sync.tombstone-retention-days. UN TOKEN MÁS
+ * VIEJO QUE ESO YA NO SIRVE PARA UNA SINCRONIZACIÓN INCREMENTAL Y RESPONDO CON TODO (full=true)
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+@Service
+@Transactional(readOnly = true)
+public class SyncService {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskLocationRepository taskLocationRepository;
+
+    // MARGEN QUE RESTO AL TOKEN DEVUELTO PARA NO PERDER TRANSACCIONES QUE AÚN NO SE HABÍAN CONFIRMADO
+    @Value("${app.sync.overlap-ms:5000}")
+    private long overlapMs;
+
+    // DÍAS QUE SE CONSERVAN LAS LÁPIDAS DE LAS TAREAS Y UBICACIONES BORRADAS
+    @Value("${app.sync.tombstone-retention-days:30}")
+    private int tombstoneRetentionDays;
+
+    /**
+     * OBTENGO LOS CAMBIOS DE UN USUARIO DESDE EL TOKEN DEL CLIENTE
+     * NO ES readOnly PARA LEER DE LA PRIMARIA: EL RETRASO DE LA RÉPLICA HARÍA PERDER CAMBIOS
+     *
+     * @param user usuario que sincroniza
+     * @param token token de la última sincronización, null o vacío para la primera
+     * @return cambios y token para la siguiente sincronización
+     * @throws IllegalArgumentException si el token no es válido
+     */
+    @Transactional
+    public SyncChanges getChangesSince(User user, String token) {
+        // EL INSTANTE SE TOMA ANTES DE CONSULTAR: LO QUE CAMBIE DURANTE LA CONSULTA SALE EN LA SIGUIENTE
+        long now = System.currentTimeMillis();
+        String nextToken = String.valueOf(now - overlapMs);
+        LocalDateTime since = parseToken(token);
+
+        if (since == null || since.isBefore(toDateTime(now).minusDays(tombstoneRetentionDays))) {
+            return new SyncChanges(nextToken, true,
+                    taskRepository.findByUser(user), taskLocationRepository.findByUser(user),
+                    List.of(), List.of());
+        }
+
+        List<Task> tasks = new ArrayList<>();
+        List<Long> deletedTaskIds = new ArrayList<>();
+        for (Task task : taskRepository.findChangedSince(user.getId(), since)) {
+            if (task.getDeletedAt() != null) {
+                deletedTaskIds.add(task.getId());
+            } else {
+                tasks.add(task);
+            }
+        }
+
+        List<TaskLocation> locations = new ArrayList<>();
+        List<Long> deletedLocationIds = new ArrayList<>();
+        for (TaskLocation location : taskLocationRepository.findChangedSince(user.getId(), since)) {
+            if (location.getDeletedAt() != null) {
+                deletedLocationIds.add(location.getId());
+            } else {
+                locations.add(location);
+            }
+        }
+
+        return new SyncChanges(nextToken, false, tasks, locations, deletedTaskIds, deletedLocationIds);
+    }
+
+    /**
+     * PURGO LAS LÁPIDAS MÁS VIEJAS QUE EL PERIODO DE RETENCIÓN
+     * LOS CLIENTES CON UN TOKEN ANTERIOR RECIBEN UNA SINCRONIZACIÓN COMPLETA
+     *
+     * @return número de filas eliminadas
+     */
+    @Scheduled(fixedDelayString = "${app.sync.purge-interval-ms:3600000}")
+    @Transactional
+    public int purgeTombstones() {
+        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(tombstoneRetentionDays);
+        int purged = taskRepository.purgeDeletedBefore(cutoffDate)
+                + taskLocationRepository.purgeDeletedBefore(cutoffDate);
+        if (purged > 0) {
+            System.out.println("🧹 Lápidas de sincronización purgadas: " + purged);
+        }
+        return purged;
+    }
+
+    /**
+     * CONVIERTO EL TOKEN DEL CLIENTE EN FECHA
+     *
+     * @param token milisegundos epoch, null o vacío
+     * @return fecha del token o null si no hay token
+     * @throws IllegalArgumentException si el token no es un número
+     */
+    private LocalDateTime parseToken(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            return toDateTime(Long.parseLong(token.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Token de sincronización no válido: " + token);
+        }
+    }
+
+    /**
+     * PASO MILISEGUNDOS EPOCH A LA HORA LOCAL CON LA QUE SE GUARDAN LAS FECHAS
+     *
+     * @param epochMillis milisegundos epoch
+     * @return fecha local
+     */
+    private LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    // ==================== CLASE AUXILIAR PARA EL RESULTADO ====================
+
+    /**
+     * CAMBIOS DE UNA SINCRONIZACIÓN
+     */
+    public static class SyncChanges {
+        private final String token;
+        private final boolean full;
+        private final List<Task> tasks;
+        private final List<TaskLocation> locations;
+        private final List<Long> deletedTaskIds;
+        private final List<Long> deletedLocationIds;
+
+        public SyncChanges(String token, boolean full, List<Task> tasks, List<TaskLocation> locations,
+                           List<Long> deletedTaskIds, List<Long> deletedLocationIds) {
+            this.token = token;
+            this.full = full;
+            this.tasks = tasks;
+            this.locations = locations;
+            this.deletedTaskIds = deletedTaskIds;
+            this.deletedLocationIds = deletedLocationIds;
+        }
+
+        // GETTERS
+        public String getToken() { return token; }
+        public boolean isFull() { return full; }
+        public List<Task> getTasks() { return tasks; }
+        public List<TaskLocation> getLocations() { return locations; }
+        public List<Long> getDeletedTaskIds() { return deletedTaskIds; }
+        public List<Long> getDeletedLocationIds() { return deletedLocationIds; }
+
+        public boolean isEmpty() {
+            return tasks.isEmpty() && locations.isEmpty() && deletedTaskIds.isEmpty() && deletedLocationIds.isEmpty();
+        }
+    }
+}
@@ -4,7 +4,10 @@ import com.taskmanager.model.TaskLocation;
 import com.taskmanager.model.User;
 import com.taskmanager.repository.TaskLocationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,11 +15,14 @@ import java.util.Optional;
 /**
  * SERVICIO QUE MANEJA TODA LA LÓGICA DE NEGOCIO DE LAS UBICACIONES DE TAREAS
  * INCLUYE VALIDACIONES DE LÍMITES SEGÚN EL PLAN DE SUSCRIPCIÓN
+ * LAS LECTURAS SON readOnly; LAS ESCRITURAS COMPRUEBAN DUEÑO Y LÍMITES DENTRO DE SU TRANSACCIÓN
+ * CADA ESCRITURA SUBE LA VERSIÓN DE LAS UBICACIONES DEL USUARIO (ETag DE LA API)
  *
  * @author Mario Flores
  * @version 1.0
  */
 @Service
+@Transactional(readOnly = true)
 public class TaskLocationService {
 
     @Autowired
@@ -25,6 +31,13 @@ public class TaskLocationService {
     @Autowired
     private SubscriptionService subscriptionService;
 
+    @Autowired
+    private LocationVersionService locationVersionService;
+
+    // NÚMERO DE UBICACIONES RECIENTES QUE MUESTRAN EL MAPA Y LAS ESTADÍSTICAS
+    @Value("${app.recent.locations-limit:5}")
+    private int recentLocationsLimit;
+
     /**
      * OBTENGO TODAS LAS UBICACIONES DE UN USUARIO ESPECÍFICO
      * INCLUYE TANTO UBICACIONES ACTIVAS COMO INACTIVAS
@@ -65,8 +78,11 @@ public class TaskLocationService {
      * @param location la ubicación a guardar
      * @return la ubicación guardada con ID asignado
      */
+    @Transactional
     public TaskLocation saveLocation(TaskLocation location) {
-        return taskLocationRepository.save(location);
+        TaskLocation saved = taskLocationRepository.save(location);
+        locationVersionService.bump(saved.getUser().getUsername());
+        return saved;
     }
 
     /**
@@ -83,6 +99,7 @@ public class TaskLocationService {
      * @throws IllegalArgumentException si las coordenadas son inválidas
      * @throws RuntimeException si ya existe una ubicación en esas coordenadas o se excede el límite
      */
+    @Transactional
     public TaskLocation createLocation(String name, String description, Double latitude,
                                        Double longitude, String address, User user) {
 
@@ -119,7 +136,9 @@ public class TaskLocationService {
         TaskLocation location = new TaskLocation(name, description, latitude, longitude, user);
         location.setAddress(address);
 
-        return taskLocationRepository.save(location);
+        TaskLocation saved = taskLocationRepository.save(location);
+        locationVersionService.bump(user.getUsername());
+        return saved;
     }
 
     /**
@@ -137,6 +156,7 @@ public class TaskLocationService {
      * @return la ubicación actualizada o null si no existe o no pertenece al usuario
      * @throws IllegalArgumentException si las coordenadas son inválidas
      */
+    @Transactional
     public TaskLocation updateLocation(Long id, String name, String description, Double latitude,
                                        Double longitude, String address, Boolean active, User user) {
 
@@ -174,7 +194,9 @@ public class TaskLocationService {
             location.setAddress(address);
             location.setActive(active != null ? active : true);
 
-            return taskLocationRepository.save(location);
+            TaskLocation saved = taskLocationRepository.save(location);
+            locationVersionService.bump(user.getUsername());
+            return saved;
         }
 
         return null;
@@ -188,6 +210,7 @@ public class TaskLocationService {
      * @param user usuario que realiza el cambio
      * @return true si se cambió correctamente, false si no existe o no pertenece al usuario
      */
+    @Transactional
     public boolean toggleLocationActive(Long id, User user) {
         Optional<TaskLocation> locationOpt = taskLocationRepository.findById(id);
 
@@ -202,6 +225,7 @@ public class TaskLocationService {
             // CAMBIO EL ESTADO
             location.setActive(!location.getActive());
             taskLocationRepository.save(location);
+            locationVersionService.bump(user.getUsername());
             return true;
         }
 
@@ -209,13 +233,15 @@ public class TaskLocationService {
     }
 
     /**
-     * ELIMINO UNA UBICACIÓN PERMANENTEMENTE
-     * INCLUYE VERIFICACIÓN DE PERTENENCIA AL USUARIO
+     * ELIMINO UNA UBICACIÓN
+     * INCLUYE VERIFICACIÓN DE PERTENENCIA AL USUARIO; ES UN BORRADO LÓGICO Y LA FILA
+     * QUEDA COMO LÁPIDA PARA /api/sync HASTA QUE LA PURGUE SyncService
      *
      * @param id identificador de la ubicación a eliminar
      * @param user usuario que realiza la eliminación
      * @return true si se eliminó correctamente, false si no existe o no pertenece al usuario
      */
+    @Transactional
     public boolean deleteLocation(Long id, User user) {
         Optional<TaskLocation> locationOpt = taskLocationRepository.findById(id);
 
@@ -227,7 +253,9 @@ public class TaskLocationService {
                 return false;
             }
 
-            taskLocationRepository.deleteById(id);
+            location.markDeleted();
+            taskLocationRepository.save(location);
+            locationVersionService.bump(user.getUsername());
             return true;
         }
 
@@ -304,10 +332,25 @@ public class TaskLocationService {
      * PARA MOSTRAR EN HISTORIAL O DASHBOARD
      *
      * @param user el usuario propietario
-     * @return las 5 ubicaciones más recientes
+     * @return las ubicaciones más recientes (app.recent.locations-limit)
      */
     public List<TaskLocation> getRecentLocations(User user) {
-        return taskLocationRepository.findTop5ByUserOrderByCreatedAtDesc(user);
+        return getRecentLocations(user, recentLocationsLimit);
+    }
+
+    /**
+     * OBTENGO LAS N UBICACIONES MÁS RECIENTES DE UN USUARIO
+     * LA CONSULTA LLEVA LIMIT, ASÍ QUE NUNCA CARGO TODAS LAS UBICACIONES
+     *
+     * @param user el usuario propietario
+     * @param limit número de ubicaciones a devolver
+     * @return las ubicaciones más recientes
+     */
+    public List<TaskLocation> getRecentLocations(User user, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("El número de ubicaciones recientes debe ser mayor que cero");
+        }
+        return taskLocationRepository.findRecentByUser(user, PageRequest.of(0, limit));
     }
 
     /**
@@ -4,7 +4,10 @@ import com.taskmanager.model.Task;
 import com.taskmanager.model.User;
 import com.taskmanager.repository.TaskRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,11 +15,13 @@ import java.util.Optional;
 /**
  * SERVICIO QUE MANEJA TODA LA LÓGICA DE NEGOCIO DE LAS TAREAS
  * INCLUYE VALIDACIONES DE LÍMITES SEGÚN EL PLAN DE SUSCRIPCIÓN
+ * LAS LECTURAS SON readOnly; CREAR, EDITAR Y BORRAR SON UNA SOLA TRANSACCIÓN CON SU VALIDACIÓN
  *
  * @author Mario Flores
  * @version 1.0
  */
 @Service
+@Transactional(readOnly = true)
 public class TaskService {
 
     @Autowired
@@ -25,6 +30,10 @@ public class TaskService {
     @Autowired
     private SubscriptionService subscriptionService;
 
+    // NÚMERO DE TAREAS RECIENTES QUE MUESTRA EL DASHBOARD
+    @Value("${app.recent.tasks-limit:5}")
+    private int recentTasksLimit;
+
     /**
      * OBTENGO TODAS LAS TAREAS DE UN USUARIO
      * @param user el usuario propietario
@@ -48,6 +57,7 @@ public class TaskService {
      * @param task la tarea a guardar
      * @return la tarea guardada
      */
+    @Transactional
     public Task saveTask(Task task) {
         return taskRepository.save(task);
     }
@@ -63,6 +73,7 @@ public class TaskService {
      * @throws IllegalArgumentException si los datos son inválidos
      * @throws RuntimeException si se excede el límite del plan
      */
+    @Transactional
     public Task createTask(String title, String description, User user) {
         // VALIDACIONES BÁSICAS
         if (title == null || title.trim().isEmpty()) {
@@ -101,6 +112,7 @@ public class TaskService {
      * @param completed nuevo estado
      * @return la tarea actualizada o null si no existe
      */
+    @Transactional
     public Task updateTask(Long id, String title, String description, Boolean completed) {
         Optional<Task> taskOpt = taskRepository.findById(id);
         if (taskOpt.isPresent()) {
@@ -118,6 +130,7 @@ public class TaskService {
      * @param id identificador de la tarea
      * @return true si se cambió, false si no existe
      */
+    @Transactional
     public boolean toggleTaskCompleted(Long id) {
         Optional<Task> taskOpt = taskRepository.findById(id);
         if (taskOpt.isPresent()) {
@@ -131,12 +144,17 @@ public class TaskService {
 
     /**
      * ELIMINO UNA TAREA
+     * ES UN BORRADO LÓGICO: LA FILA QUEDA COMO LÁPIDA PARA QUE /api/sync AVISE A LOS CLIENTES
      * @param id identificador de la tarea a eliminar
      * @return true si se eliminó, false si no existía
      */
+    @Transactional
     public boolean deleteTask(Long id) {
-        if (taskRepository.existsById(id)) {
-            taskRepository.deleteById(id);
+        Optional<Task> taskOpt = taskRepository.findById(id);
+        if (taskOpt.isPresent()) {
+            Task task = taskOpt.get();
+            task.markDeleted();
+            taskRepository.save(task);
             return true;
         }
         return false;
@@ -191,10 +209,24 @@ public class TaskService {
     /**
      * OBTENGO LAS TAREAS MÁS RECIENTES DE UN USUARIO
      * @param user el usuario
-     * @return las 5 tareas más nuevas
+     * @return las tareas más nuevas (app.recent.tasks-limit)
      */
     public List<Task> getRecentTasks(User user) {
-        return taskRepository.findTop5ByUserOrderByCreatedAtDesc(user);
+        return getRecentTasks(user, recentTasksLimit);
+    }
+
+    /**
+     * OBTENGO LAS N TAREAS MÁS RECIENTES DE UN USUARIO
+     * LA CONSULTA LLEVA LIMIT, ASÍ QUE NUNCA CARGO TODAS LAS TAREAS
+     * @param user el usuario
+     * @param limit número de tareas a devolver
+     * @return las tareas más nuevas
+     */
+    public List<Task> getRecentTasks(User user, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("El número de tareas recientes debe ser mayor que cero");
+        }
+        return taskRepository.findRecentByUser(user, PageRequest.of(0, limit));
     }
 
     /**
@@ -0,0 +1,87 @@
+package com.taskmanager.service;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * CUBO DE TOKENS SIN BLOQUEOS PARA LIMITAR PETICIONES
+ * EL CUBO EMPIEZA LLENO, CADA PETICIÓN GASTA UN TOKEN Y LOS TOKENS SE REPONEN A RITMO
+ * CONSTANTE HASTA LA CAPACIDAD: LA CAPACIDAD ES LA RÁFAGA Y EL RITMO EL LÍMITE SOSTENIDO
+ *
+ * <p>COMO EN GatewayCircuitBreaker, EL ESTADO ES UNA INSTANTÁNEA INMUTABLE QUE SE SUSTITUYE
+ * CON CAS. LA REPOSICIÓN SE CALCULA AL CONSUMIR, SIN HILOS NI TEMPORIZADORES.</p>
+ *
+ * @author Mario Flores
+ * @version 1.0
+ */
+public class TokenBucket {
+
+    private final long capacity;
+    private final double tokensPerNano;
+    private final LongSupplier clock;
+
+    private final AtomicReference<Snapshot> snapshot;
+
+    /**
+     * CREO UN CUBO LLENO
+     *
+     * @param capacity tokens máximos (ráfaga)
+     * @param refillPerMinute tokens que se reponen por minuto
+     * @param clock reloj en nanosegundos
+     * @throws IllegalArgumentException si la capacidad o el ritmo no son positivos
+     */
+    public TokenBucket(long capacity, long refillPerMinute, LongSupplier clock) {
+        if (capacity <= 0 || refillPerMinute <= 0) {
+            throw new IllegalArgumentException("La capacidad y el ritmo del cubo deben ser positivos");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerMinute / 60_000_000_000.0;
+        this.clock = clock;
+        this.snapshot = new AtomicReference<>(new Snapshot(capacity, clock.getAsLong()));
+    }
+
+    /**
+     * INTENTO GASTAR UN TOKEN
+     *
+     * @return 0 si se ha gastado; si no, nanosegundos hasta que haya un token disponible
+     */
+    public long tryConsume() {
+        while (true) {
+            Snapshot current = snapshot.get();
+            long now = clock.getAsLong();
+            double available = Math.min(capacity, current.tokens + (now - current.refilledAt) * tokensPerNano);
+
+            if (available < 1) {
+                // NO TOCO EL ESTADO: EL SIGUIENTE INTENTO VOLVERÁ A CALCULAR LA REPOSICIÓN DESDE refilledAt
+                return (long) Math.ceil((1 - available) / tokensPerNano);
+            }
+            if (snapshot.compareAndSet(current, new Snapshot(available - 1, now))) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * OBTENGO LOS TOKENS DISPONIBLES AHORA MISMO
+     *
+     * @return tokens enteros disponibles
+     */
+    public long getAvailableTokens() {
+        Snapshot current = snapshot.get();
+        double available = current.tokens + (clock.getAsLong() - current.refilledAt) * tokensPerNano;
+        return (long) Math.min(capacity, available);
+    }
+
+    /**
+     * INSTANTÁNEA INMUTABLE DEL ESTADO
+     */
+    private static final class Snapshot {
+        private final double tokens;
+        private final long refilledAt;
+
+        private Snapshot(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+    }
+}
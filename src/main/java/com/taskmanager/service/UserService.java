@@ -1,36 +1,104 @@
 package com.taskmanager.service;
 
+import com.taskmanager.config.ApiTokenAuthentication;
 import com.taskmanager.model.User;
 import com.taskmanager.model.UserRole;
+import com.taskmanager.repository.TaskLocationRepository;
+import com.taskmanager.repository.TaskRepository;
 import com.taskmanager.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * SERVICIO QUE MANEJA TODA LA LÓGICA DE NEGOCIO DE LOS USUARIOS
+ * TRANSACCIONES DE SOLO LECTURA POR DEFECTO; LAS ALTAS Y CAMBIOS LLEVAN @Transactional
  *
  * @author Mario Flores
  * @version 1.0
  */
 @Service
+@Transactional(readOnly = true)
 public class UserService {
 
+    // FASES DEL CURSOR DE LA BÚSQUEDA: COINCIDENCIAS POR USERNAME Y DESPUÉS SOLO POR EMAIL
+    private static final String SEARCH_BY_USERNAME = "u";
+    private static final String SEARCH_BY_EMAIL = "e";
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskLocationRepository taskLocationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // POR DEBAJO DE ESTA ESTIMACIÓN EL CATÁLOGO MUESTRA EL TOTAL EXACTO
+    @Value("${app.users.catalog.exact-count-threshold:10000}")
+    private long exactCountThreshold;
+
     /**
-     * OBTENGO TODOS LOS USUARIOS
-     * @return lista de todos los usuarios
+     * OBTENGO UNA PÁGINA DEL CATÁLOGO DE USUARIOS
+     * CATÁLOGO DEL ADMIN: SOLO LECTURA, SE SIRVE DESDE LA RÉPLICA SI ESTÁ ACTIVA
+     * PAGINADO POR CLAVE: EL CURSOR ES EL ÚLTIMO USUARIO DE LA PÁGINA ANTERIOR, ASÍ CADA PÁGINA
+     * CUESTA LO MISMO AUNQUE HAYA CIENTOS DE MILES DE CUENTAS
+     *
+     * @param sort orden del catálogo
+     * @param cursor cursor de la página anterior, null o vacío para la primera
+     * @param size usuarios por página
+     * @return página de usuarios con el cursor de la siguiente
+     * @throws IllegalArgumentException si el cursor no es válido
      */
-    public List<User> getAllUsers() {
-        return userRepository.findAllByOrderByCreatedAtDesc();
+    public CatalogPage getCatalogPage(CatalogSort sort, String cursor, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        String after = decodeCursor(cursor);
+        List<User> users;
+
+        if (sort == CatalogSort.USERNAME) {
+            users = userRepository.findCatalogPageByUsernameAfter(after == null ? "" : after, limit);
+        } else if (after == null) {
+            users = userRepository.findCatalogFirstPage(limit);
+        } else {
+            // CURSOR POR FECHA: fecha_id
+            int separator = after.lastIndexOf('_');
+            try {
+                users = userRepository.findCatalogPageAfter(LocalDateTime.parse(after.substring(0, separator)),
+                        Long.valueOf(after.substring(separator + 1)), limit);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor del catálogo no válido: " + cursor);
+            }
+        }
+
+        return toPage(users, size, last -> sort == CatalogSort.USERNAME
+                ? last.getUsername()
+                : last.getCreatedAt() + "_" + last.getId());
     }
 
     /**
@@ -51,6 +119,21 @@ public class UserService {
         return userRepository.findByUsername(username).orElse(null);
     }
 
+    /**
+     * OBTENGO EL USUARIO DE UNA PETICIÓN AUTENTICADA
+     * CON TOKEN DE LA API DEVUELVO UNA REFERENCIA POR ID SIN IR A LA BD: SOLO SE CARGA SI ALGUIEN LEE
+     * SUS CAMPOS, Y LAS CONSULTAS POR USUARIO SOLO NECESITAN EL ID. CON SESIÓN LO BUSCO POR USERNAME
+     *
+     * @param auth autenticación de la petición
+     * @return el usuario o null si no existe
+     */
+    public User getAuthenticatedUser(Authentication auth) {
+        if (auth instanceof ApiTokenAuthentication apiToken) {
+            return userRepository.getReferenceById(apiToken.getUserId());
+        }
+        return findByUsername(auth.getName());
+    }
+
     /**
      * BUSCO UN USUARIO POR EMAIL
      * @param email correo electrónico
@@ -68,6 +151,7 @@ public class UserService {
      * @param role rol del usuario
      * @return el usuario creado
      */
+    @Transactional
     public User createUser(String username, String email, String password, UserRole role) {
         // VERIFICO QUE NO EXISTA YA
         if (userRepository.existsByUsername(username)) {
@@ -96,6 +180,7 @@ public class UserService {
      * @param role nuevo rol
      * @return el usuario actualizado
      */
+    @Transactional
     public User updateUser(Long id, String username, String email, UserRole role) {
         Optional<User> userOpt = userRepository.findById(id);
         if (userOpt.isPresent()) {
@@ -124,6 +209,7 @@ public class UserService {
      * @param newPassword nueva contraseña sin cifrar
      * @return true si se cambió correctamente
      */
+    @Transactional
     public boolean changePassword(Long id, String newPassword) {
         Optional<User> userOpt = userRepository.findById(id);
         if (userOpt.isPresent()) {
@@ -141,6 +227,7 @@ public class UserService {
      * @param enabled true para habilitar, false para deshabilitar
      * @return true si se cambió correctamente
      */
+    @Transactional
     public boolean toggleUserEnabled(Long id, boolean enabled) {
         Optional<User> userOpt = userRepository.findById(id);
         if (userOpt.isPresent()) {
@@ -154,11 +241,15 @@ public class UserService {
 
     /**
      * ELIMINO UN USUARIO
+     * ANTES PURGO SUS LÁPIDAS DE SINCRONIZACIÓN: LA CASCADA JPA SOLO VE LAS TAREAS VIVAS
      * @param id identificador del usuario a eliminar
      * @return true si se eliminó correctamente
      */
+    @Transactional
     public boolean deleteUser(Long id) {
         if (userRepository.existsById(id)) {
+            taskRepository.purgeDeletedByUser(id);
+            taskLocationRepository.purgeDeletedByUser(id);
             userRepository.deleteById(id);
             return true;
         }
@@ -166,12 +257,69 @@ public class UserService {
     }
 
     /**
-     * BUSCO USUARIOS POR TEXTO
-     * @param searchTerm texto a buscar en username o email
-     * @return usuarios que coincidan
+     * BUSCO USUARIOS CUYO USERNAME O EMAIL EMPIEZA POR UN TEXTO, SIN DISTINGUIR MAYÚSCULAS
+     * HAGO UNA CONSULTA POR COLUMNA PARA QUE CADA UNA USE SU ÍNDICE (UN OR ENTRE LAS DOS RECORRE LA TABLA):
+     * PRIMERO LOS QUE COINCIDEN POR USERNAME EN ORDEN DE USERNAME Y DESPUÉS LOS QUE SOLO COINCIDEN POR EMAIL
+     * EN ORDEN DE EMAIL. CADA CONSULTA VA POR CLAVE (columna, id) SOBRE SU ÍNDICE, ASÍ NINGUNA PÁGINA ORDENA
+     * TODAS LAS COINCIDENCIAS; EL CURSOR LLEVA LA FASE Y LA CLAVE DEL ÚLTIMO USUARIO MOSTRADO
+     *
+     * @param searchTerm prefijo a buscar en username o email
+     * @param cursor cursor de la página anterior, null o vacío para la primera
+     * @param size usuarios por página
+     * @return página de usuarios que coinciden con el cursor de la siguiente
+     * @throws IllegalArgumentException si el cursor no es válido
      */
-    public List<User> searchUsers(String searchTerm) {
-        return userRepository.findByUsernameContainingOrEmailContaining(searchTerm);
+    public CatalogPage searchUsers(String searchTerm, String cursor, int size) {
+        String prefix = escapeLike(searchTerm.trim().toLowerCase(Locale.ROOT)) + "%";
+        String[] after = parseSearchCursor(decodeCursor(cursor), cursor);
+        boolean byEmail = after != null && after[0].equals(SEARCH_BY_EMAIL);
+        String key = after == null ? "" : after[2];
+        Long id = after == null ? 0L : Long.valueOf(after[1]);
+
+        // UNO DE MÁS PARA SABER SI HAY PÁGINA SIGUIENTE
+        List<User> users = new ArrayList<>();
+        Set<Long> byUsernameIds = new HashSet<>();
+        if (!byEmail) {
+            users.addAll(userRepository.findByUsernamePrefixAfter(prefix, key, id, PageRequest.of(0, size + 1)));
+            users.forEach(user -> byUsernameIds.add(user.getId()));
+            key = "";
+            id = 0L;
+        }
+        if (users.size() <= size) {
+            users.addAll(userRepository.findByEmailPrefixAfter(prefix, key, id,
+                    PageRequest.of(0, size + 1 - users.size())));
+        }
+
+        return toPage(users, size, last -> byUsernameIds.contains(last.getId())
+                ? SEARCH_BY_USERNAME + "|" + last.getId() + "|" + last.getUsernameLower()
+                : SEARCH_BY_EMAIL + "|" + last.getId() + "|" + last.getEmailLower());
+    }
+
+    /**
+     * ESTIMO EL NÚMERO DE USUARIOS SIN RECORRER LA TABLA
+     * USO LAS ESTADÍSTICAS DE LA BD (pg_class EN POSTGRESQL, INFORMATION_SCHEMA EN H2); POR DEBAJO
+     * DE exact-count-threshold EL COUNT(*) ES BARATO Y DEVUELVO EL NÚMERO EXACTO
+     *
+     * @return número aproximado de usuarios
+     */
+    public long estimateUserCount() {
+        Long estimate = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            boolean postgres = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+            String sql = postgres
+                    ? "select reltuples::bigint from pg_class where oid = to_regclass('users')"
+                    : "select row_count_estimate from information_schema.tables "
+                    + "where lower(table_name) = 'users' and table_schema = schema()";
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(sql)) {
+                return resultSet.next() ? resultSet.getLong(1) : -1L;
+            }
+        });
+
+        // SIN ESTADÍSTICAS (-1) O CON POCAS FILAS CUENTO DE VERDAD
+        if (estimate == null || estimate < exactCountThreshold) {
+            return userRepository.count();
+        }
+        return estimate;
     }
 
     /**
@@ -209,4 +357,100 @@ public class UserService {
     public boolean isEmailAvailable(String email) {
         return !userRepository.existsByEmail(email);
     }
-}
\ No newline at end of file
+
+    // MÉTODOS AUXILIARES DEL CATÁLOGO
+
+    /**
+     * CORTO LA PÁGINA AL TAMAÑO PEDIDO Y CALCULO EL CURSOR DE LA SIGUIENTE
+     * LAS CONSULTAS PIDEN UN USUARIO DE MÁS: SI LLEGA, HAY PÁGINA SIGUIENTE
+     *
+     * @param users usuarios leídos (hasta size + 1)
+     * @param size usuarios por página
+     * @param key clave de orden del último usuario de la página
+     * @return página del catálogo
+     */
+    private CatalogPage toPage(List<User> users, int size, Function<User, String> key) {
+        if (users.size() <= size) {
+            return new CatalogPage(users, null);
+        }
+        List<User> page = users.subList(0, size);
+        String nextCursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(key.apply(page.get(size - 1)).getBytes(StandardCharsets.UTF_8));
+        return new CatalogPage(page, nextCursor);
+    }
+
+    /**
+     * DECODIFICO EL CURSOR DEL CATÁLOGO
+     *
+     * @param cursor cursor en base64url, null o vacío
+     * @return clave del último usuario mostrado o null para la primera página
+     * @throws IllegalArgumentException si el cursor no es base64url
+     */
+    private String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor del catálogo no válido: " + cursor);
+        }
+    }
+
+    /**
+     * SEPARO EL CURSOR DE LA BÚSQUEDA EN FASE, ID Y CLAVE (FASE|ID|CLAVE; LA CLAVE PUEDE LLEVAR '|')
+     *
+     * @param after cursor decodificado o null
+     * @param cursor cursor recibido, para el mensaje de error
+     * @return [fase, id, clave] o null para la primera página
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    private String[] parseSearchCursor(String after, String cursor) {
+        if (after == null) {
+            return null;
+        }
+        String[] parts = after.split("\\|", 3);
+        if (parts.length != 3 || !(parts[0].equals(SEARCH_BY_USERNAME) || parts[0].equals(SEARCH_BY_EMAIL))
+                || !parts[1].matches("\\d{1,18}")) {
+            throw new IllegalArgumentException("Cursor del catálogo no válido: " + cursor);
+        }
+        return parts;
+    }
+
+    /**
+     * ESCAPO LOS COMODINES DE LIKE PARA QUE EL TEXTO SE BUSQUE LITERAL
+     *
+     * @param text texto a buscar
+     * @return texto con \, % y _ escapados
+     */
+    private String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * ORDEN DEL CATÁLOGO DE USUARIOS
+     */
+    public enum CatalogSort {
+        // MÁS NUEVOS PRIMERO
+        RECENT,
+        // POR USERNAME DE LA A A LA Z
+        USERNAME
+    }
+
+    /**
+     * PÁGINA DEL CATÁLOGO CON EL CURSOR DE LA SIGUIENTE
+     */
+    public static class CatalogPage {
+        private final List<User> users;
+        private final String nextCursor;
+
+        public CatalogPage(List<User> users, String nextCursor) {
+            this.users = users;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<User> getUsers() { return users; }
+        public String getNextCursor() { return nextCursor; }
+        public boolean hasNext() { return nextCursor != null; }
+    }
+}
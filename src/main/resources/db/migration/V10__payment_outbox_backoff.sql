@@ -0,0 +1,8 @@
+-- REINTENTOS DEL OUTBOX CON ESPERA EXPONENCIAL (VER PaymentOutboxEvent.registerFailure)
+-- next_attempt_at ES EL PRIMER INSTANTE EN QUE EL DESPACHADOR PUEDE VOLVER A PUBLICAR EL EVENTO
+alter table payment_outbox_events add column if not exists next_attempt_at timestamp(6);
+update payment_outbox_events set next_attempt_at = created_at where next_attempt_at is null;
+alter table payment_outbox_events alter column next_attempt_at set not null;
+
+-- PaymentOutboxEventRepository: findPendingEvents SIGUE RECORRIENDO idx_payment_outbox_events_status_id
+-- EN ORDEN DE id; LOS POCOS EVENTOS EN ESPERA SE FILTRAN POR next_attempt_at SOBRE ESE ÍNDICE
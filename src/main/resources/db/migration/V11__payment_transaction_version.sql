@@ -0,0 +1,7 @@
+-- BLOQUEO OPTIMISTA DE LOS PAGOS (@Version EN PaymentTransaction)
+-- LA RESPUESTA DE LA PASARELA, LOS WEBHOOKS Y EL LIMPIADOR LEEN, COMPRUEBAN isFinalized() Y ESCRIBEN:
+-- CON LA VERSIÓN EL SEGUNDO EN ESCRIBIR FALLA EN LUGAR DE FINALIZAR EL PAGO OTRA VEZ
+alter table payment_transactions add column if not exists version bigint;
+update payment_transactions set version = 0 where version is null;
+alter table payment_transactions alter column version set not null;
+alter table payment_transactions alter column version set default 0;
@@ -0,0 +1,7 @@
+-- ORDEN DE PUBLICACIÓN DEL OUTBOX POR created_at CON EL id DE DESEMPATE
+-- LOS IDS SALEN DE BLOQUES POOLED-LO (VER PooledSequenceIdGenerator): CON VARIOS NODOS O INSERTS
+-- CONCURRENTES UN EVENTO POSTERIOR PUEDE TENER UN id MENOR, ASÍ QUE EL id SOLO DESEMPATA
+
+-- PaymentOutboxEventRepository: findPendingEvents RECORRE LOS PENDIENTES EN ORDEN DE CREACIÓN
+drop index if exists idx_payment_outbox_events_status_id;
+create index if not exists idx_payment_outbox_events_status_created on payment_outbox_events (status, created_at, id);
@@ -0,0 +1,6 @@
+-- ORDEN POR TRANSACCIÓN DEL OUTBOX: UN EVENTO NO SE PUBLICA MIENTRAS OTRO ANTERIOR DE SU MISMA
+-- TRANSACCIÓN SIGA SIN PUBLICAR (PENDIENTE EN ESPERA O DESCARTADO), PORQUE LOS AGREGADOS RESTAN
+-- LOS REEMBOLSOS Y DISPUTAS DE UN COMPLETED QUE TIENE QUE HABERSE SUMADO ANTES
+
+-- PaymentOutboxEventRepository: findPendingEvents BUSCA LOS EVENTOS ANTERIORES DE CADA TRANSACCIÓN
+create index if not exists idx_payment_outbox_events_transaction on payment_outbox_events (transaction_id, created_at, id);
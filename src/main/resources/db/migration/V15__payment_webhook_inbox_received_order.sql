@@ -0,0 +1,7 @@
+-- ORDEN DE LLEGADA DE LA BANDEJA DE WEBHOOKS POR received_at CON EL id DE DESEMPATE
+-- LOS IDS SALEN DE BLOQUES POOLED-LO (VER PooledSequenceIdGenerator): CON VARIOS NODOS O HILOS
+-- UNA NOTIFICACIÓN POSTERIOR PUEDE TENER UN id MENOR, ASÍ QUE EL id SOLO DESEMPATA
+
+-- BARRIDO DE RECUPERACIÓN: PENDIENTES EN ORDEN DE LLEGADA; PURGA: PROCESADAS ANTIGUAS
+drop index if exists idx_payment_webhook_inbox_pending;
+create index if not exists idx_payment_webhook_inbox_pending on payment_webhook_inbox (processed_at, received_at, id);
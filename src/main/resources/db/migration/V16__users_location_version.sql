@@ -0,0 +1,6 @@
+-- VERSIÓN DEL CONJUNTO DE UBICACIONES DE CADA USUARIO (ETag DE /api/locations, VER LocationVersionService)
+-- VIVE EN LA BD PARA QUE TODAS LAS INSTANCIAS VEAN LA MISMA: TaskLocationService LA SUBE EN LA MISMA
+-- TRANSACCIÓN QUE CAMBIA LAS UBICACIONES Y LA API LA LEE POR EL ÍNDICE ÚNICO DE username
+-- NO ESTÁN MAPEADAS EN User: NO INVALIDAN LA CACHÉ DE SEGUNDO NIVEL DE LOS USUARIOS AL SUBIR
+alter table users add column if not exists location_version bigint default 0 not null;
+alter table users add column if not exists locations_modified_at timestamp default current_timestamp not null;
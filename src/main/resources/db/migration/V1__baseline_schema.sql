@@ -0,0 +1,121 @@
+-- ESQUEMA BASE DE TASK MANAGER
+-- EQUIVALENTE AL QUE GENERABA HIBERNATE CON ddl-auto=update
+-- SQL PORTABLE ENTRE H2 Y POSTGRESQL; IF NOT EXISTS PERMITE APLICARLO SOBRE BASES YA CREADAS
+
+create table if not exists users (
+    id bigint generated by default as identity,
+    username varchar(50) not null,
+    email varchar(100) not null,
+    password varchar(255) not null,
+    role varchar(255) not null check (role in ('ADMIN','USER')),
+    enabled boolean not null,
+    created_at timestamp(6),
+    primary key (id),
+    constraint uk_users_username unique (username),
+    constraint uk_users_email unique (email)
+);
+
+create table if not exists subscription_plans (
+    id bigint generated by default as identity,
+    name varchar(50) not null,
+    description varchar(200),
+    price numeric(10,2) not null,
+    max_tasks integer,
+    max_locations integer,
+    features varchar(1000),
+    active boolean not null,
+    created_at timestamp(6),
+    primary key (id)
+);
+
+create table if not exists tasks (
+    id bigint generated by default as identity,
+    title varchar(100) not null,
+    description varchar(500),
+    completed boolean not null,
+    created_at timestamp(6) not null,
+    user_id bigint not null,
+    primary key (id),
+    constraint fk_tasks_user foreign key (user_id) references users (id)
+);
+
+create table if not exists task_locations (
+    id bigint generated by default as identity,
+    name varchar(100) not null,
+    description varchar(500),
+    address varchar(200),
+    latitude float(53) not null,
+    longitude float(53) not null,
+    active boolean not null,
+    created_at timestamp(6) not null,
+    user_id bigint not null,
+    primary key (id),
+    constraint fk_task_locations_user foreign key (user_id) references users (id)
+);
+
+create table if not exists user_subscriptions (
+    id bigint generated by default as identity,
+    user_id bigint not null,
+    subscription_plan_id bigint not null,
+    status varchar(255) not null check (status in ('ACTIVE','EXPIRED','CANCELLED','SUSPENDED','PENDING','GRACE_PERIOD')),
+    start_date timestamp(6) not null,
+    end_date timestamp(6),
+    auto_renew boolean,
+    payment_reference varchar(100),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    primary key (id),
+    constraint fk_user_subscriptions_user foreign key (user_id) references users (id),
+    constraint fk_user_subscriptions_plan foreign key (subscription_plan_id) references subscription_plans (id)
+);
+
+create table if not exists payment_transactions (
+    id bigint generated by default as identity,
+    user_id bigint not null,
+    subscription_plan_id bigint not null,
+    amount numeric(10,2) not null,
+    currency varchar(3) not null,
+    status varchar(255) not null check (status in ('PENDING','PROCESSING','COMPLETED','FAILED','REJECTED','CANCELLED','REFUNDED','DISPUTED')),
+    payment_method varchar(50),
+    reference_code varchar(100),
+    card_last_digits varchar(4),
+    transaction_date timestamp(6) not null,
+    error_message varchar(500),
+    transaction_data varchar(1000),
+    created_at timestamp(6),
+    primary key (id),
+    constraint uk_payment_transactions_reference unique (reference_code),
+    constraint fk_payment_transactions_user foreign key (user_id) references users (id),
+    constraint fk_payment_transactions_plan foreign key (subscription_plan_id) references subscription_plans (id)
+);
+
+create table if not exists payment_outbox_events (
+    id bigint generated by default as identity,
+    transaction_id bigint not null,
+    reference_code varchar(100) not null,
+    user_id bigint not null,
+    subscription_plan_id bigint not null,
+    amount numeric(10,2) not null,
+    payment_method varchar(50),
+    transaction_date timestamp(6),
+    payment_status varchar(255) not null check (payment_status in ('PENDING','PROCESSING','COMPLETED','FAILED','REJECTED','CANCELLED','REFUNDED','DISPUTED')),
+    status varchar(255) not null check (status in ('PENDING','PUBLISHED','FAILED')),
+    attempts integer not null,
+    last_error varchar(500),
+    created_at timestamp(6) not null,
+    published_at timestamp(6),
+    primary key (id)
+);
+
+create table if not exists payment_rollups (
+    id bigint generated by default as identity,
+    granularity varchar(10) not null check (granularity in ('HOUR','DAY')),
+    bucket_start timestamp(6) not null,
+    payment_status varchar(255) not null check (payment_status in ('PENDING','PROCESSING','COMPLETED','FAILED','REJECTED','CANCELLED','REFUNDED','DISPUTED')),
+    subscription_plan_id bigint not null,
+    payment_method varchar(50) not null,
+    transaction_count bigint not null,
+    total_amount numeric(14,2) not null,
+    primary key (id),
+    constraint uk_payment_rollup_bucket unique (granularity, bucket_start, payment_status, subscription_plan_id, payment_method)
+);
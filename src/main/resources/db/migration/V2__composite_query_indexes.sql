@@ -0,0 +1,29 @@
+-- ÍNDICES COMPUESTOS ALINEADOS CON LAS CONSULTAS DE LOS REPOSITORIOS
+-- TODAS LAS CONSULTAS CALIENTES FILTRAN POR user_id MÁS OTRA COLUMNA
+
+-- TaskRepository: findByCompletedAndUser, countPendingTasksByUser, countCompletedTasksByUser
+create index if not exists idx_tasks_user_completed on tasks (user_id, completed);
+
+-- TaskRepository: tareas recientes del usuario ordenadas por fecha
+create index if not exists idx_tasks_user_created on tasks (user_id, created_at);
+
+-- TaskLocationRepository: findByActiveAndUser, countActiveLocationsByUser, findActiveLocationsByUserOrderByName
+create index if not exists idx_task_locations_user_active_name on task_locations (user_id, active, name);
+
+-- UserSubscriptionRepository: findActiveSubscriptionByUser, hasActiveSubscription, hasPremiumSubscription
+create index if not exists idx_user_subscriptions_user_status on user_subscriptions (user_id, status);
+
+-- UserSubscriptionRepository: findByPaymentReference (activación idempotente desde el outbox)
+create index if not exists idx_user_subscriptions_payment_reference on user_subscriptions (payment_reference);
+
+-- PaymentTransactionRepository: findByUserAndStatus, findSuccessfulTransactionsByUser, findFailedTransactionsByUser
+create index if not exists idx_payment_transactions_user_status_date on payment_transactions (user_id, status, transaction_date);
+
+-- PaymentTransactionRepository: historial paginado del usuario ordenado por fecha
+create index if not exists idx_payment_transactions_user_date on payment_transactions (user_id, transaction_date);
+
+-- PaymentTransactionRepository: findOldPendingTransactions (limpiador de pagos atascados)
+create index if not exists idx_payment_transactions_status_date on payment_transactions (status, transaction_date);
+
+-- PaymentOutboxEventRepository: findPendingEvents (despachador del outbox)
+create index if not exists idx_payment_outbox_events_status_id on payment_outbox_events (status, id);
@@ -0,0 +1,3 @@
+-- ÍNDICE PARA LAS UBICACIONES RECIENTES DEL USUARIO
+-- TaskLocationRepository.findRecentByUser: WHERE user_id = ? ORDER BY created_at DESC LIMIT ?
+create index if not exists idx_task_locations_user_created on task_locations (user_id, created_at);
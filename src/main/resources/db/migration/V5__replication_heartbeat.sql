@@ -0,0 +1,9 @@
+-- LATIDO DE REPLICACIÓN: LA APLICACIÓN ESCRIBE LA HORA EN LA PRIMARIA Y LA LEE EN LA RÉPLICA
+-- LA DIFERENCIA ES EL RETRASO DE LA RÉPLICA (VER ReplicaLagMonitor)
+create table if not exists replication_heartbeat (
+    id integer not null,
+    beat_at timestamp not null,
+    constraint pk_replication_heartbeat primary key (id)
+);
+
+insert into replication_heartbeat (id, beat_at) values (1, current_timestamp);
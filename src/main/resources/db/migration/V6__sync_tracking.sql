@@ -0,0 +1,24 @@
+-- SEGUIMIENTO DE CAMBIOS PARA LA SINCRONIZACIÓN INCREMENTAL (/api/sync)
+-- updated_at SE ACTUALIZA EN CADA ALTA, EDICIÓN O BORRADO; deleted_at MARCA LAS FILAS BORRADAS (LÁPIDAS)
+-- QUE SE GUARDAN UNOS DÍAS PARA QUE LOS CLIENTES SE ENTEREN DEL BORRADO
+-- LA APLICACIÓN RELLENA updated_at CON SU RELOJ; EL DEFAULT SOLO CUBRE LOS INSERTS HECHOS A MANO
+
+alter table tasks add column if not exists updated_at timestamp(6);
+alter table tasks add column if not exists deleted_at timestamp(6);
+update tasks set updated_at = created_at where updated_at is null;
+alter table tasks alter column updated_at set not null;
+alter table tasks alter column updated_at set default localtimestamp;
+
+alter table task_locations add column if not exists updated_at timestamp(6);
+alter table task_locations add column if not exists deleted_at timestamp(6);
+update task_locations set updated_at = created_at where updated_at is null;
+alter table task_locations alter column updated_at set not null;
+alter table task_locations alter column updated_at set default localtimestamp;
+
+-- SyncService: CAMBIOS DEL USUARIO DESDE EL TOKEN DEL CLIENTE
+create index if not exists idx_tasks_user_updated on tasks (user_id, updated_at);
+create index if not exists idx_task_locations_user_updated on task_locations (user_id, updated_at);
+
+-- SyncService: PURGA DE LÁPIDAS ANTIGUAS
+create index if not exists idx_tasks_deleted on tasks (deleted_at);
+create index if not exists idx_task_locations_deleted on task_locations (deleted_at);
@@ -0,0 +1,28 @@
+-- TABLAS DE SPRING SESSION PARA COMPARTIR LAS SESIONES ENTRE NODOS (app.session.store=jdbc)
+-- ESQUEMA OFICIAL DE spring-session-jdbc; bytea VALE EN POSTGRESQL Y EN H2
+-- SE CREAN SIEMPRE PARA QUE PASAR A VARIOS NODOS SEA SOLO UN CAMBIO DE CONFIGURACIÓN
+
+create table if not exists spring_session (
+    primary_id char(36) not null,
+    session_id char(36) not null,
+    creation_time bigint not null,
+    last_access_time bigint not null,
+    max_inactive_interval int not null,
+    expiry_time bigint not null,
+    principal_name varchar(100),
+    constraint spring_session_pk primary key (primary_id)
+);
+
+-- JdbcIndexedSessionRepository: BÚSQUEDA POR ID, LIMPIEZA DE CADUCADAS Y SESIONES DE UN USUARIO
+create unique index if not exists spring_session_ix1 on spring_session (session_id);
+create index if not exists spring_session_ix2 on spring_session (expiry_time);
+create index if not exists spring_session_ix3 on spring_session (principal_name);
+
+create table if not exists spring_session_attributes (
+    session_primary_id char(36) not null,
+    attribute_name varchar(200) not null,
+    attribute_bytes bytea not null,
+    constraint spring_session_attributes_pk primary key (session_primary_id, attribute_name),
+    constraint spring_session_attributes_fk foreign key (session_primary_id)
+        references spring_session (primary_id) on delete cascade
+);
@@ -0,0 +1,22 @@
+-- BANDEJA DE ENTRADA DE LOS WEBHOOKS DE PAGOS (VER PaymentWebhookService)
+-- CADA NOTIFICACIÓN ACEPTADA (202) SE GUARDA AQUÍ ANTES DE RESPONDER; SI EL NODO CAE CON LA COLA
+-- EN MEMORIA LLENA O UN LOTE FALLA, EL BARRIDO DE RECUPERACIÓN LAS VUELVE A ENCOLAR
+-- event_id ÚNICO ES LA DEDUPLICACIÓN DE LOS REENVÍOS DE LA PASARELA, COMPARTIDA ENTRE NODOS
+create sequence if not exists payment_webhook_inbox_seq start with 1 increment by ${id_allocation_size};
+
+create table if not exists payment_webhook_inbox (
+    id bigint not null,
+    event_id varchar(100) not null,
+    reference_code varchar(100) not null,
+    payment_status varchar(255) not null check (payment_status in ('PENDING','PROCESSING','COMPLETED','FAILED','REJECTED','CANCELLED','REFUNDED','DISPUTED')),
+    error_message varchar(500),
+    received_at timestamp(6) not null,
+    processed_at timestamp(6),
+    attempts integer not null,
+    last_error varchar(500),
+    constraint pk_payment_webhook_inbox primary key (id),
+    constraint uk_payment_webhook_inbox_event unique (event_id)
+);
+
+-- BARRIDO DE RECUPERACIÓN: PENDIENTES EN ORDEN DE LLEGADA; PURGA: PROCESADAS ANTIGUAS
+create index if not exists idx_payment_webhook_inbox_pending on payment_webhook_inbox (processed_at, id);
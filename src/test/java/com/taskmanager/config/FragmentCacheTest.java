@@ -0,0 +1,102 @@
+package com.taskmanager.config;
+
+import com.taskmanager.model.SubscriptionPlan;
+import com.taskmanager.repository.SubscriptionPlanRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test de la caché de fragmentos donde pido el catálogo de planes varias veces
+ * y compruebo que las tarjetas se renderizan una vez por clave.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:fragmentcache",
+                "spring.thymeleaf.cache=true",
+                "app.view.fragment-cache.enabled=true"
+        })
+@AutoConfigureMockMvc
+class FragmentCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SubscriptionPlanRepository subscriptionPlanRepository;
+
+    /**
+     * Test donde verifico que la segunda visita al catálogo reutiliza las tarjetas
+     * y que cambiar el precio de un plan genera una clave nueva con el precio nuevo.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    @WithUserDetails("test")
+    void shouldReuseCardsUntilPlanChanges() throws Exception {
+        // ARRANGE
+        double hitsBefore = gets("hit");
+        double missesBefore = gets("miss");
+
+        // ACT - Dos visitas seguidas
+        String first = plansPage();
+        String second = plansPage();
+
+        // ASSERT
+        assertEquals(first, second);
+        assertTrue(first.contains("/subscription/checkout/"), "Las tarjetas deben llevar el enlace de contratar");
+        assertEquals(missesBefore + 1, gets("miss"));
+        assertEquals(hitsBefore + 1, gets("hit"));
+
+        // ACT - Cambio el precio de un plan premium
+        SubscriptionPlan plan = subscriptionPlanRepository.findPremiumPlans().get(0);
+        plan.setPrice(new BigDecimal("12.34"));
+        subscriptionPlanRepository.save(plan);
+        String afterChange = plansPage();
+
+        // ASSERT
+        assertTrue(afterChange.contains("12.34"), "Con el plan cambiado se renderiza de nuevo");
+        assertEquals(missesBefore + 2, gets("miss"));
+    }
+
+    /**
+     * Pido el catálogo de planes.
+     *
+     * @return HTML de la página
+     * @throws Exception si falla la petición
+     */
+    private String plansPage() throws Exception {
+        return mockMvc.perform(get("/subscription/plans"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    /**
+     * Obtengo las lecturas de la caché de fragmentos con ese resultado.
+     *
+     * @param result hit o miss
+     * @return número de lecturas
+     */
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "thymeleaf-fragments").tag("result", result)
+                .functionCounter().count();
+    }
+}
@@ -0,0 +1,117 @@
+package com.taskmanager.config;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test de las sesiones en la BD donde compruebo que el login guarda la sesión en las tablas
+ * de Spring Session con el contexto de seguridad comprimido, y que un segundo login del mismo
+ * usuario caduca la sesión anterior aunque viva en otro nodo.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:jdbcsessions",
+                "app.session.store=jdbc"
+        })
+@AutoConfigureMockMvc
+class JdbcSessionStoreTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SessionRepository<?> sessionRepository;
+
+    @Autowired
+    private ConversionService springSessionConversionService;
+
+    /**
+     * Test donde verifico que la sesión del login queda en la BD con el contexto
+     * de seguridad comprimido y que sirve para las peticiones siguientes.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    void shouldStoreCompactSessionInDatabase() throws Exception {
+        // ACT
+        Cookie session = login("premium", "premium123");
+
+        // ASSERT
+        assertInstanceOf(JdbcIndexedSessionRepository.class, sessionRepository);
+        mockMvc.perform(get("/tasks").cookie(session)).andExpect(status().isOk());
+
+        byte[] stored = jdbcTemplate.queryForObject(
+                "SELECT a.attribute_bytes FROM spring_session_attributes a "
+                        + "JOIN spring_session s ON s.primary_id = a.session_primary_id "
+                        + "WHERE s.principal_name = 'premium' AND a.attribute_name = 'SPRING_SECURITY_CONTEXT'",
+                byte[].class);
+        Object securityContext = springSessionConversionService.convert(stored, Object.class);
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(plain)) {
+            out.writeObject(securityContext);
+        }
+        assertTrue(stored.length < plain.size() / 2,
+                "Comprimido: " + stored.length + " bytes, serialización Java: " + plain.size() + " bytes");
+    }
+
+    /**
+     * Test donde verifico que con una sesión por usuario el segundo login caduca el primero.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    void shouldExpireOlderSessionOnSecondLogin() throws Exception {
+        // ARRANGE
+        Cookie first = login("test", "test123");
+
+        // ACT
+        Cookie second = login("test", "test123");
+
+        // ASSERT
+        mockMvc.perform(get("/tasks").cookie(second)).andExpect(status().isOk());
+        String expired = mockMvc.perform(get("/tasks").cookie(first))
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(expired.contains("expired"), "La primera sesión debe estar caducada: " + expired);
+    }
+
+    /**
+     * Hago login con el formulario y devuelvo la cookie de sesión.
+     *
+     * @param username usuario
+     * @param password contraseña
+     * @return cookie SESSION de Spring Session
+     * @throws Exception si falla la petición
+     */
+    private Cookie login(String username, String password) throws Exception {
+        Cookie session = mockMvc.perform(formLogin().user(username).password(password))
+                .andExpect(redirectedUrl("/"))
+                .andReturn().getResponse().getCookie("SESSION");
+        assertNotNull(session, "El login debe devolver la cookie de Spring Session");
+        return session;
+    }
+}
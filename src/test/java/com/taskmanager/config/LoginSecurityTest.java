@@ -0,0 +1,104 @@
+package com.taskmanager.config;
+
+import com.taskmanager.model.User;
+import com.taskmanager.model.UserRole;
+import com.taskmanager.repository.UserRepository;
+import com.taskmanager.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+/**
+ * Test del login donde compruebo que el hash se hace en el pool acotado, que las
+ * contraseñas con poco coste se rehashean al entrar y que los fallos seguidos bloquean la cuenta.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:loginsecurity",
+                "app.security.login.max-failures=3"
+        })
+@AutoConfigureMockMvc
+class LoginSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Test donde verifico que un hash con coste 4 pasa al coste configurado
+     * tras un login correcto, y que el hash se ha hecho en el pool bcrypt.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    void shouldRehashWeakPasswordOnSuccessfulLogin() throws Exception {
+        // ARRANGE - Usuario con un hash antiguo de coste 4
+        User user = userService.createUser("rehash", "rehash@test.com", "secreto123", UserRole.USER);
+        user.setPassword(new BCryptPasswordEncoder(4).encode("secreto123"));
+        userRepository.save(user);
+        double completedBefore = completedHashes();
+
+        // ACT
+        mockMvc.perform(formLogin().user("rehash").password("secreto123"))
+                .andExpect(redirectedUrl("/"));
+
+        // ASSERT
+        String stored = userRepository.findByUsername("rehash").orElseThrow().getPassword();
+        assertTrue(stored.startsWith("$2a$10$"), "El hash debe subir al coste configurado: " + stored);
+        assertTrue(completedHashes() > completedBefore, "El hash debe ejecutarse en el pool bcrypt");
+    }
+
+    /**
+     * Test donde verifico que tras los fallos permitidos la cuenta queda bloqueada
+     * incluso con la contraseña correcta.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    void shouldLockAccountAfterRepeatedFailures() throws Exception {
+        // ARRANGE
+        userService.createUser("intentos", "intentos@test.com", "correcta123", UserRole.USER);
+
+        // ACT - Tres contraseñas incorrectas
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(formLogin().user("intentos").password("incorrecta"))
+                    .andExpect(redirectedUrl("/login?error=true"));
+        }
+
+        // ASSERT - La correcta ya no entra y las demás cuentas no se ven afectadas
+        mockMvc.perform(formLogin().user("intentos").password("correcta123"))
+                .andExpect(redirectedUrl("/login?locked=true"));
+        mockMvc.perform(formLogin().user("test").password("test123"))
+                .andExpect(redirectedUrl("/"));
+    }
+
+    /**
+     * Obtengo los hashes completados por el pool bcrypt.
+     *
+     * @return tareas completadas
+     */
+    private double completedHashes() {
+        return meterRegistry.get("executor.completed").tag("name", "bcrypt").functionCounter().count();
+    }
+}
@@ -0,0 +1,205 @@
+package com.taskmanager.config;
+
+import com.taskmanager.model.PaymentStatus;
+import com.taskmanager.repository.PaymentTransactionRepository;
+import com.taskmanager.repository.PaymentWebhookInboxRepository;
+import com.taskmanager.repository.UserRepository;
+import com.taskmanager.service.ApiTokenService;
+import com.taskmanager.service.PaymentOutboxService;
+import com.taskmanager.service.PaymentWebhookService;
+import com.taskmanager.service.SubscriptionService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test del perfil de producción donde arranco la aplicación con la configuración
+ * de PostgreSQL contra H2 en modo compatible con PostgreSQL, sin contenedores.
+ *
+ * Así compruebo que las migraciones, el dialecto, los lotes JDBC y el pool de
+ * conexiones del perfil prod funcionan en el build local.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:prodprofile;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                "spring.datasource.driverClassName=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.datasource.hikari.maximum-pool-size=4",
+                "spring.datasource.hikari.minimum-idle=4",
+                "app.security.api-token.secret=prod-test-api-token-secret",
+                "app.payment.webhook.secret=prod-test-webhook-secret"
+        })
+@ActiveProfiles("prod")
+class ProductionProfileTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PaymentTransactionRepository paymentTransactionRepository;
+
+    /**
+     * Test donde verifico que Hibernate usa el dialecto de PostgreSQL
+     * y tiene activados los lotes de inserts y updates ordenados.
+     */
+    @Test
+    void shouldUsePostgresDialectWithJdbcBatching() {
+        // ACT
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        SessionFactoryOptions options = sessionFactory.getSessionFactoryOptions();
+
+        // ASSERT
+        assertInstanceOf(PostgreSQLDialect.class, sessionFactory.getJdbcServices().getDialect());
+        assertEquals(50, options.getJdbcBatchSize());
+        assertTrue(options.isOrderInsertsEnabled());
+        assertTrue(options.isOrderUpdatesEnabled());
+        assertEquals(100, options.getJdbcFetchSize());
+    }
+
+    /**
+     * Test donde verifico que las migraciones de Flyway se aplican completas
+     * con la sintaxis de PostgreSQL y que Hibernate valida el esquema resultante.
+     */
+    @Test
+    void shouldApplyAllMigrationsInPostgresMode() {
+        // ACT
+        int pending = flyway.info().pending().length;
+
+        // ASSERT
+        assertEquals(0, pending, "No debe quedar ninguna migración pendiente");
+        assertNotNull(flyway.info().current());
+    }
+
+    /**
+     * Test donde verifico que el pool de Hikari es de tamaño fijo y lleva su nombre.
+     *
+     * @throws Exception si el datasource no envuelve un pool de Hikari
+     */
+    @Test
+    void shouldConfigureFixedSizeHikariPool() throws Exception {
+        // ACT - El datasource de la aplicación es el pool envuelto por QueryCountingDataSource
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+
+        // ASSERT
+        assertEquals("TaskManagerPrimary", hikari.getPoolName());
+        assertEquals(hikari.getMaximumPoolSize(), hikari.getMinimumIdle());
+        assertEquals(3000, hikari.getConnectionTimeout());
+    }
+
+    /**
+     * Test donde verifico que las consultas de los repositorios funcionan con
+     * el SQL que genera el dialecto de PostgreSQL (paginación y agregados incluidos).
+     */
+    @Test
+    void shouldRunRepositoryQueriesWithPostgresSql() {
+        // ARRANGE - DataLoader crea los usuarios de ejemplo al arrancar
+        var user = userRepository.findByUsername("test").orElseThrow();
+
+        // ACT
+        var page = paymentTransactionRepository.findHistoryPageByUser(user, List.of(PaymentStatus.values()), "%",
+                PageRequest.of(0, 10));
+        var hourly = paymentTransactionRepository.aggregateFinalizedByHour();
+
+        // ASSERT
+        assertEquals(0, page.getTotalElements());
+        assertNotNull(hourly);
+    }
+
+    /**
+     * Test donde verifico que el perfil prod no arranca sin el secreto de los tokens
+     * de la API ni con el secreto de desarrollo publicado en el repositorio.
+     */
+    @Test
+    void shouldRefuseToStartWithoutApiTokenSecret() {
+        // ARRANGE
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withInitializer(context -> context.getBeanFactory()
+                        .registerSingleton("subscriptionService", Mockito.mock(SubscriptionService.class)))
+                .withUserConfiguration(ApiTokenService.class);
+
+        // ACT & ASSERT
+        assertStartupFails(runner, "API_TOKEN_SECRET", "app.security.api-token.secret=");
+        assertStartupFails(runner, "API_TOKEN_SECRET", "app.security.api-token.secret=dev-api-token-secret");
+    }
+
+    /**
+     * Test donde verifico que el perfil prod no arranca sin el secreto de los webhooks
+     * de pagos ni con el secreto de desarrollo publicado en el repositorio.
+     */
+    @Test
+    void shouldRefuseToStartWithoutWebhookSecret() {
+        // ARRANGE
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withInitializer(context -> {
+                    context.getBeanFactory().registerSingleton("paymentTransactionRepository",
+                            Mockito.mock(PaymentTransactionRepository.class));
+                    context.getBeanFactory().registerSingleton("paymentOutboxService",
+                            Mockito.mock(PaymentOutboxService.class));
+                    context.getBeanFactory().registerSingleton("paymentWebhookInboxRepository",
+                            Mockito.mock(PaymentWebhookInboxRepository.class));
+                    context.getBeanFactory().registerSingleton("jdbcTemplate", Mockito.mock(JdbcTemplate.class));
+                    context.getBeanFactory().registerSingleton("transactionManager",
+                            Mockito.mock(PlatformTransactionManager.class));
+                })
+                .withUserConfiguration(PaymentWebhookService.class);
+
+        // ACT & ASSERT
+        assertStartupFails(runner, "PAYMENT_WEBHOOK_SECRET", "app.payment.webhook.secret=");
+        assertStartupFails(runner, "PAYMENT_WEBHOOK_SECRET", "app.payment.webhook.secret=dev-webhook-secret");
+    }
+
+    /**
+     * Arranco el contexto mínimo dado con el perfil prod y compruebo que falla
+     * citando la variable de entorno que falta.
+     *
+     * @param runner contexto con el servicio que valida su secreto al arrancar
+     * @param variable variable de entorno que debe nombrar el error
+     * @param properties propiedades del contexto
+     */
+    private void assertStartupFails(ApplicationContextRunner runner, String variable, String... properties) {
+        runner.withInitializer(context -> context.getEnvironment().setActiveProfiles("prod"))
+                .withBean(SimpleMeterRegistry.class)
+                .withPropertyValues(properties)
+                .run(context -> {
+                    Throwable cause = context.getStartupFailure();
+                    assertNotNull(cause, "El contexto no debía arrancar");
+                    while (cause.getCause() != null) {
+                        cause = cause.getCause();
+                    }
+                    assertTrue(cause.getMessage().contains(variable), cause.getMessage());
+                });
+    }
+}
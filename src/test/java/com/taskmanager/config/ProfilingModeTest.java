@@ -0,0 +1,120 @@
+package com.taskmanager.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test del modo de perfilado donde compruebo que cada petición y cada método de servicio
+ * emiten su evento JFR con memoria y consultas, y que el endpoint de actuator los resume.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:profiling",
+                "app.profiling.enabled=true",
+                "app.profiling.recording.enabled=false"
+        })
+@AutoConfigureMockMvc
+@WithUserDetails("admin")
+class ProfilingModeTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @TempDir
+    private Path tempDir;
+
+    /**
+     * Test donde verifico que una petición a la API deja un evento de petición y
+     * eventos de los métodos de servicio que ha llamado.
+     *
+     * @throws Exception si falla la petición o la grabación
+     */
+    @Test
+    void shouldEmitJfrEventsForRequestAndServiceMethods() throws Exception {
+        // ARRANGE
+        Path file = tempDir.resolve("perfil.jfr");
+        List<RecordedEvent> events;
+
+        // ACT
+        try (Recording recording = new Recording()) {
+            recording.enable("taskmanager.Request");
+            recording.enable("taskmanager.ServiceMethod");
+            recording.start();
+            mockMvc.perform(get("/api/locations/stats")).andExpect(status().isOk());
+            recording.stop();
+            recording.dump(file);
+        }
+        events = RecordingFile.readAllEvents(file);
+
+        // ASSERT
+        RecordedEvent request = events.stream()
+                .filter(e -> e.getEventType().getName().equals("taskmanager.Request"))
+                .filter(e -> "/api/locations/stats".equals(e.getString("route")))
+                .findFirst().orElseThrow(() -> new AssertionError("Sin evento de petición: " + events));
+        assertEquals("GET", request.getString("method"));
+        assertEquals(200, request.getInt("status"));
+        assertTrue(request.getLong("queries") > 0, "La petición consulta la base de datos");
+        assertTrue(request.getLong("allocatedBytes") > 0, "La petición reserva memoria");
+
+        assertTrue(events.stream()
+                        .filter(e -> e.getEventType().getName().equals("taskmanager.ServiceMethod"))
+                        .anyMatch(e -> "TaskLocationService".equals(e.getString("service"))),
+                "Falta el evento del servicio de ubicaciones");
+    }
+
+    /**
+     * Test donde verifico que /actuator/profiling resume las peticiones y métodos
+     * medidos y que DELETE empieza una medida nueva.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    void shouldSummarizeInActuatorEndpoint() throws Exception {
+        // ARRANGE
+        mockMvc.perform(delete("/actuator/profiling")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/locations")).andExpect(status().isOk());
+
+        // ACT
+        String body = mockMvc.perform(get("/actuator/profiling"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode summary = objectMapper.readTree(body);
+
+        // ASSERT
+        JsonNode requests = summary.get("requests");
+        assertTrue(requests.isArray() && requests.size() > 0, body);
+        assertTrue(body.contains("\"GET /api/locations\""), body);
+        assertTrue(body.contains("\"TaskLocationService."), body);
+        for (JsonNode request : requests) {
+            assertTrue(request.get("count").asLong() >= 1);
+            assertTrue(request.has("avgAllocatedBytes") && request.has("avgQueries") && request.has("maxMs"));
+        }
+        assertEquals("DISABLED", summary.get("recording").get("state").asText());
+    }
+}
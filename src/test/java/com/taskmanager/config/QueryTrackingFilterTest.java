@@ -0,0 +1,184 @@
+package com.taskmanager.config;
+
+import com.taskmanager.model.PaymentTransaction;
+import com.taskmanager.model.SubscriptionPlan;
+import com.taskmanager.model.TaskLocation;
+import com.taskmanager.model.User;
+import com.taskmanager.repository.PaymentTransactionRepository;
+import com.taskmanager.repository.SubscriptionPlanRepository;
+import com.taskmanager.service.TaskLocationService;
+import com.taskmanager.service.TaskService;
+import com.taskmanager.service.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test del conteo de consultas por petición donde compruebo las cabeceras y métricas
+ * por ruta, que una sentencia repetida se detecta como N+1 y que las páginas
+ * principales no disparan ningún aviso.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        properties = "spring.datasource.url=jdbc:h2:mem:querytracking")
+@AutoConfigureMockMvc
+class QueryTrackingFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskLocationService taskLocationService;
+
+    @Autowired
+    private SubscriptionPlanRepository subscriptionPlanRepository;
+
+    @Autowired
+    private PaymentTransactionRepository paymentTransactionRepository;
+
+    /**
+     * Le doy al administrador tareas, ubicaciones y pagos de varios planes una sola vez
+     * por contexto, para que las páginas pinten listas con asociaciones.
+     */
+    @BeforeEach
+    void setUp() {
+        User admin = userService.findByUsername("admin");
+        if (!taskService.getAllTasksByUser(admin).isEmpty()) {
+            return;
+        }
+        List<SubscriptionPlan> plans = subscriptionPlanRepository.findAll();
+        for (int i = 1; i <= 6; i++) {
+            taskService.createTask("Tarea " + i, "Descripción " + i, admin);
+            taskLocationService.saveLocation(new TaskLocation("Ubicación " + i, "Descripción " + i,
+                    40.0 + i / 100.0, -3.0 - i / 100.0, admin));
+            SubscriptionPlan plan = plans.get(i % plans.size());
+            paymentTransactionRepository.save(new PaymentTransaction(admin, plan, plan.getPrice(), "VISA"));
+        }
+    }
+
+    /**
+     * Test donde verifico que la respuesta lleva las cabeceras con las consultas
+     * y que la métrica de la ruta las acumula.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    @WithUserDetails("premium")
+    void shouldExposeQueryCountAsHeaderAndMetric() throws Exception {
+        // ACT
+        MvcResult result = mockMvc.perform(get("/api/locations"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // ASSERT
+        String count = result.getResponse().getHeader(QueryTrackingFilter.QUERY_COUNT_HEADER);
+        assertNotNull(count, "Falta la cabecera " + QueryTrackingFilter.QUERY_COUNT_HEADER);
+        assertTrue(Long.parseLong(count) > 0, "La petición consulta la base de datos");
+        assertNotNull(result.getResponse().getHeader(QueryTrackingFilter.QUERY_TIME_HEADER));
+
+        DistributionSummary queries = meterRegistry.find("taskmanager.http.queries")
+                .tags("method", "GET", "route", "/api/locations")
+                .summary();
+        assertNotNull(queries, "Falta la métrica de consultas de la ruta");
+        assertTrue(queries.count() >= 1 && queries.totalAmount() > 0);
+        assertNotNull(meterRegistry.find("taskmanager.http.query.time").tags("route", "/api/locations").timer());
+    }
+
+    /**
+     * Test donde verifico que la misma sentencia con distintos parámetros cuenta
+     * como una sola forma repetida, también con literales en un Statement simple.
+     *
+     * @throws Exception si falla la consulta
+     */
+    @Test
+    void shouldDetectRepeatedStatementShape() throws Exception {
+        // ARRANGE
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // ACT
+        QueryCountingDataSource.beginRequest();
+        for (long id = 1; id <= 6; id++) {
+            jdbcTemplate.queryForObject("select count(*) from users where id = ?", Long.class, id);
+        }
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("select username from users where username = 'a' and id = 1");
+            statement.execute("select username from users where username = 'b''c' and id = 22");
+        }
+        QueryCountingDataSource.RequestQueries queries = QueryCountingDataSource.endRequest();
+
+        // ASSERT
+        assertEquals(8, queries.getCount());
+        assertEquals(6, queries.getMaxRepeat());
+        assertEquals("select count(*) from users where id = ?", queries.getMostRepeatedSql());
+        assertEquals("select username from users where username = ? and id = ?",
+                QueryCountingDataSource.shapeOf("select username from users where username = 'b''c' and id = 22"));
+    }
+
+    /**
+     * Test que protege las páginas principales de regresiones N+1: ninguna debe
+     * pasar del máximo de consultas ni repetir la misma sentencia.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    @WithUserDetails("admin")
+    void shouldNotWarnOnMainPages() throws Exception {
+        // ARRANGE
+        double warningsBefore = warnings();
+
+        // ACT
+        for (String page : List.of("/", "/tasks", "/maps", "/payment/history", "/subscription/plans",
+                "/subscription/manage", "/users/catalog")) {
+            mockMvc.perform(get(page)).andExpect(status().isOk());
+        }
+
+        // ASSERT
+        assertEquals(warningsBefore, warnings(), "Alguna página ha disparado un aviso de consultas");
+    }
+
+    /**
+     * Sumo los avisos de consultas de todas las rutas.
+     *
+     * @return avisos emitidos hasta ahora
+     */
+    private double warnings() {
+        return meterRegistry.find("taskmanager.http.query.warnings").counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+}
@@ -0,0 +1,71 @@
+package com.taskmanager.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test del limitador de peticiones donde agoto la ráfaga de la API con un usuario
+ * del plan gratuito y compruebo que recibe 429 con Retry-After sin afectar a otros usuarios.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:ratelimit",
+                "app.rate-limit.routes.api.limits.free.capacity=2",
+                "app.rate-limit.routes.api.limits.free.refill-per-minute=1"
+        })
+@AutoConfigureMockMvc
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * Test donde verifico que tras la ráfaga el usuario gratuito recibe 429
+     * con el tiempo de espera hasta el siguiente token.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    @WithUserDetails("test")
+    void shouldRejectFreeUserAfterBurst() throws Exception {
+        // ARRANGE - Gasto la ráfaga
+        mockMvc.perform(get("/api/locations/stats")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/locations/stats")).andExpect(status().isOk());
+
+        // ACT & ASSERT - A un token por minuto hay que esperar hasta 60 segundos
+        mockMvc.perform(get("/api/locations/stats"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "60"));
+
+        // ACT & ASSERT - Las rutas no limitadas siguen funcionando
+        mockMvc.perform(get("/tasks")).andExpect(status().isOk());
+    }
+
+    /**
+     * Test donde verifico que el administrador tiene su propio cubo y sus
+     * propios límites, así el usuario ruidoso no le afecta.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    @WithUserDetails("admin")
+    void shouldKeepSeparateBucketForAdmin() throws Exception {
+        // ACT & ASSERT
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(get("/api/locations/stats")).andExpect(status().isOk());
+        }
+    }
+}
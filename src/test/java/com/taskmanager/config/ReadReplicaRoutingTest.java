@@ -0,0 +1,233 @@
+package com.taskmanager.config;
+
+import com.taskmanager.controller.TaskLocationRestController;
+import com.taskmanager.model.TaskLocation;
+import com.taskmanager.model.User;
+import com.taskmanager.repository.UserRepository;
+import com.taskmanager.service.SyncService;
+import com.taskmanager.service.TaskLocationService;
+import com.taskmanager.service.TaskService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de la réplica de lectura donde arranco la aplicación con dos bases H2 en memoria,
+ * una como primaria y otra como réplica, y compruebo a qué pool va cada transacción.
+ *
+ * La réplica no recibe replicación real: le aplico las migraciones en el test y
+ * muevo su latido a mano para simular una réplica al día o retrasada.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:rw_primary;DB_CLOSE_DELAY=-1",
+                "app.datasource.replica.enabled=true",
+                "app.datasource.replica.url=jdbc:h2:mem:rw_replica;DB_CLOSE_DELAY=-1",
+                "app.datasource.replica.username=sa",
+                "app.datasource.replica.password=",
+                "app.datasource.replica.max-lag-ms=5000",
+                "app.datasource.replica.heartbeat-interval-ms=3600000"
+        })
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskLocationService taskLocationService;
+
+    @Autowired
+    private TaskLocationRestController taskLocationRestController;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    /**
+     * Acceso directo a la réplica para mover su latido.
+     */
+    private JdbcTemplate replicaJdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // LA RÉPLICA TIENE EL MISMO ESQUEMA PERO NINGÚN USUARIO
+        Flyway.configure()
+                .configuration(flyway.getConfiguration())
+                .dataSource(replicaDataSource)
+                .load()
+                .migrate();
+        replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+    }
+
+    /**
+     * Test donde verifico que las transacciones de solo lectura leen de la réplica
+     * y las de escritura de la primaria, donde DataLoader creó los usuarios.
+     */
+    @Test
+    void shouldRouteReadOnlyTransactionsToReplica() {
+        // ARRANGE
+        setReplicaHeartbeat(System.currentTimeMillis());
+        replicaLagMonitor.refresh();
+
+        // ACT
+        long replicaUsers = count(true);
+        long primaryUsers = count(false);
+
+        // ASSERT
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+        assertEquals(0, replicaUsers, "La lectura debe salir de la réplica vacía");
+        assertTrue(primaryUsers > 0, "La escritura debe ir a la primaria con los usuarios de DataLoader");
+    }
+
+    /**
+     * Test donde verifico que, si la réplica va retrasada, las lecturas vuelven a la primaria
+     * y el contador de fallback lo refleja.
+     */
+    @Test
+    void shouldFallBackToPrimaryWhenReplicaLags() {
+        // ARRANGE - La réplica lleva una hora sin recibir latidos
+        setReplicaHeartbeat(System.currentTimeMillis() - 3_600_000);
+        replicaLagMonitor.refresh();
+        double fallbacksBefore = fallbackCount();
+
+        // ACT
+        long users = count(true);
+
+        // ASSERT
+        assertFalse(replicaLagMonitor.isReplicaUsable());
+        assertTrue(replicaLagMonitor.getLagMs() >= 3_600_000);
+        assertTrue(users > 0, "Con la réplica retrasada se lee de la primaria");
+        assertEquals(fallbacksBefore + 1, fallbackCount());
+    }
+
+    /**
+     * Test donde verifico que la sincronización incremental lee de la primaria aunque
+     * la réplica esté al día, para no perder filas que aún no han llegado a la réplica.
+     */
+    @Test
+    void shouldReadSyncChangesFromPrimary() {
+        // ARRANGE - La tarea solo existe en la primaria
+        setReplicaHeartbeat(System.currentTimeMillis());
+        replicaLagMonitor.refresh();
+        User user = new TransactionTemplate(transactionManager)
+                .execute(status -> userRepository.findByUsername("test").orElseThrow());
+        taskService.createTask("Solo en la primaria", "Sin replicar", user);
+
+        // ACT
+        SyncService.SyncChanges changes = syncService.getChangesSince(user, null);
+
+        // ASSERT
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+        assertTrue(changes.getTasks().stream().anyMatch(task -> task.getTitle().equals("Solo en la primaria")),
+                "La sincronización debe leer de la primaria");
+    }
+
+    /**
+     * Test donde verifico que la API de ubicaciones lee de la primaria lo que sale
+     * con ETag, para no guardar en el navegador una lista vieja con la versión nueva.
+     */
+    @Test
+    void shouldServeVersionedLocationsFromPrimary() {
+        // ARRANGE - La ubicación solo existe en la primaria
+        setReplicaHeartbeat(System.currentTimeMillis());
+        replicaLagMonitor.refresh();
+        User user = new TransactionTemplate(transactionManager)
+                .execute(status -> userRepository.findByUsername("test").orElseThrow());
+        taskLocationService.saveLocation(new TaskLocation("Almacén sin replicar", "Solo en la primaria",
+                40.41, -3.70, user));
+
+        // ACT
+        ResponseEntity<List<TaskLocation>> response = taskLocationRestController.getAllLocations(
+                new UsernamePasswordAuthenticationToken("test", null),
+                new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse()));
+
+        // ASSERT
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getHeaders().getETag());
+        assertTrue(response.getBody().stream().anyMatch(location -> location.getName().equals("Almacén sin replicar")),
+                "La lista con ETag debe salir de la primaria");
+    }
+
+    /**
+     * Test donde verifico que cada pool publica sus propias métricas de Hikari.
+     */
+    @Test
+    void shouldPublishMetricsPerPool() {
+        // ASSERT
+        assertNotNull(meterRegistry.find("hikaricp.connections.max").tag("pool", "TaskManagerPrimary").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections.max").tag("pool", "TaskManagerReplica").gauge());
+        assertNotNull(meterRegistry.find("taskmanager.datasource.replica.lag").gauge());
+    }
+
+    /**
+     * Cuento usuarios dentro de una transacción.
+     *
+     * @param readOnly si la transacción es de solo lectura
+     * @return número de usuarios
+     */
+    private long count(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> userRepository.count());
+    }
+
+    /**
+     * Fijo el último latido que ha llegado a la réplica.
+     *
+     * @param epochMs instante del latido
+     */
+    private void setReplicaHeartbeat(long epochMs) {
+        replicaJdbcTemplate.update("update replication_heartbeat set beat_at = ? where id = 1", new Timestamp(epochMs));
+    }
+
+    /**
+     * Obtengo las conexiones de lectura que acabaron en la primaria.
+     *
+     * @return valor del contador de fallback
+     */
+    private double fallbackCount() {
+        return meterRegistry.get("taskmanager.datasource.routing").tag("reason", "replica-fallback").counter().count();
+    }
+}
@@ -0,0 +1,104 @@
+package com.taskmanager.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test de los recursos estáticos donde compruebo que las plantillas enlazan Bootstrap
+ * y Leaflet servidos por la aplicación con huella de contenido en la URL, y que esas
+ * URLs se pueden guardar en caché un año.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        properties = "spring.datasource.url=jdbc:h2:mem:staticresources")
+@AutoConfigureMockMvc
+class StaticResourcesTest {
+
+    /**
+     * Hoja de estilos de Bootstrap con la versión del webjar y el md5 del contenido.
+     */
+    private static final Pattern BOOTSTRAP_CSS =
+            Pattern.compile("/webjars/bootstrap/[0-9.]+/css/bootstrap\\.min-[0-9a-f]{32}\\.css");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * Test donde verifico que la página de login enlaza la URL con huella y que
+     * esa URL responde con Cache-Control de un año.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    void shouldServeFingerprintedAssetsWithLongCache() throws Exception {
+        // ACT
+        String html = mockMvc.perform(get("/login"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Matcher matcher = BOOTSTRAP_CSS.matcher(html);
+
+        // ASSERT
+        assertTrue(matcher.find(), "El login debe enlazar Bootstrap con huella de contenido");
+        mockMvc.perform(get(matcher.group()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=31536000, public"));
+    }
+
+    /**
+     * Test donde verifico que ninguna plantilla carga recursos de CDNs ni de GitHub.
+     *
+     * @throws IOException si no se pueden leer las plantillas
+     */
+    @Test
+    void shouldNotLoadAssetsFromExternalHosts() throws IOException {
+        // ARRANGE
+        Pattern external = Pattern.compile("cdn\\.jsdelivr\\.net|unpkg\\.com|cdnjs\\.cloudflare\\.com|raw\\.githubusercontent\\.com");
+        List<Path> templates;
+        try (Stream<Path> files = Files.walk(Path.of("src/main/resources/templates"))) {
+            templates = files.filter(file -> file.toString().endsWith(".html")).toList();
+        }
+
+        // ACT
+        List<Path> withExternalAssets = templates.stream()
+                .filter(file -> external.matcher(read(file)).find())
+                .toList();
+
+        // ASSERT
+        assertFalse(templates.isEmpty());
+        assertTrue(withExternalAssets.isEmpty(), "Plantillas con recursos externos: " + withExternalAssets);
+    }
+
+    /**
+     * Leo una plantilla completa.
+     *
+     * @param file ruta de la plantilla
+     * @return contenido del fichero
+     */
+    private String read(Path file) {
+        try {
+            return Files.readString(file);
+        } catch (IOException e) {
+            throw new RuntimeException("No se pudo leer " + file, e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.taskmanager.config;
+
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test del modo de hilos virtuales donde arranco Tomcat con spring.threads.virtual.enabled=true
+ * y compruebo que las peticiones se atienden en hilos virtuales.
+ *
+ * También compruebo que el código no usa synchronized, que ancla el hilo virtual
+ * a su hilo portador mientras espera.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:virtualthreads",
+                "spring.threads.virtual.enabled=true"
+        })
+class VirtualThreadsTest {
+
+    /**
+     * Palabra synchronized como modificador o bloque.
+     */
+    private static final Pattern SYNCHRONIZED = Pattern.compile("\\bsynchronized\\b");
+
+    @Autowired
+    private ServletWebServerApplicationContext applicationContext;
+
+    /**
+     * Test donde verifico que, con Java 21, Tomcat usa el ejecutor de hilos virtuales.
+     * Con Java 17 Spring Boot ignora la propiedad y el test no se ejecuta.
+     */
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void shouldServeRequestsOnVirtualThreads() {
+        // ACT
+        TomcatWebServer webServer = (TomcatWebServer) applicationContext.getWebServer();
+        Object executor = webServer.getTomcat().getConnector().getProtocolHandler().getExecutor();
+
+        // ASSERT
+        assertInstanceOf(VirtualThreadExecutor.class, executor);
+    }
+
+    /**
+     * Test donde verifico que ninguna clase de la aplicación usa synchronized.
+     *
+     * @throws IOException si no se pueden leer los fuentes
+     */
+    @Test
+    void shouldNotUseSynchronizedInApplicationCode() throws IOException {
+        // ARRANGE
+        List<Path> sources;
+        try (Stream<Path> files = Files.walk(Path.of("src/main/java"))) {
+            sources = files.filter(file -> file.toString().endsWith(".java")).toList();
+        }
+
+        // ACT
+        List<Path> pinning = sources.stream()
+                .filter(file -> SYNCHRONIZED.matcher(read(file)).find())
+                .toList();
+
+        // ASSERT
+        assertFalse(sources.isEmpty());
+        assertTrue(pinning.isEmpty(), "Usar ReentrantLock en lugar de synchronized: " + pinning);
+    }
+
+    /**
+     * Leo un fuente completo.
+     *
+     * @param file ruta del fuente
+     * @return contenido del fichero
+     */
+    private String read(Path file) {
+        try {
+            return Files.readString(file);
+        } catch (IOException e) {
+            throw new RuntimeException("No se pudo leer " + file, e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.taskmanager.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test de la API sin sesión donde compruebo que el token emitido autentica las
+ * peticiones sin crear sesión y que un token manipulado se rechaza.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        properties = "spring.datasource.url=jdbc:h2:mem:apitoken")
+@AutoConfigureMockMvc
+class ApiTokenRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Test donde verifico que con el token la API responde sin sesión ni cookie.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    void shouldAuthenticateApiCallsWithTokenWithoutSession() throws Exception {
+        // ARRANGE
+        String token = issueToken("premium", "premium123");
+
+        // ACT
+        MvcResult result = mockMvc.perform(get("/api/sync")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // ASSERT
+        assertNull(result.getRequest().getSession(false), "La API con token no debe crear sesión");
+        assertNull(result.getResponse().getHeader(HttpHeaders.SET_COOKIE));
+        assertTrue(objectMapper.readTree(result.getResponse().getContentAsString()).get("success").asBoolean());
+    }
+
+    /**
+     * Test donde verifico que un token con la firma cambiada o sin token responde 401.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    void shouldRejectTamperedToken() throws Exception {
+        // ARRANGE - Cambio el rol dentro del token sin volver a firmarlo
+        String token = issueToken("test", "test123");
+        String payload = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.replace("|USER|", "|ADMIN|").getBytes())
+                + token.substring(token.indexOf('.'));
+
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/locations").header(HttpHeaders.AUTHORIZATION, "Bearer " + forged))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\""));
+        mockMvc.perform(get("/api/locations").header(HttpHeaders.AUTHORIZATION, "Bearer "))
+                .andExpect(status().isUnauthorized());
+    }
+
+    /**
+     * Test donde verifico que con una contraseña incorrecta no se emite token.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    void shouldNotIssueTokenWithWrongPassword() throws Exception {
+        // ACT & ASSERT
+        mockMvc.perform(post("/api/auth/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"mario\",\"password\":\"incorrecta\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    /**
+     * Pido un token con usuario y contraseña.
+     *
+     * @param username usuario
+     * @param password contraseña
+     * @return token firmado
+     * @throws Exception si falla la petición
+     */
+    private String issueToken(String username, String password) throws Exception {
+        String body = mockMvc.perform(post("/api/auth/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode json = objectMapper.readTree(body);
+        assertEquals("Bearer", json.get("tokenType").asText());
+        return json.get("token").asText();
+    }
+}
@@ -0,0 +1,403 @@
+package com.taskmanager.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanager.config.QueryCountingDataSource;
+import com.taskmanager.model.OutboxEventStatus;
+import com.taskmanager.model.PaymentOutboxEvent;
+import com.taskmanager.model.PaymentStatus;
+import com.taskmanager.model.PaymentTransaction;
+import com.taskmanager.model.PaymentWebhookInboxEntry;
+import com.taskmanager.model.SubscriptionPlan;
+import com.taskmanager.model.User;
+import com.taskmanager.repository.PaymentOutboxEventRepository;
+import com.taskmanager.repository.PaymentRollupRepository;
+import com.taskmanager.repository.PaymentTransactionRepository;
+import com.taskmanager.repository.PaymentWebhookInboxRepository;
+import com.taskmanager.repository.SubscriptionPlanRepository;
+import com.taskmanager.service.PaymentOutboxService;
+import com.taskmanager.service.PaymentReportingService;
+import com.taskmanager.service.PaymentWebhookService;
+import com.taskmanager.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test del webhook de la pasarela donde compruebo la firma, los reenvíos, la cola
+ * llena y que un lote aplica las notificaciones de una misma transacción en orden.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:paymentwebhook",
+                "app.payment.webhook.queue-capacity=5",
+                "app.payment.webhook.workers=1",
+                "app.payment.webhook.recovery-delay-seconds=0",
+                "app.payment.outbox.poll-interval-ms=3600000"
+        })
+@AutoConfigureMockMvc
+class PaymentWebhookControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PaymentWebhookService paymentWebhookService;
+
+    @Autowired
+    private PaymentWebhookInboxRepository inboxRepository;
+
+    @Autowired
+    private PaymentTransactionRepository paymentTransactionRepository;
+
+    @Autowired
+    private PaymentOutboxEventRepository outboxRepository;
+
+    @Autowired
+    private PaymentRollupRepository paymentRollupRepository;
+
+    @Autowired
+    private PaymentOutboxService paymentOutboxService;
+
+    @Autowired
+    private PaymentReportingService paymentReportingService;
+
+    @Autowired
+    private SubscriptionPlanRepository subscriptionPlanRepository;
+
+    @Autowired
+    private UserService userService;
+
+    /**
+     * Test donde verifico que una firma inválida responde 401 y no guarda nada.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    void shouldRejectInvalidSignature() throws Exception {
+        // ARRANGE
+        byte[] body = payload(UUID.randomUUID().toString(), "REF-INEXISTENTE", PaymentStatus.COMPLETED);
+        long storedBefore = inboxRepository.count();
+
+        // ACT & ASSERT
+        perform(post("/payment/webhook")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Webhook-Signature", "00ff00ff")
+                        .content(body))
+                .andExpect(status().isUnauthorized());
+        assertEquals(storedBefore, inboxRepository.count());
+    }
+
+    /**
+     * Test donde verifico que un reenvío con el mismo event_id se confirma sin
+     * guardarse otra vez.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    void shouldAcknowledgeDuplicateEventOnce() throws Exception {
+        // ARRANGE
+        byte[] body = payload(UUID.randomUUID().toString(), "REF-INEXISTENTE", PaymentStatus.COMPLETED);
+
+        // ACT
+        JsonNode first = json(send(body).andExpect(status().isAccepted()));
+        JsonNode second = json(send(body).andExpect(status().isAccepted()));
+
+        // ASSERT
+        assertFalse(first.get("duplicate").asBoolean());
+        assertTrue(second.get("duplicate").asBoolean());
+    }
+
+    /**
+     * Test donde verifico que aceptar no consulta la BD en el hilo de la petición y
+     * que una ráfaga con reenvíos se guarda una sola vez por event_id: en un mismo
+     * lote, el insert descarta los repetidos sin romper el resto.
+     *
+     * @throws Exception si falla la espera
+     */
+    @Test
+    void shouldStoreBurstInBatchesWithoutRequestThreadQueries() throws Exception {
+        // ARRANGE - Cabe en la cola de 5 del test
+        List<String> eventIds = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            eventIds.add(UUID.randomUUID().toString());
+        }
+
+        // ACT - Cada evento llega dos veces seguidas
+        List<CompletableFuture<PaymentWebhookService.EnqueueResult>> results = new ArrayList<>();
+        QueryCountingDataSource.beginRequest();
+        for (String eventId : eventIds) {
+            for (int copy = 0; copy < 2; copy++) {
+                results.add(paymentWebhookService.enqueue(new PaymentWebhookService.WebhookNotification(
+                        eventId, "REF-INEXISTENTE", PaymentStatus.FAILED, null)));
+            }
+        }
+        long requestThreadQueries = QueryCountingDataSource.endRequest().getCount();
+
+        // ASSERT
+        assertEquals(0, requestThreadQueries, "El hilo de la petición no debe tocar la BD");
+        for (int i = 0; i < results.size(); i += 2) {
+            assertEquals(PaymentWebhookService.EnqueueResult.ACCEPTED, results.get(i).get(10, TimeUnit.SECONDS));
+            assertEquals(PaymentWebhookService.EnqueueResult.DUPLICATE, results.get(i + 1).get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(eventIds.size(), inboxRepository.findAll().stream()
+                .filter(entry -> eventIds.contains(entry.getEventId()))
+                .count());
+    }
+
+    /**
+     * Test donde verifico que con la cola llena responde 503 con Retry-After para
+     * que la pasarela reintente.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    void shouldAnswerServiceUnavailableWhenQueueIsFull() throws Exception {
+        // ARRANGE - Sin trabajadores la cola no se vacía
+        paymentWebhookService.stop();
+        try {
+            for (int i = 0; i < 5; i++) {
+                send(payload(UUID.randomUUID().toString(), "REF-INEXISTENTE", PaymentStatus.FAILED))
+                        .andExpect(status().isAccepted());
+            }
+
+            // ACT & ASSERT
+            send(payload(UUID.randomUUID().toString(), "REF-INEXISTENTE", PaymentStatus.FAILED))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"));
+        } finally {
+            paymentWebhookService.start();
+        }
+    }
+
+    /**
+     * Test donde verifico que las notificaciones que se quedaron en la bandeja se
+     * aplican en un lote en orden de llegada: COMPLETED y luego REFUNDED deja los dos
+     * eventos, y un REFUNDED que llega antes registra también la compleción implícita
+     * sin que el COMPLETED posterior deshaga el reembolso.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    void shouldApplyPendingNotificationsInArrivalOrder() throws Exception {
+        // ARRANGE - Con los trabajadores parados las notificaciones solo quedan en la bandeja
+        PaymentTransaction refundedAfterCompletion = processingTransaction();
+        PaymentTransaction refundedFirst = processingTransaction();
+        PaymentTransaction completed = processingTransaction();
+
+        paymentWebhookService.stop();
+        try {
+            notify(refundedAfterCompletion, PaymentStatus.COMPLETED);
+            notify(refundedAfterCompletion, PaymentStatus.REFUNDED);
+            notify(refundedFirst, PaymentStatus.REFUNDED);
+            notify(refundedFirst, PaymentStatus.COMPLETED);
+            notify(completed, PaymentStatus.COMPLETED);
+        } finally {
+            // AL ARRANCAR LA COLA EN MEMORIA ESTÁ VACÍA, COMO TRAS UNA CAÍDA
+            paymentWebhookService.start();
+        }
+
+        // ACT - El barrido encola lo que quepa en la cola en cada pasada
+        awaitInboxProcessed();
+
+        // ASSERT
+        assertEquals(PaymentStatus.REFUNDED, statusOf(refundedAfterCompletion));
+        assertEquals(PaymentStatus.REFUNDED, statusOf(refundedFirst));
+        assertEquals(PaymentStatus.COMPLETED, statusOf(completed));
+        assertEquals(List.of(PaymentStatus.COMPLETED, PaymentStatus.REFUNDED), outboxStatuses(refundedAfterCompletion));
+        assertEquals(List.of(PaymentStatus.COMPLETED, PaymentStatus.REFUNDED), outboxStatuses(refundedFirst));
+        assertEquals(List.of(PaymentStatus.COMPLETED), outboxStatuses(completed));
+    }
+
+    /**
+     * Test donde verifico que el orden de llegada es el de received_at aunque el id
+     * no lo siga (bloques de ids de nodos distintos): gana la primera que llegó.
+     *
+     * @throws Exception si falla la espera
+     */
+    @Test
+    void shouldApplyInReceivedOrderNotIdOrder() throws Exception {
+        // ARRANGE - El FAILED tiene menor id pero llegó después que el COMPLETED
+        PaymentTransaction transaction = processingTransaction();
+        paymentWebhookService.stop();
+        try {
+            PaymentWebhookInboxEntry failed = inboxRepository.save(new PaymentWebhookInboxEntry(
+                    UUID.randomUUID().toString(), transaction.getReferenceCode(), PaymentStatus.FAILED, "Rechazado"));
+            PaymentWebhookInboxEntry completed = inboxRepository.save(new PaymentWebhookInboxEntry(
+                    UUID.randomUUID().toString(), transaction.getReferenceCode(), PaymentStatus.COMPLETED, null));
+            completed.setReceivedAt(failed.getReceivedAt().minusSeconds(1));
+            inboxRepository.save(completed);
+            assertTrue(failed.getId() < completed.getId());
+        } finally {
+            paymentWebhookService.start();
+        }
+
+        // ACT
+        awaitInboxProcessed();
+
+        // ASSERT
+        assertEquals(PaymentStatus.COMPLETED, statusOf(transaction));
+        assertEquals(List.of(PaymentStatus.COMPLETED), outboxStatuses(transaction));
+    }
+
+    /**
+     * Test donde verifico que al despachar el COMPLETED de un pago que ya está
+     * reembolsado se publica igual: la activación de la suscripción lo salta y los
+     * agregados suman el COMPLETED antes de que el reembolso lo reste.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    void shouldKeepRollupsWhenCompletionIsPublishedAfterRefund() throws Exception {
+        // ARRANGE - Un reembolso que llega antes que el COMPLETED y otro que llega justo después
+        PaymentTransaction refundedFirst = processingTransaction();
+        PaymentTransaction refundedAfterCompletion = processingTransaction();
+        notify(refundedFirst, PaymentStatus.REFUNDED);
+        notify(refundedFirst, PaymentStatus.COMPLETED);
+        notify(refundedAfterCompletion, PaymentStatus.COMPLETED);
+        notify(refundedAfterCompletion, PaymentStatus.REFUNDED);
+        awaitInboxProcessed();
+
+        // ACT
+        paymentOutboxService.dispatchPendingEvents();
+
+        // ASSERT
+        for (PaymentTransaction transaction : List.of(refundedFirst, refundedAfterCompletion)) {
+            assertEquals(PaymentStatus.REFUNDED, statusOf(transaction));
+            assertTrue(outboxRepository.findAll().stream()
+                            .filter(event -> event.getTransactionId().equals(transaction.getId()))
+                            .allMatch(event -> event.getStatus() == OutboxEventStatus.PUBLISHED),
+                    "Eventos sin publicar de " + transaction.getReferenceCode());
+        }
+        assertEquals(0, outboxRepository.countByStatus(OutboxEventStatus.FAILED));
+
+        Map<PaymentStatus, Long> counts = paymentReportingService.getCountsByStatus();
+        for (PaymentStatus status : List.of(PaymentStatus.COMPLETED, PaymentStatus.REFUNDED)) {
+            assertEquals(paymentTransactionRepository.countByStatus(status), counts.getOrDefault(status, 0L),
+                    "Agregados de " + status + ": " + counts);
+        }
+        assertTrue(paymentRollupRepository.findAll().stream()
+                        .noneMatch(rollup -> rollup.getTransactionCount() < 0 || rollup.getTotalAmount().signum() < 0),
+                "Agregados negativos");
+    }
+
+    /**
+     * Espero a que se apliquen todas las notificaciones de la bandeja; el barrido
+     * encola lo que quepa en la cola en cada pasada.
+     *
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    private void awaitInboxProcessed() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (inboxRepository.countByProcessedAtIsNull() > 0 && System.currentTimeMillis() < deadline) {
+            paymentWebhookService.requeuePendingNotifications();
+            Thread.sleep(50);
+        }
+        assertEquals(0, inboxRepository.countByProcessedAtIsNull(), "Quedan notificaciones sin aplicar");
+    }
+
+    /**
+     * Creo una transacción en curso del administrador.
+     *
+     * @return transacción guardada en PROCESSING
+     */
+    private PaymentTransaction processingTransaction() {
+        User admin = userService.findByUsername("admin");
+        SubscriptionPlan plan = subscriptionPlanRepository.findAll().get(0);
+        PaymentTransaction transaction = new PaymentTransaction(admin, plan, plan.getPrice(), "VISA");
+        transaction.setStatus(PaymentStatus.PROCESSING);
+        return paymentTransactionRepository.save(transaction);
+    }
+
+    /**
+     * Envío una notificación firmada para una transacción.
+     *
+     * @param transaction transacción notificada
+     * @param paymentStatus estado notificado
+     * @throws Exception si falla la petición
+     */
+    private void notify(PaymentTransaction transaction, PaymentStatus paymentStatus) throws Exception {
+        send(payload(UUID.randomUUID().toString(), transaction.getReferenceCode(), paymentStatus))
+                .andExpect(status().isAccepted());
+    }
+
+    /**
+     * Envío un cuerpo firmado con el secreto de la aplicación.
+     *
+     * @param body cuerpo de la notificación
+     * @return resultado de la petición
+     * @throws Exception si falla la petición
+     */
+    private ResultActions send(byte[] body) throws Exception {
+        return perform(post("/payment/webhook")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Webhook-Signature", HexFormat.of().formatHex(paymentWebhookService.sign(body)))
+                .content(body));
+    }
+
+    /**
+     * Hago la petición y, como el webhook responde de forma asíncrona, espero a
+     * su respuesta final.
+     *
+     * @param request petición a enviar
+     * @return resultado de la petición ya completada
+     * @throws Exception si falla la petición
+     */
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions result = mockMvc.perform(request);
+        MvcResult mvcResult = result.andReturn();
+        return mvcResult.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(mvcResult)) : result;
+    }
+
+    private byte[] payload(String eventId, String referenceCode, PaymentStatus paymentStatus) {
+        return ("{\"event_id\":\"" + eventId + "\",\"reference_code\":\"" + referenceCode
+                + "\",\"status\":\"" + paymentStatus + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private JsonNode json(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andReturn().getResponse().getContentAsString());
+    }
+
+    private PaymentStatus statusOf(PaymentTransaction transaction) {
+        return paymentTransactionRepository.findById(transaction.getId()).orElseThrow().getStatus();
+    }
+
+    private List<PaymentStatus> outboxStatuses(PaymentTransaction transaction) {
+        return outboxRepository.findAll().stream()
+                .filter(event -> event.getTransactionId().equals(transaction.getId()))
+                .sorted(Comparator.comparing(PaymentOutboxEvent::getCreatedAt).thenComparing(PaymentOutboxEvent::getId))
+                .map(PaymentOutboxEvent::getPaymentStatus)
+                .toList();
+    }
+}
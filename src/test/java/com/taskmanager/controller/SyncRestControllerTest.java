@@ -0,0 +1,127 @@
+package com.taskmanager.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanager.model.Task;
+import com.taskmanager.model.User;
+import com.taskmanager.service.TaskService;
+import com.taskmanager.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test de la sincronización incremental donde compruebo que un cliente con token
+ * recibe solo lo que ha cambiado, incluidos los borrados.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:sync",
+                "app.sync.overlap-ms=0"
+        })
+@AutoConfigureMockMvc
+class SyncRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserService userService;
+
+    /**
+     * Test donde verifico que sin cambios la sincronización va vacía y que después
+     * llegan la ubicación creada, la tarea creada y sus borrados.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    @WithUserDetails("test")
+    void shouldReturnOnlyChangesAndTombstonesSinceToken() throws Exception {
+        // ARRANGE - Primera sincronización completa
+        JsonNode first = sync(null);
+        JsonNode steady = sync(first.get("token").asText());
+
+        // ASSERT
+        assertTrue(first.get("full").asBoolean());
+        assertFalse(first.toString().contains("password"), "La sincronización no debe sacar el usuario");
+        assertFalse(steady.get("full").asBoolean());
+        assertEquals(0, steady.get("tasks").size() + steady.get("locations").size()
+                + steady.get("deletedTaskIds").size() + steady.get("deletedLocationIds").size());
+
+        // ACT - Creo una ubicación y una tarea
+        User user = userService.findByUsername("test");
+        Task task = taskService.saveTask(new Task("Sincronizar", "Tarea nueva", user));
+        mockMvc.perform(post("/api/locations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Almacen\",\"latitude\":41.38,\"longitude\":2.17}"))
+                .andExpect(status().isCreated());
+        JsonNode afterCreate = sync(steady.get("token").asText());
+
+        // ASSERT
+        assertEquals(1, afterCreate.get("tasks").size());
+        assertEquals(task.getId().longValue(), afterCreate.get("tasks").get(0).get("id").asLong());
+        assertEquals(1, afterCreate.get("locations").size());
+        assertEquals("Almacen", afterCreate.get("locations").get(0).get("name").asText());
+        long locationId = afterCreate.get("locations").get(0).get("id").asLong();
+
+        // ACT - Borro las dos
+        taskService.deleteTask(task.getId());
+        mockMvc.perform(delete("/api/locations/" + locationId)).andExpect(status().isOk());
+        JsonNode afterDelete = sync(afterCreate.get("token").asText());
+
+        // ASSERT
+        assertEquals(0, afterDelete.get("tasks").size());
+        assertEquals(0, afterDelete.get("locations").size());
+        assertEquals(task.getId().longValue(), afterDelete.get("deletedTaskIds").get(0).asLong());
+        assertEquals(locationId, afterDelete.get("deletedLocationIds").get(0).asLong());
+        assertTrue(taskService.getTaskById(task.getId()).isEmpty(), "La lápida no se ve en las consultas normales");
+    }
+
+    /**
+     * Test donde verifico que un token que no es un número se rechaza con 400.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    @WithUserDetails("test")
+    void shouldRejectInvalidToken() throws Exception {
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/sync").param("since", "ayer"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Pido los cambios desde un token.
+     *
+     * @param since token de la sincronización anterior o null
+     * @return respuesta JSON
+     * @throws Exception si falla la petición
+     */
+    private JsonNode sync(String since) throws Exception {
+        String body = mockMvc.perform(since == null ? get("/api/sync") : get("/api/sync").param("since", since))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,118 @@
+package com.taskmanager.controller;
+
+import com.taskmanager.config.QueryCountingDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test de las peticiones condicionales de la API de ubicaciones donde compruebo
+ * que una visita repetida al mapa se responde con 304 leyendo solo la versión guardada en la base de datos.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:locationetag",
+                "app.payment.outbox.poll-interval-ms=3600000"
+        })
+@AutoConfigureMockMvc
+class TaskLocationRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Test donde verifico que con la ETag actual la API responde 304 con una sola sentencia SQL,
+     * la lectura de la versión.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    @WithUserDetails("test")
+    void shouldAnswerNotModifiedWithSingleVersionLookup() throws Exception {
+        // ARRANGE
+        String eTag = mockMvc.perform(get("/api/locations"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andReturn().getResponse().getHeader("ETag");
+        long queriesBefore = QueryCountingDataSource.currentThreadCount();
+
+        // ACT
+        mockMvc.perform(get("/api/locations").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag));
+        long queries = QueryCountingDataSource.currentThreadCount() - queriesBefore;
+
+        // ASSERT
+        assertNotNull(eTag);
+        assertEquals(1, queries);
+    }
+
+    /**
+     * Test donde verifico que crear una ubicación cambia la ETag y la ETag vieja
+     * vuelve a descargar la lista.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    @WithUserDetails("test")
+    void shouldChangeETagAfterMutation() throws Exception {
+        // ARRANGE
+        String oldETag = mockMvc.perform(get("/api/locations"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // ACT
+        mockMvc.perform(post("/api/locations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Oficina\",\"latitude\":40.42,\"longitude\":-3.70}"))
+                .andExpect(status().isCreated());
+        String newETag = mockMvc.perform(get("/api/locations").header("If-None-Match", oldETag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // ASSERT
+        assertNotEquals(oldETag, newETag);
+    }
+
+    /**
+     * Test donde verifico que la versión sale de la base de datos y no de la memoria de la instancia:
+     * un cambio confirmado por otra instancia, que solo sube la columna, invalida la ETag.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    @WithUserDetails("test")
+    void shouldChangeETagWhenAnotherInstanceBumpsVersion() throws Exception {
+        // ARRANGE
+        String oldETag = mockMvc.perform(get("/api/locations"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // ACT - Lo que escribe LocationVersionService.bump en otra instancia
+        jdbcTemplate.update("update users set location_version = location_version + 1 where username = ?", "test");
+        String newETag = mockMvc.perform(get("/api/locations").header("If-None-Match", oldETag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // ASSERT
+        assertNotNull(newETag);
+        assertNotEquals(oldETag, newETag);
+    }
+}
@@ -0,0 +1,130 @@
+package com.taskmanager.controller;
+
+import com.taskmanager.model.User;
+import com.taskmanager.model.UserRole;
+import com.taskmanager.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test del catálogo de usuarios donde compruebo que la paginación por cursor recorre
+ * todos los usuarios sin repetir ni saltar ninguno y que la búsqueda es por prefijo.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        properties = "spring.datasource.url=jdbc:h2:mem:usercatalog")
+@AutoConfigureMockMvc
+@WithUserDetails("admin")
+class UserCatalogControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    /**
+     * Creo unos usuarios de catálogo una sola vez por contexto.
+     */
+    @BeforeEach
+    void setUp() {
+        if (userService.findByUsername("Catalogo1") != null) {
+            return;
+        }
+        for (int i = 1; i <= 7; i++) {
+            userService.createUser("Catalogo" + i, "cat" + i + "@catalogo.com", "secreto123", UserRole.USER);
+        }
+        userService.createUser("otro_usuario", "Catalogo.Correo@test.com", "secreto123", UserRole.USER);
+    }
+
+    /**
+     * Test donde verifico que siguiendo los cursores veo cada usuario una sola vez,
+     * en los dos órdenes del catálogo.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    void shouldWalkWholeCatalogWithCursors() throws Exception {
+        // ARRANGE
+        long total = userService.estimateUserCount();
+
+        for (String sort : List.of("recent", "username")) {
+            // ACT
+            String url = "/users/catalog?sort=" + sort + "&size=3";
+            List<String> seen = walk(url, url + "&cursor=");
+
+            // ASSERT
+            assertEquals(total, seen.size(), "Orden " + sort + ": " + seen);
+            assertEquals(total, new HashSet<>(seen).size(), "Sin repetidos en orden " + sort);
+        }
+    }
+
+    /**
+     * Test donde verifico que la búsqueda encuentra por prefijo de usuario o de email
+     * sin distinguir mayúsculas, y no por texto en medio.
+     *
+     * @throws Exception si falla la petición
+     */
+    @Test
+    void shouldSearchByUsernameOrEmailPrefix() throws Exception {
+        // ACT
+        List<String> byPrefix = walk("/users/search?query=catalogo&size=3",
+                "/users/search?query=catalogo&size=3&cursor=");
+        List<String> inTheMiddle = walk("/users/search?query=talogo", "/users/search?query=talogo&cursor=");
+        List<String> wildcard = walk("/users/search?query=%25", "/users/search?query=%25&cursor=");
+
+        // ASSERT
+        Set<String> expected = new HashSet<>(List.of("Catalogo1", "Catalogo2", "Catalogo3", "Catalogo4",
+                "Catalogo5", "Catalogo6", "Catalogo7", "otro_usuario"));
+        assertEquals(8, byPrefix.size());
+        assertEquals(expected, new HashSet<>(byPrefix));
+        assertTrue(inTheMiddle.isEmpty(), "La búsqueda es por prefijo: " + inTheMiddle);
+        assertTrue(wildcard.isEmpty(), "Los comodines se buscan literales: " + wildcard);
+    }
+
+    /**
+     * Recorro todas las páginas siguiendo el cursor "siguiente".
+     *
+     * @param firstUrl URL de la primera página
+     * @param nextUrl URL de las siguientes, a la que añado el cursor
+     * @return usernames en el orden mostrado
+     * @throws Exception si falla la petición
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> walk(String firstUrl, String nextUrl) throws Exception {
+        List<String> seen = new ArrayList<>();
+        String url = firstUrl;
+        for (int guard = 0; url != null && guard < 100; guard++) {
+            ModelAndView view = mockMvc.perform(get(url))
+                    .andExpect(status().isOk())
+                    .andReturn().getModelAndView();
+            Map<String, Object> model = view.getModel();
+            for (User user : (List<User>) model.get("users")) {
+                seen.add(user.getUsername());
+            }
+            String cursor = (String) model.get("nextCursor");
+            url = cursor == null ? null : nextUrl + cursor;
+        }
+        return seen;
+    }
+}
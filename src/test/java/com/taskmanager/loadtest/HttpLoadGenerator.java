@@ -0,0 +1,187 @@
+package com.taskmanager.loadtest;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de carga para comparar el modo de hilos virtuales con el de hilos de plataforma.
+ * No es un test de JUnit: se ejecuta a mano contra una aplicación ya arrancada.
+ *
+ * Cada usuario virtual es un bucle cerrado (petición, respuesta, siguiente petición) hecho
+ * con el cliente asíncrono de java.net.http, así 10.000 usuarios no necesitan 10.000 hilos
+ * en el generador. Todos comparten la sesión de un único login.
+ *
+ * Uso:
+ * mvn -q test-compile
+ * java -cp target/test-classes com.taskmanager.loadtest.HttpLoadGenerator \
+ *      http://localhost:8080 /api/locations 1000,5000,10000 30 test test123
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+public class HttpLoadGenerator {
+
+    /**
+     * Segundos de calentamiento que no cuentan en las latencias.
+     */
+    private static final int WARMUP_SECONDS = 5;
+
+    /**
+     * Tiempo máximo de espera de cada petición.
+     */
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final String path;
+
+    /**
+     * Creo el generador con su propio almacén de cookies para la sesión.
+     *
+     * @param baseUrl URL de la aplicación
+     * @param path ruta que se carga
+     */
+    public HttpLoadGenerator(String baseUrl, String path) {
+        this.client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .connectTimeout(REQUEST_TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        this.baseUrl = baseUrl;
+        this.path = path;
+    }
+
+    /**
+     * Ejecuto la carga para cada número de usuarios concurrentes e imprimo una fila por nivel.
+     *
+     * @param args URL, ruta, usuarios separados por comas, segundos por nivel, usuario y contraseña
+     * @throws Exception si el login falla
+     */
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        String path = args.length > 1 ? args[1] : "/api/locations";
+        int[] levels = Arrays.stream((args.length > 2 ? args[2] : "1000,5000,10000").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        String username = args.length > 4 ? args[4] : "test";
+        String password = args.length > 5 ? args[5] : "test123";
+
+        HttpLoadGenerator generator = new HttpLoadGenerator(baseUrl, path);
+        generator.login(username, password);
+
+        System.out.println("usuarios | peticiones/s | p50 ms | p99 ms | errores");
+        for (int users : levels) {
+            System.out.println(generator.run(users, seconds));
+        }
+    }
+
+    /**
+     * Hago login con el formulario y guardo la cookie de sesión.
+     *
+     * @param username nombre de usuario
+     * @param password contraseña
+     * @throws Exception si el login no redirige a la aplicación
+     */
+    public void login(String username, String password) throws Exception {
+        String form = "username=" + URLEncoder.encode(username, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(password, StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        String location = response.headers().firstValue("Location").orElse("");
+        if (response.statusCode() != 302 || location.contains("error")) {
+            throw new IllegalStateException("Login fallido: " + response.statusCode() + " " + location);
+        }
+    }
+
+    /**
+     * Mantengo los usuarios concurrentes durante el tiempo indicado y mido las latencias
+     * a partir del calentamiento.
+     *
+     * @param users usuarios concurrentes
+     * @param seconds duración del nivel sin contar el calentamiento
+     * @return fila de resultados
+     */
+    public String run(int users, int seconds) {
+        long startNanos = System.nanoTime();
+        long measureFrom = startNanos + Duration.ofSeconds(WARMUP_SECONDS).toNanos();
+        long stopAt = measureFrom + Duration.ofSeconds(seconds).toNanos();
+
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+
+        List<CompletableFuture<Void>> loops = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            loops.add(loop(measureFrom, stopAt, latencies, errors));
+        }
+        CompletableFuture.allOf(loops.toArray(new CompletableFuture[0])).join();
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        double throughput = sorted.length / (double) seconds;
+        return String.format("%8d | %12.0f | %6.1f | %6.1f | %d",
+                users, throughput, percentileMs(sorted, 0.50), percentileMs(sorted, 0.99), errors.get());
+    }
+
+    /**
+     * Bucle cerrado de un usuario: cuando llega una respuesta lanza la siguiente petición.
+     *
+     * @param measureFrom instante desde el que se miden latencias
+     * @param stopAt instante en que el usuario deja de pedir
+     * @param latencies latencias medidas en nanosegundos
+     * @param errors contador de errores
+     * @return futuro que termina al acabar el bucle
+     */
+    private CompletableFuture<Void> loop(long measureFrom, long stopAt,
+                                         ConcurrentLinkedQueue<Long> latencies, AtomicLong errors) {
+        long sentAt = System.nanoTime();
+        if (sentAt >= stopAt) {
+            return CompletableFuture.completedFuture(null);
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    if (sentAt >= measureFrom) {
+                        if (failure != null || response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        } else {
+                            latencies.add(System.nanoTime() - sentAt);
+                        }
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> loop(measureFrom, stopAt, latencies, errors));
+    }
+
+    /**
+     * Calculo un percentil sobre las latencias ordenadas.
+     *
+     * @param sorted latencias ordenadas en nanosegundos
+     * @param percentile percentil entre 0 y 1
+     * @return latencia en milisegundos
+     */
+    private static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
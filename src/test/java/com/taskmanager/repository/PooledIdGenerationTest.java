@@ -0,0 +1,113 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.config.HibernateCacheConfig;
+import com.taskmanager.model.Task;
+import com.taskmanager.model.User;
+import com.taskmanager.model.UserRole;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de la generación de ids con secuencias pooled-lo donde compruebo que
+ * los inserts masivos piden ids por bloques y se envían en lotes JDBC.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@DataJpaTest
+@Import(HibernateCacheConfig.class)
+class PooledIdGenerationTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Usuario dueño de las tareas.
+     */
+    private User user;
+
+    /**
+     * Estadísticas de Hibernate.
+     */
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("pooled_user");
+        user.setEmail("pooled_user@test.com");
+        user.setPassword("x");
+        user.setRole(UserRole.USER);
+        entityManager.persistAndFlush(user);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    /**
+     * Test donde verifico que guardar 120 tareas no hace 120 viajes a la base de datos:
+     * 3 llamadas a la secuencia (bloques de 50) y los inserts agrupados en lotes.
+     */
+    @Test
+    void shouldBatchInsertsWithPooledIds() {
+        // ARRANGE
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= 120; i++) {
+            tasks.add(new Task("Tarea " + i, null, user));
+        }
+
+        // ACT
+        taskRepository.saveAll(tasks);
+        entityManager.flush();
+
+        // ASSERT
+        long statements = statistics.getPrepareStatementCount();
+        System.out.println("📊 SENTENCIAS PREPARADAS PARA 120 INSERTS: " + statements);
+        assertTrue(statements <= 6, "Secuencia por bloques e inserts en lote: " + statements);
+        assertEquals(120, tasks.stream().map(Task::getId).distinct().count());
+        assertEquals(120, taskRepository.countPendingTasksByUser(user));
+    }
+
+    /**
+     * Test donde verifico que un insert hecho a mano toma su id de la secuencia
+     * y no choca con el bloque que Hibernate ya tiene reservado.
+     */
+    @Test
+    void shouldNotCollideWithManualInserts() {
+        // ARRANGE - Hibernate reserva un bloque de ids
+        Task first = taskRepository.saveAndFlush(new Task("Con Hibernate", null, user));
+
+        // ACT
+        jdbcTemplate.update("INSERT INTO tasks (title, completed, created_at, user_id) "
+                + "VALUES ('A mano', FALSE, CURRENT_TIMESTAMP, ?)", user.getId());
+        Task second = taskRepository.saveAndFlush(new Task("Con Hibernate otra vez", null, user));
+
+        // ASSERT
+        Long manualId = jdbcTemplate.queryForObject("SELECT id FROM tasks WHERE title = 'A mano'", Long.class);
+        assertEquals(first.getId() + 1, second.getId(), "El segundo id sale del mismo bloque en memoria");
+        assertTrue(manualId >= first.getId() + 50, "El insert manual empieza un bloque nuevo: " + manualId);
+    }
+}
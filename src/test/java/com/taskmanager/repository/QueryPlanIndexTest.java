@@ -0,0 +1,283 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.config.HibernateCacheConfig;
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskLocation;
+import com.taskmanager.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de planes de consulta donde compruebo que las migraciones de Flyway
+ * crean los índices compuestos y que H2 los elige para las consultas
+ * calientes de los repositorios.
+ *
+ * También comparo las filas recorridas con y sin índice sobre un volumen
+ * de datos parecido al de producción.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@DataJpaTest
+@Import(HibernateCacheConfig.class)
+class QueryPlanIndexTest {
+
+    /**
+     * Extraigo el número de filas recorridas de EXPLAIN ANALYZE.
+     */
+    private static final Pattern SCAN_COUNT = Pattern.compile("scanCount: (\\d+)");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskLocationRepository taskLocationRepository;
+
+    /**
+     * Id del primer usuario de prueba.
+     */
+    private Long userId;
+
+    /**
+     * Cargo 50 usuarios con 100 filas cada uno en las tablas consultadas y actualizo
+     * las estadísticas; con las tablas vacías el optimizador no distingue entre índices.
+     * ANALYZE confirma la transacción, así que los datos se cargan una sola vez por contexto.
+     */
+    @BeforeEach
+    void setUp() {
+        userId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users WHERE username = 'plan_1'", Long.class);
+        if (userId != null) {
+            return;
+        }
+
+        jdbcTemplate.update("INSERT INTO users (username, email, password, role, enabled) "
+                + "SELECT 'plan_' || X, 'plan_' || X || '@test.com', 'x', 'USER', TRUE FROM SYSTEM_RANGE(1, 50)");
+        jdbcTemplate.update("INSERT INTO subscription_plans (name, price, active) VALUES ('Plan test', 9.99, TRUE)");
+        Long planId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM subscription_plans", Long.class);
+
+        jdbcTemplate.update("INSERT INTO tasks (title, completed, created_at, user_id) "
+                + "SELECT 'Tarea ' || X, MOD(X, 2) = 0, DATEADD('MINUTE', -X, CURRENT_TIMESTAMP), u.id "
+                + "FROM SYSTEM_RANGE(1, 100) CROSS JOIN users u WHERE u.username LIKE 'plan_%'");
+        jdbcTemplate.update("INSERT INTO task_locations (name, latitude, longitude, active, created_at, user_id) "
+                + "SELECT 'Lugar ' || X, 0, 0, MOD(X, 2) = 0, DATEADD('MINUTE', -X, CURRENT_TIMESTAMP), u.id "
+                + "FROM SYSTEM_RANGE(1, 100) CROSS JOIN users u WHERE u.username LIKE 'plan_%'");
+        jdbcTemplate.update("INSERT INTO user_subscriptions (user_id, subscription_plan_id, status, start_date) "
+                + "SELECT u.id, " + planId + ", CASE WHEN X = 1 THEN 'ACTIVE' ELSE 'EXPIRED' END, CURRENT_TIMESTAMP "
+                + "FROM SYSTEM_RANGE(1, 100) CROSS JOIN users u WHERE u.username LIKE 'plan_%'");
+        jdbcTemplate.update("INSERT INTO payment_transactions (user_id, subscription_plan_id, amount, currency, status, "
+                + "reference_code, transaction_date) "
+                + "SELECT u.id, " + planId + ", 9.99, 'USD', CASE MOD(X, 4) WHEN 0 THEN 'COMPLETED' WHEN 1 THEN 'FAILED' "
+                + "WHEN 2 THEN 'REJECTED' ELSE 'PENDING' END, 'REF-' || u.id || '-' || X, "
+                + "DATEADD('HOUR', -X, CURRENT_TIMESTAMP) "
+                + "FROM SYSTEM_RANGE(1, 100) CROSS JOIN users u WHERE u.username LIKE 'plan_%'");
+        jdbcTemplate.execute("ANALYZE");
+
+        userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'plan_1'", Long.class);
+    }
+
+    /**
+     * Test donde verifico que los contadores de tareas pendientes y
+     * completadas usan el índice (user_id, completed).
+     */
+    @Test
+    void shouldUseUserCompletedIndexForTaskCounters() {
+        // ACT
+        String plan = explain("SELECT COUNT(*) FROM tasks WHERE user_id = " + userId + " AND completed = FALSE");
+
+        // ASSERT
+        assertTrue(plan.contains("IDX_TASKS_USER_COMPLETED"), plan);
+    }
+
+    /**
+     * Test donde verifico que las tareas y ubicaciones recientes se piden con LIMIT:
+     * devuelven solo N filas, ordenadas de más nueva a más antigua.
+     */
+    @Test
+    void shouldReturnBoundedRecentItems() {
+        // ARRANGE
+        User user = entityManager.find(User.class, userId);
+
+        // ACT
+        List<Task> tasks = taskRepository.findRecentByUser(user, PageRequest.of(0, 3));
+        List<TaskLocation> locations = taskLocationRepository.findRecentByUser(user, PageRequest.of(0, 3));
+
+        // ASSERT
+        assertEquals(3, tasks.size());
+        assertEquals(3, locations.size());
+        assertEquals("Tarea 1", tasks.get(0).getTitle(), "La primera debe ser la más reciente");
+        assertFalse(tasks.get(0).getCreatedAt().isBefore(tasks.get(2).getCreatedAt()));
+        assertEquals("Lugar 1", locations.get(0).getName());
+    }
+
+    /**
+     * Test donde verifico que el top-N reciente solo recorre las filas del usuario
+     * y no la tabla entera.
+     */
+    @Test
+    void shouldScanOnlyUserRowsForRecentItems() {
+        // ACT
+        long scanned = scanCount("SELECT * FROM tasks WHERE user_id = " + userId
+                + " ORDER BY created_at DESC, id DESC LIMIT 5");
+
+        // ASSERT
+        assertTrue(scanned <= 101, "Solo recorro las tareas del usuario: " + scanned);
+    }
+
+    /**
+     * Test donde verifico que las ubicaciones activas ordenadas por nombre
+     * usan el índice (user_id, active, name).
+     */
+    @Test
+    void shouldUseUserActiveNameIndexForActiveLocations() {
+        // ACT
+        String plan = explain("SELECT * FROM task_locations WHERE user_id = " + userId
+                + " AND active = TRUE ORDER BY name");
+
+        // ASSERT
+        assertTrue(plan.contains("IDX_TASK_LOCATIONS_USER_ACTIVE_NAME"), plan);
+    }
+
+    /**
+     * Test donde verifico que la suscripción activa del usuario usa el índice (user_id, status).
+     */
+    @Test
+    void shouldUseUserStatusIndexForActiveSubscription() {
+        // ACT
+        String plan = explain("SELECT * FROM user_subscriptions WHERE user_id = " + userId
+                + " AND status = 'ACTIVE'");
+
+        // ASSERT
+        assertTrue(plan.contains("IDX_USER_SUBSCRIPTIONS_USER_STATUS"), plan);
+    }
+
+    /**
+     * Test donde verifico que los pagos por usuario y estado usan el índice
+     * (user_id, status, transaction_date).
+     */
+    @Test
+    void shouldUseUserStatusDateIndexForPaymentsByStatus() {
+        // ACT
+        String plan = explain("SELECT * FROM payment_transactions WHERE user_id = " + userId
+                + " AND status = 'COMPLETED' "
+                + "ORDER BY transaction_date DESC");
+
+        // ASSERT
+        assertTrue(plan.contains("IDX_PAYMENT_TRANSACTIONS_USER_STATUS_DATE"), plan);
+    }
+
+    /**
+     * Test donde verifico que el limpiador de pagos atascados usa el índice (status, transaction_date).
+     */
+    @Test
+    void shouldUseStatusDateIndexForStalePayments() {
+        // ACT
+        String plan = explain("SELECT * FROM payment_transactions WHERE status = 'PENDING' "
+                + "AND transaction_date < TIMESTAMP '2025-01-01 00:00:00'");
+
+        // ASSERT
+        assertTrue(plan.contains("IDX_PAYMENT_TRANSACTIONS_STATUS_DATE"), plan);
+    }
+
+    /**
+     * Test donde verifico que la búsqueda de usuarios por prefijo usa los índices
+     * (columna en minúsculas, id) tanto para el LIKE como para el orden de la página.
+     */
+    @Test
+    void shouldUseLowerCaseIndexesForUserPrefixSearch() {
+        // ACT
+        String byUsername = explain("SELECT * FROM users WHERE username_lower LIKE 'plan\\_1%' ESCAPE '\\' "
+                + "AND username_lower >= 'plan_1' AND (username_lower > 'plan_1' OR id > 5) "
+                + "ORDER BY username_lower, id LIMIT 21");
+        String byEmail = explain("SELECT * FROM users WHERE email_lower LIKE 'plan\\_1%' ESCAPE '\\' "
+                + "AND email_lower >= '' AND (email_lower > '' OR id > 0) "
+                + "ORDER BY email_lower, id LIMIT 21");
+
+        // ASSERT
+        assertTrue(byUsername.contains("IDX_USERS_USERNAME_LOWER"), byUsername);
+        assertTrue(byEmail.contains("IDX_USERS_EMAIL_LOWER"), byEmail);
+        assertTrue(byUsername.contains("INDEX SORTED"), "La página sale ordenada del índice: " + byUsername);
+        assertTrue(byEmail.contains("INDEX SORTED"), "La página sale ordenada del índice: " + byEmail);
+    }
+
+    /**
+     * Test donde verifico que la página siguiente del catálogo usa el índice (created_at, id)
+     * y solo recorre las filas de la página.
+     */
+    @Test
+    void shouldUseCreatedIdIndexForUserCatalogKeyset() {
+        // ARRANGE
+        String query = "SELECT * FROM users WHERE created_at <= TIMESTAMP '2999-01-01 00:00:00' "
+                + "AND (created_at < TIMESTAMP '2999-01-01 00:00:00' OR id < 0) "
+                + "ORDER BY created_at DESC, id DESC LIMIT 11";
+
+        // ACT
+        String plan = explain(query);
+
+        // ASSERT
+        assertTrue(plan.contains("IDX_USERS_CREATED_ID"), plan);
+    }
+
+    /**
+     * Test donde mido el efecto del índice: con 50 usuarios y 100 tareas cada uno,
+     * contar las pendientes de un usuario solo debe recorrer sus filas y no la tabla entera.
+     */
+    @Test
+    void shouldScanFewerRowsWithCompositeIndex() {
+        // ARRANGE
+        String query = " WHERE user_id = " + userId + " AND completed = FALSE";
+
+        // ACT
+        long indexedRows = scanCount("SELECT COUNT(*) FROM tasks" + query);
+        long fullScanRows = scanCount("SELECT COUNT(*) FROM tasks USE INDEX ()" + query);
+
+        // ASSERT
+        System.out.println("📊 FILAS RECORRIDAS - Con índice: " + indexedRows + " | Sin índice: " + fullScanRows);
+        assertTrue(indexedRows <= 51, "Con índice solo recorro las pendientes del usuario: " + indexedRows);
+        assertTrue(fullScanRows >= 5000, "Sin índice recorro la tabla completa: " + fullScanRows);
+    }
+
+    /**
+     * Obtengo el plan de ejecución de una consulta.
+     *
+     * @param sql consulta
+     * @return plan en texto
+     */
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).toUpperCase();
+    }
+
+    /**
+     * Ejecuto EXPLAIN ANALYZE y sumo las filas recorridas.
+     *
+     * @param sql consulta
+     * @return filas recorridas
+     */
+    private long scanCount(String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN ANALYZE " + sql, String.class);
+        Matcher matcher = SCAN_COUNT.matcher(plan);
+        long total = 0;
+        while (matcher.find()) {
+            total += Long.parseLong(matcher.group(1));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,120 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.config.HibernateCacheConfig;
+import com.taskmanager.model.SubscriptionPlan;
+import com.taskmanager.model.User;
+import com.taskmanager.model.UserRole;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de la caché de segundo nivel donde compruebo que los planes y los usuarios
+ * se sirven desde Caffeine tras la primera lectura, sin volver a la base de datos.
+ *
+ * Leo los contadores de las estadísticas de Hibernate, los mismos que publica actuator.
+ * Los tests no abren transacción: con READ_WRITE una fila escrita en la transacción
+ * en curso no entra en la caché hasta el commit, así que cada llamada al repositorio
+ * se confirma por separado, igual que en una petición real.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@DataJpaTest
+@Import(HibernateCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SubscriptionPlanRepository subscriptionPlanRepository;
+
+    /**
+     * Estadísticas de Hibernate.
+     */
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findByUsername("cache_user").ifPresent(userRepository::delete);
+        subscriptionPlanRepository.findByName("CACHE_TEST").ifPresent(subscriptionPlanRepository::delete);
+    }
+
+    /**
+     * Test donde verifico que la segunda lectura de un plan es un acierto
+     * en la región subscription-plans.
+     */
+    @Test
+    void shouldServePlanFromSecondLevelCache() {
+        // ARRANGE
+        SubscriptionPlan plan = new SubscriptionPlan();
+        plan.setName("CACHE_TEST");
+        plan.setPrice(new BigDecimal("4.99"));
+        Long planId = subscriptionPlanRepository.save(plan).getId();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        // ACT - La primera lectura va a la base de datos y llena la caché
+        subscriptionPlanRepository.findById(planId);
+        SubscriptionPlan cached = subscriptionPlanRepository.findById(planId).orElseThrow();
+
+        // ASSERT
+        assertEquals("CACHE_TEST", cached.getName());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("subscription-plans").getMissCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("subscription-plans").getHitCount());
+    }
+
+    /**
+     * Test donde verifico que la búsqueda por username, que se hace en cada petición,
+     * sale de la caché de consultas la segunda vez.
+     */
+    @Test
+    void shouldServeUsernameLookupFromQueryCache() {
+        // ARRANGE
+        User user = new User();
+        user.setUsername("cache_user");
+        user.setEmail("cache_user@test.com");
+        user.setPassword("x");
+        user.setRole(UserRole.USER);
+        userRepository.save(user);
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        // ACT
+        userRepository.findByUsername("cache_user");
+        long statementsBefore = statistics.getPrepareStatementCount();
+        User cached = userRepository.findByUsername("cache_user").orElseThrow();
+
+        // ASSERT
+        assertEquals("cache_user", cached.getUsername());
+        assertEquals(1, statistics.getQueryCacheMissCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(statementsBefore, statistics.getPrepareStatementCount(),
+                "La segunda búsqueda no debe lanzar SQL");
+    }
+}
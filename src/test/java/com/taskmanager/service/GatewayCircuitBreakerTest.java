@@ -0,0 +1,123 @@
+package com.taskmanager.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario para GatewayCircuitBreaker donde pruebo las transiciones
+ * entre cerrado, abierto y semiabierto del cortocircuito de la pasarela.
+ *
+ * Uso un reloj manual para avanzar el tiempo sin esperas reales.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+class GatewayCircuitBreakerTest {
+
+    /**
+     * Reloj que controlo desde el test.
+     */
+    private AtomicLong now;
+
+    /**
+     * Cortocircuito con umbral 50%, ventana de 10, mínimo 4 llamadas,
+     * 1 segundo abierto y 2 llamadas de prueba.
+     */
+    private GatewayCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(0);
+        breaker = new GatewayCircuitBreaker(0.5, 10, 4, 1000, 2, now::get);
+    }
+
+    /**
+     * Test donde verifico que el circuito se abre al superar la tasa de fallos
+     * y que mientras está abierto rechaza las llamadas al momento.
+     */
+    @Test
+    void shouldOpenWhenFailureRateExceedsThreshold() {
+        // ARRANGE & ACT - 2 éxitos y 2 fallos: 50% con el mínimo de llamadas cumplido
+        breaker.recordSuccess();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        assertEquals(GatewayCircuitBreaker.State.CLOSED, breaker.getState(),
+                "Con 3 llamadas aún no llego al mínimo para evaluar");
+        breaker.recordFailure();
+
+        // ASSERT
+        assertEquals(GatewayCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire(), "Con el circuito abierto no debe salir ninguna llamada");
+    }
+
+    /**
+     * Test donde verifico que tras el enfriamiento deja pasar solo las llamadas
+     * de prueba y que, si salen bien, el circuito se vuelve a cerrar.
+     */
+    @Test
+    void shouldCloseAfterSuccessfulHalfOpenCalls() {
+        // ARRANGE - Abro el circuito
+        for (int i = 0; i < 4; i++) {
+            breaker.recordFailure();
+        }
+        now.addAndGet(1000);
+
+        // ACT - Solo se permiten dos llamadas de prueba
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire(), "En semiabierto solo pasan las llamadas de prueba");
+        assertEquals(GatewayCircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.recordSuccess();
+        breaker.recordSuccess();
+
+        // ASSERT
+        assertEquals(GatewayCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    /**
+     * Test donde verifico que un fallo durante la prueba vuelve a abrir el circuito.
+     */
+    @Test
+    void shouldReopenWhenHalfOpenCallFails() {
+        // ARRANGE - Abro el circuito y dejo pasar el enfriamiento
+        for (int i = 0; i < 4; i++) {
+            breaker.recordFailure();
+        }
+        now.addAndGet(1000);
+        assertTrue(breaker.tryAcquire());
+
+        // ACT
+        breaker.recordFailure();
+
+        // ASSERT - Abierto otra vez y con el enfriamiento reiniciado
+        assertEquals(GatewayCircuitBreaker.State.OPEN, breaker.getState());
+        now.addAndGet(999);
+        assertFalse(breaker.tryAcquire());
+    }
+
+    /**
+     * Test donde verifico que los fallos aislados no abren el circuito
+     * porque la ventana se reinicia al completarse.
+     */
+    @Test
+    void shouldStayClosedWithLowFailureRate() {
+        // ACT - 1 fallo de cada 5 llamadas durante varias ventanas
+        for (int i = 0; i < 50; i++) {
+            if (i % 5 == 0) {
+                breaker.recordFailure();
+            } else {
+                breaker.recordSuccess();
+            }
+        }
+
+        // ASSERT
+        assertEquals(GatewayCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
@@ -0,0 +1,159 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.PaymentOutboxEvent;
+import com.taskmanager.model.PaymentStatus;
+import com.taskmanager.model.PaymentTransaction;
+import com.taskmanager.model.SubscriptionPlan;
+import com.taskmanager.model.User;
+import com.taskmanager.repository.PaymentOutboxEventRepository;
+import com.taskmanager.repository.PaymentTransactionRepository;
+import com.taskmanager.repository.SubscriptionPlanRepository;
+import com.taskmanager.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de la finalización de pagos donde compruebo que dos procesos que finalizan
+ * el mismo pago a la vez no lo finalizan dos veces ni escriben dos eventos.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.datasource.url=jdbc:h2:mem:paymentfinalization")
+class PaymentFinalizationTest {
+
+    @Autowired
+    private PaymentSimulatorService paymentSimulatorService;
+
+    @Autowired
+    private PaymentOutboxService paymentOutboxService;
+
+    @Autowired
+    private PaymentTransactionRepository paymentTransactionRepository;
+
+    @Autowired
+    private PaymentOutboxEventRepository outboxRepository;
+
+    @Autowired
+    private SubscriptionPlanRepository subscriptionPlanRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Test donde verifico que si otro proceso (como el limpiador) leyó el pago en curso
+     * y la pasarela lo completa antes, la escritura del otro proceso falla por versión.
+     *
+     * @throws Exception si falla el hilo del otro proceso
+     */
+    @Test
+    void shouldNotFinalizePaymentTwice() throws Exception {
+        // ARRANGE - El otro proceso lee el pago en curso y se queda esperando
+        PaymentTransaction transaction = processingTransaction();
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        AtomicReference<Throwable> otherError = new AtomicReference<>();
+        Thread reaper = new Thread(() -> {
+            try {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    PaymentTransaction stale = paymentTransactionRepository.findById(transaction.getId()).orElseThrow();
+                    loaded.countDown();
+                    await(proceed);
+                    assertFalse(stale.getStatus().isFinalized());
+                    stale.setStatus(PaymentStatus.FAILED);
+                    paymentOutboxService.recordFinalStatus(stale);
+                });
+            } catch (Throwable e) {
+                otherError.set(e);
+            }
+        });
+        reaper.start();
+        assertTrue(loaded.await(10, TimeUnit.SECONDS));
+
+        // ACT - La pasarela responde mientras tanto
+        gatewayCallback().completePayment(transaction.getId(),
+                new PaymentGatewaySimulator.GatewayResponse(PaymentStatus.COMPLETED, null, 0));
+        proceed.countDown();
+        reaper.join();
+
+        // ASSERT
+        assertInstanceOf(OptimisticLockingFailureException.class, otherError.get());
+        assertEquals(PaymentStatus.COMPLETED,
+                paymentTransactionRepository.findById(transaction.getId()).orElseThrow().getStatus());
+        List<PaymentStatus> events = outboxRepository.findAll().stream()
+                .filter(event -> event.getTransactionId().equals(transaction.getId()))
+                .map(PaymentOutboxEvent::getPaymentStatus)
+                .toList();
+        assertEquals(List.of(PaymentStatus.COMPLETED), events);
+    }
+
+    /**
+     * Test donde verifico que una respuesta de la pasarela para un pago que ya
+     * finalizó otro proceso no cambia nada.
+     */
+    @Test
+    void shouldIgnoreGatewayResponseForFinalizedPayment() {
+        // ARRANGE
+        PaymentTransaction transaction = processingTransaction();
+        gatewayCallback().completePayment(transaction.getId(),
+                new PaymentGatewaySimulator.GatewayResponse(PaymentStatus.REJECTED, "Fondos insuficientes", 0));
+
+        // ACT
+        gatewayCallback().completePayment(transaction.getId(),
+                new PaymentGatewaySimulator.GatewayResponse(PaymentStatus.COMPLETED, null, 0));
+
+        // ASSERT
+        PaymentTransaction stored = paymentTransactionRepository.findById(transaction.getId()).orElseThrow();
+        assertEquals(PaymentStatus.REJECTED, stored.getStatus());
+        assertEquals(1L, stored.getVersion());
+    }
+
+    /**
+     * Creo un pago en curso del usuario de pruebas.
+     *
+     * @return pago guardado en PROCESSING
+     */
+    private PaymentTransaction processingTransaction() {
+        User user = userRepository.findByUsername("test").orElseThrow();
+        SubscriptionPlan plan = subscriptionPlanRepository.findAll().get(0);
+        PaymentTransaction transaction = new PaymentTransaction(user, plan, plan.getPrice(), "VISA");
+        transaction.setStatus(PaymentStatus.PROCESSING);
+        return paymentTransactionRepository.save(transaction);
+    }
+
+    /**
+     * La respuesta de la pasarela llega desde el propio servicio, sin pasar por el proxy
+     * transaccional (readOnly a nivel de clase): la llamo igual.
+     *
+     * @return servicio sin proxy
+     */
+    private PaymentSimulatorService gatewayCallback() {
+        return AopTestUtils.getTargetObject(paymentSimulatorService);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.taskmanager.service;
+
+import com.taskmanager.config.PaymentGatewayProperties;
+import com.taskmanager.model.PaymentStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario para PaymentGatewaySimulator donde pruebo que el simulador
+ * de pasarela respeta la configuración de latencias, tasas de error y semilla.
+ *
+ * No necesito mocks porque el simulador solo depende de sus propiedades,
+ * así que construyo directamente la instancia con la configuración de cada escenario.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+class PaymentGatewaySimulatorTest {
+
+    /**
+     * Simulador que estoy testeando, lo cierro al final de cada test
+     * para no dejar hilos del planificador vivos.
+     */
+    private PaymentGatewaySimulator simulator;
+
+    @AfterEach
+    void tearDown() {
+        if (simulator != null) {
+            simulator.shutdown();
+        }
+    }
+
+    /**
+     * Test donde verifico que con la misma semilla obtengo exactamente
+     * la misma secuencia de resultados y latencias, que es lo que necesito
+     * para poder repetir una prueba de carga.
+     */
+    @Test
+    void shouldProduceSameSequenceWithSameSeed() {
+        // ARRANGE - Preparo dos simuladores con la misma semilla
+        PaymentGatewayProperties properties = new PaymentGatewayProperties();
+        properties.setSeed(42L);
+        properties.setLatencyType(PaymentGatewayProperties.LatencyType.LOG_NORMAL);
+
+        PaymentGatewaySimulator first = new PaymentGatewaySimulator(properties);
+        PaymentGatewaySimulator second = new PaymentGatewaySimulator(properties);
+
+        try {
+            // ACT - Pido 100 decisiones a cada uno con una tarjeta no predefinida
+            List<String> firstRun = new ArrayList<>();
+            List<String> secondRun = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                PaymentGatewaySimulator.GatewayResponse a = first.decide("4242424242424242");
+                PaymentGatewaySimulator.GatewayResponse b = second.decide("4242424242424242");
+                firstRun.add(a.getStatus() + ":" + a.getLatencyMs());
+                secondRun.add(b.getStatus() + ":" + b.getLatencyMs());
+            }
+
+            // ASSERT - Las dos secuencias deben ser idénticas
+            assertEquals(firstRun, secondRun, "Con la misma semilla los resultados deben repetirse");
+        } finally {
+            first.shutdown();
+            second.shutdown();
+        }
+    }
+
+    /**
+     * Test donde verifico que cada distribución de latencia respeta sus límites.
+     */
+    @Test
+    void shouldSampleLatencyWithinConfiguredBounds() {
+        // ARRANGE - Configuro un rango uniforme y la cola pesada con el mismo mínimo
+        PaymentGatewayProperties properties = new PaymentGatewayProperties();
+        properties.setMinLatencyMs(100);
+        properties.setMaxLatencyMs(300);
+        properties.setFixedLatencyMs(250);
+        simulator = new PaymentGatewaySimulator(properties);
+        Random random = new Random(7);
+
+        // ACT & ASSERT - Uniforme siempre dentro del rango
+        properties.setLatencyType(PaymentGatewayProperties.LatencyType.UNIFORM);
+        for (int i = 0; i < 1000; i++) {
+            long latency = simulator.sampleLatency(random);
+            assertTrue(latency >= 100 && latency <= 300, "La latencia uniforme debe estar en [100, 300]: " + latency);
+        }
+
+        // Fija siempre igual
+        properties.setLatencyType(PaymentGatewayProperties.LatencyType.FIXED);
+        assertEquals(250, simulator.sampleLatency(random), "La latencia fija debe ser siempre la configurada");
+
+        // Cola pesada nunca por debajo del mínimo
+        properties.setLatencyType(PaymentGatewayProperties.LatencyType.HEAVY_TAIL);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(simulator.sampleLatency(random) >= 100, "La cola pesada no puede bajar del mínimo");
+        }
+    }
+
+    /**
+     * Test donde verifico que las tarjetas de prueba mantienen su comportamiento
+     * y que la respuesta llega por el temporizador sin bloquear al que llama.
+     */
+    @Test
+    void shouldCompleteTestCardsAsynchronously() throws Exception {
+        // ARRANGE - Latencia fija corta para que el test sea rápido
+        PaymentGatewayProperties properties = new PaymentGatewayProperties();
+        properties.setLatencyType(PaymentGatewayProperties.LatencyType.FIXED);
+        properties.setFixedLatencyMs(50);
+        simulator = new PaymentGatewaySimulator(properties);
+
+        // ACT - Envío una tarjeta que aprueba y otra que rechaza
+        CompletableFuture<PaymentGatewaySimulator.GatewayResponse> approved =
+                simulator.authorize("4111111111111111", new BigDecimal("9.99"));
+        CompletableFuture<PaymentGatewaySimulator.GatewayResponse> declined =
+                simulator.authorize("4000000000000002", new BigDecimal("9.99"));
+
+        // ASSERT - Al volver todavía no hay respuesta, luego llegan con el estado esperado
+        assertFalse(approved.isDone(), "authorize no debe esperar a la latencia simulada");
+        assertEquals(PaymentStatus.COMPLETED, approved.get(2, TimeUnit.SECONDS).getStatus());
+        assertEquals(PaymentStatus.REJECTED, declined.get(2, TimeUnit.SECONDS).getStatus());
+    }
+
+    /**
+     * Test donde verifico que una latencia mayor que el tiempo máximo
+     * se convierte en un fallo por timeout.
+     */
+    @Test
+    void shouldFailWhenLatencyExceedsTimeout() {
+        // ARRANGE - Latencia fija por encima del timeout
+        PaymentGatewayProperties properties = new PaymentGatewayProperties();
+        properties.setLatencyType(PaymentGatewayProperties.LatencyType.FIXED);
+        properties.setFixedLatencyMs(5000);
+        properties.setTimeoutMs(1000);
+        simulator = new PaymentGatewaySimulator(properties);
+
+        // ACT
+        PaymentGatewaySimulator.GatewayResponse response = simulator.decide("4111111111111111");
+
+        // ASSERT - Debe fallar justo al vencer el timeout
+        assertEquals(PaymentStatus.FAILED, response.getStatus());
+        assertEquals(1000, response.getLatencyMs(), "La respuesta de timeout llega al vencer el límite");
+    }
+}
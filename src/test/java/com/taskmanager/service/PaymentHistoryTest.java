@@ -0,0 +1,163 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.PaymentStatus;
+import com.taskmanager.model.PaymentTransaction;
+import com.taskmanager.model.SubscriptionPlan;
+import com.taskmanager.model.User;
+import com.taskmanager.model.UserRole;
+import com.taskmanager.repository.PaymentTransactionRepository;
+import com.taskmanager.repository.SubscriptionPlanRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test del historial de pagos paginado donde compruebo el recorrido de las páginas,
+ * los filtros por estado, que la búsqueda trata %, _ y \ como texto y los contadores
+ * por estado.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:paymenthistory",
+                "app.payment.outbox.poll-interval-ms=3600000"
+        })
+class PaymentHistoryTest {
+
+    @Autowired
+    private PaymentSimulatorService paymentSimulatorService;
+
+    @Autowired
+    private PaymentTransactionRepository paymentTransactionRepository;
+
+    @Autowired
+    private SubscriptionPlanRepository subscriptionPlanRepository;
+
+    @Autowired
+    private UserService userService;
+
+    private User user;
+
+    /**
+     * Le doy a un usuario propio siete pagos con referencias conocidas una sola vez por contexto.
+     */
+    @BeforeEach
+    void setUp() {
+        user = userService.findByUsername("historial");
+        if (user != null) {
+            return;
+        }
+        user = userService.createUser("historial", "historial@test.com", "secreto123", UserRole.USER);
+        SubscriptionPlan plan = subscriptionPlanRepository.findAll().get(0);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+        save(plan, "HIST_1", PaymentStatus.COMPLETED, base.plusMinutes(1));
+        save(plan, "HISTX2", PaymentStatus.COMPLETED, base.plusMinutes(2));
+        save(plan, "HIST%3", PaymentStatus.FAILED, base.plusMinutes(3));
+        save(plan, "HIST\\4", PaymentStatus.REJECTED, base.plusMinutes(4));
+        save(plan, "HISTA5", PaymentStatus.PENDING, base.plusMinutes(5));
+        save(plan, "HISTB6", PaymentStatus.PROCESSING, base.plusMinutes(6));
+        save(plan, "HISTC7", PaymentStatus.REFUNDED, base.plusMinutes(7));
+    }
+
+    /**
+     * Test donde verifico que las páginas salen de la más reciente a la más antigua
+     * sin repetir ni saltar ningún pago.
+     */
+    @Test
+    void shouldWalkAllPagesNewestFirst() {
+        // ACT
+        List<String> references = new ArrayList<>();
+        Page<PaymentTransaction> page = paymentSimulatorService.getUserPaymentHistoryPage(user, "", null, 0, 3);
+        references.addAll(page.map(PaymentTransaction::getReferenceCode).getContent());
+        while (page.hasNext()) {
+            page = paymentSimulatorService.getUserPaymentHistoryPage(user, "", null, page.getNumber() + 1, 3);
+            references.addAll(page.map(PaymentTransaction::getReferenceCode).getContent());
+        }
+
+        // ASSERT
+        assertEquals(7, page.getTotalElements());
+        assertEquals(3, page.getTotalPages());
+        assertEquals(List.of("HISTC7", "HISTB6", "HISTA5", "HIST\\4", "HIST%3", "HISTX2", "HIST_1"), references);
+    }
+
+    /**
+     * Test donde verifico que cada filtro de la vista incluye los estados que agrupa.
+     */
+    @Test
+    void shouldFilterByStatusGroup() {
+        // ACT & ASSERT
+        assertEquals(List.of("HISTX2", "HIST_1"), references("COMPLETED", null));
+        assertEquals(List.of("HIST\\4", "HIST%3"), references("failed", null));
+        assertEquals(List.of("HISTB6", "HISTA5"), references("PENDING", null));
+        assertEquals(7, references("DESCONOCIDO", null).size());
+    }
+
+    /**
+     * Test donde verifico que los comodines de LIKE en la búsqueda se buscan literales.
+     */
+    @Test
+    void shouldSearchReferencePrefixLiterally() {
+        // ACT & ASSERT
+        assertEquals(List.of("HIST_1"), references(null, "HIST_"));
+        assertEquals(List.of("HIST%3"), references(null, " HIST% "));
+        assertEquals(List.of("HIST\\4"), references(null, "HIST\\"));
+        assertEquals(List.of("HISTX2"), references(null, "HISTX"));
+        assertEquals(7, references(null, "HIST").size());
+        assertTrue(references(null, "%").isEmpty());
+    }
+
+    /**
+     * Test donde verifico que los contadores por estado salen de una sola consulta
+     * agrupada y cuentan solo los pagos del usuario.
+     */
+    @Test
+    void shouldCountPaymentsByStatus() {
+        // ACT
+        Map<PaymentStatus, Long> counts = paymentSimulatorService.getUserPaymentStatusCounts(user);
+
+        // ASSERT
+        assertEquals(2L, counts.get(PaymentStatus.COMPLETED));
+        assertEquals(1L, counts.get(PaymentStatus.FAILED));
+        assertEquals(1L, counts.get(PaymentStatus.REJECTED));
+        assertEquals(1L, counts.get(PaymentStatus.PENDING));
+        assertEquals(1L, counts.get(PaymentStatus.PROCESSING));
+        assertEquals(1L, counts.get(PaymentStatus.REFUNDED));
+        assertNull(counts.get(PaymentStatus.DISPUTED));
+        assertEquals(7L, counts.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    /**
+     * Referencias de la primera página del historial con un filtro y una búsqueda.
+     *
+     * @param statusFilter filtro de la vista
+     * @param search prefijo buscado
+     * @return referencias en el orden de la página
+     */
+    private List<String> references(String statusFilter, String search) {
+        return paymentSimulatorService.getUserPaymentHistoryPage(user, statusFilter, search, 0, 20)
+                .map(PaymentTransaction::getReferenceCode)
+                .getContent();
+    }
+
+    private void save(SubscriptionPlan plan, String referenceCode, PaymentStatus status, LocalDateTime date) {
+        PaymentTransaction transaction = new PaymentTransaction(user, plan, plan.getPrice(), "VISA");
+        transaction.setReferenceCode(referenceCode);
+        transaction.setStatus(status);
+        transaction.setTransactionDate(date);
+        paymentTransactionRepository.save(transaction);
+    }
+}
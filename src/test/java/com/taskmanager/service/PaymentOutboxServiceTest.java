@@ -0,0 +1,320 @@
+package com.taskmanager.service;
+
+import com.taskmanager.event.PaymentEvent;
+import com.taskmanager.model.OutboxEventStatus;
+import com.taskmanager.model.PaymentOutboxEvent;
+import com.taskmanager.model.PaymentStatus;
+import com.taskmanager.model.PaymentTransaction;
+import com.taskmanager.model.SubscriptionPlan;
+import com.taskmanager.model.User;
+import com.taskmanager.repository.PaymentOutboxEventRepository;
+import com.taskmanager.repository.PaymentTransactionRepository;
+import com.taskmanager.repository.SubscriptionPlanRepository;
+import com.taskmanager.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test del despachador del outbox de pagos donde compruebo la espera exponencial
+ * tras un fallo, que las métricas solo cuentan la publicación confirmada, que los
+ * eventos descartados se pueden reencolar, que un evento reclamado por otro nodo
+ * no se publica dos veces, que el orden de publicación es el de creación y que los
+ * eventos de una transacción esperan a que se publiquen los anteriores.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:paymentoutbox",
+                "app.payment.outbox.poll-interval-ms=3600000",
+                "app.payment.outbox.backoff-initial-ms=60000"
+        })
+class PaymentOutboxServiceTest {
+
+    @Autowired
+    private PaymentOutboxService paymentOutboxService;
+
+    @Autowired
+    private PaymentOutboxEventRepository outboxRepository;
+
+    @Autowired
+    private PaymentTransactionRepository paymentTransactionRepository;
+
+    @Autowired
+    private SubscriptionPlanRepository subscriptionPlanRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private FailingConsumer failingConsumer;
+
+    /**
+     * Test donde verifico que tras un fallo el evento espera antes del siguiente
+     * intento y que la métrica de pagos solo cuenta la publicación que se confirma.
+     */
+    @Test
+    void shouldBackOffAfterFailureAndCountMetricsOnce() {
+        // ARRANGE
+        PaymentOutboxEvent event = recordEvent(PaymentStatus.CANCELLED);
+        failingConsumer.fail(event.getReferenceCode());
+        double finalizedBefore = finalizedCount(PaymentStatus.CANCELLED);
+
+        // ACT - Falla, y en la siguiente pasada todavía no toca reintentar
+        paymentOutboxService.dispatchPendingEvents();
+        paymentOutboxService.dispatchPendingEvents();
+
+        // ASSERT
+        PaymentOutboxEvent failed = outboxRepository.findById(event.getId()).orElseThrow();
+        assertEquals(OutboxEventStatus.PENDING, failed.getStatus());
+        assertEquals(1, failed.getAttempts());
+        assertTrue(failed.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(50)),
+                "El siguiente intento debe esperar: " + failed.getNextAttemptAt());
+        assertEquals(finalizedBefore, finalizedCount(PaymentStatus.CANCELLED), "Un intento deshecho no cuenta");
+
+        // ACT - Pasa la espera y el consumidor ya funciona
+        failingConsumer.recover(event.getReferenceCode());
+        failed.setNextAttemptAt(LocalDateTime.now());
+        outboxRepository.save(failed);
+        paymentOutboxService.dispatchPendingEvents();
+
+        // ASSERT
+        assertEquals(OutboxEventStatus.PUBLISHED, outboxRepository.findById(event.getId()).orElseThrow().getStatus());
+        assertEquals(finalizedBefore + 1, finalizedCount(PaymentStatus.CANCELLED));
+    }
+
+    /**
+     * Test donde verifico que un evento que agota sus intentos queda descartado
+     * y que al reencolarlo se publica.
+     */
+    @Test
+    void shouldReplayFailedEvents() {
+        // ARRANGE - Solo le queda un intento
+        PaymentOutboxEvent event = recordEvent(PaymentStatus.CANCELLED);
+        failingConsumer.fail(event.getReferenceCode());
+        event.setAttempts(4);
+        outboxRepository.save(event);
+        paymentOutboxService.dispatchPendingEvents();
+        assertEquals(OutboxEventStatus.FAILED, outboxRepository.findById(event.getId()).orElseThrow().getStatus());
+
+        // ACT
+        failingConsumer.recover(event.getReferenceCode());
+        int replayed = paymentOutboxService.replayFailedEvents();
+        paymentOutboxService.dispatchPendingEvents();
+
+        // ASSERT
+        assertTrue(replayed >= 1);
+        PaymentOutboxEvent published = outboxRepository.findById(event.getId()).orElseThrow();
+        assertEquals(OutboxEventStatus.PUBLISHED, published.getStatus());
+        assertEquals(0, published.getAttempts());
+    }
+
+    /**
+     * Test donde verifico que un evento bloqueado por otro despachador se salta
+     * sin contar como fallo y se publica una sola vez al liberarse.
+     *
+     * @throws Exception si falla el hilo del otro nodo
+     */
+    @Test
+    void shouldSkipEventClaimedByAnotherNode() throws Exception {
+        // ARRANGE - Otro nodo reclama el evento y tarda en publicarlo
+        PaymentOutboxEvent event = recordEvent(PaymentStatus.CANCELLED);
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread otherNode = new Thread(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            outboxRepository.claimPending(event.getId()).orElseThrow();
+            claimed.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        otherNode.start();
+        assertTrue(claimed.await(10, TimeUnit.SECONDS));
+
+        // ACT
+        try {
+            paymentOutboxService.dispatchPendingEvents();
+        } finally {
+            release.countDown();
+            otherNode.join();
+        }
+
+        // ASSERT - Ni publicado ni fallido mientras lo tenía el otro nodo
+        PaymentOutboxEvent skipped = outboxRepository.findById(event.getId()).orElseThrow();
+        assertEquals(OutboxEventStatus.PENDING, skipped.getStatus());
+        assertEquals(0, skipped.getAttempts());
+
+        paymentOutboxService.dispatchPendingEvents();
+        assertEquals(OutboxEventStatus.PUBLISHED, outboxRepository.findById(event.getId()).orElseThrow().getStatus());
+    }
+
+    /**
+     * Test donde verifico que los eventos se publican por fecha de creación aunque
+     * el id no siga ese orden (bloques de ids de nodos distintos).
+     */
+    @Test
+    void shouldPublishInCreationOrderNotIdOrder() {
+        // ARRANGE - El de menor id se escribió después
+        PaymentOutboxEvent lowerId = recordEvent(PaymentStatus.CANCELLED);
+        PaymentOutboxEvent higherId = recordEvent(PaymentStatus.CANCELLED);
+        lowerId.setCreatedAt(higherId.getCreatedAt().plusSeconds(1));
+        outboxRepository.save(lowerId);
+
+        // ACT
+        paymentOutboxService.dispatchPendingEvents();
+
+        // ASSERT
+        List<String> order = failingConsumer.published().stream()
+                .map(published -> published.substring(0, published.indexOf('|')))
+                .filter(reference -> reference.equals(lowerId.getReferenceCode())
+                        || reference.equals(higherId.getReferenceCode()))
+                .toList();
+        assertEquals(List.of(higherId.getReferenceCode(), lowerId.getReferenceCode()), order);
+    }
+
+    /**
+     * Test donde verifico que el reembolso de un pago no se publica mientras su
+     * COMPLETED espera el reintento o está descartado, y que después salen en orden.
+     */
+    @Test
+    void shouldHoldLaterEventsOfTransactionUntilEarlierIsPublished() {
+        // ARRANGE - El COMPLETED falló y espera su reintento
+        List<PaymentOutboxEvent> events = recordCompletedThenRefunded();
+        PaymentOutboxEvent completed = events.get(0);
+        PaymentOutboxEvent refunded = events.get(1);
+        completed.setAttempts(1);
+        completed.setNextAttemptAt(LocalDateTime.now().plusMinutes(5));
+        outboxRepository.save(completed);
+
+        // ACT & ASSERT - En espera
+        paymentOutboxService.dispatchPendingEvents();
+        assertEquals(OutboxEventStatus.PENDING, outboxRepository.findById(refunded.getId()).orElseThrow().getStatus());
+
+        // ACT & ASSERT - Descartado
+        completed = outboxRepository.findById(completed.getId()).orElseThrow();
+        completed.setStatus(OutboxEventStatus.FAILED);
+        outboxRepository.save(completed);
+        paymentOutboxService.dispatchPendingEvents();
+        assertEquals(OutboxEventStatus.PENDING, outboxRepository.findById(refunded.getId()).orElseThrow().getStatus());
+
+        // ACT - Al reencolarlo salen los dos en la misma pasada
+        paymentOutboxService.replayFailedEvents();
+        paymentOutboxService.dispatchPendingEvents();
+
+        // ASSERT
+        assertEquals(OutboxEventStatus.PUBLISHED, outboxRepository.findById(completed.getId()).orElseThrow().getStatus());
+        assertEquals(OutboxEventStatus.PUBLISHED, outboxRepository.findById(refunded.getId()).orElseThrow().getStatus());
+        assertEquals(List.of(PaymentStatus.COMPLETED, PaymentStatus.REFUNDED), failingConsumer.published().stream()
+                .filter(reference -> reference.startsWith(refunded.getReferenceCode() + "|"))
+                .map(reference -> PaymentStatus.valueOf(reference.substring(reference.indexOf('|') + 1)))
+                .toList());
+    }
+
+    /**
+     * Guardo un pago completado y luego reembolsado con sus dos eventos en el outbox.
+     *
+     * @return eventos en orden de escritura
+     */
+    private List<PaymentOutboxEvent> recordCompletedThenRefunded() {
+        User user = userRepository.findByUsername("test").orElseThrow();
+        SubscriptionPlan plan = subscriptionPlanRepository.findAll().get(0);
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            PaymentTransaction transaction = new PaymentTransaction(user, plan, plan.getPrice(), "VISA");
+            transaction.setStatus(PaymentStatus.COMPLETED);
+            PaymentOutboxEvent completed = paymentOutboxService.recordFinalStatus(paymentTransactionRepository.save(transaction));
+            transaction.setStatus(PaymentStatus.REFUNDED);
+            PaymentOutboxEvent refunded = paymentOutboxService.recordFinalStatus(paymentTransactionRepository.save(transaction));
+            return List.of(completed, refunded);
+        });
+    }
+
+    /**
+     * Guardo un pago con estado final y su evento en el outbox, como hace el simulador.
+     *
+     * @param paymentStatus estado final del pago
+     * @return evento escrito
+     */
+    private PaymentOutboxEvent recordEvent(PaymentStatus paymentStatus) {
+        User user = userRepository.findByUsername("test").orElseThrow();
+        SubscriptionPlan plan = subscriptionPlanRepository.findAll().get(0);
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            PaymentTransaction transaction = new PaymentTransaction(user, plan, plan.getPrice(), "VISA");
+            transaction.setStatus(paymentStatus);
+            return paymentOutboxService.recordFinalStatus(paymentTransactionRepository.save(transaction));
+        });
+    }
+
+    private double finalizedCount(PaymentStatus paymentStatus) {
+        Counter counter = meterRegistry.find("payments.finalized").tag("status", paymentStatus.name()).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    /**
+     * Consumidor de pruebas que falla para las referencias indicadas y anota en
+     * orden la referencia y el estado de los eventos que recibe.
+     */
+    static class FailingConsumer {
+
+        private final Set<String> failing = ConcurrentHashMap.newKeySet();
+
+        private final List<String> published = new CopyOnWriteArrayList<>();
+
+        void fail(String referenceCode) {
+            failing.add(referenceCode);
+        }
+
+        void recover(String referenceCode) {
+            failing.remove(referenceCode);
+        }
+
+        List<String> published() {
+            return published;
+        }
+
+        @EventListener
+        public void onPaymentEvent(PaymentEvent event) {
+            if (failing.contains(event.getReferenceCode())) {
+                throw new IllegalStateException("Consumidor caído para " + event.getReferenceCode());
+            }
+            published.add(event.getReferenceCode() + "|" + event.getPaymentStatus());
+        }
+    }
+
+    @TestConfiguration
+    static class FailingConsumerConfig {
+
+        @Bean
+        FailingConsumer failingConsumer() {
+            return new FailingConsumer();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.taskmanager.service;
+
+import com.taskmanager.event.PaymentEvent;
+import com.taskmanager.model.PaymentOutboxEvent;
+import com.taskmanager.model.PaymentRollup;
+import com.taskmanager.model.PaymentStatus;
+import com.taskmanager.model.PaymentTransaction;
+import com.taskmanager.model.RollupGranularity;
+import com.taskmanager.model.SubscriptionPlan;
+import com.taskmanager.model.User;
+import com.taskmanager.repository.PaymentRollupRepository;
+import com.taskmanager.repository.PaymentTransactionRepository;
+import com.taskmanager.repository.SubscriptionPlanRepository;
+import com.taskmanager.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de los reportes de pagos sobre agregados donde compruebo los ingresos de
+ * rangos con horas y días incompletos, que el upsert acumula en una sola fila por
+ * bucket y que la reconstrucción no cuenta dos veces los eventos sin publicar.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:paymentreporting",
+                "app.payment.outbox.poll-interval-ms=3600000"
+        })
+class PaymentReportingServiceTest {
+
+    @Autowired
+    private PaymentReportingService paymentReportingService;
+
+    @Autowired
+    private PaymentOutboxService paymentOutboxService;
+
+    @Autowired
+    private PaymentRollupRepository paymentRollupRepository;
+
+    @Autowired
+    private PaymentTransactionRepository paymentTransactionRepository;
+
+    @Autowired
+    private SubscriptionPlanRepository subscriptionPlanRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Test donde verifico que los ingresos de un rango suman las horas sueltas de
+     * los extremos y los días completos del medio, con el inicio truncado a la hora.
+     */
+    @Test
+    void shouldSumRevenueWithPartialHoursAndDays() {
+        // ARRANGE - Pagos de marzo de 2020, lejos de los datos de ejemplo
+        apply(PaymentStatus.COMPLETED, "10.00", LocalDateTime.of(2020, 3, 9, 22, 30));
+        apply(PaymentStatus.COMPLETED, "20.00", LocalDateTime.of(2020, 3, 10, 0, 15));
+        apply(PaymentStatus.COMPLETED, "40.00", LocalDateTime.of(2020, 3, 10, 13, 40));
+        apply(PaymentStatus.COMPLETED, "80.00", LocalDateTime.of(2020, 3, 11, 5, 5));
+        apply(PaymentStatus.COMPLETED, "160.00", LocalDateTime.of(2020, 3, 11, 23, 59));
+        apply(PaymentStatus.FAILED, "320.00", LocalDateTime.of(2020, 3, 10, 9, 0));
+
+        // ACT & ASSERT - Hora suelta + día completo + horas sueltas
+        assertRevenue("150.00", LocalDateTime.of(2020, 3, 9, 22, 0), LocalDateTime.of(2020, 3, 11, 6, 0));
+        // Un día exacto, sin horas sueltas
+        assertRevenue("60.00", LocalDateTime.of(2020, 3, 10, 0, 0), LocalDateTime.of(2020, 3, 11, 0, 0));
+        // Menos de un día que cruza la medianoche
+        assertRevenue("30.00", LocalDateTime.of(2020, 3, 9, 20, 0), LocalDateTime.of(2020, 3, 10, 1, 0));
+        // El inicio cuenta su hora entera y el fin se trunca
+        assertRevenue("40.00", LocalDateTime.of(2020, 3, 10, 13, 50), LocalDateTime.of(2020, 3, 10, 14, 30));
+        // Dentro de la misma hora no hay ninguna hora completa
+        assertRevenue("0", LocalDateTime.of(2020, 3, 11, 5, 10), LocalDateTime.of(2020, 3, 11, 5, 50));
+        // Solo días completos
+        assertRevenue("310.00", LocalDateTime.of(2020, 3, 9, 0, 0), LocalDateTime.of(2020, 3, 12, 0, 0));
+    }
+
+    /**
+     * Test donde verifico que varios pagos del mismo bucket acaban en una sola fila
+     * y que un reembolso resta de los completados.
+     */
+    @Test
+    void shouldUpsertIntoSingleRowPerBucket() {
+        // ARRANGE
+        LocalDateTime date = LocalDateTime.of(2020, 5, 20, 10, 0);
+
+        // ACT
+        apply(PaymentStatus.COMPLETED, "5.00", date.plusMinutes(1));
+        apply(PaymentStatus.COMPLETED, "5.00", date.plusMinutes(2));
+        apply(PaymentStatus.COMPLETED, "5.00", date.plusMinutes(3));
+        apply(PaymentStatus.REFUNDED, "5.00", date.plusMinutes(3));
+
+        // ASSERT
+        List<PaymentRollup> buckets = paymentRollupRepository.findBuckets(RollupGranularity.HOUR, date, date.plusHours(1));
+        PaymentRollup completed = buckets.stream()
+                .filter(bucket -> bucket.getPaymentStatus() == PaymentStatus.COMPLETED)
+                .findFirst().orElseThrow();
+        assertEquals(2, buckets.size(), "Una fila de completados y otra de reembolsos: " + buckets);
+        assertEquals(2L, completed.getTransactionCount());
+        assertEquals(0, new BigDecimal("10.00").compareTo(completed.getTotalAmount()));
+    }
+
+    /**
+     * Test donde verifico que al reconstruir con eventos aún sin publicar, el
+     * despachador los suma después y los agregados coinciden con la tabla de pagos.
+     */
+    @Test
+    void shouldNotDoubleCountUnpublishedEventsOnRebuild() {
+        // ARRANGE - Un pago ya publicado y otros dos con el evento pendiente
+        recordFinalPayment(PaymentStatus.COMPLETED);
+        paymentOutboxService.dispatchPendingEvents();
+        recordFinalPayment(PaymentStatus.COMPLETED);
+        recordFinalPayment(PaymentStatus.REFUNDED);
+
+        // ACT - Reconstruyo y el despachador publica lo que quedaba
+        paymentReportingService.rebuildRollups();
+        paymentOutboxService.dispatchPendingEvents();
+
+        // ASSERT
+        Map<PaymentStatus, Long> counts = paymentReportingService.getCountsByStatus();
+        for (PaymentStatus status : List.of(PaymentStatus.COMPLETED, PaymentStatus.REFUNDED)) {
+            assertEquals(paymentTransactionRepository.countByStatus(status), counts.getOrDefault(status, 0L),
+                    "Agregados de " + status + ": " + counts);
+        }
+    }
+
+    /**
+     * Aplico a los agregados un pago finalizado en la fecha indicada.
+     *
+     * @param status estado final
+     * @param amount monto
+     * @param date fecha del pago
+     */
+    private void apply(PaymentStatus status, String amount, LocalDateTime date) {
+        PaymentOutboxEvent event = new PaymentOutboxEvent();
+        event.setSubscriptionPlanId(subscriptionPlanRepository.findAll().get(0).getId());
+        event.setAmount(new BigDecimal(amount));
+        event.setPaymentMethod("VISA");
+        event.setTransactionDate(date);
+        event.setPaymentStatus(status);
+        paymentReportingService.applyPaymentEvent(new PaymentEvent(event));
+    }
+
+    private void assertRevenue(String expected, LocalDateTime start, LocalDateTime end) {
+        BigDecimal revenue = paymentReportingService.getRevenueInPeriod(start, end);
+        assertEquals(0, new BigDecimal(expected).compareTo(revenue),
+                "Ingresos de [" + start + ", " + end + "): " + revenue);
+    }
+
+    /**
+     * Guardo un pago con estado final y su evento en el outbox, como hace el simulador.
+     *
+     * @param paymentStatus estado final del pago
+     */
+    private void recordFinalPayment(PaymentStatus paymentStatus) {
+        User user = userRepository.findByUsername("test").orElseThrow();
+        SubscriptionPlan plan = subscriptionPlanRepository.findAll().get(0);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            PaymentTransaction transaction = new PaymentTransaction(user, plan, plan.getPrice(), "VISA");
+            transaction.setStatus(paymentStatus);
+            paymentOutboxService.recordFinalStatus(paymentTransactionRepository.save(transaction));
+        });
+    }
+}
@@ -0,0 +1,126 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.User;
+import com.taskmanager.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de las transacciones de solo lectura de los servicios donde simulo una petición
+ * con open-in-view: un único EntityManager compartido por todas las llamadas.
+ *
+ * Compruebo que las lecturas no guardan cambios ni hacen snapshot de las entidades,
+ * y que una escritura posterior en la misma petición sí se guarda.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.datasource.url=jdbc:h2:mem:readonlytx")
+class ReadOnlyTransactionTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Usuario premium creado por DataLoader.
+     */
+    private User user;
+
+    /**
+     * Id de la tarea de prueba.
+     */
+    private Long taskId;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.findByUsername("mario").orElseThrow();
+        taskId = taskService.createTask("Tarea original", "Descripción", user).getId();
+    }
+
+    /**
+     * Test donde verifico que una entidad leída en un método readOnly queda en solo lectura
+     * y que otro método readOnly no guarda los cambios hechos sobre ella.
+     */
+    @Test
+    void shouldNotFlushChangesInReadOnlyMethods() {
+        // ACT
+        boolean readOnly = inRequest(entityManager -> {
+            Task task = taskService.getTaskById(taskId).orElseThrow();
+            task.setTitle("Cambio sin guardar");
+            taskService.countPendingTasks(user);
+            return entityManager.unwrap(Session.class).isReadOnly(task);
+        });
+
+        // ASSERT
+        assertTrue(readOnly, "La entidad no debe tener snapshot para dirty checking");
+        assertEquals("Tarea original", titleInDatabase());
+    }
+
+    /**
+     * Test donde verifico que, en la misma petición, una escritura después de una lectura
+     * guarda los cambios aunque la entidad se cargara en solo lectura.
+     */
+    @Test
+    void shouldSaveWriteAfterReadInSameRequest() {
+        // ACT - Como TaskController: compruebo el dueño y luego actualizo
+        inRequest(entityManager -> {
+            taskService.getTaskById(taskId).orElseThrow();
+            return taskService.updateTask(taskId, "Tarea editada", "Descripción", true);
+        });
+
+        // ASSERT
+        assertEquals("Tarea editada", titleInDatabase());
+    }
+
+    /**
+     * Ejecuto el trabajo con un EntityManager ligado al hilo, como hace open-in-view.
+     *
+     * @param work trabajo de la petición
+     * @param <T> tipo del resultado
+     * @return resultado del trabajo
+     */
+    private <T> T inRequest(Function<EntityManager, T> work) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            return work.apply(entityManager);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Leo el título guardado en la base de datos.
+     *
+     * @return título de la tarea
+     */
+    private String titleInDatabase() {
+        return jdbcTemplate.queryForObject("SELECT title FROM tasks WHERE id = ?", String.class, taskId);
+    }
+}
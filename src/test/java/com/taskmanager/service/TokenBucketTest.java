@@ -0,0 +1,92 @@
+package com.taskmanager.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario para TokenBucket donde pruebo la ráfaga inicial, el tiempo
+ * de espera cuando se agota y la reposición de tokens.
+ *
+ * Uso un reloj manual en nanosegundos para avanzar el tiempo sin esperas reales.
+ *
+ * @author Mario Flores
+ * @version 1.0
+ * @since 2025
+ */
+class TokenBucketTest {
+
+    /**
+     * Reloj que controlo desde el test.
+     */
+    private AtomicLong now;
+
+    /**
+     * Cubo con ráfaga de 3 y 60 tokens por minuto (uno por segundo).
+     */
+    private TokenBucket bucket;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(0);
+        bucket = new TokenBucket(3, 60, now::get);
+    }
+
+    /**
+     * Test donde verifico que el cubo deja pasar la ráfaga completa y después
+     * indica cuánto falta para el siguiente token.
+     */
+    @Test
+    void shouldAllowBurstThenReportWait() {
+        // ACT & ASSERT - La ráfaga pasa entera
+        assertEquals(0, bucket.tryConsume());
+        assertEquals(0, bucket.tryConsume());
+        assertEquals(0, bucket.tryConsume());
+
+        // ACT
+        long wait = bucket.tryConsume();
+
+        // ASSERT
+        assertEquals(TimeUnit.SECONDS.toNanos(1), wait, "A un token por segundo falta un segundo entero");
+        assertEquals(0, bucket.getAvailableTokens());
+    }
+
+    /**
+     * Test donde verifico que los tokens se reponen con el tiempo sin pasar de la capacidad.
+     */
+    @Test
+    void shouldRefillUpToCapacity() {
+        // ARRANGE - Agoto el cubo
+        for (int i = 0; i < 3; i++) {
+            bucket.tryConsume();
+        }
+
+        // ACT - Medio segundo no llega para un token, uno entero sí
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        long waitAtHalfSecond = bucket.tryConsume();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+
+        // ASSERT
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), waitAtHalfSecond);
+        assertEquals(0, bucket.tryConsume());
+
+        // ACT - Una hora después el cubo está lleno pero no por encima de la capacidad
+        now.addAndGet(TimeUnit.HOURS.toNanos(1));
+
+        // ASSERT
+        assertEquals(3, bucket.getAvailableTokens());
+    }
+
+    /**
+     * Test donde verifico que un cubo sin capacidad se rechaza al crearlo.
+     */
+    @Test
+    void shouldRejectInvalidLimits() {
+        // ACT & ASSERT
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 60, now::get));
+    }
+}